@@ -0,0 +1,97 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.analytics.ColumnFilter;
+import com.rest.springbootemployee.analytics.ColumnScan;
+import com.rest.springbootemployee.analytics.EmployeeColumns;
+import com.rest.springbootemployee.analytics.GroupTotals;
+import com.rest.springbootemployee.entity.Employee;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// ./gradlew jmh -PjmhArgs="AnalyticsBenchmark -p threads=1,4"
+// salary totals per gender for employees aged 30 to 49: the columnar scan against the same query streamed over a
+// List<Employee>; the heap each representation takes per million employees is printed during setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AnalyticsBenchmark {
+    @Param({"1000000"})
+    public int employees;
+
+    @Param({"1"})
+    public int threads;
+
+    private List<Employee> list;
+
+    private EmployeeColumns columns;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        list = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            list.add(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 45,
+                    i % 2 == 0 ? "Male" : "Female", 1000 + i % 9000));
+        }
+        long listBytes = usedHeap() - before;
+        EmployeeColumns.Builder builder = new EmployeeColumns.Builder(employees);
+        list.forEach(employee -> builder.add(employee.getAge(), employee.getGender(), employee.getSalary()));
+        columns = builder.build();
+        System.out.printf("List<Employee>: ~%d bytes per million employees (heap after GC), columns: %d%n",
+                listBytes * 1_000_000 / employees, columns.getEstimatedBytes() * 1_000_000 / employees);
+        executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<GroupTotals> columns() {
+        return new ColumnScan(columns, new ColumnFilter(null, 30, 49, null, null), ColumnScan.GroupBy.GENDER, 10)
+                .run(executor, 65536);
+    }
+
+    @Benchmark
+    public Map<String, IntSummaryStatistics> list() {
+        return (threads > 1 ? list.parallelStream() : list.stream())
+                .filter(employee -> employee.getAge() != null && employee.getAge() >= 30 && employee.getAge() <= 49)
+                .filter(employee -> employee.getSalary() != null)
+                .collect(Collectors.groupingBy(Employee::getGender,
+                        Collectors.summarizingInt(Employee::getSalary)));
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
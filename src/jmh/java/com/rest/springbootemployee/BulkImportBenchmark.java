@@ -0,0 +1,159 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rest.springbootemployee.converter.EmployeeCsvWriter;
+import com.rest.springbootemployee.dto.ImportJob;
+import com.rest.springbootemployee.dto.ImportRequest;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.CompanySalaryRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeRangeRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeSalaryRepositoryImpl;
+import com.rest.springbootemployee.repository.inmemory.InMemoryCompanyRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeRepository;
+import com.rest.springbootemployee.service.BulkImportService;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew jmh -PjmhArgs="BulkImportBenchmark -p backend=inmemory"
+// each invocation imports the whole generated file, so records/s = records / (ms/op / 1000)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+    @Param({"inmemory", "mongo"})
+    public String backend;
+
+    @Param({"ndjson", "csv"})
+    public String format;
+
+    @Param({"1000000"})
+    public int records;
+
+    private Path directory;
+
+    private MongoClient mongoClient;
+
+    private EmployeeMongoRepository employeeRepository;
+
+    private CompanyMongoRepository companyRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bulk-import-bench");
+        Path file = directory.resolve("employees." + format);
+        if ("csv".equals(format)) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                EmployeeCsvWriter.write(generate(), out);
+            }
+        } else {
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (Iterator<Employee> employees = generate(); employees.hasNext(); ) {
+                    out.write(objectMapper.writeValueAsString(employees.next()));
+                    out.write('\n');
+                }
+            }
+        }
+        if ("mongo".equals(backend)) {
+            String uri = System.getProperty("bench.mongo.uri", "mongodb://localhost:27017/employee-bench");
+            mongoClient = MongoClients.create(uri);
+            MongoTemplate template = new MongoTemplate(mongoClient, "employee-bench");
+            MongoRepositoryFactory factory = new MongoRepositoryFactory(template);
+            employeeRepository = factory.getRepository(EmployeeMongoRepository.class,
+                    RepositoryComposition.RepositoryFragments.just(new EmployeeRangeRepositoryImpl(template),
+                            new EmployeeSalaryRepositoryImpl(template)));
+            companyRepository = factory.getRepository(CompanyMongoRepository.class,
+                    RepositoryComposition.RepositoryFragments.just(new CompanySalaryRepositoryImpl(template)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        if (mongoClient != null) {
+            employeeRepository.deleteAll();
+        } else {
+            employeeRepository = new InMemoryEmployeeRepository();
+            companyRepository = new InMemoryCompanyRepository();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (mongoClient != null) {
+            employeeRepository.deleteAll();
+            mongoClient.close();
+        }
+        Files.deleteIfExists(directory.resolve("employees." + format));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public ImportJob importFile() throws InterruptedException {
+        BulkImportService service = new BulkImportService(employeeRepository, companyRepository, objectMapper,
+                event -> { }, directory.toString(), 32768, 1000, 0, false);
+        ImportRequest request = new ImportRequest();
+        request.setFile("employees." + format);
+        request.setFormat(format);
+        ImportJob job = service.start(request);
+        while (job.getFinishedAt() == null) {
+            Thread.sleep(1);
+        }
+        service.shutdown();
+        return job;
+    }
+
+    private Iterator<Employee> generate() {
+        return new Iterator<Employee>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < records;
+            }
+
+            @Override
+            public Employee next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int n = i++;
+                return new Employee(new ObjectId().toString(), "employee" + n, 20 + n % 40,
+                        n % 2 == 0 ? "Male" : "Female", 1000 + n % 9000);
+            }
+        };
+    }
+}
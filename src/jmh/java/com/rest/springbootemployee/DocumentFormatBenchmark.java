@@ -0,0 +1,153 @@
+package com.rest.springbootemployee;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rest.springbootemployee.config.StorageConfig;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.storage.CompactFieldNaming;
+import com.rest.springbootemployee.storage.FieldFormat;
+import com.rest.springbootemployee.storage.StorageMongoConverter;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew jmh -PjmhArgs="DocumentFormatBenchmark"
+// reading 10000 employees stored with the property names against the compact names and gender codes: from BSON
+// bytes (decode plus mapping, what the driver and converter do per document) or, with -p source=mongo, findAll
+// against -Dbench.mongo.uri; the BSON size of an employee and of a company with 100 employees is printed in setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentFormatBenchmark {
+    @Param({"legacy", "compact"})
+    public String format;
+
+    @Param({"bson"})
+    public String source;
+
+    @Param({"10000"})
+    public int employees;
+
+    private final DocumentCodec codec = new DocumentCodec();
+
+    private StorageMongoConverter converter;
+
+    private List<byte[]> stored;
+
+    private MongoClient mongoClient;
+
+    private MongoTemplate template;
+
+    @Setup
+    public void setUp() {
+        converter = converter(FieldFormat.of(format));
+        List<Employee> batch = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            batch.add(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 45,
+                    i % 2 == 0 ? "Male" : "Female", 1000 + i % 9000));
+        }
+        stored = new ArrayList<>(employees);
+        long employeeBytes = 0;
+        for (Employee employee : batch) {
+            byte[] bytes = bson(employee);
+            stored.add(bytes);
+            employeeBytes += bytes.length;
+        }
+        Company company = new Company(new ObjectId().toString(), "company", batch.subList(0, 100));
+        System.out.printf("%s: %d bytes per employee, %d bytes per company with 100 employees%n", format,
+                employeeBytes / employees, bson(company).length);
+
+        if ("mongo".equals(source)) {
+            String uri = System.getProperty("bench.mongo.uri", "mongodb://localhost:27017/employee-bench");
+            mongoClient = MongoClients.create(uri);
+            template = new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient, "employee-bench"), converter);
+            template.dropCollection(Employee.class);
+            template.insert(batch, Employee.class);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mongoClient != null) {
+            template.dropCollection(Employee.class);
+            mongoClient.close();
+        }
+    }
+
+    @Benchmark
+    public long read() {
+        long salaries = 0;
+        if (template != null) {
+            for (Employee employee : template.findAll(Employee.class)) {
+                salaries += employee.getSalary();
+            }
+            return salaries;
+        }
+        for (byte[] bytes : stored) {
+            Document document = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)),
+                    DecoderContext.builder().build());
+            salaries += converter.read(Employee.class, document).getSalary();
+        }
+        return salaries;
+    }
+
+    private byte[] bson(Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        ByteBuffer buffer = new RawBsonDocument(document, codec).getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    // what StorageConfig builds, without an application context to scan for entities
+    private static StorageMongoConverter converter(FieldFormat fieldFormat) {
+        MongoCustomConversions conversions = new StorageConfig().mongoCustomConversions(fieldFormat);
+        MongoMappingContext context = new MongoMappingContext();
+        context.setInitialEntitySet(new HashSet<>(Arrays.asList(Employee.class, Company.class)));
+        if (fieldFormat.readsCompact()) {
+            context.setFieldNamingStrategy(new CompactFieldNaming());
+        }
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        StorageMongoConverter converter = new StorageMongoConverter(NoOpDbRefResolver.INSTANCE, context, fieldFormat);
+        converter.setCustomConversions(conversions);
+        if (fieldFormat != FieldFormat.LEGACY) {
+            converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        }
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
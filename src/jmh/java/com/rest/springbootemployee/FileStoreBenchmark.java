@@ -0,0 +1,75 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.file.FileEmployeeRepository;
+import com.rest.springbootemployee.repository.file.FileStore;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// ./gradlew jmh -PjmhArgs="FileStoreBenchmark -p fsync=true"
+// writes go to a temporary directory under -Dbench.filestore.dir (default java.io.tmpdir)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class FileStoreBenchmark {
+    @Param({"true", "false"})
+    public boolean fsync;
+
+    private Path directory;
+
+    private FileStore fileStore;
+
+    private FileEmployeeRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory(Paths.get(System.getProperty("bench.filestore.dir",
+                System.getProperty("java.io.tmpdir"))), "filestore-bench");
+        fileStore = new FileStore(new ObjectMapper().registerModule(new ParameterNamesModule()),
+                directory.toString(), 64, fsync, 256);
+        repository = new FileEmployeeRepository(fileStore);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        fileStore.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Employee save() {
+        int i = ThreadLocalRandom.current().nextInt(100_000);
+        return repository.save(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 40,
+                i % 2 == 0 ? "Male" : "Female", 1000 + i % 9000));
+    }
+}
@@ -0,0 +1,104 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.cache.HotKeyTracker;
+import com.rest.springbootemployee.cache.HotRecords;
+import com.rest.springbootemployee.dto.HotKeyReport;
+import com.rest.springbootemployee.entity.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ./gradlew jmh -PjmhArgs="HotKeyBenchmark -p topK=64,1024"
+// the cost of counting one lookup (sketch update plus top-k upkeep) on a Zipfian stream of ids; setup prints the
+// share of lookups answered from pinned records, for a fixed hot set and for one that moves to other ids every
+// shiftEvery lookups
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotKeyBenchmark {
+    @Param({"100000"})
+    public int keys;
+
+    @Param({"1.0"})
+    public double skew;
+
+    @Param({"64"})
+    public int topK;
+
+    @Param({"200000"})
+    public int shiftEvery;
+
+    private String[] stream;
+
+    private HotKeyTracker tracker;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        stream = zipf(keys, skew, 1 << 20, 0);
+        tracker = new HotKeyTracker(topK, 16, 100000, 4096, 4);
+        String[] shifting = new String[stream.length];
+        for (int i = 0; i < shifting.length; i++) {
+            // the same ranks, each shiftEvery lookups mapped onto a different block of ids
+            int rank = Integer.parseInt(stream[i]);
+            shifting[i] = String.valueOf((rank + (i / shiftEvery) * 7919) % keys);
+        }
+        System.out.printf("top-%d: %.1f%% of lookups from pinned records with a fixed hot set, %.1f%% shifting%n",
+                topK, pinnedShare(stream), pinnedShare(shifting));
+    }
+
+    @Benchmark
+    public boolean record() {
+        String key = stream[next];
+        next = (next + 1) & (stream.length - 1);
+        return tracker.record(key);
+    }
+
+    private double pinnedShare(String[] lookups) {
+        AtomicLong loads = new AtomicLong();
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, topK, 16, 100000, 60000, 4096, 4);
+        for (String id : lookups) {
+            hotRecords.employee(id, key -> {
+                loads.incrementAndGet();
+                return new Employee(key, "employee", 30, "Female", 1000);
+            });
+        }
+        HotKeyReport report = hotRecords.report().get(0);
+        return 100.0 * (report.getAccesses() - loads.get()) / report.getAccesses();
+    }
+
+    // ids "0".."keys-1", id i drawn with probability proportional to 1 / (i + 1)^skew
+    private static String[] zipf(int keys, double skew, int length, long seed) {
+        double[] cumulative = new double[keys];
+        double total = 0;
+        for (int i = 0; i < keys; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+        Random random = new Random(seed);
+        String[] ids = new String[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            ids[i] = String.valueOf(index < 0 ? -index - 1 : index);
+        }
+        return ids;
+    }
+}
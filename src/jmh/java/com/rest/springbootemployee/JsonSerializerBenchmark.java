@@ -0,0 +1,93 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.rest.springbootemployee.converter.CompanyJsonSerializer;
+import com.rest.springbootemployee.converter.EmployeeJsonSerializer;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew jmh -PjmhArgs="JsonSerializerBenchmark -prof gc"
+// gc.alloc.rate.norm divided by the employee count is the allocation per serialized employee
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializerBenchmark {
+    @Param({"reflective", "specialized"})
+    public String serializer;
+
+    @Param({"1000"})
+    public int employees;
+
+    private ObjectWriter employeeListWriter;
+
+    private ObjectWriter companyWriter;
+
+    private List<Employee> payload;
+
+    private Company company;
+
+    // response bodies go straight to the servlet stream, so the benchmark does not collect the bytes either
+    private final OutputStream discard = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("specialized".equals(serializer)) {
+            builder.modules(new SimpleModule()
+                    .addSerializer(Employee.class, new EmployeeJsonSerializer())
+                    .addSerializer(Company.class, new CompanyJsonSerializer()));
+        }
+        ObjectMapper mapper = builder.build();
+        employeeListWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+        companyWriter = mapper.writerFor(Company.class);
+
+        payload = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            payload.add(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 40,
+                    i % 2 == 0 ? "Male" : "Female", i % 10 == 0 ? null : 1000 + i % 9000));
+        }
+        company = new Company(new ObjectId().toString(), "Spring", payload);
+    }
+
+    @Benchmark
+    public void employeeList() throws IOException {
+        employeeListWriter.writeValue(discard, payload);
+    }
+
+    @Benchmark
+    public void company() throws IOException {
+        companyWriter.writeValue(discard, company);
+    }
+}
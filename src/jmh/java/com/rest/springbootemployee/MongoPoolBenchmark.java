@@ -0,0 +1,104 @@
+package com.rest.springbootemployee;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeRangeRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeSalaryRepositoryImpl;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew jmh -PjmhArgs="MongoPoolBenchmark" -Dbench.mongo.uri=mongodb://localhost:27017/employee-bench
+// 64 client threads against pools of different sizes: throughput flattens once the pool, not Mongo, is the limit
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class MongoPoolBenchmark {
+    @Param({"4", "16", "64", "100"})
+    public int maxPoolSize;
+
+    @Param({"0", "16"})
+    public int minPoolSize;
+
+    @Param({"10000"})
+    public int employees;
+
+    private MongoClient mongoClient;
+
+    private EmployeeMongoRepository repository;
+
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String uri = System.getProperty("bench.mongo.uri", "mongodb://localhost:27017/employee-bench");
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(Math.min(minPoolSize, maxPoolSize))
+                        .maxSize(maxPoolSize)
+                        .maxWaitTime(10, TimeUnit.SECONDS))
+                .build());
+        MongoTemplate template = new MongoTemplate(mongoClient, "employee-bench");
+        repository = new MongoRepositoryFactory(template).getRepository(EmployeeMongoRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new EmployeeRangeRepositoryImpl(template),
+                        new EmployeeSalaryRepositoryImpl(template)));
+        repository.deleteAll();
+
+        ids = new ArrayList<>(employees);
+        List<Employee> batch = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            String id = new ObjectId().toString();
+            ids.add(id);
+            batch.add(new Employee(id, "employee" + i, 20 + i % 40, i % 2 == 0 ? "Male" : "Female", 1000 + i % 9000));
+        }
+        repository.insert(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.deleteAll();
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public List<Employee> findPage() {
+        int page = ThreadLocalRandom.current().nextInt(employees / 20);
+        return repository.findAll(PageRequest.of(page, 20)).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.rest.springbootemployee.converter.ProtobufCodec;
+import com.rest.springbootemployee.entity.Employee;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew jmh -PjmhArgs="SerializationBenchmark"
+// the encoded size of the payload for each format is printed during setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"1000"})
+    public int employees;
+
+    private List<Employee> payload;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            payload.add(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 40,
+                    i % 2 == 0 ? "Male" : "Female", 1000 + i % 9000));
+        }
+        if (!"protobuf".equals(format)) {
+            ObjectMapper mapper = new ObjectMapper(factory()).registerModule(new ParameterNamesModule());
+            writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+            reader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+        }
+        encoded = encode();
+        System.out.println(format + ": " + encoded.length + " bytes for " + employees + " employees");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (writer != null) {
+            return writer.writeValueAsBytes(payload);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(employees * 64);
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        ProtobufCodec.writeEmployees(out, 1, payload);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Employee> decode() throws IOException {
+        if (reader != null) {
+            return reader.readValue(encoded);
+        }
+        return ProtobufCodec.readEmployees(CodedInputStream.newInstance(encoded));
+    }
+
+    private JsonFactory factory() {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
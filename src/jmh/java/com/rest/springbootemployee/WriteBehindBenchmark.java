@@ -0,0 +1,111 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.repository.CompanyChangeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeChangeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.SequenceRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryCompanyChangeRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeChangeRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemorySequenceRepository;
+import com.rest.springbootemployee.service.ChangeFeedService;
+import com.rest.springbootemployee.service.EmployeeWriteBehind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// ./gradlew jmh -PjmhArgs="WriteBehindBenchmark -p roundTripMicros=0,200"
+// employees created per second by 32 clients, each create stored and recorded in the change feed: synchronous is
+// save plus a sequence and an insert per employee, flush and enqueue go through the write-behind (a batch insert,
+// one block of sequences and one insert of the feed entries per batch). The repositories are the in-memory ones,
+// with every call taking roundTripMicros, so it counts round trips rather than what a real server does per document
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(32)
+@Fork(1)
+public class WriteBehindBenchmark {
+    @Param({"synchronous", "flush", "enqueue"})
+    public String mode;
+
+    @Param({"200"})
+    public long roundTripMicros;
+
+    @Param({"500"})
+    public int batchSize;
+
+    private EmployeeMongoRepository repository;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeWriteBehind writeBehind;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = withRoundTrip(EmployeeMongoRepository.class, new InMemoryEmployeeRepository());
+        ChangeFeedService changeFeedService = new ChangeFeedService(
+                withRoundTrip(EmployeeChangeMongoRepository.class, new InMemoryEmployeeChangeRepository(100000)),
+                withRoundTrip(CompanyChangeMongoRepository.class, new InMemoryCompanyChangeRepository(100000)),
+                withRoundTrip(SequenceRepository.class, new InMemorySequenceRepository()), 2000);
+        eventPublisher = event -> changeFeedService.onEmployeeChanged((EmployeeChangedEvent) event);
+        if (!"synchronous".equals(mode)) {
+            // a long offer timeout makes clients wait for room in the queue, so enqueue measures what is stored
+            writeBehind = new EmployeeWriteBehind(repository, eventPublisher, true, mode, batchSize, 2, 10000, 60000);
+            writeBehind.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Employee create() {
+        Employee employee = new Employee(null, "Susan", 22, "Female", 10000);
+        if (writeBehind != null) {
+            return writeBehind.enqueue(employee);
+        }
+        Employee created = repository.save(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(created));
+        return created;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T withRoundTrip(Class<T> type, T target) {
+        long nanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() != Object.class && nanos > 0) {
+                LockSupport.parkNanos(nanos);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException exception) {
+                throw exception.getCause();
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// the requests a load test cycles through, in order: every request of the Postman collection, every line of a
+// recorded traffic file ({"method":"GET","path":"/employees?page=3&pageSize=20","body":{...}} per line), and
+// GET /hello/load as a baseline that touches no data
+class LoadScript {
+    // ids in the collection (3, 101, ...) do not exist in a fresh database; these segments get a real id per request
+    private static final Pattern ID_SEGMENT =
+            Pattern.compile("^/(employees|companies)/(\\d+|[0-9a-f]{24}|\\{\\{[^}]+}})(?=/|\\?|$)");
+
+    private static final List<String> METHODS = Arrays.asList("GET", "POST", "PUT", "DELETE");
+
+    static class Request {
+        final String method;
+
+        final String path;
+
+        final String body;
+
+        // employees or companies when the path names one document, otherwise null
+        final String collection;
+
+        final String name;
+
+        private Request(String method, String path, String body) {
+            if (!METHODS.contains(method)) {
+                throw new IllegalArgumentException("unsupported method " + method + " for " + path);
+            }
+            this.method = method;
+            this.body = body;
+            Matcher matcher = ID_SEGMENT.matcher(path);
+            if (matcher.find()) {
+                this.collection = matcher.group(1);
+                this.path = "/" + collection + "/{id}" + path.substring(matcher.end());
+            } else {
+                this.collection = null;
+                this.path = path;
+            }
+            // query values dropped so recorded paging traffic groups into one row per endpoint
+            this.name = method + " " + this.path.replaceAll("=[^&]*", "=");
+        }
+
+        String path(String id) {
+            return collection == null ? path : path.replace("{id}", id);
+        }
+    }
+
+    private final List<Request> requests;
+
+    private LoadScript(List<Request> requests) {
+        this.requests = Collections.unmodifiableList(requests);
+    }
+
+    static LoadScript load(String collectionFile, String recordedFile, ObjectMapper mapper) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        if (!collectionFile.isEmpty()) {
+            addCollection(mapper.readTree(new File(collectionFile)), requests);
+        }
+        if (!recordedFile.isEmpty()) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(recordedFile), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        JsonNode node = mapper.readTree(line);
+                        requests.add(new Request(node.path("method").asText("GET").toUpperCase(Locale.ROOT),
+                                node.path("path").asText(), body(node.path("body"), mapper)));
+                    }
+                }
+            }
+        }
+        requests.add(new Request("GET", "/hello/load", null));
+        return new LoadScript(requests);
+    }
+
+    Request get(long sequence) {
+        return requests.get((int) (sequence % requests.size()));
+    }
+
+    List<Request> getRequests() {
+        return requests;
+    }
+
+    // folders nest items; only the request method, path, query and raw body are used
+    private static void addCollection(JsonNode items, List<Request> requests) {
+        for (JsonNode item : items.path("item")) {
+            if (item.has("item")) {
+                addCollection(item, requests);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            String raw = url.isTextual() ? url.asText() : url.path("raw").asText();
+            String path = raw.replaceFirst("^(\\{\\{[^}]+}}|[a-zA-Z]+://[^/]+)", "");
+            String body = request.path("body").path("raw").asText(null);
+            requests.add(new Request(request.path("method").asText("GET"), path.isEmpty() ? "/" : path,
+                    body == null || body.trim().isEmpty() ? null : body));
+        }
+    }
+
+    private static String body(JsonNode body, ObjectMapper mapper) throws IOException {
+        if (body.isMissingNode() || body.isNull()) {
+            return null;
+        }
+        return body.isTextual() ? body.asText() : mapper.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,112 @@
+package com.rest.springbootemployee;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// latency is measured from the time a request was scheduled to go out, not from when a worker got to send it:
+// when the server stalls, requests queued behind the stall count their wait, as the clients they stand for would
+// (coordinated-omission correction); serviceTime is the uncorrected send-to-response time for comparison
+class LoadStats {
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Endpoint total = new Endpoint();
+
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile long finishNanos;
+
+    // status is the HTTP status, or the exception name when no response came back
+    void record(String endpoint, String status, boolean error, long scheduledNanos, long sentNanos, long doneNanos) {
+        long latency = micros(doneNanos - scheduledNanos);
+        total.record(latency, error);
+        endpoints.computeIfAbsent(endpoint, ignored -> new Endpoint()).record(latency, error);
+        if (sentNanos > 0) {
+            serviceTime.recordValue(micros(doneNanos - sentNanos));
+        }
+        statuses.computeIfAbsent(status, ignored -> new LongAdder()).increment();
+    }
+
+    // the last requests may answer well after sending stopped; throughput is over the whole time to drain
+    void finish() {
+        finishNanos = System.nanoTime();
+    }
+
+    Map<String, Object> report() {
+        double seconds = (finishNanos - startNanos) / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("elapsedSeconds", seconds);
+        report.putAll(total.report(seconds));
+        report.put("serviceTimeMs", percentiles(serviceTime));
+        Map<String, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        report.put("statuses", byStatus);
+        Map<String, Object> byEndpoint = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> byEndpoint.put(name, endpoint.report(seconds)));
+        report.put("endpoints", byEndpoint);
+        return report;
+    }
+
+    // HdrHistogram's percentile distribution, in milliseconds, for plotting
+    void writeDistribution(PrintStream out) {
+        total.latency.outputPercentileDistribution(out, 1000.0);
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_MICROS);
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p90", millis(histogram.getValueAtPercentile(90)));
+        percentiles.put("p99", millis(histogram.getValueAtPercentile(99)));
+        percentiles.put("p99.9", millis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("p99.99", millis(histogram.getValueAtPercentile(99.99)));
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        percentiles.put("mean", millis(histogram.getMean()));
+        return percentiles;
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+
+    private static class Endpoint {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long latencyMicros, boolean error) {
+            latency.recordValue(latencyMicros);
+            if (error) {
+                errors.increment();
+            }
+        }
+
+        private Map<String, Object> report(double seconds) {
+            long requests = latency.getTotalCount();
+            long errorCount = errors.sum();
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("requests", requests);
+            report.put("errors", errorCount);
+            report.put("errorRate", requests == 0 ? 0 : (double) errorCount / requests);
+            report.put("throughput", (requests - errorCount) / seconds);
+            report.put("latencyMs", percentiles(latency));
+            return report;
+        }
+    }
+}
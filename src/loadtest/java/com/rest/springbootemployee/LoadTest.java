@@ -0,0 +1,271 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// ./gradlew loadTest -Dload.rate=500 -Dload.duration-s=60
+// starts the app in this JVM against embedded Mongo (or -Dload.profile=inmemory, or -Dload.target=http://host:port
+// for a running instance), seeds it, then sends the script at a fixed rate whether or not earlier requests have
+// answered (open loop) and writes build/loadtest/report.json and latency.hgrm
+public class LoadTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final int timeoutMs;
+
+    private final Map<String, List<String>> seeded = new HashMap<>();
+
+    // ids made by the script's POSTs, handed to its DELETEs so seeded documents stay readable for the whole run
+    private final Map<String, Queue<String>> created = new HashMap<>();
+
+    private LoadTest(String baseUrl, int timeoutMs) {
+        this.baseUrl = baseUrl;
+        this.timeoutMs = timeoutMs;
+        for (String collection : new String[]{"employees", "companies"}) {
+            seeded.put(collection, new ArrayList<>());
+            created.put(collection, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+        int warmupSeconds = Integer.getInteger("load.warmup-s", 10);
+        int durationSeconds = Integer.getInteger("load.duration-s", 30);
+        int connections = Integer.getInteger("load.connections", 32);
+        int timeoutMs = Integer.getInteger("load.timeout-ms", 10000);
+        String profile = System.getProperty("load.profile", "");
+        String target = System.getProperty("load.target", "");
+        File output = new File(System.getProperty("load.output", "build/loadtest"));
+        // keep-alive connections per host; the JDK keeps 5 by default, which would make most requests reconnect
+        System.setProperty("http.maxConnections", String.valueOf(connections));
+
+        ConfigurableApplicationContext context = null;
+        if (target.isEmpty()) {
+            context = start(profile);
+            target = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        try {
+            LoadTest loadTest = new LoadTest(target, timeoutMs);
+            LoadScript script = LoadScript.load(
+                    System.getProperty("load.collection", "AFS springboot practice.postman_collection.json"),
+                    System.getProperty("load.recorded", ""), loadTest.mapper);
+            loadTest.seed(Integer.getInteger("load.seed-employees", 1000), Integer.getInteger("load.seed-companies", 50));
+
+            System.out.printf("%d requests in the script, %.0f req/s, %d connections, target %s%n",
+                    script.getRequests().size(), rate, connections, target);
+            loadTest.run(script, rate, warmupSeconds, connections);
+            LoadStats stats = loadTest.run(script, rate, durationSeconds, connections);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("target", target);
+            report.put("profile", profile);
+            report.put("java", System.getProperty("java.version"));
+            report.put("rate", rate);
+            report.put("warmupSeconds", warmupSeconds);
+            report.put("durationSeconds", durationSeconds);
+            report.put("connections", connections);
+            report.putAll(stats.report());
+            output.mkdirs();
+            loadTest.mapper.writerWithDefaultPrettyPrinter().writeValue(new File(output, "report.json"), report);
+            try (PrintStream out = new PrintStream(new File(output, "latency.hgrm"), "UTF-8")) {
+                stats.writeDistribution(out);
+            }
+            System.out.println(loadTest.mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profile) {
+        SpringApplication application = new SpringApplication(SpringBootEmployeeApplication.class);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.mongodb.embedded.version", "6.0.3");
+        application.setDefaultProperties(properties);
+        if (!profile.isEmpty()) {
+            application.setAdditionalProfiles(profile.split(","));
+        }
+        return application.run();
+    }
+
+    private void seed(int employees, int companies) throws IOException {
+        for (int i = 0; i < employees; i++) {
+            seeded.get("employees").add(create("/employees", employee(i)));
+        }
+        for (int i = 0; i < companies; i++) {
+            StringBuilder body = new StringBuilder("{\"name\":\"company" + i + "\",\"employees\":[");
+            for (int j = 0; j < 10; j++) {
+                body.append(j == 0 ? "" : ",").append(employee(i * 10 + j));
+            }
+            seeded.get("companies").add(create("/companies", body.append("]}").toString()));
+        }
+    }
+
+    private String create(String path, String body) throws IOException {
+        Response response = send("POST", path, body);
+        if (response.status / 100 != 2) {
+            throw new IllegalStateException("seeding " + path + " failed with " + response.status);
+        }
+        return mapper.readTree(response.body).path("id").asText();
+    }
+
+    private static String employee(int i) {
+        return "{\"name\":\"employee" + i + "\",\"age\":" + (20 + i % 40) + ",\"gender\":\""
+                + (i % 2 == 0 ? "Male" : "Female") + "\",\"salary\":" + (5000 + i % 50 * 1000) + "}";
+    }
+
+    private LoadStats run(LoadScript script, double rate, int seconds, int connections) throws InterruptedException {
+        LoadStats stats = new LoadStats();
+        AtomicInteger threads = new AtomicInteger();
+        // unbounded: a request the workers cannot get to yet still counts from when it was due
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(connections, connections, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "load-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long sequence = 0; ; sequence++) {
+            long scheduled = start + (long) (sequence * 1_000_000_000L / rate);
+            if (scheduled - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(new Call(script.get(sequence), scheduled, stats));
+        }
+        drain(workers, stats);
+        return stats;
+    }
+
+    // requests still waiting for a worker after the timeout never got an answer; they count as errors
+    private void drain(ExecutorService workers, LoadStats stats) throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(timeoutMs + 5000L, TimeUnit.MILLISECONDS)) {
+            long now = System.nanoTime();
+            for (Runnable runnable : workers.shutdownNow()) {
+                Call call = (Call) runnable;
+                stats.record(call.request.name, "unsent", true, call.scheduled, 0, now);
+            }
+            // the ones in flight end within the read timeout
+            workers.awaitTermination(timeoutMs + 1000L, TimeUnit.MILLISECONDS);
+        }
+        stats.finish();
+    }
+
+    private Response send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        connection.setRequestProperty("Accept", "application/json");
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        // read to the end either way, or the connection cannot go back to the keep-alive pool
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, content.toByteArray());
+    }
+
+    private String id(LoadScript.Request request) {
+        if ("DELETE".equals(request.method)) {
+            String id = created.get(request.collection).poll();
+            return id == null ? new ObjectId().toString() : id;
+        }
+        List<String> ids = seeded.get(request.collection);
+        return ids.isEmpty() ? new ObjectId().toString() : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static class Response {
+        private final int status;
+
+        private final byte[] body;
+
+        private Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private class Call implements Runnable {
+        private final LoadScript.Request request;
+
+        private final long scheduled;
+
+        private final LoadStats stats;
+
+        private Call(LoadScript.Request request, long scheduled, LoadStats stats) {
+            this.request = request;
+            this.scheduled = scheduled;
+            this.stats = stats;
+        }
+
+        @Override
+        public void run() {
+            long sent = System.nanoTime();
+            try {
+                String path = request.collection == null ? request.path : request.path(id(request));
+                Response response = send(request.method, path, request.body);
+                long done = System.nanoTime();
+                if ("POST".equals(request.method) && response.status / 100 == 2 && created.containsKey(path.substring(1))) {
+                    created.get(path.substring(1)).add(mapper.readTree(response.body).path("id").asText());
+                }
+                stats.record(request.name, String.valueOf(response.status), response.status >= 400, scheduled, sent,
+                        done);
+            } catch (IOException exception) {
+                stats.record(request.name, exception.getClass().getSimpleName(), true, scheduled, sent,
+                        System.nanoTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// ./gradlew startupTime -Pprofiles=inmemory
+// starts the app in a fresh JVM load.startup-runs times per mode and measures from process start to the first
+// answered GET /employees?page=1&pageSize=1: "baseline" is a plain start, "fast" adds the class-data archive and the
+// fast-startup profile; writes build/loadtest/startup.json, the apps' output goes to startup-app.log
+public class StartupTime {
+    private static final String PROBE = "/employees?page=1&pageSize=1";
+
+    public static void main(String[] args) throws Exception {
+        String classpath = System.getProperty("startup.classpath");
+        String archive = System.getProperty("startup.archive");
+        String profiles = System.getProperty("startup.profiles", "");
+        int runs = Integer.getInteger("load.startup-runs", 5);
+        File output = new File(System.getProperty("load.output", "build/loadtest"));
+        output.mkdirs();
+        File log = new File(output, "startup-app.log");
+        List<Long> baseline = new ArrayList<>();
+        List<Long> fast = new ArrayList<>();
+        // alternated, so a machine getting busier or quieter affects both modes alike
+        for (int run = 0; run < runs; run++) {
+            baseline.add(timeToFirstRequest(classpath, profiles, Collections.emptyList(), log));
+            fast.add(timeToFirstRequest(classpath, profiles.isEmpty() ? "fast-startup" : profiles + ",fast-startup",
+                    Arrays.asList("-XX:SharedArchiveFile=" + archive), log));
+            System.out.printf("run %d: baseline %d ms, fast %d ms%n", run + 1, baseline.get(run), fast.get(run));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("java", System.getProperty("java.version"));
+        report.put("profiles", profiles);
+        report.put("probe", PROBE);
+        report.put("baselineMs", summary(baseline));
+        report.put("fastMs", summary(fast));
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(new File(output, "startup.json"), report);
+        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+
+    private static long timeToFirstRequest(String classpath, String profiles, List<String> jvmArgs, File log)
+            throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmArgs);
+        command.addAll(Arrays.asList("-cp", classpath, SpringBootEmployeeApplication.class.getName(),
+                "--server.port=" + port));
+        if (!profiles.isEmpty()) {
+            command.add("--spring.profiles.active=" + profiles);
+        }
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log)).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("the app exited with " + process.exitValue() + ": " + command);
+                }
+                if (answered(port)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static boolean answered(int port) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + PROBE).openConnection();
+            connection.setConnectTimeout(100);
+            connection.setReadTimeout(60000);
+            int status = connection.getResponseCode();
+            try (InputStream in = connection.getInputStream()) {
+                while (in.read() != -1) {
+                    // drained: answered means the whole response arrived
+                }
+            }
+            return status == 200;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private static Map<String, Object> summary(List<Long> millis) {
+        List<Long> sorted = new ArrayList<>(millis);
+        Collections.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("median", sorted.get(sorted.size() / 2));
+        summary.put("min", sorted.get(0));
+        summary.put("max", sorted.get(sorted.size() - 1));
+        summary.put("runs", millis);
+        return summary;
+    }
+}
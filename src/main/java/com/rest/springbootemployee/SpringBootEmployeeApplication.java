@@ -2,12 +2,16 @@ package com.rest.springbootemployee;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpringBootEmployeeApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SpringBootEmployeeApplication.class, args);
+		SpringApplication application = new SpringApplication(SpringBootEmployeeApplication.class);
+		// records the startup steps for StartupTimings and /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
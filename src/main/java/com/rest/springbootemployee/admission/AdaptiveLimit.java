@@ -0,0 +1,109 @@
+package com.rest.springbootemployee.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// AIMD concurrency limit driven by a latency gradient: the short-term latency average is compared with a
+// long-term one, the limit backs off multiplicatively once it is `tolerance` times slower (or a request fails)
+// and otherwise grows by about one per window of `limit` samples while it is actually being used
+public class AdaptiveLimit {
+    private static final double SHORT_ALPHA = 0.1;
+
+    private static final double LONG_ALPHA = 1.0 / 500;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double backoff;
+
+    private final long latencyFloorNanos;
+
+    private volatile double limit;
+
+    private double shortRtt;
+
+    private double longRtt;
+
+    private double gradient = 1;
+
+    private int samplesSinceDecrease = Integer.MAX_VALUE;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff,
+                         long latencyFloorNanos) {
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.latencyFloorNanos = latencyFloorNanos;
+    }
+
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    // latencies below the floor are treated as the floor so microsecond jitter on fast endpoints is not read as
+    // congestion; returns the short/long latency ratio so callers can feed it to a shared limit
+    public synchronized double onSample(long rttNanos, boolean dropped) {
+        double rtt = Math.max(rttNanos, latencyFloorNanos);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) * SHORT_ALPHA;
+            longRtt += (rtt - longRtt) * LONG_ALPHA;
+            // recover quickly once the congestion that inflated the long-term average is gone
+            if (longRtt > shortRtt * 2) {
+                longRtt *= 0.95;
+            }
+        }
+        double ratio = shortRtt / longRtt;
+        adjust(ratio, dropped);
+        return ratio;
+    }
+
+    public synchronized void onGradient(double ratio, boolean dropped) {
+        gradient += (ratio - gradient) * SHORT_ALPHA;
+        adjust(gradient, dropped);
+    }
+
+    private void adjust(double ratio, boolean dropped) {
+        if (samplesSinceDecrease < Integer.MAX_VALUE) {
+            samplesSinceDecrease++;
+        }
+        if (dropped || ratio > tolerance) {
+            // one decrease per window, otherwise every queued sample of the same slowdown would compound it
+            if (samplesSinceDecrease >= limit) {
+                limit = Math.max(minLimit, limit * backoff);
+                samplesSinceDecrease = 0;
+            }
+        } else if (inFlight.get() * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,135 @@
+package com.rest.springbootemployee.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// every endpoint gets its own adaptive limit, sized from its own latency; on top of that one global limit,
+// fed with each endpoint's latency gradient, caps the total and is shared out by Priority
+@Component
+public class AdmissionControl {
+    private static final String GLOBAL = "*";
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double backoff;
+
+    private final long latencyFloorNanos;
+
+    private final int retryAfterSeconds;
+
+    private final AdaptiveLimit global;
+
+    private final Map<Priority, Counter> globalShed = new EnumMap<>(Priority.class);
+
+    public AdmissionControl(MeterRegistry meterRegistry,
+                            @Value("${admission.initial-limit:20}") int initialLimit,
+                            @Value("${admission.min-limit:2}") int minLimit,
+                            @Value("${admission.max-limit:200}") int maxLimit,
+                            @Value("${admission.max-in-flight:200}") int maxInFlight,
+                            @Value("${admission.tolerance:2.0}") double tolerance,
+                            @Value("${admission.backoff:0.9}") double backoff,
+                            @Value("${admission.latency-floor-ms:1}") long latencyFloorMs,
+                            @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.latencyFloorNanos = TimeUnit.MILLISECONDS.toNanos(latencyFloorMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.global = new AdaptiveLimit(maxInFlight, Math.min(maxInFlight, minLimit * Priority.values().length),
+                maxInFlight, tolerance, backoff, latencyFloorNanos);
+        registerGauges(GLOBAL, global);
+        for (Priority priority : Priority.values()) {
+            globalShed.put(priority, shedCounter(GLOBAL, priority));
+        }
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // null when the request should be shed
+    public Permit tryAcquire(String name, Priority priority) {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, key -> new Endpoint(key, priority));
+        if (!endpoint.limit.tryAcquire(1.0)) {
+            endpoint.shed.increment();
+            return null;
+        }
+        if (!global.tryAcquire(priority.getShare())) {
+            endpoint.limit.release();
+            globalShed.get(priority).increment();
+            return null;
+        }
+        return new Permit(endpoint, System.nanoTime());
+    }
+
+    public AdaptiveLimit getLimit(String name) {
+        Endpoint endpoint = endpoints.get(name);
+        return endpoint == null ? null : endpoint.limit;
+    }
+
+    public AdaptiveLimit getGlobalLimit() {
+        return global;
+    }
+
+    private void registerGauges(String name, AdaptiveLimit limit) {
+        Gauge.builder("admission.limit", limit, AdaptiveLimit::getLimit).tag("endpoint", name).register(meterRegistry);
+        Gauge.builder("admission.inflight", limit, AdaptiveLimit::getInFlight).tag("endpoint", name).register(meterRegistry);
+    }
+
+    private Counter shedCounter(String name, Priority priority) {
+        return Counter.builder("admission.shed").tag("endpoint", name).tag("priority", priority.name())
+                .register(meterRegistry);
+    }
+
+    private class Endpoint {
+        private final AdaptiveLimit limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, tolerance, backoff,
+                latencyFloorNanos);
+
+        private final Counter shed;
+
+        private Endpoint(String name, Priority priority) {
+            this.shed = shedCounter(name, priority);
+            registerGauges(name, limit);
+        }
+    }
+
+    public class Permit {
+        private final Endpoint endpoint;
+
+        private final long startNanos;
+
+        private Permit(Endpoint endpoint, long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+
+        // dropped = the request failed on the server side (5xx), which counts as congestion whatever its latency
+        public void release(boolean dropped) {
+            double gradient = endpoint.limit.onSample(System.nanoTime() - startNanos, dropped);
+            global.onGradient(gradient, dropped);
+            endpoint.limit.release();
+            global.release();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.rest.springbootemployee.admission;
+
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import com.rest.springbootemployee.startup.WarmUp;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// event streams are left out: they hold a connection for minutes and are bounded by events.max-subscribers; so is the
+// warm-up, whose latencies while the JIT is still compiling would teach the limits nothing about real traffic
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || WarmUp.isWarmUp(request)) {
+            return true;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        if (ResponseBodyEmitter.class.isAssignableFrom(method.getMethod().getReturnType())) {
+            return true;
+        }
+        AdmissionPriority priority = method.getMethodAnnotation(AdmissionPriority.class);
+        String name = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        AdmissionControl.Permit permit = admissionControl.tryAcquire(name,
+                priority == null ? Priority.NORMAL : priority.value());
+        if (permit == null) {
+            throw new ServiceOverloadedException("Too many concurrent requests, retry later",
+                    admissionControl.getRetryAfterSeconds());
+        }
+        request.setAttribute(PERMIT, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception exception) {
+        Object permit = request.getAttribute(PERMIT);
+        if (permit != null) {
+            request.removeAttribute(PERMIT);
+            ((AdmissionControl.Permit) permit).release(exception != null || response.getStatus() >= 500);
+        }
+    }
+}
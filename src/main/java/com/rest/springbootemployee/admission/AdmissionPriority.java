@@ -0,0 +1,13 @@
+package com.rest.springbootemployee.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// handler methods without it are admitted as Priority.NORMAL
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionPriority {
+    Priority value();
+}
@@ -0,0 +1,19 @@
+package com.rest.springbootemployee.admission;
+
+// share of the global concurrency limit a request class may use, so cheap reads keep headroom
+// when scans and exports are already being shed
+public enum Priority {
+    HIGH(1.0),
+    NORMAL(0.85),
+    LOW(0.6);
+
+    private final double share;
+
+    Priority(double share) {
+        this.share = share;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
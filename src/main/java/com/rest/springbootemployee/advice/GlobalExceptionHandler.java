@@ -1,8 +1,17 @@
 package com.rest.springbootemployee.advice;
 
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoTimeoutException;
+import com.rest.springbootemployee.exception.ChangeTokenExpiredException;
+import com.rest.springbootemployee.exception.DeadlineExceededException;
+import com.rest.springbootemployee.exception.InvalidQueryException;
 import com.rest.springbootemployee.exception.NoCompanyFoundException;
 import com.rest.springbootemployee.exception.NoEmployeeFoundException;
+import com.rest.springbootemployee.exception.NoImportFoundException;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -10,11 +19,44 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler({NoEmployeeFoundException.class, NoCompanyFoundException.class})
+    @ExceptionHandler({NoEmployeeFoundException.class, NoCompanyFoundException.class, NoImportFoundException.class})
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse method(Exception exception) {
         return new ErrorResponse(HttpStatus.NOT_FOUND.value(), exception.getMessage());
     }
 
+    @ExceptionHandler(InvalidQueryException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse invalidQuery(InvalidQueryException exception) {
+        return new ErrorResponse(HttpStatus.BAD_REQUEST.value(), exception.getMessage());
+    }
+
+    @ExceptionHandler(ChangeTokenExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public ErrorResponse changeTokenExpired(ChangeTokenExpiredException exception) {
+        return new ErrorResponse(HttpStatus.GONE.value(), exception.getMessage());
+    }
+
+    // MongoExecutionTimeoutException arrives wrapped by Spring's exception translation and is matched as the cause
+    @ExceptionHandler({DeadlineExceededException.class, MongoExecutionTimeoutException.class})
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorResponse deadlineExceeded(Exception exception) {
+        String message = exception instanceof DeadlineExceededException ? exception.getMessage() : "Request deadline exceeded";
+        return new ErrorResponse(HttpStatus.GATEWAY_TIMEOUT.value(), message);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> serviceOverloaded(ServiceOverloadedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getMessage()));
+    }
 
+    // no pooled connection within mongo.pool.max-wait-ms (or no reachable server); arrives as a translated cause
+    @ExceptionHandler(MongoTimeoutException.class)
+    public ResponseEntity<ErrorResponse> mongoUnavailable(MongoTimeoutException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Database is busy, retry later"));
+    }
 }
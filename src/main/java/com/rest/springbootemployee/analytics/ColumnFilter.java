@@ -0,0 +1,89 @@
+package com.rest.springbootemployee.analytics;
+
+import java.util.Arrays;
+
+// picks the rows of a range that pass every predicate, as a bitset with one bit per row: all bits start set and each
+// predicate is one pass over its column that ANDs in the rows it keeps, so a range is a few tight loops over
+// primitive arrays with no branch on the data
+public class ColumnFilter {
+    private final String gender;
+
+    private final int minAge;
+
+    private final int maxAge;
+
+    private final int minSalary;
+
+    private final int maxSalary;
+
+    private final boolean ageBounded;
+
+    private final boolean salaryBounded;
+
+    public ColumnFilter(String gender, Integer minAge, Integer maxAge, Integer minSalary, Integer maxSalary) {
+        this.gender = gender;
+        this.minAge = minAge == null ? Integer.MIN_VALUE : minAge;
+        this.maxAge = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        this.minSalary = minSalary == null ? Integer.MIN_VALUE : minSalary;
+        this.maxSalary = maxSalary == null ? Integer.MAX_VALUE : maxSalary;
+        this.ageBounded = minAge != null || maxAge != null;
+        this.salaryBounded = minSalary != null || maxSalary != null;
+    }
+
+    // from must be a multiple of 64; bit i of words is row from + i
+    void select(EmployeeColumns columns, int from, int to, long[] words) {
+        int count = EmployeeColumns.words(to - from);
+        int genderCode = gender == null ? 0 : columns.genderCode(gender);
+        if (genderCode < 0 || minAge > maxAge || minSalary > maxSalary) {
+            Arrays.fill(words, 0, count, 0L);
+            return;
+        }
+        Arrays.fill(words, 0, count, -1L);
+        if ((to & 63) != 0) {
+            words[count - 1] = (1L << (to & 63)) - 1;
+        }
+        if (gender != null) {
+            keepCode(columns.genders, genderCode, from, to, words);
+        }
+        if (ageBounded) {
+            keepPresent(columns.hasAge, from, count, words);
+            keepRange(columns.ages, minAge, maxAge, from, to, words);
+        }
+        if (salaryBounded) {
+            keepPresent(columns.hasSalary, from, count, words);
+            keepRange(columns.salaries, minSalary, maxSalary, from, to, words);
+        }
+    }
+
+    private static void keepCode(byte[] column, int code, int from, int to, long[] words) {
+        byte value = (byte) code;
+        for (int row = from, word = 0; row < to; word++) {
+            int end = Math.min(row + 64, to);
+            long bits = 0;
+            for (int bit = 0; row < end; row++, bit++) {
+                bits |= (column[row] == value ? 1L : 0L) << bit;
+            }
+            words[word] &= bits;
+        }
+    }
+
+    // min <= value <= max as one unsigned comparison of the distances from min
+    private static void keepRange(int[] column, int min, int max, int from, int to, long[] words) {
+        int width = max - min;
+        for (int row = from, word = 0; row < to; word++) {
+            int end = Math.min(row + 64, to);
+            long bits = 0;
+            for (int bit = 0; row < end; row++, bit++) {
+                bits |= (Integer.compareUnsigned(column[row] - min, width) <= 0 ? 1L : 0L) << bit;
+            }
+            words[word] &= bits;
+        }
+    }
+
+    private static void keepPresent(long[] present, int from, int count, long[] words) {
+        int offset = from >>> 6;
+        for (int word = 0; word < count; word++) {
+            words[word] &= present[offset + word];
+        }
+    }
+}
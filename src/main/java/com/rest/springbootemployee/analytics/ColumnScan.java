@@ -0,0 +1,187 @@
+package com.rest.springbootemployee.analytics;
+
+import com.rest.springbootemployee.exception.InvalidQueryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// one query over a snapshot: the rows are cut into chunks, each chunk is filtered into its own bitset and its
+// selected rows totalled per group, on the executor when there is more than one chunk, and the chunk totals merged
+public class ColumnScan {
+    public enum GroupBy {
+        NONE, GENDER, AGE
+    }
+
+    private static final int MAX_GROUPS = 10000;
+
+    private final EmployeeColumns columns;
+
+    private final ColumnFilter filter;
+
+    private final GroupBy groupBy;
+
+    private final int ageBucket;
+
+    private final int ageBase;
+
+    private final int groups;
+
+    public ColumnScan(EmployeeColumns columns, ColumnFilter filter, GroupBy groupBy, int ageBucket) {
+        this.columns = columns;
+        this.filter = filter;
+        this.groupBy = groupBy;
+        this.ageBucket = ageBucket;
+        if (groupBy == GroupBy.AGE) {
+            if (ageBucket < 1) {
+                throw new InvalidQueryException("ageBucket must be at least 1");
+            }
+            boolean anyAge = columns.minAge <= columns.maxAge;
+            this.ageBase = anyAge ? Math.floorDiv(columns.minAge, ageBucket) * ageBucket : 0;
+            long bands = anyAge ? ((long) columns.maxAge - ageBase) / ageBucket + 1 : 0;
+            if (bands >= MAX_GROUPS) {
+                throw new InvalidQueryException("ageBucket is too small for ages " + columns.minAge + " to "
+                        + columns.maxAge);
+            }
+            // the last group is employees without an age
+            this.groups = (int) bands + 1;
+        } else {
+            this.ageBase = 0;
+            this.groups = groupBy == GroupBy.GENDER ? columns.getGenderDictionary().size() + 1 : 1;
+        }
+    }
+
+    // groups with no selected rows are left out
+    public List<GroupTotals> run(Executor executor, int chunkRows) {
+        int chunk = Math.max(64, (chunkRows + 63) & ~63);
+        int chunks = (columns.size + chunk - 1) / chunk;
+        Totals totals;
+        if (executor == null || chunks <= 1) {
+            totals = scan(0, columns.size);
+        } else {
+            List<CompletableFuture<Totals>> parts = new ArrayList<>(chunks);
+            for (int from = 0; from < columns.size; from += chunk) {
+                int start = from;
+                int end = Math.min(from + chunk, columns.size);
+                parts.add(CompletableFuture.supplyAsync(() -> scan(start, end), executor));
+            }
+            totals = new Totals(groups);
+            for (CompletableFuture<Totals> part : parts) {
+                totals.merge(part.join());
+            }
+        }
+        return totals.toGroups();
+    }
+
+    private Totals scan(int from, int to) {
+        Totals totals = new Totals(groups);
+        long[] words = new long[EmployeeColumns.words(to - from)];
+        filter.select(columns, from, to, words);
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                int row = from + (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                totals.add(group(row), row);
+            }
+        }
+        return totals;
+    }
+
+    private int group(int row) {
+        switch (groupBy) {
+            case GENDER:
+                int code = columns.genders[row] & 0xFF;
+                return code == EmployeeColumns.NO_GENDER ? groups - 1 : code;
+            case AGE:
+                return EmployeeColumns.isSet(columns.hasAge, row)
+                        ? (columns.ages[row] - ageBase) / ageBucket : groups - 1;
+            default:
+                return 0;
+        }
+    }
+
+    private String key(int group) {
+        switch (groupBy) {
+            case GENDER:
+                return group == groups - 1 ? null : columns.gender(group);
+            case AGE:
+                int low = ageBase + group * ageBucket;
+                return group == groups - 1 ? null : low + "-" + (low + ageBucket - 1);
+            default:
+                return "all";
+        }
+    }
+
+    private class Totals {
+        private final long[] counts;
+
+        private final long[] salaryCounts;
+
+        private final long[] salarySums;
+
+        private final int[] salaryMins;
+
+        private final int[] salaryMaxes;
+
+        private final long[] ageCounts;
+
+        private final long[] ageSums;
+
+        private Totals(int groups) {
+            counts = new long[groups];
+            salaryCounts = new long[groups];
+            salarySums = new long[groups];
+            salaryMins = new int[groups];
+            salaryMaxes = new int[groups];
+            ageCounts = new long[groups];
+            ageSums = new long[groups];
+            Arrays.fill(salaryMins, Integer.MAX_VALUE);
+            Arrays.fill(salaryMaxes, Integer.MIN_VALUE);
+        }
+
+        private void add(int group, int row) {
+            counts[group]++;
+            if (EmployeeColumns.isSet(columns.hasSalary, row)) {
+                int salary = columns.salaries[row];
+                salaryCounts[group]++;
+                salarySums[group] += salary;
+                salaryMins[group] = Math.min(salaryMins[group], salary);
+                salaryMaxes[group] = Math.max(salaryMaxes[group], salary);
+            }
+            if (EmployeeColumns.isSet(columns.hasAge, row)) {
+                ageCounts[group]++;
+                ageSums[group] += columns.ages[row];
+            }
+        }
+
+        private void merge(Totals other) {
+            for (int group = 0; group < counts.length; group++) {
+                counts[group] += other.counts[group];
+                salaryCounts[group] += other.salaryCounts[group];
+                salarySums[group] += other.salarySums[group];
+                salaryMins[group] = Math.min(salaryMins[group], other.salaryMins[group]);
+                salaryMaxes[group] = Math.max(salaryMaxes[group], other.salaryMaxes[group]);
+                ageCounts[group] += other.ageCounts[group];
+                ageSums[group] += other.ageSums[group];
+            }
+        }
+
+        private List<GroupTotals> toGroups() {
+            List<GroupTotals> result = new ArrayList<>();
+            for (int group = 0; group < counts.length; group++) {
+                if (counts[group] == 0) {
+                    continue;
+                }
+                boolean salaried = salaryCounts[group] > 0;
+                result.add(new GroupTotals(key(group), counts[group], salarySums[group],
+                        salaried ? salaryMins[group] : null, salaried ? salaryMaxes[group] : null,
+                        salaried ? (double) salarySums[group] / salaryCounts[group] : null,
+                        ageCounts[group] > 0 ? (double) ageSums[group] / ageCounts[group] : null));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.rest.springbootemployee.analytics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// a read-only copy of the employee collection, one primitive array per field: ages and salaries as int[], gender as a
+// byte code into a small dictionary, and a bit per row saying whether the nullable age and salary were set
+public class EmployeeColumns {
+    // the code of a missing gender; the others are 0..MAX_GENDERS-1 read as unsigned bytes
+    static final int NO_GENDER = 0xFF;
+
+    static final int MAX_GENDERS = 255;
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    final int size;
+
+    final int[] ages;
+
+    final int[] salaries;
+
+    final byte[] genders;
+
+    final long[] hasAge;
+
+    final long[] hasSalary;
+
+    final int minAge;
+
+    final int maxAge;
+
+    private final List<String> genderDictionary;
+
+    private final Instant builtAt;
+
+    private final long buildMillis;
+
+    private EmployeeColumns(Builder builder) {
+        this.size = builder.size;
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.salaries = Arrays.copyOf(builder.salaries, size);
+        this.genders = Arrays.copyOf(builder.genders, size);
+        this.hasAge = Arrays.copyOf(builder.hasAge, words(size));
+        this.hasSalary = Arrays.copyOf(builder.hasSalary, words(size));
+        this.minAge = builder.minAge;
+        this.maxAge = builder.maxAge;
+        this.genderDictionary = Collections.unmodifiableList(new ArrayList<>(builder.dictionary));
+        this.builtAt = Instant.now();
+        this.buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - builder.started);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<String> getGenderDictionary() {
+        return genderDictionary;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    // the arrays themselves; the dictionary holds a handful of short strings and is left out
+    public long getEstimatedBytes() {
+        return 5L * ARRAY_HEADER_BYTES + 4L * size * 2 + size + 8L * words(size) * 2;
+    }
+
+    // code of a gender, or -1 when no row has it
+    int genderCode(String gender) {
+        return genderDictionary.indexOf(gender);
+    }
+
+    String gender(int code) {
+        return code == NO_GENDER ? null : genderDictionary.get(code);
+    }
+
+    static boolean isSet(long[] bits, int row) {
+        return (bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    public static class Builder {
+        private final long started = System.nanoTime();
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private final List<String> dictionary = new ArrayList<>();
+
+        private int size;
+
+        private int[] ages;
+
+        private int[] salaries;
+
+        private byte[] genders;
+
+        private long[] hasAge;
+
+        private long[] hasSalary;
+
+        private int minAge = Integer.MAX_VALUE;
+
+        private int maxAge = Integer.MIN_VALUE;
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(64, expectedRows);
+            ages = new int[capacity];
+            salaries = new int[capacity];
+            genders = new byte[capacity];
+            hasAge = new long[words(capacity)];
+            hasSalary = new long[words(capacity)];
+        }
+
+        public Builder add(Integer age, String gender, Integer salary) {
+            if (size == ages.length) {
+                grow();
+            }
+            int row = size++;
+            if (age != null) {
+                ages[row] = age;
+                hasAge[row >>> 6] |= 1L << row;
+                minAge = Math.min(minAge, age);
+                maxAge = Math.max(maxAge, age);
+            }
+            if (salary != null) {
+                salaries[row] = salary;
+                hasSalary[row >>> 6] |= 1L << row;
+            }
+            genders[row] = (byte) (gender == null ? NO_GENDER : code(gender));
+            return this;
+        }
+
+        public EmployeeColumns build() {
+            return new EmployeeColumns(this);
+        }
+
+        // gender is expected to take a few values; a column with more than fits in a byte is not built
+        private int code(String gender) {
+            Integer code = codes.get(gender);
+            if (code == null) {
+                if (dictionary.size() == MAX_GENDERS) {
+                    throw new IllegalStateException("More than " + MAX_GENDERS + " distinct genders");
+                }
+                code = dictionary.size();
+                codes.put(gender, code);
+                dictionary.add(gender);
+            }
+            return code;
+        }
+
+        private void grow() {
+            int capacity = ages.length * 2;
+            ages = Arrays.copyOf(ages, capacity);
+            salaries = Arrays.copyOf(salaries, capacity);
+            genders = Arrays.copyOf(genders, capacity);
+            hasAge = Arrays.copyOf(hasAge, words(capacity));
+            hasSalary = Arrays.copyOf(hasSalary, words(capacity));
+        }
+    }
+}
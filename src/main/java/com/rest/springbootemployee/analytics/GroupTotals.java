@@ -0,0 +1,58 @@
+package com.rest.springbootemployee.analytics;
+
+public class GroupTotals {
+    // the gender or "30-39" age band; null for employees without one, "all" when not grouped
+    private final String key;
+
+    private final long count;
+
+    // over the employees in the group that have a salary
+    private final long salarySum;
+
+    private final Integer salaryMin;
+
+    private final Integer salaryMax;
+
+    private final Double salaryAverage;
+
+    private final Double ageAverage;
+
+    GroupTotals(String key, long count, long salarySum, Integer salaryMin, Integer salaryMax, Double salaryAverage,
+                Double ageAverage) {
+        this.key = key;
+        this.count = count;
+        this.salarySum = salarySum;
+        this.salaryMin = salaryMin;
+        this.salaryMax = salaryMax;
+        this.salaryAverage = salaryAverage;
+        this.ageAverage = ageAverage;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSalarySum() {
+        return salarySum;
+    }
+
+    public Integer getSalaryMin() {
+        return salaryMin;
+    }
+
+    public Integer getSalaryMax() {
+        return salaryMax;
+    }
+
+    public Double getSalaryAverage() {
+        return salaryAverage;
+    }
+
+    public Double getAgeAverage() {
+        return ageAverage;
+    }
+}
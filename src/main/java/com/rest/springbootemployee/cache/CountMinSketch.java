@@ -0,0 +1,80 @@
+package com.rest.springbootemployee.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// approximate access counts in a fixed depth x width of counters, whatever the number of distinct keys; a key's
+// estimate is the smallest of its counters, so it can only be too high, by what colliding keys added. Updates are
+// conservative (only the counters at that minimum are raised), which keeps the overestimate well below plain
+// count-min's for the skewed traffic this tracks. The counters are atomic, so threads add without a lock; an add that
+// races another may raise a counter a little less than a locked one would, which only lowers the overestimate
+public class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L};
+
+    private final AtomicIntegerArray[] counters;
+
+    private final int mask;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("sketch width must be positive and depth between 1 and " + SEEDS.length);
+        }
+        int bounded = Math.min(width, 1 << 24);
+        int columns = Integer.highestOneBit(bounded) < bounded ? Integer.highestOneBit(bounded) << 1 : bounded;
+        this.counters = new AtomicIntegerArray[depth];
+        for (int row = 0; row < depth; row++) {
+            counters[row] = new AtomicIntegerArray(columns);
+        }
+        this.mask = columns - 1;
+    }
+
+    // the key's estimate after counting this access
+    public int add(String key) {
+        int hash = key.hashCode();
+        int estimate = estimate(hash) + 1;
+        for (int row = 0; row < counters.length; row++) {
+            AtomicIntegerArray counts = counters[row];
+            int column = column(hash, row);
+            int current = counts.get(column);
+            while (current < estimate && !counts.compareAndSet(column, current, estimate)) {
+                current = counts.get(column);
+            }
+        }
+        return estimate;
+    }
+
+    public int estimate(String key) {
+        return estimate(key.hashCode());
+    }
+
+    // ages every count, so keys that were hot a while ago give way to the ones that are hot now
+    public void halve() {
+        for (AtomicIntegerArray row : counters) {
+            for (int column = 0; column < row.length(); column++) {
+                row.getAndUpdate(column, count -> count >>> 1);
+            }
+        }
+    }
+
+    public int getWidth() {
+        return mask + 1;
+    }
+
+    public int getDepth() {
+        return counters.length;
+    }
+
+    private int estimate(int hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row].get(column(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int column(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,115 @@
+package com.rest.springbootemployee.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// the heavy hitters of a stream of keys: a count-min sketch estimates every key's count and the capacity keys with
+// the highest estimates are kept by name. Every window accesses all counts are halved, so the top follows traffic
+// whose hot keys move over the day. A key is hot while it is in the top with an estimate of at least minCount,
+// which keeps a quiet stream from calling anything it has seen a few times hot. Counting takes no lock: the sketch
+// is atomic and a key already in the top raises its own count; only a key that may enter the top, and the halving,
+// lock the top
+public class HotKeyTracker {
+    private final CountMinSketch sketch;
+
+    private final int capacity;
+
+    private final int minCount;
+
+    private final long window;
+
+    private final ConcurrentHashMap<String, Integer> top = new ConcurrentHashMap<>();
+
+    // at most the smallest count in a full top; refreshed by the scans it triggers
+    private volatile int smallest;
+
+    private final AtomicLong accesses = new AtomicLong();
+
+    private volatile long halvings;
+
+    public HotKeyTracker(int capacity, int minCount, long window, int sketchWidth, int sketchDepth) {
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        this.capacity = capacity;
+        this.minCount = minCount;
+        this.window = window;
+    }
+
+    // counts one access; true when the key is hot afterwards
+    public boolean record(String key) {
+        int count = sketch.add(key);
+        // raising a count in the top keeps smallest a lower bound of them
+        if (top.computeIfPresent(key, (ignored, previous) -> Math.max(previous, count)) == null
+                && (top.size() < capacity || count > smallest)) {
+            admit(key, count);
+        }
+        boolean hot = isHot(key);
+        if (accesses.incrementAndGet() % window == 0) {
+            halve();
+        }
+        return hot;
+    }
+
+    public boolean isHot(String key) {
+        Integer count = top.get(key);
+        return count != null && count >= minCount;
+    }
+
+    // the top, hottest first
+    public List<Map.Entry<String, Integer>> hottest() {
+        List<Map.Entry<String, Integer>> hottest = new ArrayList<>(top.size());
+        top.forEach((key, count) -> hottest.add(new AbstractMap.SimpleImmutableEntry<>(key, count)));
+        hottest.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        return hottest;
+    }
+
+    public long getAccesses() {
+        return accesses.get();
+    }
+
+    // changes whenever the counts are aged, when keys may stop being hot without being accessed
+    public long getHalvings() {
+        return halvings;
+    }
+
+    public int getMinCount() {
+        return minCount;
+    }
+
+    private synchronized void admit(String key, int count) {
+        if (top.containsKey(key) || top.size() < capacity) {
+            top.merge(key, count, Math::max);
+        } else if (count > smallest) {
+            String coldest = coldest();
+            if (count > top.get(coldest)) {
+                top.remove(coldest);
+                top.put(key, count);
+                coldest = coldest();
+            }
+            smallest = top.get(coldest);
+        }
+    }
+
+    private synchronized void halve() {
+        sketch.halve();
+        top.replaceAll((key, count) -> count >>> 1);
+        top.values().removeIf(count -> count == 0);
+        smallest = 0;
+        halvings++;
+    }
+
+    private String coldest() {
+        String coldest = null;
+        int coldestCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : top.entrySet()) {
+            if (entry.getValue() < coldestCount) {
+                coldest = entry.getKey();
+                coldestCount = entry.getValue();
+            }
+        }
+        return coldest;
+    }
+}
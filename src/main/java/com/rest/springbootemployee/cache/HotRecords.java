@@ -0,0 +1,183 @@
+package com.rest.springbootemployee.cache;
+
+import com.rest.springbootemployee.dto.HotKey;
+import com.rest.springbootemployee.dto.HotKeyReport;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeType;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.startup.WarmUp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// employees and companies looked up by id are counted per id, and the hottest (see HotKeyTracker) are pinned here,
+// at most hot-keys.top-k per collection, and answered without a database read until they cool down; change events
+// replace or drop a pinned record, and a record pinned for hot-keys.max-age-ms is read again, which bounds how stale
+// it gets after a write that did not go through the services (another instance, the database directly). Records are
+// copied in and out, so a caller changing what it was given does not change what the next caller gets
+@Component
+public class HotRecords {
+    public static final String EMPLOYEES = "employees";
+
+    public static final String COMPANIES = "companies";
+
+    private final boolean enabled;
+
+    private final Pinned<Employee> employees;
+
+    private final Pinned<Company> companies;
+
+    public HotRecords(MeterRegistry meterRegistry,
+                      @Value("${hot-keys.enabled:true}") boolean enabled,
+                      @Value("${hot-keys.top-k:64}") int topK,
+                      @Value("${hot-keys.min-count:16}") int minCount,
+                      @Value("${hot-keys.window:100000}") long window,
+                      @Value("${hot-keys.max-age-ms:60000}") long maxAgeMs,
+                      @Value("${hot-keys.sketch-width:4096}") int sketchWidth,
+                      @Value("${hot-keys.sketch-depth:4}") int sketchDepth) {
+        this.enabled = enabled;
+        this.employees = new Pinned<>(EMPLOYEES, meterRegistry,
+                new HotKeyTracker(topK, minCount, window, sketchWidth, sketchDepth), maxAgeMs,
+                Employee::copyOf);
+        this.companies = new Pinned<>(COMPANIES, meterRegistry,
+                new HotKeyTracker(topK, minCount, window, sketchWidth, sketchDepth), maxAgeMs,
+                Company::copyOf);
+    }
+
+    // the warm-up's lookups are not counted, it reads the same few ids over and over
+    public Employee employee(String id, Function<String, Employee> loader) {
+        return enabled && !WarmUp.isWarmUpRequest() ? employees.get(id, loader) : loader.apply(id);
+    }
+
+    public Company company(String id, Function<String, Company> loader) {
+        return enabled && !WarmUp.isWarmUpRequest() ? companies.get(id, loader) : loader.apply(id);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        employees.changed(event.getEmployeeId(), event.getType() == ChangeType.DELETED ? null : event.getEmployee());
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        companies.changed(event.getCompanyId(), event.getType() == ChangeType.DELETED ? null : event.getCompany());
+    }
+
+    public List<HotKeyReport> report() {
+        return Arrays.asList(employees.report(), companies.report());
+    }
+
+    private static class Pinned<T> {
+        private final String collection;
+
+        private final HotKeyTracker tracker;
+
+        private final long maxAgeNanos;
+
+        private final UnaryOperator<T> copy;
+
+        private final Map<String, Entry<T>> records = new ConcurrentHashMap<>();
+
+        // bumped on every change to the collection; a record loaded across a change may be the older version
+        private final AtomicLong generation = new AtomicLong();
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private volatile long swept;
+
+        private Pinned(String collection, MeterRegistry meterRegistry, HotKeyTracker tracker, long maxAgeMs,
+                       UnaryOperator<T> copy) {
+            this.collection = collection;
+            this.tracker = tracker;
+            this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+            this.copy = copy;
+            this.hits = meterRegistry.counter("hotkeys.requests", "collection", collection, "result", "hit");
+            this.misses = meterRegistry.counter("hotkeys.requests", "collection", collection, "result", "miss");
+            Gauge.builder("hotkeys.pinned", records, Map::size).tag("collection", collection).register(meterRegistry);
+        }
+
+        private T get(String id, Function<String, T> loader) {
+            boolean hot = tracker.record(id);
+            sweep();
+            Entry<T> pinned = records.get(id);
+            if (pinned != null && !pinned.expired(maxAgeNanos)) {
+                hits.increment();
+                return copy.apply(pinned.record);
+            }
+            if (pinned != null) {
+                records.remove(id, pinned);
+            }
+            misses.increment();
+            long before = generation.get();
+            T loaded = loader.apply(id);
+            if (hot && loaded != null) {
+                Entry<T> entry = new Entry<>(copy.apply(loaded));
+                if (records.putIfAbsent(id, entry) == null && generation.get() != before) {
+                    records.remove(id, entry);
+                }
+            }
+            return loaded;
+        }
+
+        private void changed(String id, T record) {
+            generation.incrementAndGet();
+            if (id == null) {
+                return;
+            }
+            if (record == null) {
+                records.remove(id);
+            } else {
+                records.computeIfPresent(id, (key, previous) -> new Entry<>(copy.apply(record)));
+            }
+        }
+
+        // once the counts have been aged, records that are no longer hot are unpinned even if nobody asks for them
+        private void sweep() {
+            long halvings = tracker.getHalvings();
+            if (halvings != swept) {
+                swept = halvings;
+                records.keySet().removeIf(id -> !tracker.isHot(id));
+            }
+        }
+
+        private HotKeyReport report() {
+            List<HotKey> top = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : tracker.hottest()) {
+                top.add(new HotKey(entry.getKey(), entry.getValue(), entry.getValue() >= tracker.getMinCount(),
+                        records.containsKey(entry.getKey())));
+            }
+            return new HotKeyReport(collection, tracker.getAccesses(), tracker.getMinCount(), records.size(), top);
+        }
+    }
+
+    private static class Entry<T> {
+        private final T record;
+
+        private final long pinnedNanos = System.nanoTime();
+
+        private Entry(T record) {
+            this.record = record;
+        }
+
+        private boolean expired(long maxAgeNanos) {
+            return System.nanoTime() - pinnedNanos >= maxAgeNanos;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.rest.springbootemployee.cache;
+
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// serialized list responses, keyed by path, query and Accept; every change event bumps its collection's generation,
+// so invalidation is one increment and entries of an older generation are dropped when next looked up or evicted. With
+// employee write-behind the created events come from the flusher once a batch is stored, so a list cached while a
+// write was still queued is invalidated when the write lands rather than living on until its ttl
+@Component
+public class ResponseCache {
+    public static final String EMPLOYEES = "employees";
+
+    public static final String COMPANIES = "companies";
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // access order, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxBytes;
+
+    private final int maxEntryBytes;
+
+    private final long ttlNanos;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    private long bytes;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${response-cache.max-mb:64}") long maxMb,
+                         @Value("${response-cache.max-entry-kb:1024}") int maxEntryKb,
+                         @Value("${response-cache.ttl-ms:30000}") long ttlMs) {
+        this.maxBytes = maxMb * 1024 * 1024;
+        this.maxEntryBytes = maxEntryKb * 1024;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.hits = meterRegistry.counter("responsecache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("responsecache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("responsecache.evictions");
+        Gauge.builder("responsecache.bytes", this, ResponseCache::getBytes).register(meterRegistry);
+        Gauge.builder("responsecache.entries", this, ResponseCache::getEntryCount).register(meterRegistry);
+        Gauge.builder("responsecache.hit.ratio", this, ResponseCache::getHitRatio).register(meterRegistry);
+    }
+
+    public long generation(String collection) {
+        return counter(collection).get();
+    }
+
+    // null on a miss; an entry from an older generation or past its ttl counts as a miss and is dropped
+    public Entry get(String collection, String key) {
+        long generation = generation(collection);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && (entry.generation != generation || System.nanoTime() - entry.storedAt > ttlNanos)) {
+                remove(key);
+                entry = null;
+            }
+            (entry == null ? misses : hits).increment();
+            return entry;
+        }
+    }
+
+    // generation is the one read before the response was produced, so a change made meanwhile makes it stale at once
+    public void put(String collection, String key, long generation, Entry entry) {
+        if (entry.body.length > maxEntryBytes || generation != generation(collection)) {
+            return;
+        }
+        entry.generation = generation;
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.size(key);
+            }
+            bytes += entry.size(key);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                bytes -= evicted.getValue().size(evicted.getKey());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidate(String collection) {
+        counter(collection).incrementAndGet();
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        invalidate(EMPLOYEES);
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        invalidate(COMPANIES);
+    }
+
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.size(key);
+        }
+    }
+
+    private AtomicLong counter(String collection) {
+        return generations.computeIfAbsent(collection, ignored -> new AtomicLong());
+    }
+
+    public static class Entry {
+        private final String contentType;
+
+        private final List<String[]> headers;
+
+        private final byte[] body;
+
+        private final long storedAt = System.nanoTime();
+
+        private long generation;
+
+        public Entry(String contentType, List<String[]> headers, byte[] body) {
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public List<String[]> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        // body plus a rough allowance for the key, headers and object overhead
+        private long size(String key) {
+            long size = body.length + 2L * key.length() + 128;
+            for (String[] header : headers) {
+                size += 2L * (header[0].length() + header[1].length()) + 32;
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.rest.springbootemployee.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UriUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// runs ahead of the dispatcher, so a hit skips admission control, deadlines and the controller entirely
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheFilter(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || collection(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String collection = collection(request);
+        String key = key(request);
+        // Cache-Control: no-cache asks for a fresh answer; it is still stored for the requests after it
+        ResponseCache.Entry cached = noCache(request) ? null : responseCache.get(collection, key);
+        if (cached != null) {
+            write(cached, response);
+            return;
+        }
+
+        long generation = responseCache.generation(collection);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            responseCache.put(collection, key, generation,
+                    new ResponseCache.Entry(wrapper.getContentType(), headers(wrapper), wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void write(ResponseCache.Entry cached, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        for (String[] header : cached.getHeaders()) {
+            response.addHeader(header[0], header[1]);
+        }
+        response.setHeader(CACHE_HEADER, "HIT");
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+    }
+
+    private static List<String[]> headers(HttpServletResponse response) {
+        List<String[]> headers = new ArrayList<>();
+        for (String name : response.getHeaderNames()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    || CACHE_HEADER.equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : response.getHeaders(name)) {
+                headers.add(new String[]{name, value});
+            }
+        }
+        return headers;
+    }
+
+    private static boolean noCache(HttpServletRequest request) {
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("no-cache");
+    }
+
+    // only the list endpoints themselves: /employees and /companies, with any query
+    private static String collection(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("/employees".equals(path)) {
+            return ResponseCache.EMPLOYEES;
+        }
+        if ("/companies".equals(path)) {
+            return ResponseCache.COMPANIES;
+        }
+        return null;
+    }
+
+    // the parameters as the controller reads them, sorted so their order does not matter (a query string that
+    // parses to none is kept as it is); the same list can be rendered as JSON, CBOR, Smile or protobuf
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (parameters.isEmpty()) {
+            String query = request.getQueryString();
+            key.append(query == null ? "" : "?" + query);
+        }
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(UriUtils.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=').append(UriUtils.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return key.append('|').append(accept == null ? "" : accept).toString();
+    }
+}
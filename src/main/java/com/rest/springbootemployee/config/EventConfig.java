@@ -0,0 +1,17 @@
+package com.rest.springbootemployee.config;
+
+import com.rest.springbootemployee.event.ChangeEventMulticaster;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+
+// the context looks the multicaster up by name before any other bean, so it replaces Spring's default one
+@Configuration
+public class EventConfig {
+
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public static ApplicationEventMulticaster applicationEventMulticaster() {
+        return new ChangeEventMulticaster();
+    }
+}
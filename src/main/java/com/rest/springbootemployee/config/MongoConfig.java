@@ -0,0 +1,79 @@
+package com.rest.springbootemployee.config;
+
+import com.rest.springbootemployee.deadline.DeadlineMongoTemplate;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.startup.StartupTimings;
+import com.rest.springbootemployee.storage.EmployeeIndexes;
+import com.rest.springbootemployee.storage.FieldFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    // replaces Boot's template; repositories look it up by the mongoTemplate bean name. With auto-index-creation the
+    // template checks every entity's indexes as it is built, the first round trip to Mongo, and the employee indexes
+    // on the stored field names are checked right after
+    @Bean
+    @Profile("!inmemory & !filestore")
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                       StartupTimings startupTimings,
+                                       @Value("${spring.data.mongodb.auto-index-creation:false}") boolean autoIndexCreation) {
+        return startupTimings.time(StartupTimings.INDEX_CHECKS, () -> {
+            MongoTemplate template = new DeadlineMongoTemplate(mongoDatabaseFactory, mongoConverter);
+            if (autoIndexCreation) {
+                EmployeeIndexes.ensure(template.indexOps(Employee.class), FieldFormat.of(mongoConverter).readsCompact());
+            }
+            return template;
+        });
+    }
+
+    @Bean
+    public MongoPoolMetrics mongoPoolMetrics(MeterRegistry meterRegistry,
+                                             @Value("${mongo.pool.saturation-warn-ratio:0.9}") double saturationWarnRatio) {
+        return new MongoPoolMetrics(meterRegistry, saturationWarnRatio);
+    }
+
+    // applied after the URI, so these win over any pool options in spring.data.mongodb.uri;
+    // the socket read timeout is a backstop for what maxTimeMS cannot cover (writes, a hung connection),
+    // keep it above deadline.max-ms
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            MongoPoolMetrics mongoPoolMetrics,
+            @Value("${mongo.pool.min-size:0}") int minSize,
+            @Value("${mongo.pool.max-size:100}") int maxSize,
+            @Value("${mongo.pool.max-wait-ms:2000}") long maxWaitMs,
+            @Value("${mongo.pool.max-idle-ms:60000}") long maxIdleMs,
+            @Value("${mongo.pool.max-life-ms:0}") long maxLifeMs,
+            @Value("${mongo.socket-timeout-ms:310000}") int socketTimeoutMs,
+            @Value("${mongo.connect-timeout-ms:10000}") int connectTimeoutMs) {
+        return builder -> builder
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(minSize)
+                        .maxSize(maxSize)
+                        .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(maxIdleMs, TimeUnit.MILLISECONDS)
+                        .maxConnectionLifeTime(maxLifeMs, TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(mongoPoolMetrics))
+                .applyToSocketSettings(socket -> socket
+                        .readTimeout(socketTimeoutMs, TimeUnit.MILLISECONDS)
+                        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer startupTimingCustomizer(StartupTimings startupTimings) {
+        return builder -> {
+            startupTimings.connecting();
+            builder.applyToServerSettings(server -> server.addServerMonitorListener(startupTimings));
+        };
+    }
+}
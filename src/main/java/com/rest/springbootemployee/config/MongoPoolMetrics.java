@@ -0,0 +1,195 @@
+package com.rest.springbootemployee.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// one listener for every client (the main one and each partition's), with meters per connection pool: the driver
+// keeps a pool per client and server, tagged cluster.id and server.address as Micrometer's own Mongo listener does,
+// and saturation is against that pool's maxSize. The sync driver checks a connection out on the calling thread,
+// so the wait is timed with a thread-local start
+public class MongoPoolMetrics implements ConnectionPoolListener {
+    private static final Logger log = LoggerFactory.getLogger(MongoPoolMetrics.class);
+
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ThreadLocal<Long> checkOutStartedNanos = new ThreadLocal<>();
+
+    private final Map<ServerId, Pool> pools = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final double saturationWarnRatio;
+
+    public MongoPoolMetrics(MeterRegistry meterRegistry, double saturationWarnRatio) {
+        this.meterRegistry = meterRegistry;
+        this.saturationWarnRatio = saturationWarnRatio;
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        pools.computeIfAbsent(event.getServerId(), serverId -> new Pool(serverId, event.getSettings().getMaxSize()));
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        Pool pool = pools.remove(event.getServerId());
+        if (pool != null) {
+            pool.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.size.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.size.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        Pool pool = pools.get(event.getServerId());
+        if (pool != null) {
+            pool.waiting.incrementAndGet();
+            checkOutStartedNanos.set(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool == null) {
+            return;
+        }
+        pool.stopWaiting();
+        int inUse = pool.checkedOut.incrementAndGet();
+        if (inUse >= pool.maxSize * saturationWarnRatio) {
+            pool.warnSaturated(inUse);
+        }
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Pool pool = pools.get(event.getServerId());
+        if (pool == null) {
+            return;
+        }
+        pool.stopWaiting();
+        pool.register(Counter.builder("mongo.pool.checkout.failures").tags(pool.tags)
+                .tag("reason", event.getReason().name().toLowerCase(Locale.ROOT)).register(meterRegistry)).increment();
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            log.warn("Timed out waiting for a Mongo connection to {}: {} of {} checked out, {} waiting",
+                    pool.serverId.getAddress(), pool.checkedOut.get(), pool.maxSize, pool.waiting.get());
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.checkedOut.decrementAndGet();
+        }
+    }
+
+    private class Pool {
+        private final ServerId serverId;
+
+        private final int maxSize;
+
+        private final Tags tags;
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final AtomicInteger checkedOut = new AtomicInteger();
+
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        private final AtomicLong lastWarnNanos = new AtomicLong(System.nanoTime() - WARN_INTERVAL_NANOS);
+
+        private final Timer checkOutWait;
+
+        // removed with the pool, so a closed client's meters do not linger
+        private final List<Meter> meters = new ArrayList<>();
+
+        private Pool(ServerId serverId, int maxSize) {
+            this.serverId = serverId;
+            this.maxSize = maxSize;
+            this.tags = Tags.of("cluster.id", serverId.getClusterId().getValue(),
+                    "server.address", serverId.getAddress().toString());
+            this.checkOutWait = register(Timer.builder("mongo.pool.checkout.wait").tags(tags)
+                    .publishPercentiles(0.5, 0.99).register(meterRegistry));
+            register(Gauge.builder("mongo.pool.size", size, AtomicInteger::get).tags(tags).register(meterRegistry));
+            register(Gauge.builder("mongo.pool.checked-out", checkedOut, AtomicInteger::get).tags(tags)
+                    .register(meterRegistry));
+            register(Gauge.builder("mongo.pool.wait-queue", waiting, AtomicInteger::get).tags(tags)
+                    .register(meterRegistry));
+            register(Gauge.builder("mongo.pool.saturation", this, Pool::getSaturation).tags(tags)
+                    .register(meterRegistry));
+        }
+
+        private <M extends Meter> M register(M meter) {
+            synchronized (meters) {
+                if (!meters.contains(meter)) {
+                    meters.add(meter);
+                }
+            }
+            return meter;
+        }
+
+        private double getSaturation() {
+            return maxSize == 0 ? 0 : (double) checkedOut.get() / maxSize;
+        }
+
+        private void stopWaiting() {
+            waiting.decrementAndGet();
+            Long started = checkOutStartedNanos.get();
+            if (started != null) {
+                checkOutStartedNanos.remove();
+                checkOutWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        // at most once a minute per pool, a saturated pool checks out on almost every request
+        private void warnSaturated(int inUse) {
+            long now = System.nanoTime();
+            long last = lastWarnNanos.get();
+            if (now - last >= WARN_INTERVAL_NANOS && lastWarnNanos.compareAndSet(last, now)) {
+                log.warn("Mongo connection pool to {} is {}% saturated: {} of {} checked out, {} waiting",
+                        serverId.getAddress(), Math.round(100.0 * inUse / maxSize), inUse, maxSize, waiting.get());
+            }
+        }
+    }
+}
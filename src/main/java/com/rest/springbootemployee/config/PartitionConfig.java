@@ -0,0 +1,63 @@
+package com.rest.springbootemployee.config;
+
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.CompanySalaryRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeRangeRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeSalaryRepositoryImpl;
+import com.rest.springbootemployee.repository.partitioned.PartitionedCompanyRepository;
+import com.rest.springbootemployee.repository.partitioned.PartitionedEmployeeRepository;
+import com.rest.springbootemployee.repository.partitioned.PartitionedMongo;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.util.List;
+
+// employees and companies are spread over partitioned.uris; change feeds, sequences and everything else stay on
+// spring.data.mongodb.uri, where the unused employee and company repositories Boot creates also point
+@Configuration
+@Profile("partitioned")
+public class PartitionConfig {
+
+    @Bean(destroyMethod = "close")
+    public PartitionedMongo partitionedMongo(@Value("${partitioned.uris}") List<String> uris,
+                                             @Value("${partitioned.threads:16}") int threads,
+                                             @Value("${spring.data.mongodb.auto-index-creation:false}") boolean autoIndexCreation,
+                                             MongoConverter mongoConverter,
+                                             MongoMappingContext mongoMappingContext,
+                                             ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers) {
+        // the same pool sizes, timeouts and pool metrics as the main client, per partition
+        PartitionedMongo partitionedMongo = new PartitionedMongo(uris, mongoConverter,
+                builder -> customizers.orderedStream().forEach(customizer -> customizer.customize(builder)), threads);
+        if (autoIndexCreation) {
+            partitionedMongo.ensureIndexes(mongoMappingContext);
+        }
+        return partitionedMongo;
+    }
+
+    @Bean
+    @Primary
+    public EmployeeMongoRepository partitionedEmployeeRepository(PartitionedMongo partitionedMongo) {
+        return new PartitionedEmployeeRepository(partitionedMongo.partitions(template ->
+                new MongoRepositoryFactory(template).getRepository(EmployeeMongoRepository.class,
+                        RepositoryComposition.RepositoryFragments.just(new EmployeeRangeRepositoryImpl(template),
+                                new EmployeeSalaryRepositoryImpl(template)))));
+    }
+
+    @Bean
+    @Primary
+    public CompanyMongoRepository partitionedCompanyRepository(PartitionedMongo partitionedMongo) {
+        return new PartitionedCompanyRepository(partitionedMongo.partitions(template ->
+                new MongoRepositoryFactory(template).getRepository(CompanyMongoRepository.class,
+                        RepositoryComposition.RepositoryFragments.just(new CompanySalaryRepositoryImpl(template)))));
+    }
+}
@@ -0,0 +1,20 @@
+package com.rest.springbootemployee.config;
+
+import com.rest.springbootemployee.repository.file.FileStore;
+import com.rest.springbootemployee.repository.partitioned.PartitionedMongo;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+// spring.main.lazy-initialization (the fast-startup profile) defers every bean to its first use; data access stays
+// eager, so an unreachable database, an index conflict or a damaged store log fails the start rather than the first
+// request, and the first request does not pay for connecting and index checks
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerDataAccess() {
+        return LazyInitializationExcludeFilter.forBeanTypes(MongoOperations.class, PartitionedMongo.class, FileStore.class);
+    }
+}
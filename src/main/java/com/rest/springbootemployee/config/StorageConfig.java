@@ -0,0 +1,74 @@
+package com.rest.springbootemployee.config;
+
+import com.rest.springbootemployee.storage.CompactFieldNaming;
+import com.rest.springbootemployee.storage.FieldFormat;
+import com.rest.springbootemployee.storage.GenderConversions;
+import com.rest.springbootemployee.storage.StorageMongoConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.domain.EntityScanner;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Collections;
+
+// the stored layout of employees and companies follows storage.fields (see FieldFormat): these replace Boot's
+// conversions, mapping context and converter with the same ones plus the compact names and gender codes once they are
+// read, so derived queries, sorts and criteria against the entities map to the stored names on their own
+@Configuration
+@Profile("!inmemory & !filestore")
+public class StorageConfig {
+
+    @Bean
+    public FieldFormat storageFieldFormat(@Value("${storage.fields:legacy}") String fields) {
+        return FieldFormat.of(fields);
+    }
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(FieldFormat storageFieldFormat) {
+        if (!storageFieldFormat.readsCompact()) {
+            return new MongoCustomConversions(Collections.emptyList());
+        }
+        return MongoCustomConversions.create(adapter -> adapter.setPropertyValueConversions(new GenderConversions()));
+    }
+
+    @Bean
+    public MongoMappingContext mongoMappingContext(ApplicationContext applicationContext, MongoProperties properties,
+                                                   MongoCustomConversions mongoCustomConversions,
+                                                   FieldFormat storageFieldFormat) throws ClassNotFoundException {
+        MongoMappingContext context = new MongoMappingContext();
+        if (properties.isAutoIndexCreation() != null) {
+            context.setAutoIndexCreation(properties.isAutoIndexCreation());
+        }
+        context.setInitialEntitySet(new EntityScanner(applicationContext).scan(Document.class));
+        if (storageFieldFormat.readsCompact()) {
+            context.setFieldNamingStrategy(new CompactFieldNaming());
+        }
+        context.setSimpleTypeHolder(mongoCustomConversions.getSimpleTypeHolder());
+        return context;
+    }
+
+    // past legacy no _class type hints are written: nothing here is polymorphic, and every document would carry one
+    @Bean
+    public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory mongoDatabaseFactory,
+                                                       MongoMappingContext mongoMappingContext,
+                                                       MongoCustomConversions mongoCustomConversions,
+                                                       FieldFormat storageFieldFormat) {
+        StorageMongoConverter converter = new StorageMongoConverter(new DefaultDbRefResolver(mongoDatabaseFactory),
+                mongoMappingContext, storageFieldFormat);
+        converter.setCustomConversions(mongoCustomConversions);
+        if (storageFieldFormat != FieldFormat.LEGACY) {
+            converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        }
+        return converter;
+    }
+}
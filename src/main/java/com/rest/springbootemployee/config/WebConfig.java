@@ -0,0 +1,80 @@
+package com.rest.springbootemployee.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rest.springbootemployee.admission.AdmissionInterceptor;
+import com.rest.springbootemployee.cache.ResponseCache;
+import com.rest.springbootemployee.cache.ResponseCacheFilter;
+import com.rest.springbootemployee.converter.EntityProtobufHttpMessageConverter;
+import com.rest.springbootemployee.deadline.RequestDeadlineInterceptor;
+import com.rest.springbootemployee.startup.StartupRequestFilter;
+import com.rest.springbootemployee.startup.StartupTimings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    private final AdmissionInterceptor admissionInterceptor;
+
+    private final boolean admissionEnabled;
+
+    private final RequestDeadlineInterceptor requestDeadlineInterceptor;
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                     AdmissionInterceptor admissionInterceptor,
+                     @Value("${admission.enabled:true}") boolean admissionEnabled,
+                     RequestDeadlineInterceptor requestDeadlineInterceptor) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.admissionInterceptor = admissionInterceptor;
+        this.admissionEnabled = admissionEnabled;
+        this.requestDeadlineInterceptor = requestDeadlineInterceptor;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCache responseCache,
+                                                                           @Value("${response-cache.enabled:true}") boolean enabled) {
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(new ResponseCacheFilter(responseCache));
+        registration.addUrlPatterns("/employees", "/companies");
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<StartupRequestFilter> startupRequestFilter(StartupTimings startupTimings) {
+        return new FilterRegistrationBean<>(new StartupRequestFilter(startupTimings));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestDeadlineInterceptor).addPathPatterns("/employees/**", "/companies/**");
+        if (admissionEnabled) {
+            registry.addInterceptor(admissionInterceptor).addPathPatterns("/employees/**", "/companies/**");
+        }
+    }
+
+    // appended after the JSON converter so clients that send no Accept header (or */*) keep getting JSON;
+    // the defaults Spring adds for CBOR and Smile are rebuilt from Boot's builder so spring.jackson.* applies to them too
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(new EntityProtobufHttpMessageConverter());
+    }
+}
@@ -1,11 +1,28 @@
 package com.rest.springbootemployee.controller;
 
+import com.rest.springbootemployee.admission.AdmissionPriority;
+import com.rest.springbootemployee.admission.Priority;
+import com.rest.springbootemployee.deadline.RequestTimeout;
+import com.rest.springbootemployee.dto.ChangeFeed;
 import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.CompanyChange;
+import com.rest.springbootemployee.search.NameMatch;
 import com.rest.springbootemployee.service.CompanyService;
+import com.rest.springbootemployee.service.ChangeFeedService;
+import com.rest.springbootemployee.service.EventStreamService;
+import com.rest.springbootemployee.service.NameSearchService;
+import com.rest.springbootemployee.service.TotalCountService;
 import com.rest.springbootemployee.entity.Employee;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @RestController
@@ -13,15 +30,43 @@ import java.util.List;
 public class CompanyController {
     private CompanyService companyService;
 
-    public CompanyController(CompanyService companyService) {
+    private NameSearchService nameSearchService;
+
+    private ChangeFeedService changeFeedService;
+
+    private EventStreamService eventStreamService;
+
+    private TotalCountService totalCountService;
+
+    public CompanyController(CompanyService companyService, NameSearchService nameSearchService,
+                             ChangeFeedService changeFeedService, EventStreamService eventStreamService,
+                             TotalCountService totalCountService) {
         this.companyService = companyService;
+        this.nameSearchService = nameSearchService;
+        this.changeFeedService = changeFeedService;
+        this.eventStreamService = eventStreamService;
+        this.totalCountService = totalCountService;
     }
 
+    @RequestTimeout(30000)
+    @AdmissionPriority(Priority.LOW)
     @GetMapping
     public List<Company> getAll() {
         return companyService.findAll();
     }
 
+    @GetMapping("/search")
+    public List<NameMatch> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return nameSearchService.searchCompanies(q, limit);
+    }
+
+    @GetMapping("/changes")
+    public ChangeFeed<CompanyChange> getChanges(@RequestParam(required = false) String since,
+                                                @RequestParam(defaultValue = "500") int limit) {
+        return changeFeedService.findCompanyChanges(since, limit);
+    }
+
+    @AdmissionPriority(Priority.HIGH)
     @GetMapping("/{id}")
     public Company getById(@PathVariable String id) {
         return companyService.findById(id);
@@ -32,9 +77,30 @@ public class CompanyController {
         return companyService.getEmployees(id);
     }
 
+    @RequestTimeout(300000)
+    @AdmissionPriority(Priority.LOW)
+    @GetMapping(path = "/{id}/employees/export.csv", produces = CsvExport.TEXT_CSV)
+    public void exportEmployeesCsv(@PathVariable String id,
+                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                   HttpServletResponse response) throws IOException {
+        // looked up before the response is opened so an unknown company still gets a 404
+        Company company = companyService.findById(id);
+        try (OutputStream out = CsvExport.open(response, "company-" + id + "-employees.csv", acceptEncoding)) {
+            companyService.exportEmployeesCsv(company, out);
+        }
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(@PathVariable String id) {
+        return eventStreamService.subscribeCompany(id);
+    }
+
+    @AdmissionPriority(Priority.LOW)
     @GetMapping(params = {"page", "pageSize"})
-    public List<Company> getByPage(Integer page, Integer pageSize) {
-        return companyService.findByPage(page, pageSize);
+    public ResponseEntity<List<Company>> getByPage(Integer page, Integer pageSize, HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .header(TotalCount.HEADER, String.valueOf(totalCountService.countCompanies()))
+                .body(companyService.findByPage(PagingClient.of(request), page, pageSize));
     }
 
     @PostMapping
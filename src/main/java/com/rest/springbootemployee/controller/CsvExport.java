@@ -0,0 +1,43 @@
+package com.rest.springbootemployee.controller;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+final class CsvExport {
+    static final String TEXT_CSV = "text/csv";
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private CsvExport() {
+    }
+
+    // no Content-Length is set, so the container streams the body with chunked transfer encoding
+    static OutputStream open(HttpServletResponse response, String fileName, String acceptEncoding) throws IOException {
+        response.setContentType(TEXT_CSV + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + fileName.replaceAll("[^A-Za-z0-9._-]", "_") + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+        }
+        return response.getOutputStream();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,36 @@
 package com.rest.springbootemployee.controller;
 
+import com.rest.springbootemployee.admission.AdmissionPriority;
+import com.rest.springbootemployee.admission.Priority;
+import com.rest.springbootemployee.deadline.RequestTimeout;
+import com.rest.springbootemployee.dto.AnalyticsQuery;
+import com.rest.springbootemployee.dto.AnalyticsResult;
+import com.rest.springbootemployee.dto.AnalyticsSnapshot;
+import com.rest.springbootemployee.dto.CursorPage;
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.ChangeFeed;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.dto.SalaryAdjustmentResult;
 import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import com.rest.springbootemployee.search.NameMatch;
+import com.rest.springbootemployee.service.EmployeeAnalyticsService;
 import com.rest.springbootemployee.service.EmployeeService;
+import com.rest.springbootemployee.service.ChangeFeedService;
+import com.rest.springbootemployee.service.EventStreamService;
+import com.rest.springbootemployee.service.NameSearchService;
+import com.rest.springbootemployee.service.TotalCountService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @RestController
@@ -13,30 +39,101 @@ public class EmployeeController {
 
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private NameSearchService nameSearchService;
+
+    private ChangeFeedService changeFeedService;
+
+    private EventStreamService eventStreamService;
+
+    private TotalCountService totalCountService;
+
+    private EmployeeAnalyticsService employeeAnalyticsService;
+
+    public EmployeeController(EmployeeService employeeService, NameSearchService nameSearchService,
+                              ChangeFeedService changeFeedService, EventStreamService eventStreamService,
+                              TotalCountService totalCountService, EmployeeAnalyticsService employeeAnalyticsService) {
         this.employeeService = employeeService;
+        this.nameSearchService = nameSearchService;
+        this.changeFeedService = changeFeedService;
+        this.eventStreamService = eventStreamService;
+        this.totalCountService = totalCountService;
+        this.employeeAnalyticsService = employeeAnalyticsService;
     }
 
+    @RequestTimeout(30000)
+    @AdmissionPriority(Priority.LOW)
     @GetMapping
     public List<Employee> getAll() {
         return employeeService.findAll();
     }
 
+    @GetMapping("/search")
+    public List<NameMatch> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return nameSearchService.searchEmployees(q, limit);
+    }
+
+    @AdmissionPriority(Priority.LOW)
+    @GetMapping("/analytics")
+    public AnalyticsResult analytics(AnalyticsQuery query) {
+        return employeeAnalyticsService.query(query);
+    }
+
+    @GetMapping("/analytics/snapshot")
+    public AnalyticsSnapshot analyticsSnapshot() {
+        return employeeAnalyticsService.getSnapshot();
+    }
+
+    @GetMapping("/changes")
+    public ChangeFeed<EmployeeChange> getChanges(@RequestParam(required = false) String since,
+                                                 @RequestParam(defaultValue = "500") int limit) {
+        return changeFeedService.findEmployeeChanges(since, limit);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents() {
+        return eventStreamService.subscribeEmployees();
+    }
+
+    @RequestTimeout(300000)
+    @AdmissionPriority(Priority.LOW)
+    @GetMapping(path = "/export.csv", produces = CsvExport.TEXT_CSV)
+    public void exportCsv(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                          HttpServletResponse response) throws IOException {
+        try (OutputStream out = CsvExport.open(response, "employees.csv", acceptEncoding)) {
+            employeeService.exportCsv(out);
+        }
+    }
+
+    @AdmissionPriority(Priority.HIGH)
     @GetMapping("/{id}")
     public Employee getById(@PathVariable String id) {
         return employeeService.findById(id);
     }
 
-    @GetMapping(params = {"gender"})
+    @AdmissionPriority(Priority.LOW)
+    @GetMapping(params = {"gender", "!sortBy", "!page"})
     public List<Employee> getByGender(@RequestParam String gender) {
         return employeeService.findByGender(gender);
     }
 
+    @GetMapping(params = {"sortBy"})
+    public CursorPage<Employee> getByRange(EmployeeRangeQuery query) {
+        return employeeService.findByRange(query);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Employee add(@RequestBody Employee employee) {
         return employeeService.create(employee);
     }
+
+    @RequestTimeout(300000)
+    @AdmissionPriority(Priority.LOW)
+    @PostMapping("/_adjust-salary")
+    public SalaryAdjustmentResult adjustSalaries(@RequestBody SalaryAdjustment adjustment) {
+        return employeeService.adjustSalaries(adjustment);
+    }
+
     @PutMapping("/{id}")
     public Employee update(@PathVariable String id, @RequestBody Employee employee) {
         return employeeService.update(id, employee);
@@ -49,9 +146,13 @@ public class EmployeeController {
     }
 
 
+    @AdmissionPriority(Priority.LOW)
     @GetMapping(params = {"page", "pageSize"})
-    public List<Employee> getByPage(int page, int pageSize) {
-        return employeeService.findByPage(page, pageSize);
+    public ResponseEntity<List<Employee>> getByPage(@RequestParam(required = false) String gender, int page, int pageSize,
+                                                    HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .header(TotalCount.HEADER, String.valueOf(totalCountService.countEmployees(gender)))
+                .body(employeeService.findByPage(PagingClient.of(request), gender, page, pageSize));
     }
 
 }
@@ -0,0 +1,25 @@
+package com.rest.springbootemployee.controller;
+
+import com.rest.springbootemployee.cache.HotRecords;
+import com.rest.springbootemployee.dto.HotKeyReport;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/hot-keys")
+public class HotKeyController {
+
+    private HotRecords hotRecords;
+
+    public HotKeyController(HotRecords hotRecords) {
+        this.hotRecords = hotRecords;
+    }
+
+    @GetMapping
+    public List<HotKeyReport> getAll() {
+        return hotRecords.report();
+    }
+}
@@ -0,0 +1,36 @@
+package com.rest.springbootemployee.controller;
+
+import com.rest.springbootemployee.dto.ImportJob;
+import com.rest.springbootemployee.dto.ImportRequest;
+import com.rest.springbootemployee.service.BulkImportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/imports")
+public class ImportController {
+
+    private BulkImportService bulkImportService;
+
+    public ImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportJob start(@RequestBody ImportRequest request) {
+        return bulkImportService.start(request);
+    }
+
+    @GetMapping
+    public List<ImportJob> getAll() {
+        return bulkImportService.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public ImportJob getById(@PathVariable String id) {
+        return bulkImportService.findById(id);
+    }
+}
@@ -0,0 +1,22 @@
+package com.rest.springbootemployee.controller;
+
+import com.rest.springbootemployee.startup.WarmUp;
+
+import javax.servlet.http.HttpServletRequest;
+
+final class PagingClient {
+    // batch consumers behind a shared proxy or NAT should send their own id, otherwise the remote address is used
+    static final String HEADER = "X-Client-Id";
+
+    private PagingClient() {
+    }
+
+    // null for the warm-up, whose paging should not be read ahead for a client that never comes back
+    static String of(HttpServletRequest request) {
+        if (WarmUp.isWarmUp(request)) {
+            return null;
+        }
+        String clientId = request.getHeader(HEADER);
+        return clientId == null || clientId.isEmpty() ? request.getRemoteAddr() : clientId;
+    }
+}
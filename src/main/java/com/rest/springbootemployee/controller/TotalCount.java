@@ -0,0 +1,9 @@
+package com.rest.springbootemployee.controller;
+
+final class TotalCount {
+    // the page body stays a plain array; the total across all pages for the same filter goes in this header
+    static final String HEADER = "X-Total-Count";
+
+    private TotalCount() {
+    }
+}
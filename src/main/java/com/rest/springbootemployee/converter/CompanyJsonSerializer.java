@@ -0,0 +1,48 @@
+package com.rest.springbootemployee.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+
+@JsonComponent
+public class CompanyJsonSerializer extends StdSerializer<Company> {
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString NAME = new SerializedString("name");
+
+    private static final SerializedString EMPLOYEES = new SerializedString("employees");
+
+    public CompanyJsonSerializer() {
+        super(Company.class);
+    }
+
+    @Override
+    public void serialize(Company company, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(company);
+        EmployeeJsonSerializer.writeString(generator, ID, company.getId());
+        EmployeeJsonSerializer.writeString(generator, NAME, company.getName());
+        generator.writeFieldName(EMPLOYEES);
+        List<Employee> employees = company.getEmployees();
+        if (employees == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray(employees, employees.size());
+            for (Employee employee : employees) {
+                if (employee == null) {
+                    generator.writeNull();
+                } else {
+                    EmployeeJsonSerializer.write(employee, generator);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
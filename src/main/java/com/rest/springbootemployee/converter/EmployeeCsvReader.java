@@ -0,0 +1,109 @@
+package com.rest.springbootemployee.converter;
+
+import com.rest.springbootemployee.entity.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// reads the rows EmployeeCsvWriter writes; columns are matched by header name, so order and extra columns don't matter
+public final class EmployeeCsvReader {
+    private static final List<String> COLUMNS = Arrays.asList("id", "name", "age", "gender", "salary");
+
+    // index of each of COLUMNS in a row, -1 when the file has no such column
+    private final int[] positions;
+
+    private EmployeeCsvReader(int[] positions) {
+        this.positions = positions;
+    }
+
+    public static EmployeeCsvReader forHeader(byte[] bytes, int offset, int length) {
+        List<String> header = fields(bytes, offset, length);
+        int[] positions = new int[COLUMNS.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = header.indexOf(COLUMNS.get(i));
+        }
+        if (positions[1] < 0) {
+            throw new IllegalArgumentException("CSV header has no name column: " + header);
+        }
+        return new EmployeeCsvReader(positions);
+    }
+
+    public Employee read(byte[] bytes, int offset, int length) {
+        List<String> row = fields(bytes, offset, length);
+        return new Employee(text(row, 0), text(row, 1), number(row, 2), text(row, 3), number(row, 4));
+    }
+
+    private String text(List<String> row, int column) {
+        int position = positions[column];
+        if (position < 0 || position >= row.size() || row.get(position).isEmpty()) {
+            return null;
+        }
+        return row.get(position);
+    }
+
+    private Integer number(List<String> row, int column) {
+        String value = text(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException(COLUMNS.get(column) + " is not a number: " + value);
+        }
+    }
+
+    // RFC 4180 fields of one record; a trailing CR is ignored
+    static List<String> fields(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        if (end > offset && bytes[end - 1] == '\r') {
+            end--;
+        }
+        List<String> fields = new ArrayList<>(COLUMNS.size());
+        int i = offset;
+        while (true) {
+            if (i < end && bytes[i] == '"') {
+                i = quoted(bytes, i + 1, end, fields);
+            } else {
+                int start = i;
+                while (i < end && bytes[i] != ',') {
+                    i++;
+                }
+                fields.add(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+            }
+            if (i >= end) {
+                return fields;
+            }
+            if (bytes[i] != ',') {
+                throw new IllegalArgumentException("unexpected character after closing quote");
+            }
+            i++;
+        }
+    }
+
+    private static int quoted(byte[] bytes, int start, int end, List<String> fields) {
+        byte[] unescaped = new byte[end - start];
+        int length = 0;
+        int i = start;
+        while (true) {
+            if (i >= end) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            if (bytes[i] == '"') {
+                if (i + 1 < end && bytes[i + 1] == '"') {
+                    unescaped[length++] = '"';
+                    i += 2;
+                    continue;
+                }
+                break;
+            }
+            unescaped[length++] = bytes[i++];
+        }
+        // EmployeeCsvWriter quotes formula-like text behind a leading '
+        int from = length > 1 && unescaped[0] == '\'' && "=+-@".indexOf(unescaped[1]) >= 0 ? 1 : 0;
+        fields.add(new String(unescaped, from, length - from, StandardCharsets.UTF_8));
+        return i + 1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.rest.springbootemployee.converter;
+
+import com.rest.springbootemployee.entity.Employee;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+// RFC 4180: comma separated, CRLF line endings, fields quoted when they contain a comma, quote or line break
+public final class EmployeeCsvWriter {
+    public static final String HEADER = "id,name,age,gender,salary";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private EmployeeCsvWriter() {
+    }
+
+    // flushes but does not close the stream; the caller owns it
+    public static long write(Iterator<Employee> employees, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write("\r\n");
+        long rows = 0;
+        while (employees.hasNext()) {
+            Employee employee = employees.next();
+            if (employee == null) {
+                continue;
+            }
+            writeText(writer, employee.getId());
+            writer.write(',');
+            writeText(writer, employee.getName());
+            writer.write(',');
+            writeNumber(writer, employee.getAge());
+            writer.write(',');
+            writeText(writer, employee.getGender());
+            writer.write(',');
+            writeNumber(writer, employee.getSalary());
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeNumber(Writer writer, Integer value) throws IOException {
+        if (value != null) {
+            writer.write(Integer.toString(value));
+        }
+    }
+
+    private static void writeText(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        // spreadsheets evaluate cells starting with these as formulas, so keep them as text
+        boolean formula = "=+-@".indexOf(value.charAt(0)) >= 0;
+        if (!formula && !needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.rest.springbootemployee.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rest.springbootemployee.entity.Employee;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+// writes the same bytes as the reflective bean serializer (declaration order, nulls included)
+// with field names encoded once up front
+@JsonComponent
+public class EmployeeJsonSerializer extends StdSerializer<Employee> {
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString NAME = new SerializedString("name");
+
+    private static final SerializedString AGE = new SerializedString("age");
+
+    private static final SerializedString GENDER = new SerializedString("gender");
+
+    private static final SerializedString SALARY = new SerializedString("salary");
+
+    public EmployeeJsonSerializer() {
+        super(Employee.class);
+    }
+
+    @Override
+    public void serialize(Employee employee, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(employee, generator);
+    }
+
+    static void write(Employee employee, JsonGenerator generator) throws IOException {
+        generator.writeStartObject(employee);
+        writeString(generator, ID, employee.getId());
+        writeString(generator, NAME, employee.getName());
+        writeInt(generator, AGE, employee.getAge());
+        writeString(generator, GENDER, employee.getGender());
+        writeInt(generator, SALARY, employee.getSalary());
+        generator.writeEndObject();
+    }
+
+    static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    static void writeInt(JsonGenerator generator, SerializedString name, Integer value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.intValue());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.rest.springbootemployee.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.rest.springbootemployee.advice.ErrorResponse;
+import com.rest.springbootemployee.dto.CursorPage;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@SuppressWarnings("unchecked")
+public class EntityProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private enum Kind { EMPLOYEE, COMPANY, EMPLOYEES, COMPANIES, EMPLOYEE_PAGE, ERROR }
+
+    public EntityProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return kindOf(clazz) != null;
+    }
+
+    // content negotiation asks with the raw value class once canWrite has accepted the generic type
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) || CursorPage.class == clazz
+                ? getSupportedMediaTypes()
+                : Collections.emptyList();
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        Kind kind = kindOf(type);
+        if (kind == Kind.EMPLOYEES || kind == Kind.COMPANIES) {
+            // lists are decoded into an ArrayList
+            return ResolvableType.forType(type).resolve(Object.class).isAssignableFrom(List.class) && canRead(mediaType);
+        }
+        return (kind == Kind.EMPLOYEE || kind == Kind.COMPANY) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return kindOf(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return decode(kindOf(type), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return decode(kindOf(clazz), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Kind kind = kindOf(type != null ? type : value.getClass());
+        if (kind == null) {
+            throw new HttpMessageNotWritableException("No protobuf mapping for " + type);
+        }
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+        switch (kind) {
+            case EMPLOYEE:
+                ProtobufCodec.writeEmployee(out, (Employee) value);
+                break;
+            case COMPANY:
+                ProtobufCodec.writeCompany(out, (Company) value);
+                break;
+            case EMPLOYEES:
+                ProtobufCodec.writeEmployees(out, 1, (Collection<Employee>) value);
+                break;
+            case COMPANIES:
+                ProtobufCodec.writeCompanies(out, 1, (Collection<Company>) value);
+                break;
+            case EMPLOYEE_PAGE:
+                ProtobufCodec.writeEmployeePage(out, (CursorPage<Employee>) value);
+                break;
+            default:
+                ProtobufCodec.writeErrorResponse(out, (ErrorResponse) value);
+        }
+        out.flush();
+    }
+
+    private Object decode(Kind kind, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+        try {
+            switch (kind) {
+                case EMPLOYEE:
+                    return ProtobufCodec.readEmployee(in);
+                case COMPANY:
+                    return ProtobufCodec.readCompany(in);
+                case EMPLOYEES:
+                    return ProtobufCodec.readEmployees(in);
+                case COMPANIES:
+                    return ProtobufCodec.readCompanies(in);
+                default:
+                    throw new HttpMessageNotReadableException("No protobuf mapping for " + kind, inputMessage);
+            }
+        } catch (InvalidProtocolBufferException exception) {
+            throw new HttpMessageNotReadableException("Malformed protobuf body: " + exception.getMessage(), exception, inputMessage);
+        }
+    }
+
+    private static Kind kindOf(Type type) {
+        if (type == null) {
+            return null;
+        }
+        ResolvableType resolvable = ResolvableType.forType(type);
+        Class<?> raw = resolvable.resolve(Object.class);
+        if (Employee.class == raw) {
+            return Kind.EMPLOYEE;
+        }
+        if (Company.class == raw) {
+            return Kind.COMPANY;
+        }
+        if (ErrorResponse.class == raw) {
+            return Kind.ERROR;
+        }
+        Class<?> element = resolvable.getGeneric(0).resolve(Object.class);
+        if (CursorPage.class == raw && Employee.class == element) {
+            return Kind.EMPLOYEE_PAGE;
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            if (Employee.class == element) {
+                return Kind.EMPLOYEES;
+            }
+            if (Company.class == element) {
+                return Kind.COMPANIES;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rest.springbootemployee.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rest.springbootemployee.advice.ErrorResponse;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+@JsonComponent
+public class ErrorResponseJsonSerializer extends StdSerializer<ErrorResponse> {
+    private static final SerializedString CODE = new SerializedString("code");
+
+    private static final SerializedString MESSAGE = new SerializedString("message");
+
+    public ErrorResponseJsonSerializer() {
+        super(ErrorResponse.class);
+    }
+
+    @Override
+    public void serialize(ErrorResponse errorResponse, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(errorResponse);
+        generator.writeFieldName(CODE);
+        generator.writeNumber(errorResponse.getCode());
+        EmployeeJsonSerializer.writeString(generator, MESSAGE, errorResponse.getMessage());
+        generator.writeEndObject();
+    }
+}
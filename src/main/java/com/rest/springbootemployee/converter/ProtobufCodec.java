@@ -0,0 +1,192 @@
+package com.rest.springbootemployee.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.rest.springbootemployee.advice.ErrorResponse;
+import com.rest.springbootemployee.dto.CursorPage;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// hand-written against static/proto/employees.proto, so entities are written straight to the stream
+// instead of being copied into generated message objects first
+public final class ProtobufCodec {
+    private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    private ProtobufCodec() {
+    }
+
+    public static void writeEmployee(CodedOutputStream out, Employee employee) throws IOException {
+        writeString(out, 1, employee.getId());
+        writeString(out, 2, employee.getName());
+        writeInt(out, 3, employee.getAge());
+        writeString(out, 4, employee.getGender());
+        writeInt(out, 5, employee.getSalary());
+    }
+
+    public static void writeCompany(CodedOutputStream out, Company company) throws IOException {
+        writeString(out, 1, company.getId());
+        writeString(out, 2, company.getName());
+        writeEmployees(out, 3, company.getEmployees());
+    }
+
+    public static void writeEmployees(CodedOutputStream out, int field, Collection<Employee> employees) throws IOException {
+        if (employees == null) {
+            return;
+        }
+        for (Employee employee : employees) {
+            if (employee != null) {
+                out.writeTag(field, LENGTH_DELIMITED);
+                out.writeUInt32NoTag(employeeSize(employee));
+                writeEmployee(out, employee);
+            }
+        }
+    }
+
+    public static void writeCompanies(CodedOutputStream out, int field, Collection<Company> companies) throws IOException {
+        for (Company company : companies) {
+            if (company != null) {
+                out.writeTag(field, LENGTH_DELIMITED);
+                out.writeUInt32NoTag(companySize(company));
+                writeCompany(out, company);
+            }
+        }
+    }
+
+    public static void writeEmployeePage(CodedOutputStream out, CursorPage<Employee> page) throws IOException {
+        writeEmployees(out, 1, page.getItems());
+        writeString(out, 2, page.getNextCursor());
+    }
+
+    public static void writeErrorResponse(CodedOutputStream out, ErrorResponse errorResponse) throws IOException {
+        out.writeInt32(1, errorResponse.getCode());
+        writeString(out, 2, errorResponse.getMessage());
+    }
+
+    public static Employee readEmployee(CodedInputStream in) throws IOException {
+        Employee employee = new Employee(null, null, null, null, null);
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1:
+                    employee.setId(in.readStringRequireUtf8());
+                    break;
+                case 2:
+                    employee.setName(in.readStringRequireUtf8());
+                    break;
+                case 3:
+                    employee.setAge(in.readInt32());
+                    break;
+                case 4:
+                    employee.setGender(in.readStringRequireUtf8());
+                    break;
+                case 5:
+                    employee.setSalary(in.readInt32());
+                    break;
+                default:
+                    in.skipField(tag);
+            }
+        }
+        return employee;
+    }
+
+    public static Company readCompany(CodedInputStream in) throws IOException {
+        Company company = new Company(null, null, new ArrayList<>());
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1:
+                    company.setId(in.readStringRequireUtf8());
+                    break;
+                case 2:
+                    company.setName(in.readStringRequireUtf8());
+                    break;
+                case 3:
+                    company.getEmployees().add(readNested(in, false));
+                    break;
+                default:
+                    in.skipField(tag);
+            }
+        }
+        return company;
+    }
+
+    public static List<Employee> readEmployees(CodedInputStream in) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (WireFormat.getTagFieldNumber(tag) == 1) {
+                employees.add(readNested(in, false));
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return employees;
+    }
+
+    public static List<Company> readCompanies(CodedInputStream in) throws IOException {
+        List<Company> companies = new ArrayList<>();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            if (WireFormat.getTagFieldNumber(tag) == 1) {
+                companies.add(readNested(in, true));
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return companies;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T readNested(CodedInputStream in, boolean company) throws IOException {
+        int limit = in.pushLimit(in.readRawVarint32());
+        Object value = company ? readCompany(in) : readEmployee(in);
+        in.checkLastTagWas(0);
+        in.popLimit(limit);
+        return (T) value;
+    }
+
+    private static int employeeSize(Employee employee) {
+        return stringSize(1, employee.getId())
+                + stringSize(2, employee.getName())
+                + intSize(3, employee.getAge())
+                + stringSize(4, employee.getGender())
+                + intSize(5, employee.getSalary());
+    }
+
+    private static int companySize(Company company) {
+        int size = stringSize(1, company.getId()) + stringSize(2, company.getName());
+        if (company.getEmployees() != null) {
+            for (Employee employee : company.getEmployees()) {
+                if (employee != null) {
+                    int employeeSize = employeeSize(employee);
+                    size += CodedOutputStream.computeTagSize(3) + CodedOutputStream.computeUInt32SizeNoTag(employeeSize) + employeeSize;
+                }
+            }
+        }
+        return size;
+    }
+
+    // proto3 strings have no presence, so null and empty both go unwritten
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            out.writeString(field, value);
+        }
+    }
+
+    // age and salary are proto3 optional, so a present zero is still written
+    private static void writeInt(CodedOutputStream out, int field, Integer value) throws IOException {
+        if (value != null) {
+            out.writeInt32(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null || value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static int intSize(int field, Integer value) {
+        return value == null ? 0 : CodedOutputStream.computeInt32Size(field, value);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rest.springbootemployee.deadline;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+// every template and repository operation goes through prepareCollection, so wrapping the collection there
+// applies the request deadline as maxTimeMS to reads, counts, aggregations and find-and-modify, and refuses to
+// start any operation (writes included) once the deadline has passed
+public class DeadlineMongoTemplate extends MongoTemplate {
+    public DeadlineMongoTemplate(MongoDatabaseFactory mongoDbFactory, MongoConverter mongoConverter) {
+        super(mongoDbFactory, mongoConverter);
+    }
+
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        RequestDeadline deadline = RequestDeadline.current();
+        return deadline == null ? prepared : withDeadline(prepared, deadline);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static MongoCollection<Document> withDeadline(MongoCollection<Document> collection, RequestDeadline deadline) {
+        return (MongoCollection<Document>) Proxy.newProxyInstance(MongoCollection.class.getClassLoader(),
+                new Class<?>[]{MongoCollection.class}, new DeadlineHandler(collection, deadline));
+    }
+
+    private static class DeadlineHandler implements InvocationHandler {
+        private final MongoCollection<Document> target;
+
+        private final RequestDeadline deadline;
+
+        private DeadlineHandler(MongoCollection<Document> target, RequestDeadline deadline) {
+            this.target = target;
+            this.deadline = deadline;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            long remaining = deadline.remainingMillis();
+            if (args != null) {
+                for (Object arg : args) {
+                    limitOptions(arg, remaining);
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException exception) {
+                throw exception.getCause();
+            }
+            if (result instanceof FindIterable) {
+                ((FindIterable<?>) result).maxTime(remaining, TimeUnit.MILLISECONDS);
+            } else if (result instanceof AggregateIterable) {
+                ((AggregateIterable<?>) result).maxTime(remaining, TimeUnit.MILLISECONDS);
+            } else if (result instanceof DistinctIterable) {
+                ((DistinctIterable<?>) result).maxTime(remaining, TimeUnit.MILLISECONDS);
+            } else if (result instanceof MongoCollection) {
+                // withReadPreference, withWriteConcern and friends
+                return withDeadline((MongoCollection<Document>) result, deadline);
+            }
+            return result;
+        }
+
+        // options built from a query that already carries a shorter maxTime keep it
+        private void limitOptions(Object arg, long remaining) {
+            if (arg instanceof CountOptions) {
+                CountOptions options = (CountOptions) arg;
+                options.maxTime(shorter(options.getMaxTime(TimeUnit.MILLISECONDS), remaining), TimeUnit.MILLISECONDS);
+            } else if (arg instanceof EstimatedDocumentCountOptions) {
+                EstimatedDocumentCountOptions options = (EstimatedDocumentCountOptions) arg;
+                options.maxTime(shorter(options.getMaxTime(TimeUnit.MILLISECONDS), remaining), TimeUnit.MILLISECONDS);
+            } else if (arg instanceof FindOneAndUpdateOptions) {
+                FindOneAndUpdateOptions options = (FindOneAndUpdateOptions) arg;
+                options.maxTime(shorter(options.getMaxTime(TimeUnit.MILLISECONDS), remaining), TimeUnit.MILLISECONDS);
+            } else if (arg instanceof FindOneAndReplaceOptions) {
+                FindOneAndReplaceOptions options = (FindOneAndReplaceOptions) arg;
+                options.maxTime(shorter(options.getMaxTime(TimeUnit.MILLISECONDS), remaining), TimeUnit.MILLISECONDS);
+            } else if (arg instanceof FindOneAndDeleteOptions) {
+                FindOneAndDeleteOptions options = (FindOneAndDeleteOptions) arg;
+                options.maxTime(shorter(options.getMaxTime(TimeUnit.MILLISECONDS), remaining), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private static long shorter(long current, long remaining) {
+            return current > 0 ? Math.min(current, remaining) : remaining;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.rest.springbootemployee.deadline;
+
+import com.rest.springbootemployee.exception.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// the deadline of the request being handled on this thread; services reach Mongo on the request thread,
+// so DeadlineMongoTemplate picks it up without it being passed through every service and repository method
+public final class RequestDeadline {
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long timeoutMs;
+
+    private final long deadlineNanos;
+
+    private RequestDeadline(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    public static RequestDeadline start(long timeoutMs) {
+        RequestDeadline deadline = new RequestDeadline(timeoutMs);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // runs work on another thread under the caller's deadline, e.g. one leg of a scatter-gather read
+    public static <T> T callWith(RequestDeadline deadline, Supplier<T> work) {
+        RequestDeadline previous = CURRENT.get();
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    // at least 1, because maxTimeMS=0 means no limit to Mongo
+    public long remainingMillis() {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remaining <= 0) {
+            throw new DeadlineExceededException(timeoutMs);
+        }
+        return remaining;
+    }
+}
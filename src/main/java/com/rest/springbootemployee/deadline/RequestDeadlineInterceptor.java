@@ -0,0 +1,65 @@
+package com.rest.springbootemployee.deadline;
+
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final long defaultMs;
+
+    private final long maxMs;
+
+    public RequestDeadlineInterceptor(@Value("${deadline.default-ms:5000}") long defaultMs,
+                                      @Value("${deadline.max-ms:300000}") long maxMs) {
+        this.defaultMs = defaultMs;
+        this.maxMs = maxMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        RequestDeadline.start(timeoutMs(request, (HandlerMethod) handler));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception exception) {
+        RequestDeadline.clear();
+    }
+
+    // async handlers (event streams, deferred results) release the request thread without afterCompletion running
+    // on it, so the deadline is cleared here before the thread goes back to the pool
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    private long timeoutMs(HttpServletRequest request, HandlerMethod handler) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            long timeoutMs;
+            try {
+                timeoutMs = Long.parseLong(header.trim());
+            } catch (NumberFormatException exception) {
+                throw new InvalidQueryException(TIMEOUT_HEADER + " must be a number of milliseconds");
+            }
+            if (timeoutMs <= 0) {
+                throw new InvalidQueryException(TIMEOUT_HEADER + " must be positive");
+            }
+            return Math.min(timeoutMs, maxMs);
+        }
+        RequestTimeout timeout = handler.getMethodAnnotation(RequestTimeout.class);
+        return Math.min(timeout == null ? defaultMs : timeout.value(), maxMs);
+    }
+}
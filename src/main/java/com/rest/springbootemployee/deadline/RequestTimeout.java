@@ -0,0 +1,14 @@
+package com.rest.springbootemployee.deadline;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// per-endpoint default deadline in milliseconds, used when the request has no X-Request-Timeout-Ms header;
+// handler methods without it get deadline.default-ms
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestTimeout {
+    long value();
+}
@@ -0,0 +1,77 @@
+package com.rest.springbootemployee.dto;
+
+public class AnalyticsQuery {
+    public static final int DEFAULT_AGE_BUCKET = 10;
+
+    private String gender;
+
+    private Integer minSalary;
+
+    private Integer maxSalary;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+    // none, gender or age
+    private String groupBy = "none";
+
+    // width of the age bands when grouping by age
+    private Integer ageBucket = DEFAULT_AGE_BUCKET;
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public Integer getMinSalary() {
+        return minSalary;
+    }
+
+    public void setMinSalary(Integer minSalary) {
+        this.minSalary = minSalary;
+    }
+
+    public Integer getMaxSalary() {
+        return maxSalary;
+    }
+
+    public void setMaxSalary(Integer maxSalary) {
+        this.maxSalary = maxSalary;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public Integer getAgeBucket() {
+        return ageBucket;
+    }
+
+    public void setAgeBucket(Integer ageBucket) {
+        this.ageBucket = ageBucket;
+    }
+}
@@ -0,0 +1,40 @@
+package com.rest.springbootemployee.dto;
+
+import com.rest.springbootemployee.analytics.GroupTotals;
+
+import java.time.Instant;
+import java.util.List;
+
+public class AnalyticsResult {
+    // when the snapshot the query ran against was taken; writes since then are not in it
+    private final Instant snapshotAt;
+
+    private final long scanned;
+
+    private final long matched;
+
+    private final List<GroupTotals> groups;
+
+    public AnalyticsResult(Instant snapshotAt, long scanned, long matched, List<GroupTotals> groups) {
+        this.snapshotAt = snapshotAt;
+        this.scanned = scanned;
+        this.matched = matched;
+        this.groups = groups;
+    }
+
+    public Instant getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public List<GroupTotals> getGroups() {
+        return groups;
+    }
+}
@@ -0,0 +1,52 @@
+package com.rest.springbootemployee.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class AnalyticsSnapshot {
+    private final long rows;
+
+    private final Instant builtAt;
+
+    private final long buildMillis;
+
+    private final long bytes;
+
+    // bytes scaled to a million rows, for comparing against the heap a List<Employee> of the same rows would take
+    private final long bytesPerMillionEmployees;
+
+    private final List<String> genders;
+
+    public AnalyticsSnapshot(long rows, Instant builtAt, long buildMillis, long bytes, List<String> genders) {
+        this.rows = rows;
+        this.builtAt = builtAt;
+        this.buildMillis = buildMillis;
+        this.bytes = bytes;
+        this.bytesPerMillionEmployees = rows == 0 ? 0 : bytes * 1_000_000 / rows;
+        this.genders = genders;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getBytesPerMillionEmployees() {
+        return bytesPerMillionEmployees;
+    }
+
+    public List<String> getGenders() {
+        return genders;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rest.springbootemployee.dto;
+
+import java.util.List;
+
+public class ChangeFeed<T> {
+    private List<T> changes;
+
+    private String next;
+
+    public ChangeFeed(List<T> changes, String next) {
+        this.changes = changes;
+        this.next = next;
+    }
+
+    public List<T> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<T> changes) {
+        this.changes = changes;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rest.springbootemployee.dto;
+
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+
+import java.util.function.Function;
+
+public enum EmployeeSortField {
+    SALARY("salary", Employee::getSalary),
+    AGE("age", Employee::getAge);
+
+    private final String fieldName;
+
+    private final Function<Employee, Integer> extractor;
+
+    EmployeeSortField(String fieldName, Function<Employee, Integer> extractor) {
+        this.fieldName = fieldName;
+        this.extractor = extractor;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Integer valueFrom(Employee employee) {
+        return extractor.apply(employee);
+    }
+
+    public static EmployeeSortField of(String name) {
+        for (EmployeeSortField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new InvalidQueryException("sortBy must be one of salary, age");
+    }
+}
@@ -0,0 +1,35 @@
+package com.rest.springbootemployee.dto;
+
+public class HotKey {
+    private final String id;
+
+    // an estimate that can only be too high, aged by halving
+    private final int count;
+
+    private final boolean hot;
+
+    private final boolean pinned;
+
+    public HotKey(String id, int count, boolean hot, boolean pinned) {
+        this.id = id;
+        this.count = count;
+        this.hot = hot;
+        this.pinned = pinned;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isHot() {
+        return hot;
+    }
+
+    public boolean isPinned() {
+        return pinned;
+    }
+}
@@ -0,0 +1,43 @@
+package com.rest.springbootemployee.dto;
+
+import java.util.List;
+
+public class HotKeyReport {
+    private final String collection;
+
+    private final long accesses;
+
+    private final int minCount;
+
+    private final int pinned;
+
+    private final List<HotKey> top;
+
+    public HotKeyReport(String collection, long accesses, int minCount, int pinned, List<HotKey> top) {
+        this.collection = collection;
+        this.accesses = accesses;
+        this.minCount = minCount;
+        this.pinned = pinned;
+        this.top = top;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public long getAccesses() {
+        return accesses;
+    }
+
+    public int getMinCount() {
+        return minCount;
+    }
+
+    public int getPinned() {
+        return pinned;
+    }
+
+    public List<HotKey> getTop() {
+        return top;
+    }
+}
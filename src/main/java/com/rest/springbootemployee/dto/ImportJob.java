@@ -0,0 +1,141 @@
+package com.rest.springbootemployee.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ImportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private final String id;
+
+    private final String file;
+
+    private final String format;
+
+    private final String collection;
+
+    private final long bytesTotal;
+
+    private volatile long startedAt;
+
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    private final AtomicLong imported = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicInteger reportedRejections = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<ImportRejection> rejections = new ConcurrentLinkedQueue<>();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile String error;
+
+    private volatile Long finishedAt;
+
+    public ImportJob(String id, String file, String format, String collection, long bytesTotal) {
+        this.id = id;
+        this.file = file;
+        this.format = format;
+        this.collection = collection;
+        this.bytesTotal = bytesTotal;
+    }
+
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    public void addProgress(long bytes, long importedRecords) {
+        bytesProcessed.addAndGet(bytes);
+        imported.addAndGet(importedRecords);
+    }
+
+    // up to MAX_REPORTED_REJECTIONS are kept for the report, the count covers all of them
+    public void reject(long offset, String reason) {
+        rejected.incrementAndGet();
+        if (reportedRejections.incrementAndGet() <= MAX_REPORTED_REJECTIONS) {
+            rejections.add(new ImportRejection(offset, reason));
+        }
+    }
+
+    public void complete() {
+        finishedAt = System.currentTimeMillis();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed.get();
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getRecordsPerSecond() {
+        if (startedAt == 0) {
+            return 0;
+        }
+        long elapsed = (finishedAt == null ? System.currentTimeMillis() : finishedAt) - startedAt;
+        return elapsed == 0 ? 0 : (imported.get() + rejected.get()) * 1000 / elapsed;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public List<ImportRejection> getRejections() {
+        List<ImportRejection> sorted = new ArrayList<>(rejections);
+        sorted.sort(Comparator.comparingLong(ImportRejection::getOffset));
+        return sorted;
+    }
+}
@@ -0,0 +1,21 @@
+package com.rest.springbootemployee.dto;
+
+public class ImportRejection {
+    // byte offset of the rejected record in the input file
+    private final long offset;
+
+    private final String reason;
+
+    public ImportRejection(long offset, String reason) {
+        this.offset = offset;
+        this.reason = reason;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
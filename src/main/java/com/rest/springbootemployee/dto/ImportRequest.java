@@ -0,0 +1,36 @@
+package com.rest.springbootemployee.dto;
+
+public class ImportRequest {
+    // relative to import.directory
+    private String file;
+
+    // ndjson or csv
+    private String format = "ndjson";
+
+    // employees or companies
+    private String collection = "employees";
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public void setCollection(String collection) {
+        this.collection = collection;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rest.springbootemployee.dto;
+
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class RangeCursor {
+    private final int value;
+
+    private final String id;
+
+    public RangeCursor(int value, String id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RangeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            String id = raw.substring(separator + 1);
+            if (separator < 0 || !ObjectId.isValid(id)) {
+                throw new InvalidQueryException("Invalid cursor");
+            }
+            return new RangeCursor(Integer.parseInt(raw.substring(0, separator)), id);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidQueryException("Invalid cursor");
+        }
+    }
+}
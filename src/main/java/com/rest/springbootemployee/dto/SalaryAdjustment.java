@@ -0,0 +1,188 @@
+package com.rest.springbootemployee.dto;
+
+import com.rest.springbootemployee.exception.InvalidQueryException;
+
+public class SalaryAdjustment {
+    // filter; all optional, employees without a salary are never adjusted
+    private String gender;
+
+    private String companyId;
+
+    private Integer minSalary;
+
+    private Integer maxSalary;
+
+    // operation; exactly one of percent or amount
+    private Double percent;
+
+    private Integer amount;
+
+    // a raise never takes a salary above cap, a cut never below floor; salaries already past them are left alone
+    private Integer cap;
+
+    private Integer floor;
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+
+    public Integer getMinSalary() {
+        return minSalary;
+    }
+
+    public void setMinSalary(Integer minSalary) {
+        this.minSalary = minSalary;
+    }
+
+    public Integer getMaxSalary() {
+        return maxSalary;
+    }
+
+    public void setMaxSalary(Integer maxSalary) {
+        this.maxSalary = maxSalary;
+    }
+
+    public Double getPercent() {
+        return percent;
+    }
+
+    public void setPercent(Double percent) {
+        this.percent = percent;
+    }
+
+    public Integer getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Integer amount) {
+        this.amount = amount;
+    }
+
+    public Integer getCap() {
+        return cap;
+    }
+
+    public void setCap(Integer cap) {
+        this.cap = cap;
+    }
+
+    public Integer getFloor() {
+        return floor;
+    }
+
+    public void setFloor(Integer floor) {
+        this.floor = floor;
+    }
+
+    public void validate() {
+        if ((percent == null) == (amount == null)) {
+            throw new InvalidQueryException("exactly one of percent or amount is required");
+        }
+        if (percent != null && (percent.isNaN() || percent <= -100 || percent > 1000)) {
+            throw new InvalidQueryException("percent must be greater than -100 and at most 1000");
+        }
+        if (amount != null && amount == Integer.MIN_VALUE) {
+            throw new InvalidQueryException("amount must be between -2147483647 and 2147483647");
+        }
+        if (minSalary != null && maxSalary != null && minSalary > maxSalary) {
+            throw new InvalidQueryException("minSalary must not be greater than maxSalary");
+        }
+        if ((cap != null && cap < 0) || (floor != null && floor < 0)) {
+            throw new InvalidQueryException("cap and floor must not be negative");
+        }
+        if (cap != null && floor != null && floor > cap) {
+            throw new InvalidQueryException("floor must not be greater than cap");
+        }
+    }
+
+    public boolean matches(Integer salary, String gender) {
+        return salary != null
+                && (this.gender == null || this.gender.equals(gender))
+                && (minSalary == null || salary >= minSalary)
+                && (maxSalary == null || salary <= maxSalary);
+    }
+
+    // mirrors SalaryExpressions in the Mongo repositories; rint rounds half to even like $round
+    public int apply(int salary) {
+        return (int) adjusted(salary);
+    }
+
+    public boolean keepsInRange(int salary) {
+        long adjusted = adjusted(salary);
+        return adjusted >= 0 && adjusted <= Integer.MAX_VALUE;
+    }
+
+    // the adjustment only ever raises the result with the salary, so the salaries it keeps within 0 and
+    // Integer.MAX_VALUE are one interval; found by bisection, empty when lowest > highest
+    public long lowestSafeSalary() {
+        long low = Integer.MIN_VALUE;
+        long high = Integer.MAX_VALUE + 1L;
+        while (low < high) {
+            long middle = (low + high) >> 1;
+            if (adjusted(middle) >= 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    public long highestSafeSalary() {
+        long low = Integer.MIN_VALUE - 1L;
+        long high = Integer.MAX_VALUE;
+        while (low < high) {
+            long middle = (low + high + 1) >> 1;
+            if (adjusted(middle) <= Integer.MAX_VALUE) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    // the same adjustment with its salary filter narrowed to [from, to]; null when no salary is left
+    public SalaryAdjustment withSalariesBetween(long from, long to) {
+        long min = Math.max(minSalary == null ? Integer.MIN_VALUE : minSalary, from);
+        long max = Math.min(maxSalary == null ? Integer.MAX_VALUE : maxSalary, to);
+        if (min > max) {
+            return null;
+        }
+        SalaryAdjustment narrowed = new SalaryAdjustment();
+        narrowed.gender = gender;
+        narrowed.companyId = companyId;
+        narrowed.minSalary = (int) min;
+        narrowed.maxSalary = (int) max;
+        narrowed.percent = percent;
+        narrowed.amount = amount;
+        narrowed.cap = cap;
+        narrowed.floor = floor;
+        return narrowed;
+    }
+
+    private long adjusted(long salary) {
+        long adjusted = percent != null
+                ? (long) Math.rint(salary * (1 + percent / 100))
+                : salary + amount;
+        if (cap != null) {
+            adjusted = Math.min(adjusted, Math.max(salary, cap));
+        }
+        if (floor != null) {
+            adjusted = Math.max(adjusted, Math.min(salary, floor));
+        }
+        return adjusted;
+    }
+}
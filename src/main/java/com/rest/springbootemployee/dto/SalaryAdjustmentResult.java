@@ -0,0 +1,28 @@
+package com.rest.springbootemployee.dto;
+
+public class SalaryAdjustmentResult {
+    private final long matched;
+
+    private final long modified;
+
+    // companies whose embedded copies of the adjusted employees were rewritten
+    private final long companiesModified;
+
+    public SalaryAdjustmentResult(long matched, long modified, long companiesModified) {
+        this.matched = matched;
+        this.modified = modified;
+        this.companiesModified = companiesModified;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    public long getCompaniesModified() {
+        return companiesModified;
+    }
+}
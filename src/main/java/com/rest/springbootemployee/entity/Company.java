@@ -4,6 +4,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Document
@@ -19,6 +20,18 @@ public class Company {
         this.employees = employees;
     }
 
+    // a copy that can be handed out without sharing this instance, down to the embedded employees
+    public static Company copyOf(Company company) {
+        List<Employee> employees = null;
+        if (company.getEmployees() != null) {
+            employees = new ArrayList<>(company.getEmployees().size());
+            for (Employee employee : company.getEmployees()) {
+                employees.add(employee == null ? null : Employee.copyOf(employee));
+            }
+        }
+        return new Company(company.getId(), company.getName(), employees);
+    }
+
     public String getName() {
         return name;
     }
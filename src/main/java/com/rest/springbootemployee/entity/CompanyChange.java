@@ -0,0 +1,79 @@
+package com.rest.springbootemployee.entity;
+
+import com.rest.springbootemployee.event.ChangeType;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import java.util.Date;
+
+@Document
+public class CompanyChange {
+    @MongoId(FieldType.OBJECT_ID)
+    private String id;
+    @Indexed(unique = true)
+    private long seq;
+    private String companyId;
+    private ChangeType type;
+    private Company company;
+    @Indexed(expireAfter = "7d")
+    private Date changedAt;
+
+    public CompanyChange(String id, long seq, String companyId, ChangeType type, Company company, Date changedAt) {
+        this.id = id;
+        this.seq = seq;
+        this.companyId = companyId;
+        this.type = type;
+        this.company = company;
+        this.changedAt = changedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public Company getCompany() {
+        return company;
+    }
+
+    public void setCompany(Company company) {
+        this.company = company;
+    }
+
+    public Date getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Date changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
+// the compound indexes are created by EmployeeIndexes, under the field names storage.fields stores
 @Document
 public class Employee {
     @MongoId(FieldType.OBJECT_ID)
@@ -21,6 +22,11 @@ public class Employee {
         this.salary = salary;
     }
 
+    // a copy that can be handed out without sharing this instance
+    public static Employee copyOf(Employee employee) {
+        return new Employee(employee.getId(), employee.getName(), employee.getAge(), employee.getGender(), employee.getSalary());
+    }
+
     public String getName() {
         return name;
     }
@@ -0,0 +1,79 @@
+package com.rest.springbootemployee.entity;
+
+import com.rest.springbootemployee.event.ChangeType;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import java.util.Date;
+
+@Document
+public class EmployeeChange {
+    @MongoId(FieldType.OBJECT_ID)
+    private String id;
+    @Indexed(unique = true)
+    private long seq;
+    private String employeeId;
+    private ChangeType type;
+    private Employee employee;
+    @Indexed(expireAfter = "7d")
+    private Date changedAt;
+
+    public EmployeeChange(String id, long seq, String employeeId, ChangeType type, Employee employee, Date changedAt) {
+        this.id = id;
+        this.seq = seq;
+        this.employeeId = employeeId;
+        this.type = type;
+        this.employee = employee;
+        this.changedAt = changedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public void setEmployee(Employee employee) {
+        this.employee = employee;
+    }
+
+    public Date getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Date changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,74 @@
+package com.rest.springbootemployee.event;
+
+import com.rest.springbootemployee.deadline.RequestDeadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// changed events published inside run(...) are for writes stored together (a write-behind flush, an import batch);
+// a listener that would make a round trip per event collects them instead and handles them at once when the batch
+// ends, after every other listener has seen each event. Like a listener, a handler that fails is logged
+public final class ChangeBatch {
+    private static final Logger log = LoggerFactory.getLogger(ChangeBatch.class);
+
+    private static final ThreadLocal<ChangeBatch> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Collected<?>> collected = new LinkedHashMap<>();
+
+    private ChangeBatch() {
+    }
+
+    // a batch started inside another one joins it
+    public static void run(Runnable publish) {
+        if (CURRENT.get() != null) {
+            publish.run();
+            return;
+        }
+        ChangeBatch batch = new ChangeBatch();
+        CURRENT.set(batch);
+        try {
+            publish.run();
+        } finally {
+            CURRENT.remove();
+        }
+        RequestDeadline.callWith(null, () -> {
+            batch.collected.forEach(ChangeBatch::handle);
+            return null;
+        });
+    }
+
+    // false outside a batch, when the caller handles the event on its own
+    @SuppressWarnings("unchecked")
+    public static <E> boolean collect(String key, E event, Consumer<List<E>> handler) {
+        ChangeBatch batch = CURRENT.get();
+        if (batch == null) {
+            return false;
+        }
+        ((Collected<E>) batch.collected.computeIfAbsent(key, name -> new Collected<>(handler))).events.add(event);
+        return true;
+    }
+
+    private static <E> void handle(String key, Collected<E> collected) {
+        try {
+            collected.handler.accept(collected.events);
+        } catch (RuntimeException exception) {
+            log.warn("Failed to handle {} batched {} events; the changes are stored", collected.events.size(), key,
+                    exception);
+        }
+    }
+
+    private static class Collected<E> {
+        private final Consumer<List<E>> handler;
+
+        private final List<E> events = new ArrayList<>();
+
+        private Collected(Consumer<List<E>> handler) {
+            this.handler = handler;
+        }
+    }
+}
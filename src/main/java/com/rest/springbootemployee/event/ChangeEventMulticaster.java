@@ -0,0 +1,35 @@
+package com.rest.springbootemployee.event;
+
+import com.rest.springbootemployee.deadline.RequestDeadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+
+// a changed event is published once the write is stored, so its listeners (change feed, caches, counters, search
+// index, event stream) are bookkeeping after the fact: they run outside the request deadline, which may have passed
+// while the write itself ran, and one failing is logged rather than failing the stored write or skipping the
+// listeners after it. Every other event is delivered as Spring delivers it
+public class ChangeEventMulticaster extends SimpleApplicationEventMulticaster {
+    private static final Logger log = LoggerFactory.getLogger(ChangeEventMulticaster.class);
+
+    @Override
+    protected void invokeListener(ApplicationListener<?> listener, ApplicationEvent event) {
+        Object change = event instanceof PayloadApplicationEvent ? ((PayloadApplicationEvent<?>) event).getPayload() : null;
+        if (!(change instanceof EmployeeChangedEvent) && !(change instanceof CompanyChangedEvent)) {
+            super.invokeListener(listener, event);
+            return;
+        }
+        RequestDeadline.callWith(null, () -> {
+            try {
+                super.invokeListener(listener, event);
+            } catch (RuntimeException exception) {
+                log.warn("Listener {} failed on {}; the change is stored", listener, change.getClass().getSimpleName(),
+                        exception);
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,7 @@
+package com.rest.springbootemployee.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
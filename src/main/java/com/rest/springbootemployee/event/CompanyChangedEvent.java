@@ -0,0 +1,41 @@
+package com.rest.springbootemployee.event;
+
+import com.rest.springbootemployee.entity.Company;
+
+public class CompanyChangedEvent {
+    private final ChangeType type;
+
+    private final String companyId;
+
+    private final Company company;
+
+    public CompanyChangedEvent(ChangeType type, String companyId, Company company) {
+        this.type = type;
+        this.companyId = companyId;
+        this.company = company;
+    }
+
+    public static CompanyChangedEvent created(Company company) {
+        return new CompanyChangedEvent(ChangeType.CREATED, company.getId(), company);
+    }
+
+    public static CompanyChangedEvent updated(Company company) {
+        return new CompanyChangedEvent(ChangeType.UPDATED, company.getId(), company);
+    }
+
+    public static CompanyChangedEvent deleted(String companyId) {
+        return new CompanyChangedEvent(ChangeType.DELETED, companyId, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public Company getCompany() {
+        return company;
+    }
+}
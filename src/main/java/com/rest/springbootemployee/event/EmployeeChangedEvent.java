@@ -0,0 +1,57 @@
+package com.rest.springbootemployee.event;
+
+import com.rest.springbootemployee.entity.Employee;
+
+public class EmployeeChangedEvent {
+    private final ChangeType type;
+
+    private final String employeeId;
+
+    private final Employee employee;
+
+    // a deleted employee as it was stored, when it was read before the delete, so per-gender totals can follow it
+    private final Employee deleted;
+
+    public EmployeeChangedEvent(ChangeType type, String employeeId, Employee employee) {
+        this(type, employeeId, employee, null);
+    }
+
+    private EmployeeChangedEvent(ChangeType type, String employeeId, Employee employee, Employee deleted) {
+        this.type = type;
+        this.employeeId = employeeId;
+        this.employee = employee;
+        this.deleted = deleted;
+    }
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(ChangeType.CREATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent updated(Employee employee) {
+        return new EmployeeChangedEvent(ChangeType.UPDATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent deleted(String employeeId) {
+        return new EmployeeChangedEvent(ChangeType.DELETED, employeeId, null);
+    }
+
+    public static EmployeeChangedEvent deleted(Employee employee) {
+        return new EmployeeChangedEvent(ChangeType.DELETED, employee.getId(), null, employee);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public Employee getDeleted() {
+        return deleted;
+    }
+}
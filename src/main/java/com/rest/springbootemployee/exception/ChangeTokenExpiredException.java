@@ -0,0 +1,7 @@
+package com.rest.springbootemployee.exception;
+
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException() {
+        super("Change token expired, resync with a full read");
+    }
+}
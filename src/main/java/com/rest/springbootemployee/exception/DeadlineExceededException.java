@@ -0,0 +1,7 @@
+package com.rest.springbootemployee.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(long timeoutMs) {
+        super("Request deadline of " + timeoutMs + " ms exceeded");
+    }
+}
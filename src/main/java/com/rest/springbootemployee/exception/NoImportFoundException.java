@@ -0,0 +1,11 @@
+package com.rest.springbootemployee.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class NoImportFoundException extends RuntimeException {
+    public NoImportFoundException() {
+        super("No import found");
+    }
+}
@@ -0,0 +1,16 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.entity.CompanyChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CompanyChangeMongoRepository extends MongoRepository<CompanyChange, String> {
+    List<CompanyChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable);
+
+    Optional<CompanyChange> findFirstByOrderBySeqAsc();
+}
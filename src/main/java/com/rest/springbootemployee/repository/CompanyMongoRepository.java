@@ -2,9 +2,13 @@ package com.rest.springbootemployee.repository;
 
 import com.rest.springbootemployee.entity.Company;
 import com.rest.springbootemployee.entity.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface CompanyMongoRepository extends MongoRepository<Company, String> {
+public interface CompanyMongoRepository extends MongoRepository<Company, String>, CompanySalaryRepository {
+    List<Company> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CompanySalaryRepository {
+    // applies the adjustment to the embedded copies of these employees; returns the ids of the companies rewritten
+    List<String> adjustEmployeeSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds);
+}
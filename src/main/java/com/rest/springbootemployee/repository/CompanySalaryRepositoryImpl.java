@@ -0,0 +1,79 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.storage.CompactFields;
+import com.rest.springbootemployee.storage.FieldFormat;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class CompanySalaryRepositoryImpl implements CompanySalaryRepository {
+    private MongoTemplate mongoTemplate;
+
+    public CompanySalaryRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<String> adjustEmployeeSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        List<ObjectId> objectIds = SalaryExpressions.objectIds(employeeIds);
+        if (objectIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Query affected = new Query(Criteria.where("employees.id").in(objectIds));
+        affected.fields().include("id");
+        List<ObjectId> companyIds = new ArrayList<>();
+        for (Company company : mongoTemplate.find(affected, Company.class)) {
+            companyIds.add(new ObjectId(company.getId()));
+        }
+        if (companyIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // rewrite only the copies of the employees adjusted in the employee collection, from the copy's own salary
+        // when the adjustment keeps it within the int range;
+        // while storage.fields writes both layouts the other layout's array is rewritten the same way
+        FieldFormat format = FieldFormat.of(mongoTemplate.getConverter());
+        Document adjusted = adjustedCopies(adjustment, objectIds, format.readsCompact());
+        if (format.writesBoth()) {
+            String other = CompactFields.companyField("employees", !format.readsCompact());
+            adjusted.append(other, new Document("$cond", Arrays.asList(
+                    new Document("$isArray", "$" + other),
+                    adjustedCopies(adjustment, objectIds, !format.readsCompact()).get(other),
+                    "$$REMOVE")));
+        }
+        AggregationUpdate update = AggregationUpdate.from(Collections.singletonList(context ->
+                new Document("$set", adjusted)));
+        mongoTemplate.updateMulti(new Query(Criteria.where("id").in(companyIds)), update, Company.class);
+
+        List<String> ids = new ArrayList<>(companyIds.size());
+        companyIds.forEach(id -> ids.add(id.toHexString()));
+        return ids;
+    }
+
+    private static Document adjustedCopies(SalaryAdjustment adjustment, List<ObjectId> objectIds, boolean compact) {
+        String employees = CompactFields.companyField("employees", compact);
+        String salary = CompactFields.employeeField("salary", compact);
+        Document adjustedCopy = new Document("$cond", Arrays.asList(
+                new Document("$and", Arrays.asList(
+                        new Document("$in", Arrays.asList("$$e._id", objectIds)),
+                        new Document("$gt", Arrays.asList("$$e." + salary, null)),
+                        new Document("$gte", Arrays.asList("$$e." + salary, adjustment.lowestSafeSalary())),
+                        new Document("$lte", Arrays.asList("$$e." + salary, adjustment.highestSafeSalary())))),
+                new Document("$mergeObjects", Arrays.asList("$$e",
+                        new Document(salary, SalaryExpressions.adjustedSalary(adjustment, "$$e." + salary)))),
+                "$$e"));
+        return new Document(employees, new Document("$map",
+                new Document("input", "$" + employees).append("as", "e").append("in", adjustedCopy)));
+    }
+}
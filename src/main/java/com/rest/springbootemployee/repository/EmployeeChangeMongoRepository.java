@@ -0,0 +1,16 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.entity.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmployeeChangeMongoRepository extends MongoRepository<EmployeeChange, String> {
+    List<EmployeeChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable);
+
+    Optional<EmployeeChange> findFirstByOrderBySeqAsc();
+}
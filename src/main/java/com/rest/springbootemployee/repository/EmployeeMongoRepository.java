@@ -1,12 +1,25 @@
 package com.rest.springbootemployee.repository;
 
 import com.rest.springbootemployee.entity.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmployeeMongoRepository extends MongoRepository<Employee, String> {
+public interface EmployeeMongoRepository extends MongoRepository<Employee, String>, EmployeeRangeRepository,
+        EmployeeSalaryRepository {
     List<Employee> findByGender(String gender);
+
+    // List rather than Page, so a page read does not also run a count; totals come from TotalCountService
+    List<Employee> findAllBy(Pageable pageable);
+
+    List<Employee> findByGender(String gender, Pageable pageable);
+
+    long countByGender(String gender);
+
+    // backed by a server-side cursor; close the stream to release it
+    Stream<Employee> streamAllBy();
 }
@@ -0,0 +1,12 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.entity.Employee;
+
+import java.util.List;
+
+public interface EmployeeRangeRepository {
+    List<Employee> findByRange(EmployeeRangeQuery query, EmployeeSortField sortField, RangeCursor after, int limit);
+}
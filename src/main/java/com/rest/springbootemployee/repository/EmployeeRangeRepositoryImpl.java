@@ -0,0 +1,72 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.entity.Employee;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmployeeRangeRepositoryImpl implements EmployeeRangeRepository {
+    private MongoTemplate mongoTemplate;
+
+    public EmployeeRangeRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Employee> findByRange(EmployeeRangeQuery rangeQuery, EmployeeSortField sortField, RangeCursor after, int limit) {
+        return mongoTemplate.find(query(rangeQuery, sortField, after, limit), Employee.class);
+    }
+
+    // the keyset page query; public so its plan can be checked against the indexes in EmployeeIndexes
+    public static Query query(EmployeeRangeQuery rangeQuery, EmployeeSortField sortField, RangeCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (rangeQuery.getGender() != null) {
+            criteria.add(Criteria.where("gender").is(rangeQuery.getGender()));
+        }
+        criteria.add(range("salary", rangeQuery.getMinSalary(), rangeQuery.getMaxSalary(), sortField == EmployeeSortField.SALARY));
+        criteria.add(range("age", rangeQuery.getMinAge(), rangeQuery.getMaxAge(), sortField == EmployeeSortField.AGE));
+        if (after != null) {
+            criteria.add(after(sortField.getFieldName(), after, rangeQuery.isDescending()));
+        }
+
+        Sort.Direction direction = rangeQuery.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return new Query(new Criteria().andOperator(criteria.stream().filter(c -> c != null).toArray(Criteria[]::new)))
+                .with(Sort.by(direction, sortField.getFieldName(), "id"))
+                .limit(limit);
+    }
+
+    private static Criteria range(String field, Integer min, Integer max, boolean sorted) {
+        if (min == null && max == null) {
+            // keyset paging needs a concrete sort value on every returned document
+            return sorted ? Criteria.where(field).ne(null) : null;
+        }
+        Criteria criteria = Criteria.where(field);
+        if (min != null) {
+            criteria.gte(min);
+        }
+        if (max != null) {
+            criteria.lte(max);
+        }
+        return criteria;
+    }
+
+    private static Criteria after(String field, RangeCursor cursor, boolean descending) {
+        ObjectId id = new ObjectId(cursor.getId());
+        if (descending) {
+            return new Criteria().orOperator(
+                    Criteria.where(field).lt(cursor.getValue()),
+                    Criteria.where(field).is(cursor.getValue()).and("id").lt(id));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).gt(cursor.getValue()),
+                Criteria.where(field).is(cursor.getValue()).and("id").gt(id));
+    }
+}
@@ -0,0 +1,15 @@
+package com.rest.springbootemployee.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EmployeeSalaryRepository {
+    // within == null means every employee
+    List<String> findIdsForSalaryAdjustment(SalaryAdjustment adjustment, Collection<String> within);
+
+    // the filter is applied again, so employees changed since their ids were read are skipped
+    UpdateResult adjustSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds);
+}
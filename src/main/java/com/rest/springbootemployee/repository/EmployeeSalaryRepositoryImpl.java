@@ -0,0 +1,77 @@
+package com.rest.springbootemployee.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.storage.CompactFields;
+import com.rest.springbootemployee.storage.FieldFormat;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// the filter goes through the entity mapping (stored names, gender codes); the update is a pipeline, which the
+// mapper does not rewrite, so it names the stored salary field itself, both of them while storage.fields writes both
+public class EmployeeSalaryRepositoryImpl implements EmployeeSalaryRepository {
+    private MongoTemplate mongoTemplate;
+
+    public EmployeeSalaryRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<String> findIdsForSalaryAdjustment(SalaryAdjustment adjustment, Collection<String> within) {
+        Query query = new Query(filter(adjustment, within));
+        query.fields().include("id");
+        List<String> ids = new ArrayList<>();
+        for (Employee employee : mongoTemplate.find(query, Employee.class)) {
+            ids.add(employee.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public UpdateResult adjustSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return UpdateResult.acknowledged(0, 0L, null);
+        }
+        FieldFormat format = FieldFormat.of(mongoTemplate.getConverter());
+        String salary = CompactFields.employeeField("salary", format.readsCompact());
+        Document adjusted = new Document(salary, SalaryExpressions.adjustedSalary(adjustment, "$" + salary));
+        if (format.writesBoth()) {
+            adjusted.append(CompactFields.employeeField("salary", !format.readsCompact()), adjusted.get(salary));
+        }
+        AggregationUpdate update = AggregationUpdate.from(Collections.singletonList(context ->
+                new Document("$set", adjusted)));
+        // a salary changed since the ids were read may no longer be safe to adjust, it is left alone
+        SalaryAdjustment safe = adjustment.withSalariesBetween(adjustment.lowestSafeSalary(), adjustment.highestSafeSalary());
+        if (safe == null) {
+            return UpdateResult.acknowledged(0, 0L, null);
+        }
+        return mongoTemplate.updateMulti(new Query(filter(safe, employeeIds)), update, Employee.class);
+    }
+
+    private Criteria filter(SalaryAdjustment adjustment, Collection<String> ids) {
+        Criteria criteria = new Criteria();
+        if (ids != null) {
+            criteria.and("id").in(SalaryExpressions.objectIds(ids));
+        }
+        if (adjustment.getGender() != null) {
+            criteria.and("gender").is(adjustment.getGender());
+        }
+        Criteria salary = criteria.and("salary").ne(null);
+        if (adjustment.getMinSalary() != null) {
+            salary.gte(adjustment.getMinSalary());
+        }
+        if (adjustment.getMaxSalary() != null) {
+            salary.lte(adjustment.getMaxSalary());
+        }
+        return criteria;
+    }
+}
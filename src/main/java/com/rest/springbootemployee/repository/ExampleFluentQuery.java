@@ -0,0 +1,135 @@
+package com.rest.springbootemployee.repository;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// findBy(Example, ...) for the repositories that are not Spring Data's own: the matching documents come from fetch in
+// the requested order, and sorting, paging, property projection and as(...) happen here. Projections follow
+// MongoTemplate's: interfaces are proxied over the document, classes get the properties they share with it
+public class ExampleFluentQuery<T> implements FluentQuery.FetchableFluentQuery<T> {
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final Function<Sort, List<T>> fetch;
+
+    private final LongSupplier count;
+
+    private final Sort sort;
+
+    public ExampleFluentQuery(Function<Sort, List<T>> fetch, LongSupplier count) {
+        this(fetch, count, Sort.unsorted());
+    }
+
+    private ExampleFluentQuery(Function<Sort, List<T>> fetch, LongSupplier count, Sort sort) {
+        this.fetch = fetch;
+        this.count = count;
+        this.sort = sort;
+    }
+
+    @Override
+    public FetchableFluentQuery<T> sortBy(Sort sort) {
+        return new ExampleFluentQuery<>(fetch, count, this.sort.and(sort));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> FetchableFluentQuery<R> as(Class<R> resultType) {
+        Function<T, R> projection = resultType.isInterface()
+                ? document -> resultType.isInstance(document) ? (R) document : PROJECTIONS.createProjection(resultType, document)
+                : document -> resultType.isInstance(document) ? (R) document : copy(document, resultType);
+        return new ExampleFluentQuery<>(order -> fetch.apply(order).stream().map(projection).collect(Collectors.toList()),
+                count, sort);
+    }
+
+    // the other properties are left null, as if they had not been read; the id is always kept
+    @Override
+    public FetchableFluentQuery<T> project(Collection<String> properties) {
+        Set<String> kept = new HashSet<>(properties);
+        kept.add("id");
+        return new ExampleFluentQuery<>(order -> {
+            List<T> documents = fetch.apply(order);
+            documents.forEach(document -> clearExcept(document, kept));
+            return documents;
+        }, count, sort);
+    }
+
+    @Override
+    public T oneValue() {
+        List<T> documents = fetch.apply(sort);
+        if (documents.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, documents.size());
+        }
+        return documents.isEmpty() ? null : documents.get(0);
+    }
+
+    @Override
+    public T firstValue() {
+        List<T> documents = fetch.apply(sort);
+        return documents.isEmpty() ? null : documents.get(0);
+    }
+
+    @Override
+    public List<T> all() {
+        return fetch.apply(sort);
+    }
+
+    @Override
+    public Page<T> page(Pageable pageable) {
+        List<T> documents = fetch.apply(sort.and(pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(documents);
+        }
+        int from = (int) Math.min(pageable.getOffset(), documents.size());
+        int to = Math.min(from + pageable.getPageSize(), documents.size());
+        return new PageImpl<>(new ArrayList<>(documents.subList(from, to)), pageable, documents.size());
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return all().stream();
+    }
+
+    @Override
+    public long count() {
+        return count.getAsLong();
+    }
+
+    @Override
+    public boolean exists() {
+        return count() > 0;
+    }
+
+    private static <R> R copy(Object document, Class<R> resultType) {
+        R result = BeanUtils.instantiateClass(resultType);
+        BeanUtils.copyProperties(document, result);
+        return result;
+    }
+
+    private static void clearExcept(Object document, Set<String> kept) {
+        BeanWrapper values = new BeanWrapperImpl(document);
+        for (PropertyDescriptor property : values.getPropertyDescriptors()) {
+            if (property.getWriteMethod() != null && !kept.contains(property.getName())
+                    && !property.getPropertyType().isPrimitive()) {
+                values.setPropertyValue(property.getName(), null);
+            }
+        }
+    }
+}
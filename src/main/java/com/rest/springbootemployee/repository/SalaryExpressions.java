@@ -0,0 +1,44 @@
+package com.rest.springbootemployee.repository;
+
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// aggregation expressions for pipeline updates; must stay in step with SalaryAdjustment.apply, and are only run on
+// salaries between its lowestSafeSalary and highestSafeSalary
+final class SalaryExpressions {
+    private SalaryExpressions() {
+    }
+
+    static Document adjustedSalary(SalaryAdjustment adjustment, String salary) {
+        Document adjusted = adjustment.getPercent() != null
+                ? new Document("$round",
+                        Arrays.asList(new Document("$multiply", Arrays.asList(salary, 1 + adjustment.getPercent() / 100)), 0))
+                : new Document("$add", Arrays.asList(salary, adjustment.getAmount()));
+        if (adjustment.getCap() != null) {
+            adjusted = new Document("$min", Arrays.asList(adjusted,
+                    new Document("$max", Arrays.asList(salary, adjustment.getCap()))));
+        }
+        if (adjustment.getFloor() != null) {
+            adjusted = new Document("$max", Arrays.asList(adjusted,
+                    new Document("$min", Arrays.asList(salary, adjustment.getFloor()))));
+        }
+        // converted last, so a raise past Integer.MAX_VALUE that the cap brings back is not a conversion error
+        return new Document("$toInt", adjusted);
+    }
+
+    static List<ObjectId> objectIds(Collection<String> ids) {
+        List<ObjectId> objectIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (ObjectId.isValid(id)) {
+                objectIds.add(new ObjectId(id));
+            }
+        }
+        return objectIds;
+    }
+}
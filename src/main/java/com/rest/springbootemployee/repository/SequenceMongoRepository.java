@@ -0,0 +1,33 @@
+package com.rest.springbootemployee.repository;
+
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@Profile("!inmemory & !filestore")
+public class SequenceMongoRepository implements SequenceRepository {
+    private static final String COLLECTION = "sequences";
+
+    private MongoTemplate mongoTemplate;
+
+    public SequenceMongoRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long next(String sequenceName, int count) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(sequenceName)),
+                new Update().inc("value", (long) count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                COLLECTION);
+        return ((Number) counter.get("value")).longValue() - count + 1;
+    }
+}
@@ -0,0 +1,6 @@
+package com.rest.springbootemployee.repository;
+
+public interface SequenceRepository {
+    // the first of count consecutive values, taken in one step
+    long next(String sequenceName, int count);
+}
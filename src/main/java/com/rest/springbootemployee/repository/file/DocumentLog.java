@@ -0,0 +1,105 @@
+package com.rest.springbootemployee.repository.file;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class DocumentLog<T> {
+    private static final Logger log = LoggerFactory.getLogger(DocumentLog.class);
+
+    private final RecordLog recordLog;
+
+    private final ObjectMapper objectMapper;
+
+    private final long compactAfterBytes;
+
+    private final Executor compactor;
+
+    private final Supplier<? extends Iterable<T>> liveDocuments;
+
+    private final Function<T, String> idOf;
+
+    private final ThreadLocal<Long> lastTicket = new ThreadLocal<>();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    DocumentLog(RecordLog recordLog, ObjectMapper objectMapper, long compactAfterBytes, Executor compactor,
+                Supplier<? extends Iterable<T>> liveDocuments, Function<T, String> idOf) {
+        this.recordLog = recordLog;
+        this.objectMapper = objectMapper;
+        this.compactAfterBytes = compactAfterBytes;
+        this.compactor = compactor;
+        this.liveDocuments = liveDocuments;
+        this.idOf = idOf;
+    }
+
+    // called under the repository's stripe lock so the log order matches the order the writes were applied in
+    public void record(String id, T current) {
+        lastTicket.set(recordLog.append(id, current == null ? null : serialize(current)));
+    }
+
+    // called after the stripe lock is released; blocks until this thread's last write is durable
+    public void commit() {
+        Long ticket = lastTicket.get();
+        if (ticket == null) {
+            return;
+        }
+        lastTicket.remove();
+        recordLog.awaitDurable(ticket);
+        if (recordLog.size() > compactAfterBytes && compacting.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    public void compact() {
+        try {
+            recordLog.compact(() -> new SerializingIterator(liveDocuments.get().iterator()));
+        } catch (IOException | UncheckedIOException exception) {
+            log.error("Compaction failed, keeping the current log generations", exception);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    public RecordLog getRecordLog() {
+        return recordLog;
+    }
+
+    private byte[] serialize(T document) {
+        try {
+            return objectMapper.writeValueAsBytes(document);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException("Cannot serialize document " + idOf.apply(document), exception);
+        }
+    }
+
+    private class SerializingIterator implements Iterator<Map.Entry<String, byte[]>> {
+        private final Iterator<T> documents;
+
+        SerializingIterator(Iterator<T> documents) {
+            this.documents = documents;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return documents.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, byte[]> next() {
+            T document = documents.next();
+            return new AbstractMap.SimpleImmutableEntry<>(idOf.apply(document), serialize(document));
+        }
+    }
+}
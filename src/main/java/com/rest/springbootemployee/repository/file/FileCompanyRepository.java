@@ -0,0 +1,59 @@
+package com.rest.springbootemployee.repository.file;
+
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.repository.inmemory.InMemoryCompanyRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Profile("filestore")
+public class FileCompanyRepository extends InMemoryCompanyRepository {
+    private final DocumentLog<Company> documentLog;
+
+    public FileCompanyRepository(FileStore fileStore) {
+        documentLog = fileStore.open("companies", Company.class, super::save, super::deleteById,
+                this::storedDocuments, Company::getId);
+    }
+
+    @Override
+    protected void reindex(Company previous, Company current) {
+        super.reindex(previous, current);
+        // null while the log is being replayed into the repository
+        if (documentLog != null) {
+            documentLog.record(current == null ? previous.getId() : current.getId(), current);
+        }
+    }
+
+    @Override
+    public <S extends Company> S save(S entity) {
+        S saved = super.save(entity);
+        documentLog.commit();
+        return saved;
+    }
+
+    @Override
+    public <S extends Company> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(super.save(entity)));
+        documentLog.commit();
+        return saved;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        super.deleteById(id);
+        documentLog.commit();
+    }
+
+    @Override
+    public List<String> adjustEmployeeSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        List<String> result = super.adjustEmployeeSalaries(adjustment, employeeIds);
+        documentLog.commit();
+        return result;
+    }
+}
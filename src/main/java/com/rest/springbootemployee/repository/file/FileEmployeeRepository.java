@@ -0,0 +1,60 @@
+package com.rest.springbootemployee.repository.file;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Profile("filestore")
+public class FileEmployeeRepository extends InMemoryEmployeeRepository {
+    private final DocumentLog<Employee> documentLog;
+
+    public FileEmployeeRepository(FileStore fileStore) {
+        documentLog = fileStore.open("employees", Employee.class, super::save, super::deleteById,
+                this::storedDocuments, Employee::getId);
+    }
+
+    @Override
+    protected void reindex(Employee previous, Employee current) {
+        super.reindex(previous, current);
+        // null while the log is being replayed into the repository
+        if (documentLog != null) {
+            documentLog.record(current == null ? previous.getId() : current.getId(), current);
+        }
+    }
+
+    @Override
+    public <S extends Employee> S save(S entity) {
+        S saved = super.save(entity);
+        documentLog.commit();
+        return saved;
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(super.save(entity)));
+        documentLog.commit();
+        return saved;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        super.deleteById(id);
+        documentLog.commit();
+    }
+
+    @Override
+    public UpdateResult adjustSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        UpdateResult result = super.adjustSalaries(adjustment, employeeIds);
+        documentLog.commit();
+        return result;
+    }
+}
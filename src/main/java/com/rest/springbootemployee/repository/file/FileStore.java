@@ -0,0 +1,90 @@
+package com.rest.springbootemployee.repository.file;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+@Profile("filestore")
+public class FileStore {
+    private final Path directory;
+
+    private final int regionSize;
+
+    private final boolean fsync;
+
+    private final long compactAfterBytes;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<RecordLog> openLogs = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "filestore-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FileStore(ObjectMapper objectMapper,
+                     @Value("${filestore.directory:data}") String directory,
+                     @Value("${filestore.region-size-mb:64}") int regionSizeMb,
+                     @Value("${filestore.fsync:true}") boolean fsync,
+                     @Value("${filestore.compact-after-mb:256}") long compactAfterMb) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.regionSize = regionSizeMb << 20;
+        this.fsync = fsync;
+        this.compactAfterBytes = compactAfterMb << 20;
+    }
+
+    // replays the snapshot and log for the collection into the repository before handing the log back
+    public <T> DocumentLog<T> open(String collection, Class<T> type, Consumer<T> put, Consumer<String> delete,
+                                   Supplier<? extends Iterable<T>> liveDocuments, Function<T, String> idOf) {
+        try {
+            RecordLog recordLog = RecordLog.open(directory, collection, regionSize, fsync, (id, payload) -> {
+                if (payload == null) {
+                    delete.accept(id);
+                } else {
+                    put.accept(read(payload, type));
+                }
+            });
+            openLogs.add(recordLog);
+            return new DocumentLog<>(recordLog, objectMapper, compactAfterBytes, compactor, liveDocuments, idOf);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot open the " + collection + " log in " + directory.toAbsolutePath(), exception);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        compactor.shutdown();
+        compactor.awaitTermination(30, TimeUnit.SECONDS);
+        for (RecordLog recordLog : openLogs) {
+            recordLog.close();
+        }
+        openLogs.clear();
+    }
+
+    private <T> T read(byte[] payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
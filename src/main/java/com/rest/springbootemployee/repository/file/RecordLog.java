@@ -0,0 +1,329 @@
+package com.rest.springbootemployee.repository.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record log written through memory-mapped regions.
+ * A record is [int bodyLength][int crc32(body)][body], with body = [byte op][short idLength][id][payload].
+ * A zero length or a bad checksum marks the end of the log, so a torn tail write is dropped on replay.
+ * Compaction rotates to a new log generation and writes a snapshot of the live state that replaces all
+ * older generations once it has been fsynced and renamed into place.
+ */
+public class RecordLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RecordLog.class);
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+
+    private final String name;
+
+    private final int regionSize;
+
+    private final boolean fsync;
+
+    private final Pattern logFile;
+
+    private final Pattern snapshotFile;
+
+    private final Object appendLock = new Object();
+
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer region;
+
+    private int generation;
+
+    private long position;
+
+    private long written;
+
+    private long durable;
+
+    private boolean flushing;
+
+    private RecordLog(Path directory, String name, int regionSize, boolean fsync) {
+        this.directory = directory;
+        this.name = name;
+        this.regionSize = regionSize;
+        this.fsync = fsync;
+        this.logFile = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.log");
+        this.snapshotFile = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.snapshot");
+    }
+
+    public static RecordLog open(Path directory, String name, int regionSize, boolean fsync,
+                                 BiConsumer<String, byte[]> replay) throws IOException {
+        Files.createDirectories(directory);
+        RecordLog recordLog = new RecordLog(directory, name, regionSize, fsync);
+        recordLog.recover(replay);
+        return recordLog;
+    }
+
+    public long append(String id, byte[] payload) {
+        byte[] body = body(id, payload);
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        synchronized (appendLock) {
+            ensureCapacity(HEADER_BYTES + body.length);
+            region.putInt(body.length);
+            region.putInt((int) crc.getValue());
+            region.put(body);
+            position += HEADER_BYTES + body.length;
+            written += HEADER_BYTES + body.length;
+            return written;
+        }
+    }
+
+    // group commit: the first waiter forces the region for everyone appended so far, the rest wait on it
+    public void awaitDurable(long ticket) {
+        if (!fsync) {
+            return;
+        }
+        while (true) {
+            synchronized (syncLock) {
+                while (durable < ticket && flushing) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for fsync", exception);
+                    }
+                }
+                if (durable >= ticket) {
+                    return;
+                }
+                flushing = true;
+            }
+            long target;
+            MappedByteBuffer toForce;
+            synchronized (appendLock) {
+                target = written;
+                // null once rotate or close has forced and dropped the region, which made target durable already
+                toForce = region;
+            }
+            try {
+                if (toForce != null) {
+                    toForce.force();
+                }
+            } finally {
+                synchronized (syncLock) {
+                    durable = Math.max(durable, target);
+                    flushing = false;
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    public long size() {
+        synchronized (appendLock) {
+            return position;
+        }
+    }
+
+    public int getGeneration() {
+        synchronized (appendLock) {
+            return generation;
+        }
+    }
+
+    public void compact(Iterable<Map.Entry<String, byte[]>> liveState) throws IOException {
+        int snapshotGeneration = rotate();
+        Path temporary = directory.resolve(name + "-" + snapshotGeneration + ".snapshot.tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            for (Map.Entry<String, byte[]> entry : liveState) {
+                byte[] body = body(entry.getKey(), entry.getValue());
+                CRC32 crc = new CRC32();
+                crc.update(body, 0, body.length);
+                out.writeInt(body.length);
+                out.writeInt((int) crc.getValue());
+                out.write(body);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, directory.resolve(name + "-" + snapshotGeneration + ".snapshot"),
+                StandardCopyOption.ATOMIC_MOVE);
+        deleteGenerationsBefore(snapshotGeneration);
+        log.info("Compacted {} into snapshot generation {}", name, snapshotGeneration);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (region != null) {
+                region.force();
+                region = null;
+            }
+            channel.truncate(position);
+            channel.close();
+            synchronized (syncLock) {
+                durable = Math.max(durable, written);
+            }
+        }
+    }
+
+    private void recover(BiConsumer<String, byte[]> replay) throws IOException {
+        TreeMap<Integer, Path> logs = generations(logFile);
+        TreeMap<Integer, Path> snapshots = generations(snapshotFile);
+        int fromGeneration = 0;
+        if (!snapshots.isEmpty()) {
+            fromGeneration = snapshots.lastKey();
+            readRecords(snapshots.lastEntry().getValue(), replay);
+        }
+        generation = Math.max(fromGeneration, logs.isEmpty() ? 0 : logs.lastKey());
+        long end = 0;
+        for (Map.Entry<Integer, Path> entry : logs.tailMap(fromGeneration, true).entrySet()) {
+            end = readRecords(entry.getValue(), replay);
+        }
+        openGeneration(generation, logs.containsKey(generation) ? end : 0);
+    }
+
+    private long readRecords(Path file, BiConsumer<String, byte[]> replay) throws IOException {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = reader.size();
+            if (size == 0) {
+                return 0;
+            }
+            ByteBuffer buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(body);
+                CRC32 crc = new CRC32();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Discarding torn record at offset {} of {}", start, file.getFileName());
+                    buffer.position(start);
+                    break;
+                }
+                apply(body, replay);
+            }
+            return buffer.position();
+        }
+    }
+
+    private static void apply(byte[] body, BiConsumer<String, byte[]> replay) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        byte op = buffer.get();
+        byte[] id = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(id);
+        byte[] payload = null;
+        if (op == PUT) {
+            payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+        }
+        replay.accept(new String(id, StandardCharsets.UTF_8), payload);
+    }
+
+    private static byte[] body(String id, byte[] payload) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = payload == null ? 0 : payload.length;
+        ByteBuffer body = ByteBuffer.allocate(1 + 2 + idBytes.length + payloadLength);
+        body.put(payload == null ? DELETE : PUT);
+        body.putShort((short) idBytes.length);
+        body.put(idBytes);
+        if (payload != null) {
+            body.put(payload);
+        }
+        return body.array();
+    }
+
+    private int rotate() throws IOException {
+        synchronized (appendLock) {
+            region.force();
+            region = null;
+            channel.truncate(position);
+            channel.close();
+            openGeneration(generation + 1, 0);
+            synchronized (syncLock) {
+                durable = Math.max(durable, written);
+            }
+            return generation;
+        }
+    }
+
+    private void openGeneration(int newGeneration, long end) throws IOException {
+        generation = newGeneration;
+        channel = FileChannel.open(directory.resolve(name + "-" + newGeneration + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // drop the zero padding of the last mapped region and anything past a torn record
+        channel.truncate(end);
+        position = end;
+        region = null;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (region != null && region.remaining() >= bytes) {
+            return;
+        }
+        try {
+            if (region != null) {
+                region.force();
+            }
+            region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(regionSize, bytes));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private TreeMap<Integer, Path> generations(Pattern pattern) throws IOException {
+        TreeMap<Integer, Path> generations = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            });
+        }
+        return generations;
+    }
+
+    private void deleteGenerationsBefore(int keepFrom) throws IOException {
+        List<Path> obsolete = new ArrayList<>();
+        obsolete.addAll(generations(logFile).headMap(keepFrom, false).values());
+        obsolete.addAll(generations(snapshotFile).headMap(keepFrom, false).values());
+        for (Path file : obsolete) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// a query by example evaluated against stored documents the way Mongo's example mapper builds its query: every
+// non-null probe property (or null one, with NullHandler.INCLUDE) not on an ignored path is a condition, strings are
+// compared with the path's string matcher and case handling, nested objects property by property, and a non-empty
+// collection must match element by element like Mongo's array equality; ALL needs every condition, ANY one of them
+final class ExampleMatching {
+    private ExampleMatching() {
+    }
+
+    static Predicate<Object> matcher(Example<?> example) {
+        ExampleMatcher exampleMatcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(exampleMatcher);
+        List<Predicate<Object>> conditions = new ArrayList<>();
+        collect(example.getProbe(), "", accessor, conditions);
+        Class<?> probeType = example.getProbeType();
+        boolean any = exampleMatcher.isAnyMatching() && !conditions.isEmpty();
+        return document -> probeType.isInstance(document)
+                && (any ? conditions.stream().anyMatch(condition -> condition.test(document))
+                : conditions.stream().allMatch(condition -> condition.test(document)));
+    }
+
+    private static void collect(Object probe, String prefix, ExampleMatcherAccessor accessor,
+                                List<Predicate<Object>> conditions) {
+        BeanWrapper probeValues = new BeanWrapperImpl(probe);
+        for (PropertyDescriptor property : probeValues.getPropertyDescriptors()) {
+            if (property.getReadMethod() == null || "class".equals(property.getName())) {
+                continue;
+            }
+            String path = prefix + property.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(probeValues.getPropertyValue(property.getName())))
+                    .orElse(null);
+            if (value == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    conditions.add(document -> valueAt(document, path) == null);
+                }
+            } else if (value instanceof Collection) {
+                if (!((Collection<?>) value).isEmpty()) {
+                    Collection<?> expected = (Collection<?>) value;
+                    conditions.add(document -> elementsMatch(expected, valueAt(document, path)));
+                }
+            } else if (value instanceof String) {
+                Predicate<String> matches = stringMatcher((String) value, accessor.getStringMatcherForPath(path),
+                        accessor.isIgnoreCaseForPath(path));
+                conditions.add(document -> {
+                    Object actual = valueAt(document, path);
+                    return actual instanceof String && matches.test((String) actual);
+                });
+            } else if (BeanUtils.isSimpleValueType(value.getClass())) {
+                conditions.add(document -> value.equals(valueAt(document, path)));
+            } else {
+                collect(value, path + ".", accessor, conditions);
+            }
+        }
+    }
+
+    private static boolean elementsMatch(Collection<?> expected, Object actual) {
+        if (!(actual instanceof Collection) || ((Collection<?>) actual).size() != expected.size()) {
+            return false;
+        }
+        Iterator<?> actualElements = ((Collection<?>) actual).iterator();
+        for (Object element : expected) {
+            if (!elementMatches(element, actualElements.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // an array element is compared whole, nulls included
+    private static boolean elementMatches(Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        if (BeanUtils.isSimpleValueType(expected.getClass())) {
+            return expected.equals(actual);
+        }
+        return matcher(Example.of(expected, ExampleMatcher.matching().withIncludeNullValues())).test(actual);
+    }
+
+    private static Predicate<String> stringMatcher(String expected, ExampleMatcher.StringMatcher stringMatcher,
+                                                   boolean ignoreCase) {
+        if (stringMatcher == ExampleMatcher.StringMatcher.REGEX) {
+            Pattern pattern = Pattern.compile(expected, ignoreCase ? Pattern.CASE_INSENSITIVE : 0);
+            return actual -> pattern.matcher(actual).find();
+        }
+        String probe = ignoreCase ? expected.toLowerCase(Locale.ROOT) : expected;
+        return actual -> {
+            String value = ignoreCase ? actual.toLowerCase(Locale.ROOT) : actual;
+            switch (stringMatcher) {
+                case STARTING:
+                    return value.startsWith(probe);
+                case ENDING:
+                    return value.endsWith(probe);
+                case CONTAINING:
+                    return value.contains(probe);
+                default:
+                    return value.equals(probe);
+            }
+        };
+    }
+
+    private static Object valueAt(Object document, String path) {
+        Object value = document;
+        for (String property : path.split("\\.")) {
+            if (value == null) {
+                return null;
+            }
+            value = new BeanWrapperImpl(value).getPropertyValue(property);
+        }
+        return value;
+    }
+}
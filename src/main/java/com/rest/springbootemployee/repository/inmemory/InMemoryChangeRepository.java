@@ -0,0 +1,79 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+public abstract class InMemoryChangeRepository<T> extends InMemoryRepository<T> {
+    private final ConcurrentSkipListMap<Long, String> idsBySeq = new ConcurrentSkipListMap<>();
+
+    private final ToLongFunction<T> seqOf;
+
+    private final int retention;
+
+    protected InMemoryChangeRepository(Function<T, String> idOf, BiConsumer<T, String> idSetter, UnaryOperator<T> copier,
+                                       ToLongFunction<T> seqOf, int retention) {
+        super(idOf, idSetter, copier);
+        this.seqOf = seqOf;
+        this.retention = retention;
+    }
+
+    @Override
+    protected void reindex(T previous, T current) {
+        if (previous != null) {
+            idsBySeq.remove(seqOf.applyAsLong(previous));
+        }
+        if (current != null) {
+            idsBySeq.put(seqOf.applyAsLong(current), idOf(current));
+        }
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        S saved = super.save(entity);
+        // in place of the Mongo TTL index, keep only the newest changes
+        while (idsBySeq.size() > retention) {
+            Map.Entry<Long, String> oldest = idsBySeq.firstEntry();
+            if (oldest != null) {
+                deleteById(oldest.getValue());
+            }
+        }
+        return saved;
+    }
+
+    protected List<T> findBySeqAfter(long seq, Pageable pageable) {
+        return page(idsBySeq.tailMap(seq, false), pageable);
+    }
+
+    protected Optional<T> findOldest() {
+        Map.Entry<Long, String> oldest = idsBySeq.firstEntry();
+        return oldest == null ? Optional.empty() : findById(oldest.getValue());
+    }
+
+    private List<T> page(NavigableMap<Long, String> range, Pageable pageable) {
+        List<T> changes = new ArrayList<>(pageable.getPageSize());
+        long skipped = 0;
+        for (String id : range.values()) {
+            if (skipped++ < pageable.getOffset()) {
+                continue;
+            }
+            T change = copy(document(id));
+            if (change != null) {
+                changes.add(change);
+            }
+            if (changes.size() == pageable.getPageSize()) {
+                break;
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,38 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.CompanyChange;
+import com.rest.springbootemployee.repository.CompanyChangeMongoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile({"inmemory", "filestore"})
+public class InMemoryCompanyChangeRepository extends InMemoryChangeRepository<CompanyChange> implements CompanyChangeMongoRepository {
+
+    public InMemoryCompanyChangeRepository(@Value("${inmemory.change-retention:100000}") int retention) {
+        super(CompanyChange::getId, CompanyChange::setId, InMemoryCompanyChangeRepository::copyOf,
+                CompanyChange::getSeq, retention);
+    }
+
+    static CompanyChange copyOf(CompanyChange change) {
+        return new CompanyChange(change.getId(), change.getSeq(), change.getCompanyId(), change.getType(),
+                change.getCompany() == null ? null : Company.copyOf(change.getCompany()),
+                change.getChangedAt());
+    }
+
+    @Override
+    public List<CompanyChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable) {
+        return findBySeqAfter(seq, pageable);
+    }
+
+    @Override
+    public Optional<CompanyChange> findFirstByOrderBySeqAsc() {
+        return findOldest();
+    }
+}
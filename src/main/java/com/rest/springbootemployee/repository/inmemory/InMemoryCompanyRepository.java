@@ -0,0 +1,67 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryCompanyRepository extends InMemoryRepository<Company> implements CompanyMongoRepository {
+
+    public InMemoryCompanyRepository() {
+        super(Company::getId, Company::setId, Company::copyOf);
+    }
+
+    @Override
+    public List<String> adjustEmployeeSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        Set<String> adjusted = new HashSet<>(employeeIds);
+        List<String> companyIds = new ArrayList<>();
+        for (Company stored : storedDocuments()) {
+            if (!hasAdjustedCopy(stored, adjusted, adjustment)) {
+                continue;
+            }
+            Company previous = update(stored.getId(), company -> {
+                if (!hasAdjustedCopy(company, adjusted, adjustment)) {
+                    return null;
+                }
+                for (Employee employee : company.getEmployees()) {
+                    if (isAdjustedCopy(employee, adjusted, adjustment)) {
+                        employee.setSalary(adjustment.apply(employee.getSalary()));
+                    }
+                }
+                return company;
+            });
+            if (previous != null) {
+                companyIds.add(previous.getId());
+            }
+        }
+        return companyIds;
+    }
+
+    private static boolean hasAdjustedCopy(Company company, Set<String> adjusted, SalaryAdjustment adjustment) {
+        if (company.getEmployees() == null) {
+            return false;
+        }
+        for (Employee employee : company.getEmployees()) {
+            if (isAdjustedCopy(employee, adjusted, adjustment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // a copy whose salary the adjustment would take out of the int range is left as it is, as in the employee store
+    private static boolean isAdjustedCopy(Employee employee, Set<String> adjusted, SalaryAdjustment adjustment) {
+        return employee != null && employee.getSalary() != null && adjusted.contains(employee.getId())
+                && adjustment.keepsInRange(employee.getSalary());
+    }
+}
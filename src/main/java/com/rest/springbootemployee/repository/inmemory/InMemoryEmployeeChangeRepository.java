@@ -0,0 +1,38 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import com.rest.springbootemployee.repository.EmployeeChangeMongoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile({"inmemory", "filestore"})
+public class InMemoryEmployeeChangeRepository extends InMemoryChangeRepository<EmployeeChange> implements EmployeeChangeMongoRepository {
+
+    public InMemoryEmployeeChangeRepository(@Value("${inmemory.change-retention:100000}") int retention) {
+        super(EmployeeChange::getId, EmployeeChange::setId, InMemoryEmployeeChangeRepository::copyOf,
+                EmployeeChange::getSeq, retention);
+    }
+
+    static EmployeeChange copyOf(EmployeeChange change) {
+        return new EmployeeChange(change.getId(), change.getSeq(), change.getEmployeeId(), change.getType(),
+                change.getEmployee() == null ? null : Employee.copyOf(change.getEmployee()),
+                change.getChangedAt());
+    }
+
+    @Override
+    public List<EmployeeChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Pageable pageable) {
+        return findBySeqAfter(seq, pageable);
+    }
+
+    @Override
+    public Optional<EmployeeChange> findFirstByOrderBySeqAsc() {
+        return findOldest();
+    }
+}
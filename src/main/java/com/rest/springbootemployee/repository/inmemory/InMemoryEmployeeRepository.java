@@ -0,0 +1,200 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryEmployeeRepository extends InMemoryRepository<Employee> implements EmployeeMongoRepository {
+    private final ConcurrentHashMap<String, Set<String>> idsByGender = new ConcurrentHashMap<>();
+
+    public InMemoryEmployeeRepository() {
+        super(Employee::getId, Employee::setId, Employee::copyOf);
+    }
+
+    @Override
+    protected void reindex(Employee previous, Employee current) {
+        String previousGender = previous == null ? null : previous.getGender();
+        String currentGender = current == null ? null : current.getGender();
+        if (Objects.equals(previousGender, currentGender)) {
+            return;
+        }
+        if (previousGender != null) {
+            idsByGender.computeIfPresent(previousGender, (gender, ids) -> {
+                ids.remove(previous.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        if (currentGender != null) {
+            idsByGender.compute(currentGender, (gender, ids) -> {
+                Set<String> genderIds = ids == null ? new ConcurrentSkipListSet<>() : ids;
+                genderIds.add(current.getId());
+                return genderIds;
+            });
+        }
+    }
+
+    @Override
+    public List<Employee> findByGender(String gender) {
+        List<Employee> employees = new ArrayList<>();
+        for (String id : idsByGender.getOrDefault(gender, Collections.emptySet())) {
+            Employee employee = document(id);
+            // the index is read without locks, so confirm against the stored document
+            if (employee != null && gender.equals(employee.getGender())) {
+                employees.add(Employee.copyOf(employee));
+            }
+        }
+        return employees;
+    }
+
+    @Override
+    public List<Employee> findByGender(String gender, Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            List<Employee> employees = findByGender(gender);
+            employees.sort(comparator(pageable.getSort()));
+            if (pageable.isUnpaged()) {
+                return employees;
+            }
+            int from = (int) Math.min(pageable.getOffset(), employees.size());
+            int to = Math.min(from + pageable.getPageSize(), employees.size());
+            return new ArrayList<>(employees.subList(from, to));
+        }
+        List<Employee> employees = new ArrayList<>(pageable.getPageSize());
+        long skipped = 0;
+        for (String id : idsByGender.getOrDefault(gender, Collections.emptySet())) {
+            Employee employee = document(id);
+            if (employee == null || !gender.equals(employee.getGender())) {
+                continue;
+            }
+            if (skipped++ < pageable.getOffset()) {
+                continue;
+            }
+            employees.add(Employee.copyOf(employee));
+            if (employees.size() == pageable.getPageSize()) {
+                break;
+            }
+        }
+        return employees;
+    }
+
+    @Override
+    public long countByGender(String gender) {
+        return idsByGender.getOrDefault(gender, Collections.emptySet()).size();
+    }
+
+    @Override
+    public Stream<Employee> streamAllBy() {
+        return StreamSupport.stream(orderedIds().spliterator(), false)
+                .map(this::document)
+                .filter(Objects::nonNull)
+                .map(Employee::copyOf);
+    }
+
+    @Override
+    public List<Employee> findByRange(EmployeeRangeQuery query, EmployeeSortField sortField, RangeCursor after, int limit) {
+        Iterable<String> candidates = query.getGender() == null
+                ? orderedIds()
+                : idsByGender.getOrDefault(query.getGender(), Collections.emptySet());
+        List<Employee> matches = new ArrayList<>();
+        for (String id : candidates) {
+            Employee employee = document(id);
+            if (employee != null && matches(employee, query, sortField, after)) {
+                matches.add(employee);
+            }
+        }
+
+        Comparator<Employee> order = Comparator.comparing(sortField::valueFrom).thenComparing(Employee::getId);
+        matches.sort(query.isDescending() ? order.reversed() : order);
+        List<Employee> page = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            page.add(Employee.copyOf(matches.get(i)));
+        }
+        return page;
+    }
+
+    @Override
+    public List<String> findIdsForSalaryAdjustment(SalaryAdjustment adjustment, Collection<String> within) {
+        Iterable<String> candidates = within != null ? within
+                : adjustment.getGender() != null ? idsByGender.getOrDefault(adjustment.getGender(), Collections.emptySet())
+                : orderedIds();
+        List<String> ids = new ArrayList<>();
+        for (String id : candidates) {
+            Employee employee = document(id);
+            if (employee != null && adjustment.matches(employee.getSalary(), employee.getGender())) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public UpdateResult adjustSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        long matched = 0;
+        long modified = 0;
+        for (String id : employeeIds) {
+            Employee previous = update(id, employee -> {
+                if (!adjustment.matches(employee.getSalary(), employee.getGender())
+                        || !adjustment.keepsInRange(employee.getSalary())) {
+                    return null;
+                }
+                employee.setSalary(adjustment.apply(employee.getSalary()));
+                return employee;
+            });
+            if (previous != null) {
+                matched++;
+                if (adjustment.apply(previous.getSalary()) != previous.getSalary()) {
+                    modified++;
+                }
+            }
+        }
+        return UpdateResult.acknowledged(matched, modified, null);
+    }
+
+    private static boolean matches(Employee employee, EmployeeRangeQuery query, EmployeeSortField sortField, RangeCursor after) {
+        if (query.getGender() != null && !query.getGender().equals(employee.getGender())) {
+            return false;
+        }
+        if (!within(employee.getSalary(), query.getMinSalary(), query.getMaxSalary())
+                || !within(employee.getAge(), query.getMinAge(), query.getMaxAge())) {
+            return false;
+        }
+        Integer sortValue = sortField.valueFrom(employee);
+        if (sortValue == null) {
+            return false;
+        }
+        if (after == null) {
+            return true;
+        }
+        int compared = sortValue != after.getValue()
+                ? Integer.compare(sortValue, after.getValue())
+                : employee.getId().compareTo(after.getId());
+        return query.isDescending() ? compared < 0 : compared > 0;
+    }
+
+    private static boolean within(Integer value, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null && (min == null || value >= min) && (max == null || value <= max);
+    }
+}
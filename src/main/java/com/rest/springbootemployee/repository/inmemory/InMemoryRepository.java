@@ -0,0 +1,307 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import com.rest.springbootemployee.repository.ExampleFluentQuery;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<String, T> documents = new ConcurrentHashMap<>();
+
+    // ObjectId hex strings sort in the same order as the ids themselves, which is what Mongo pages by
+    private final ConcurrentSkipListSet<String> orderedIds = new ConcurrentSkipListSet<>();
+
+    private final Object[] stripes = new Object[STRIPES];
+
+    private final Function<T, String> idOf;
+
+    private final BiConsumer<T, String> idSetter;
+
+    private final UnaryOperator<T> copier;
+
+    protected InMemoryRepository(Function<T, String> idOf, BiConsumer<T, String> idSetter, UnaryOperator<T> copier) {
+        this.idOf = idOf;
+        this.idSetter = idSetter;
+        this.copier = copier;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    // called under the document's stripe lock; previous or current is null on insert or delete
+    protected void reindex(T previous, T current) {
+    }
+
+    protected T copy(T document) {
+        return document == null ? null : copier.apply(document);
+    }
+
+    protected T document(String id) {
+        return documents.get(id);
+    }
+
+    // stored documents are replaced rather than mutated, so they can be read without copying
+    protected Collection<T> storedDocuments() {
+        return Collections.unmodifiableCollection(documents.values());
+    }
+
+    protected Iterable<String> orderedIds() {
+        return orderedIds;
+    }
+
+    protected String idOf(T document) {
+        return idOf.apply(document);
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        String id = idOf.apply(entity);
+        if (id == null) {
+            id = new ObjectId().toString();
+            idSetter.accept(entity, id);
+        }
+        T stored = copier.apply(entity);
+        synchronized (stripe(id)) {
+            T previous = documents.put(id, stored);
+            if (previous == null) {
+                orderedIds.add(id);
+            }
+            reindex(previous, stored);
+        }
+        return entity;
+    }
+
+    // atomic read-modify-write of one document; change gets a copy and returns null to leave it as it is.
+    // Returns the previous document, or null when nothing was written
+    protected T update(String id, UnaryOperator<T> change) {
+        synchronized (stripe(id)) {
+            T previous = documents.get(id);
+            T next = previous == null ? null : change.apply(copier.apply(previous));
+            if (next == null) {
+                return null;
+            }
+            documents.put(id, next);
+            reindex(previous, next);
+            return previous;
+        }
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(copy(documents.get(id)));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        List<T> result = new ArrayList<>(documents.size());
+        for (String id : orderedIds) {
+            addIfPresent(result, id);
+        }
+        return result;
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> result = findAll();
+        if (sort.isSorted()) {
+            result.sort(comparator(sort));
+        }
+        return result;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        if (pageable.getSort().isSorted()) {
+            List<T> sorted = findAll(pageable.getSort());
+            int from = (int) Math.min(pageable.getOffset(), sorted.size());
+            int to = Math.min(from + pageable.getPageSize(), sorted.size());
+            return new PageImpl<>(new ArrayList<>(sorted.subList(from, to)), pageable, sorted.size());
+        }
+        List<T> content = new ArrayList<>(pageable.getPageSize());
+        Iterator<String> ids = orderedIds.iterator();
+        for (long skipped = 0; skipped < pageable.getOffset() && ids.hasNext(); skipped++) {
+            ids.next();
+        }
+        while (ids.hasNext() && content.size() < pageable.getPageSize()) {
+            addIfPresent(content, ids.next());
+        }
+        return new PageImpl<>(content, pageable, documents.size());
+    }
+
+    public List<T> findAllBy(Pageable pageable) {
+        return findAll(pageable).getContent();
+    }
+
+    @Override
+    public Iterable<T> findAllById(Iterable<String> ids) {
+        List<T> result = new ArrayList<>();
+        ids.forEach(id -> addIfPresent(result, id));
+        return result;
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        synchronized (stripe(id)) {
+            T previous = documents.remove(id);
+            if (previous != null) {
+                orderedIds.remove(id);
+                reindex(previous, null);
+            }
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf.apply(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        new ArrayList<>(documents.keySet()).forEach(this::deleteById);
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        Predicate<Object> matches = ExampleMatching.matcher(example);
+        for (String id : orderedIds) {
+            T document = documents.get(id);
+            if (document != null && matches.test(document)) {
+                return Optional.of(copyAs(document));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return findAll(example, Sort.unsorted());
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        Predicate<Object> matches = ExampleMatching.matcher(example);
+        List<S> result = new ArrayList<>();
+        for (String id : orderedIds) {
+            T document = documents.get(id);
+            if (document != null && matches.test(document)) {
+                result.add(copyAs(document));
+            }
+        }
+        if (sort.isSorted()) {
+            result.sort(comparator(sort));
+        }
+        return result;
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return findBy(example, query -> query.page(pageable));
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        Predicate<Object> matches = ExampleMatching.matcher(example);
+        return documents.values().stream().filter(matches).count();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        Predicate<Object> matches = ExampleMatching.matcher(example);
+        return documents.values().stream().anyMatch(matches);
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ExampleFluentQuery<>(sort -> findAll(example, sort), () -> count(example)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S extends T> S copyAs(T document) {
+        return (S) copier.apply(document);
+    }
+
+    private void addIfPresent(List<T> result, String id) {
+        T document = documents.get(id);
+        if (document != null) {
+            result.add(copier.apply(document));
+        }
+    }
+
+    private Object stripe(String id) {
+        return stripes[(id.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    document -> (Comparable) new BeanWrapperImpl(document).getPropertyValue(order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+}
@@ -0,0 +1,22 @@
+package com.rest.springbootemployee.repository.inmemory;
+
+import com.rest.springbootemployee.repository.SequenceRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Repository
+@Profile({"inmemory", "filestore"})
+public class InMemorySequenceRepository implements SequenceRepository {
+    private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    // starting from the boot time keeps sequences increasing across restarts, so stale change tokens expire
+    private final long origin = System.currentTimeMillis() * 1000;
+
+    @Override
+    public long next(String sequenceName, int count) {
+        return sequences.computeIfAbsent(sequenceName, name -> new AtomicLong(origin)).addAndGet(count) - count + 1;
+    }
+}
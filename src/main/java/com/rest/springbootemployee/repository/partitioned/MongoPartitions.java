@@ -0,0 +1,88 @@
+package com.rest.springbootemployee.repository.partitioned;
+
+import com.rest.springbootemployee.deadline.RequestDeadline;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+// routes a key to one of the partitions by a stable hash and runs per-partition work in parallel;
+// the hash is taken modulo the partition count, so changing the number of partitions means moving the data
+public class MongoPartitions<R> {
+    private final List<R> partitions;
+
+    private final ExecutorService executor;
+
+    public MongoPartitions(List<R> partitions, ExecutorService executor) {
+        this.partitions = partitions;
+        this.executor = executor;
+    }
+
+    public int size() {
+        return partitions.size();
+    }
+
+    public R get(int index) {
+        return partitions.get(index);
+    }
+
+    public int indexOf(String key) {
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % partitions.size());
+    }
+
+    public R route(String key) {
+        return partitions.get(indexOf(key));
+    }
+
+    public <K> Map<Integer, List<K>> group(Iterable<? extends K> items, Function<K, String> keyOf) {
+        Map<Integer, List<K>> groups = new LinkedHashMap<>();
+        for (K item : items) {
+            groups.computeIfAbsent(indexOf(keyOf.apply(item)), ignored -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    // one result per partition, in partition order; the caller's request deadline applies on every leg
+    public <T> List<T> gather(Function<R, T> work) {
+        List<Integer> all = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            all.add(i);
+        }
+        return gather(all, index -> work.apply(partitions.get(index)));
+    }
+
+    public <T> List<T> gather(Iterable<Integer> indexes, Function<Integer, T> work) {
+        List<Integer> legs = new ArrayList<>();
+        indexes.forEach(legs::add);
+        if (legs.size() == 1) {
+            return new ArrayList<>(Collections.singletonList(work.apply(legs.get(0))));
+        }
+        RequestDeadline deadline = RequestDeadline.current();
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (Integer index : legs) {
+            futures.add(CompletableFuture.supplyAsync(() -> RequestDeadline.callWith(deadline, () -> work.apply(index)), executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException exception) {
+                if (exception.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) exception.getCause();
+                }
+                throw exception;
+            }
+        }
+        return results;
+    }
+}
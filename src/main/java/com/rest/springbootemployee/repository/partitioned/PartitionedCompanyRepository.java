@@ -0,0 +1,33 @@
+package com.rest.springbootemployee.repository.partitioned;
+
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// a company is placed by its id, and its employees are embedded in it, so a company and its roster
+// always live on the same partition
+public class PartitionedCompanyRepository extends PartitionedRepository<Company, CompanyMongoRepository>
+        implements CompanyMongoRepository {
+
+    public PartitionedCompanyRepository(MongoPartitions<CompanyMongoRepository> partitions) {
+        super(partitions, Company::getId, Company::setId);
+    }
+
+    @Override
+    protected List<Company> findAllBy(CompanyMongoRepository partition, Pageable pageable) {
+        return partition.findAllBy(pageable);
+    }
+
+    // an employee can be on the roster of a company on any partition
+    @Override
+    public List<String> adjustEmployeeSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        List<String> companyIds = new ArrayList<>();
+        partitions.gather(partition -> partition.adjustEmployeeSalaries(adjustment, employeeIds)).forEach(companyIds::addAll);
+        return companyIds;
+    }
+}
@@ -0,0 +1,97 @@
+package com.rest.springbootemployee.repository.partitioned;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// employees carry no company id, so a standalone employee document is placed by its own id;
+// the copies embedded in a company live with the company, see PartitionedCompanyRepository
+public class PartitionedEmployeeRepository extends PartitionedRepository<Employee, EmployeeMongoRepository>
+        implements EmployeeMongoRepository {
+
+    public PartitionedEmployeeRepository(MongoPartitions<EmployeeMongoRepository> partitions) {
+        super(partitions, Employee::getId, Employee::setId);
+    }
+
+    @Override
+    protected List<Employee> findAllBy(EmployeeMongoRepository partition, Pageable pageable) {
+        return partition.findAllBy(pageable);
+    }
+
+    @Override
+    public List<Employee> findByGender(String gender) {
+        List<Employee> employees = new ArrayList<>();
+        partitions.gather(partition -> partition.findByGender(gender)).forEach(employees::addAll);
+        employees.sort(comparator(BY_ID));
+        return employees;
+    }
+
+    @Override
+    public List<Employee> findByGender(String gender, Pageable pageable) {
+        Sort sort = pageable.getSort().and(BY_ID);
+        Pageable head = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort);
+        return page(partitions.gather(partition -> partition.findByGender(gender, head)), comparator(sort), pageable);
+    }
+
+    @Override
+    public long countByGender(String gender) {
+        return partitions.gather(partition -> partition.countByGender(gender)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // one cursor per partition, read one after the other; closing the stream closes all of them
+    @Override
+    public Stream<Employee> streamAllBy() {
+        List<Stream<Employee>> streams = partitions.gather(EmployeeMongoRepository::streamAllBy);
+        return streams.stream().reduce(Stream::concat).orElseGet(Stream::empty);
+    }
+
+    // each partition applies the same keyset filter and limit, the merge keeps the first limit overall
+    @Override
+    public List<Employee> findByRange(EmployeeRangeQuery query, EmployeeSortField sortField, RangeCursor after, int limit) {
+        Comparator<Employee> order = Comparator.comparing(sortField::valueFrom).thenComparing(Employee::getId);
+        return merge(partitions.gather(partition -> partition.findByRange(query, sortField, after, limit)),
+                query.isDescending() ? order.reversed() : order, limit);
+    }
+
+    @Override
+    public List<String> findIdsForSalaryAdjustment(SalaryAdjustment adjustment, Collection<String> within) {
+        List<List<String>> found;
+        if (within == null) {
+            found = partitions.gather(partition -> partition.findIdsForSalaryAdjustment(adjustment, null));
+        } else {
+            Map<Integer, List<String>> groups = partitions.group(within, id -> id);
+            found = partitions.gather(groups.keySet(),
+                    index -> partitions.get(index).findIdsForSalaryAdjustment(adjustment, groups.get(index)));
+        }
+        List<String> ids = new ArrayList<>();
+        found.forEach(ids::addAll);
+        return ids;
+    }
+
+    @Override
+    public UpdateResult adjustSalaries(SalaryAdjustment adjustment, Collection<String> employeeIds) {
+        Map<Integer, List<String>> groups = partitions.group(employeeIds, id -> id);
+        long matched = 0;
+        long modified = 0;
+        for (UpdateResult result : partitions.gather(groups.keySet(),
+                index -> partitions.get(index).adjustSalaries(adjustment, groups.get(index)))) {
+            matched += result.getMatchedCount();
+            modified += result.getModifiedCount();
+        }
+        return UpdateResult.acknowledged(matched, modified, null);
+    }
+}
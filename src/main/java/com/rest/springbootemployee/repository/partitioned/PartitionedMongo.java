@@ -0,0 +1,86 @@
+package com.rest.springbootemployee.repository.partitioned;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rest.springbootemployee.deadline.DeadlineMongoTemplate;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.storage.EmployeeIndexes;
+import com.rest.springbootemployee.storage.FieldFormat;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// one client and template per partition URI, plus the pool the scatter-gather legs run on
+public class PartitionedMongo implements AutoCloseable {
+    private final List<MongoClient> clients = new ArrayList<>();
+
+    private final List<MongoTemplate> templates = new ArrayList<>();
+
+    private final ExecutorService executor;
+
+    public PartitionedMongo(List<String> uris, MongoConverter mongoConverter, Consumer<MongoClientSettings.Builder> settings,
+                            int threads) {
+        if (uris.isEmpty()) {
+            throw new IllegalArgumentException("partitioned.uris must list at least one mongodb:// URI");
+        }
+        for (String uri : uris) {
+            ConnectionString connectionString = new ConnectionString(uri.trim());
+            if (connectionString.getDatabase() == null) {
+                throw new IllegalArgumentException("Partition URI " + uri + " must name a database");
+            }
+            MongoClientSettings.Builder builder = MongoClientSettings.builder().applyConnectionString(connectionString);
+            settings.accept(builder);
+            MongoClient client = MongoClients.create(builder.build());
+            clients.add(client);
+            templates.add(new DeadlineMongoTemplate(
+                    new SimpleMongoClientDatabaseFactory(client, connectionString.getDatabase()), mongoConverter));
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "partition-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <R> MongoPartitions<R> partitions(Function<MongoTemplate, R> repository) {
+        List<R> repositories = new ArrayList<>(templates.size());
+        for (MongoTemplate template : templates) {
+            repositories.add(repository.apply(template));
+        }
+        return new MongoPartitions<>(repositories, executor);
+    }
+
+    // the templates here are built by hand, so the @Document indexes Boot creates on the main database, and the
+    // employee indexes MongoConfig adds, are created on every partition as well
+    public void ensureIndexes(MongoMappingContext mappingContext) {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoTemplate template : templates) {
+            IndexOperations employeeIndexes = template.indexOps(Employee.class);
+            resolver.resolveIndexFor(Employee.class).forEach(employeeIndexes::ensureIndex);
+            EmployeeIndexes.ensure(employeeIndexes, FieldFormat.of(template.getConverter()).readsCompact());
+            IndexOperations companyIndexes = template.indexOps(Company.class);
+            resolver.resolveIndexFor(Company.class).forEach(companyIndexes::ensureIndex);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        clients.forEach(MongoClient::close);
+    }
+}
@@ -0,0 +1,294 @@
+package com.rest.springbootemployee.repository.partitioned;
+
+import com.rest.springbootemployee.repository.ExampleFluentQuery;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// a MongoRepository over several partitions, each a regular Spring Data repository on its own database;
+// single-document operations go to the partition the id hashes to, everything else is scatter-gather
+// with the per-partition results merged into one ordering (by id unless a sort is given)
+public abstract class PartitionedRepository<T, R extends MongoRepository<T, String>> implements MongoRepository<T, String> {
+    protected static final Sort BY_ID = Sort.by("id");
+
+    protected final MongoPartitions<R> partitions;
+
+    private final Function<T, String> idOf;
+
+    private final BiConsumer<T, String> idSetter;
+
+    private final Comparator<T> byId;
+
+    protected PartitionedRepository(MongoPartitions<R> partitions, Function<T, String> idOf, BiConsumer<T, String> idSetter) {
+        this.partitions = partitions;
+        this.idOf = idOf;
+        this.idSetter = idSetter;
+        this.byId = Comparator.comparing(idOf, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    // the id decides the partition, so it is assigned here rather than by the database
+    private <S extends T> S withId(S entity) {
+        if (idOf.apply(entity) == null) {
+            idSetter.accept(entity, new ObjectId().toString());
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        withId(entity);
+        return partitions.route(idOf.apply(entity)).save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        entities.forEach(this::withId);
+        return scatter(entities, (partition, group) -> partition.saveAll(group));
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        withId(entity);
+        return partitions.route(idOf.apply(entity)).insert(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        entities.forEach(this::withId);
+        return scatter(entities, (partition, group) -> partition.insert(group));
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return partitions.route(id).findById(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return partitions.route(id).existsById(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return merge(partitions.gather(partition -> partition.findAll(BY_ID)), byId);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        Sort withId = sort.and(BY_ID);
+        return merge(partitions.gather(partition -> partition.findAll(withId)), comparator(withId));
+    }
+
+    // every partition returns its first offset + size documents, the merged list is cut to the requested page
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        List<T> content = findAllBy(pageable);
+        return new PageImpl<>(content, pageable, count());
+    }
+
+    public List<T> findAllBy(Pageable pageable) {
+        Sort sort = pageable.getSort().and(BY_ID);
+        Pageable head = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort);
+        return page(partitions.gather(partition -> findAllBy(partition, head)), comparator(sort), pageable);
+    }
+
+    // a List-returning query on the partition, so it does not count alongside
+    protected abstract List<T> findAllBy(R partition, Pageable pageable);
+
+    @Override
+    public Iterable<T> findAllById(Iterable<String> ids) {
+        Map<Integer, List<String>> groups = partitions.group(ids, id -> id);
+        List<List<T>> found = partitions.gather(groups.keySet(), index -> {
+            List<T> documents = new ArrayList<>();
+            partitions.get(index).findAllById(groups.get(index)).forEach(documents::add);
+            return documents;
+        });
+        return merge(found, byId);
+    }
+
+    @Override
+    public long count() {
+        return partitions.gather(MongoRepository::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        partitions.route(id).deleteById(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        partitions.route(idOf.apply(entity)).delete(entity);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        Map<Integer, List<String>> groups = partitions.group(ids, id -> id);
+        partitions.gather(groups.keySet(), index -> {
+            partitions.get(index).deleteAllById(groups.get(index));
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        Map<Integer, List<T>> groups = partitions.group(entities, idOf);
+        partitions.gather(groups.keySet(), index -> {
+            partitions.get(index).deleteAll(groups.get(index));
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll() {
+        partitions.gather(partition -> {
+            partition.deleteAll();
+            return null;
+        });
+    }
+
+    // queries by example run on every partition like the other scatter-gather reads
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return findAll(example, BY_ID).stream().findFirst();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return findAll(example, Sort.unsorted());
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        Sort withId = sort.and(BY_ID);
+        return merge(partitions.gather(partition -> partition.findAll(example, withId)), comparator(withId));
+    }
+
+    // as findAll(Pageable): each partition returns its first offset + size matches, and its total
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(example, pageable.getSort()));
+        }
+        Sort sort = pageable.getSort().and(BY_ID);
+        Pageable head = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort);
+        List<Page<S>> pages = partitions.gather(partition -> partition.findAll(example, head));
+        List<List<S>> contents = new ArrayList<>(pages.size());
+        long total = 0;
+        for (Page<S> page : pages) {
+            contents.add(page.getContent());
+            total += page.getTotalElements();
+        }
+        return new PageImpl<>(page(contents, comparator(sort), pageable), pageable, total);
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return partitions.gather(partition -> partition.count(example)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return partitions.gather(partition -> partition.exists(example)).contains(true);
+    }
+
+    @Override
+    public <S extends T, R2> R2 findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R2> queryFunction) {
+        return queryFunction.apply(new ExampleFluentQuery<>(sort -> findAll(example, sort), () -> count(example)));
+    }
+
+    protected <S extends T> List<S> scatter(Iterable<S> entities, PartitionWrite<R, S> write) {
+        Map<Integer, List<S>> groups = partitions.group(entities, idOf::apply);
+        List<S> written = new ArrayList<>();
+        partitions.gather(groups.keySet(), index -> write.apply(partitions.get(index), groups.get(index)))
+                .forEach(written::addAll);
+        return written;
+    }
+
+    // k-way merge of lists that are each already in comparator order
+    protected static <E> List<E> merge(List<List<E>> sortedLists, Comparator<? super E> comparator) {
+        return merge(sortedLists, comparator, Integer.MAX_VALUE);
+    }
+
+    protected static <E> List<E> merge(List<List<E>> sortedLists, Comparator<? super E> comparator, int limit) {
+        PriorityQueue<Cursor<E>> heads = new PriorityQueue<>((left, right) -> comparator.compare(left.head(), right.head()));
+        int total = 0;
+        for (List<E> list : sortedLists) {
+            total += list.size();
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list));
+            }
+        }
+        List<E> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor<E> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    protected static <E> List<E> page(List<List<E>> sortedLists, Comparator<? super E> comparator, Pageable pageable) {
+        List<E> head = merge(sortedLists, comparator, (int) pageable.getOffset() + pageable.getPageSize());
+        if (head.size() <= pageable.getOffset()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(head.subList((int) pageable.getOffset(), head.size()));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    document -> (Comparable) new BeanWrapperImpl(document).getPropertyValue(order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    protected interface PartitionWrite<P, S> {
+        List<S> apply(P partition, List<S> group);
+    }
+
+    private static class Cursor<E> {
+        private final List<E> list;
+
+        private int position;
+
+        private Cursor(List<E> list) {
+            this.list = list;
+        }
+
+        private E head() {
+            return list.get(position);
+        }
+
+        private boolean advance() {
+            return ++position < list.size();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.rest.springbootemployee.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class NameIndex {
+    private static final int CANDIDATE_CAP = 512;
+
+    private static final int EXACT = 0;
+
+    private static final int NAME_PREFIX = 1;
+
+    private static final int TOKEN_PREFIX = 2;
+
+    private static final int SUBSTRING = 3;
+
+    private final long memoryBudgetBytes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> slotsById = new HashMap<>();
+
+    private final TreeMap<String, IntList> tokens = new TreeMap<>();
+
+    private final Map<Long, IntList> trigrams = new HashMap<>();
+
+    private final IntList freeSlots = new IntList();
+
+    private String[] ids = new String[1024];
+
+    private String[] names = new String[1024];
+
+    private String[] normalizedNames = new String[1024];
+
+    private long[] costs = new long[1024];
+
+    private int nextSlot;
+
+    private long estimatedBytes;
+
+    private boolean truncated;
+
+    public NameIndex(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public boolean put(String id, String name) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+            if (name == null) {
+                return true;
+            }
+            String normalized = normalize(name);
+            String[] nameTokens = tokenize(normalized);
+            long[] nameTrigrams = trigramsOf(normalized);
+            long cost = estimateCost(id, name, nameTokens.length, nameTrigrams.length);
+            if (estimatedBytes + cost > memoryBudgetBytes) {
+                truncated = true;
+                return false;
+            }
+
+            int slot = allocateSlot();
+            ids[slot] = id;
+            names[slot] = name;
+            normalizedNames[slot] = normalized;
+            costs[slot] = cost;
+            slotsById.put(id, slot);
+            for (String token : nameTokens) {
+                tokens.computeIfAbsent(token, key -> new IntList()).add(slot);
+            }
+            for (long trigram : nameTrigrams) {
+                trigrams.computeIfAbsent(trigram, key -> new IntList()).add(slot);
+            }
+            estimatedBytes += cost;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<NameMatch> search(String query, int limit) {
+        String normalizedQuery = query == null ? "" : normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String[] queryTokens = tokenize(normalizedQuery);
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = new int[CANDIDATE_CAP];
+            int count = collectTokenPrefixMatches(normalizedQuery, queryTokens, candidates, 0);
+            if (normalizedQuery.length() >= 3) {
+                count = collectTrigramMatches(normalizedQuery, candidates, count);
+            }
+            Arrays.sort(candidates, 0, count);
+
+            // rank, name length and slot packed into one long so ordering needs no objects
+            long[] scored = new long[count];
+            int hits = 0;
+            for (int i = 0; i < count; i++) {
+                int slot = candidates[i];
+                if (i > 0 && slot == candidates[i - 1]) {
+                    continue;
+                }
+                int rank = rank(normalizedNames[slot], normalizedQuery, queryTokens);
+                if (rank >= 0) {
+                    long length = Math.min(names[slot].length(), 0xFFFF);
+                    scored[hits++] = ((long) rank << 48) | (length << 32) | slot;
+                }
+            }
+            Arrays.sort(scored, 0, hits);
+
+            int size = Math.min(hits, limit);
+            List<NameMatch> matches = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int slot = (int) scored[i];
+                matches.add(new NameMatch(ids[slot], names[slot]));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    // every exact, name-prefix and token-prefix match has each query token as a word prefix, so the postings of the
+    // rarest query token hold them all; names missing another token are skipped before they take a place under the cap,
+    // and once it is reached a name equal to or starting with the query still takes the place of a weaker candidate
+    private int collectTokenPrefixMatches(String normalizedQuery, String[] queryTokens, int[] candidates, int count) {
+        String rarest = queryTokens[0];
+        long rarestSize = Long.MAX_VALUE;
+        for (String queryToken : queryTokens) {
+            long size = prefixPostings(queryToken, rarestSize);
+            if (size < rarestSize) {
+                rarest = queryToken;
+                rarestSize = size;
+            }
+        }
+        int[] evictFrom = new int[NAME_PREFIX + 1];
+        NavigableMap<String, IntList> range = tokens.subMap(rarest, true, rarest + Character.MAX_VALUE, false);
+        for (IntList slots : range.values()) {
+            for (int i = 0; i < slots.size(); i++) {
+                int slot = slots.get(i);
+                String name = normalizedNames[slot];
+                if (queryTokens.length > 1 && !allTokensPrefixed(name, queryTokens)) {
+                    continue;
+                }
+                if (count < candidates.length) {
+                    candidates[count++] = slot;
+                    continue;
+                }
+                int rank = prefixRank(name, normalizedQuery);
+                for (int weaker = TOKEN_PREFIX; weaker > rank; weaker--) {
+                    int at = evictFrom[weaker - 1];
+                    while (at < count && prefixRank(normalizedNames[candidates[at]], normalizedQuery) < weaker) {
+                        at++;
+                    }
+                    evictFrom[weaker - 1] = at;
+                    if (at < count) {
+                        candidates[at] = slot;
+                        break;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // the ranks a word-prefix match can have
+    private static int prefixRank(String name, String normalizedQuery) {
+        return name.equals(normalizedQuery) ? EXACT : name.startsWith(normalizedQuery) ? NAME_PREFIX : TOKEN_PREFIX;
+    }
+
+    // the postings under a token prefix, counted only as far as stopAt
+    private long prefixPostings(String prefix, long stopAt) {
+        long size = 0;
+        for (IntList slots : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            size += slots.size();
+            if (size >= stopAt) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    // likewise only names that contain the whole query take a place
+    private int collectTrigramMatches(String normalizedQuery, int[] candidates, int count) {
+        IntList smallest = null;
+        for (long trigram : trigramsOf(normalizedQuery)) {
+            IntList slots = trigrams.get(trigram);
+            if (slots == null) {
+                return count;
+            }
+            if (smallest == null || slots.size() < smallest.size()) {
+                smallest = slots;
+            }
+        }
+        for (int i = 0; smallest != null && i < smallest.size() && count < candidates.length; i++) {
+            int slot = smallest.get(i);
+            if (normalizedNames[slot].contains(normalizedQuery)) {
+                candidates[count++] = slot;
+            }
+        }
+        return count;
+    }
+
+    private static int rank(String name, String query, String[] queryTokens) {
+        if (name.equals(query)) {
+            return EXACT;
+        }
+        if (name.startsWith(query)) {
+            return NAME_PREFIX;
+        }
+        if (allTokensPrefixed(name, queryTokens)) {
+            return TOKEN_PREFIX;
+        }
+        if (name.contains(query)) {
+            return SUBSTRING;
+        }
+        return -1;
+    }
+
+    private static boolean allTokensPrefixed(String name, String[] queryTokens) {
+        for (String queryToken : queryTokens) {
+            if (!isTokenPrefix(name, queryToken)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTokenPrefix(String name, String queryToken) {
+        int from = 0;
+        while (true) {
+            int at = name.indexOf(queryToken, from);
+            if (at < 0) {
+                return false;
+            }
+            if (at == 0 || name.charAt(at - 1) == ' ') {
+                return true;
+            }
+            from = at + 1;
+        }
+    }
+
+    private void removeSlot(String id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        String normalized = normalizedNames[slot];
+        for (String token : tokenize(normalized)) {
+            IntList slots = tokens.get(token);
+            if (slots != null && slots.remove(slot) && slots.isEmpty()) {
+                tokens.remove(token);
+            }
+        }
+        for (long trigram : trigramsOf(normalized)) {
+            IntList slots = trigrams.get(trigram);
+            if (slots != null && slots.remove(slot) && slots.isEmpty()) {
+                trigrams.remove(trigram);
+            }
+        }
+        estimatedBytes -= costs[slot];
+        ids[slot] = null;
+        names[slot] = null;
+        normalizedNames[slot] = null;
+        costs[slot] = 0;
+        freeSlots.add(slot);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.removeLast();
+        }
+        if (nextSlot == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            normalizedNames = Arrays.copyOf(normalizedNames, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+        }
+        return nextSlot++;
+    }
+
+    // rough heap footprint: strings, posting entries and the per-slot bookkeeping
+    private static long estimateCost(String id, String name, int tokenCount, int trigramCount) {
+        return 2 * (40 + 2L * name.length()) + 40 + 2L * id.length() + 64 + 4L * (tokenCount + trigramCount);
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    static String[] tokenize(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    static long[] trigramsOf(String normalized) {
+        if (normalized.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[normalized.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) normalized.charAt(i) << 32) | ((long) normalized.charAt(i + 1) << 16) | normalized.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+}
@@ -0,0 +1,28 @@
+package com.rest.springbootemployee.search;
+
+public class NameMatch {
+    private String id;
+
+    private String name;
+
+    public NameMatch(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
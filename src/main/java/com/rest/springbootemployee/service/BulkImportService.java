@@ -0,0 +1,391 @@
+package com.rest.springbootemployee.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.rest.springbootemployee.converter.EmployeeCsvReader;
+import com.rest.springbootemployee.dto.ImportJob;
+import com.rest.springbootemployee.dto.ImportRequest;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeBatch;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import com.rest.springbootemployee.exception.NoImportFoundException;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+public class BulkImportService {
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final EmployeeMongoRepository employeeMongoRepository;
+
+    private final CompanyMongoRepository companyMongoRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Path directory;
+
+    private final long chunkBytes;
+
+    private final int batchSize;
+
+    private final boolean publishEvents;
+
+    private final ForkJoinPool parsers;
+
+    // one import runs at a time, later ones queue behind it
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkImportService(EmployeeMongoRepository employeeMongoRepository,
+                             CompanyMongoRepository companyMongoRepository,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${import.directory:imports}") String directory,
+                             @Value("${import.chunk-size-kb:32768}") int chunkSizeKb,
+                             @Value("${import.batch-size:1000}") int batchSize,
+                             @Value("${import.parallelism:0}") int parallelism,
+                             @Value("${import.publish-events:true}") boolean publishEvents) {
+        this.employeeMongoRepository = employeeMongoRepository;
+        this.companyMongoRepository = companyMongoRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.chunkBytes = (long) chunkSizeKb << 10;
+        this.batchSize = batchSize;
+        this.publishEvents = publishEvents;
+        this.parsers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public ImportJob start(ImportRequest request) {
+        boolean csv = "csv".equals(request.getFormat());
+        if (!csv && !"ndjson".equals(request.getFormat())) {
+            throw new InvalidQueryException("format must be ndjson or csv");
+        }
+        boolean companies = "companies".equals(request.getCollection());
+        if (!companies && !"employees".equals(request.getCollection())) {
+            throw new InvalidQueryException("collection must be employees or companies");
+        }
+        if (companies && csv) {
+            throw new InvalidQueryException("companies embed employee lists and can only be imported from ndjson");
+        }
+        Path file = resolve(request.getFile());
+        ImportJob job;
+        try {
+            job = new ImportJob(UUID.randomUUID().toString(), request.getFile(), request.getFormat(),
+                    request.getCollection(), Files.size(file));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        pruneFinishedJobs();
+        jobs.put(job.getId(), job);
+        if (companies) {
+            coordinator.execute(() -> run(job, file, false, new Target<>(Company.class, companyMongoRepository,
+                    Company::getId, company -> eventPublisher.publishEvent(CompanyChangedEvent.created(company)))));
+        } else {
+            coordinator.execute(() -> run(job, file, csv, new Target<>(Employee.class, employeeMongoRepository,
+                    Employee::getId, employee -> eventPublisher.publishEvent(EmployeeChangedEvent.created(employee)))));
+        }
+        return job;
+    }
+
+    public ImportJob findById(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new NoImportFoundException();
+        }
+        return job;
+    }
+
+    public List<ImportJob> findAll() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    private Path resolve(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new InvalidQueryException("file is required");
+        }
+        Path file = directory.resolve(name).normalize();
+        if (!file.startsWith(directory)) {
+            throw new InvalidQueryException("file must be inside the import directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new InvalidQueryException("No such import file: " + name);
+        }
+        return file;
+    }
+
+    private <T> void run(ImportJob job, Path file, boolean csv, Target<T> target) {
+        job.start();
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<RecordChunker.Chunk> chunks;
+            // both readers are immutable, so the chunk tasks share them
+            Parser<T> parser;
+            if (csv) {
+                long headerEnd = RecordChunker.firstCsvRecordEnd(channel);
+                byte[] header = new byte[(int) headerEnd];
+                channel.read(ByteBuffer.wrap(header), 0);
+                int headerLength = header.length > 0 && header[header.length - 1] == '\n' ? header.length - 1 : header.length;
+                EmployeeCsvReader reader = EmployeeCsvReader.forHeader(header, 0, trimLineEnd(header, headerLength));
+                job.addProgress(headerEnd, 0);
+                chunks = RecordChunker.csvRecords(channel, headerEnd, chunkBytes);
+                parser = (bytes, length) -> target.type.cast(reader.read(bytes, 0, length));
+            } else {
+                ObjectReader reader = objectMapper.readerFor(target.type);
+                chunks = RecordChunker.lines(channel, 0, chunkBytes);
+                parser = (bytes, length) -> reader.readValue(bytes, 0, length);
+            }
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+            for (RecordChunker.Chunk chunk : chunks) {
+                tasks.add(parsers.submit(() -> importChunk(job, channel, chunk, csv, parser, target)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+            job.complete();
+            log.info("Imported {} {} from {} ({} rejected) in {} ms", job.getImported(), job.getCollection(),
+                    file, job.getRejected(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException exception) {
+            log.error("Import of {} failed", file, exception);
+            job.fail(exception.getMessage());
+        }
+    }
+
+    private <T> void importChunk(ImportJob job, FileChannel channel, RecordChunker.Chunk chunk, boolean csv,
+                                 Parser<T> parser, Target<T> target) {
+        MappedByteBuffer mapped;
+        try {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        ByteBuffer view = mapped.duplicate();
+        int length = (int) (chunk.end - chunk.start);
+        byte[] record = new byte[4096];
+        List<T> batch = new ArrayList<>(batchSize);
+        List<Long> offsets = new ArrayList<>(batchSize);
+        int recordStart = 0;
+        int reported = 0;
+        boolean quoted = false;
+        for (int i = 0; i <= length; i++) {
+            if (i < length) {
+                byte b = mapped.get(i);
+                if (csv && b == '"') {
+                    quoted = !quoted;
+                }
+                if (b != '\n' || quoted) {
+                    continue;
+                }
+            }
+            int recordLength = i - recordStart;
+            if (recordLength > record.length) {
+                record = new byte[Math.max(recordLength, record.length * 2)];
+            }
+            view.position(recordStart);
+            view.get(record, 0, recordLength);
+            long offset = chunk.start + recordStart;
+            recordStart = i + 1;
+            int trimmed = trimLineEnd(record, recordLength);
+            if (isBlank(record, trimmed)) {
+                continue;
+            }
+            T document = parse(job, parser, record, trimmed, offset, target);
+            if (document != null) {
+                batch.add(document);
+                offsets.add(offset);
+            }
+            // every chunk task inserts its own batches, so inserts run as parallel as parsing
+            if (batch.size() >= batchSize) {
+                job.addProgress(Math.min(i + 1, length) - reported, insert(job, batch, offsets, target));
+                reported = Math.min(i + 1, length);
+                batch.clear();
+                offsets.clear();
+            }
+        }
+        job.addProgress(length - reported, batch.isEmpty() ? 0 : insert(job, batch, offsets, target));
+    }
+
+    private <T> T parse(ImportJob job, Parser<T> parser, byte[] record, int length, long offset, Target<T> target) {
+        try {
+            T document = parser.parse(record, length);
+            String id = target.idOf.apply(document);
+            if (id != null && !ObjectId.isValid(id)) {
+                job.reject(offset, "id is not an ObjectId: " + id);
+                return null;
+            }
+            return document;
+        } catch (JsonProcessingException exception) {
+            job.reject(offset, exception.getOriginalMessage());
+        } catch (IOException | IllegalArgumentException exception) {
+            job.reject(offset, exception.getMessage());
+        }
+        return null;
+    }
+
+    private <T> long insert(ImportJob job, List<T> batch, List<Long> offsets, Target<T> target) {
+        try {
+            target.repository.insert(batch);
+            publish(batch, target);
+            return batch.size();
+        } catch (DataAccessException exception) {
+            // an ordered bulk insert stops at the first failure with the records before it stored, so those get their
+            // events and the rest are retried record by record to find the bad ones
+            int failedAt = failedIndex(exception);
+            List<T> stored = new ArrayList<>(batch.subList(0, Math.max(failedAt, 0)));
+            long inserted = stored.size();
+            for (int i = stored.size(); i < batch.size(); i++) {
+                T document = batch.get(i);
+                try {
+                    target.repository.insert(document);
+                    stored.add(document);
+                    inserted++;
+                } catch (DuplicateKeyException duplicate) {
+                    // a re-run of the same file, or a record the bulk insert wrote when it did not say where it stopped
+                    if (sameAsStored(document, target)) {
+                        if (failedAt < 0) {
+                            stored.add(document);
+                        }
+                        inserted++;
+                    } else {
+                        job.reject(offsets.get(i), "duplicate id " + target.idOf.apply(document));
+                    }
+                } catch (DataAccessException failure) {
+                    job.reject(offsets.get(i), failure.getMostSpecificCause().getMessage());
+                }
+            }
+            publish(stored, target);
+            return inserted;
+        }
+    }
+
+    private <T> void publish(List<T> stored, Target<T> target) {
+        if (publishEvents) {
+            ChangeBatch.run(() -> stored.forEach(target.publisher));
+        }
+    }
+
+    // the index of the first record the bulk insert rejected, -1 when the failure does not say
+    private static int failedIndex(DataAccessException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException) {
+                return ((MongoBulkWriteException) cause).getWriteErrors().stream()
+                        .mapToInt(BulkWriteError::getIndex)
+                        .min()
+                        .orElse(-1);
+            }
+        }
+        return -1;
+    }
+
+    private <T> boolean sameAsStored(T document, Target<T> target) {
+        String id = target.idOf.apply(document);
+        return id != null && target.repository.findById(id)
+                .map(stored -> Objects.equals(json(stored), json(document)))
+                .orElse(false);
+    }
+
+    private String json(Object document) {
+        try {
+            return objectMapper.writeValueAsString(document);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        if (jobs.size() < MAX_FINISHED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.getFinishedAt() != null)
+                .min((left, right) -> Long.compare(left.getFinishedAt(), right.getFinishedAt()))
+                .ifPresent(oldest -> jobs.remove(oldest.getId()));
+    }
+
+    private static int trimLineEnd(byte[] bytes, int length) {
+        return length > 0 && bytes[length - 1] == '\r' ? length - 1 : length;
+    }
+
+    private static boolean isBlank(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface Parser<T> {
+        T parse(byte[] bytes, int length) throws IOException;
+    }
+
+    private static final class Target<T> {
+        final Class<T> type;
+
+        final MongoRepository<T, String> repository;
+
+        final Function<T, String> idOf;
+
+        final Consumer<T> publisher;
+
+        Target(Class<T> type, MongoRepository<T, String> repository, Function<T, String> idOf, Consumer<T> publisher) {
+            this.type = type;
+            this.repository = repository;
+            this.idOf = idOf;
+            this.publisher = publisher;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.rest.springbootemployee.service;
+
+import com.rest.springbootemployee.dto.ChangeFeed;
+import com.rest.springbootemployee.entity.CompanyChange;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import com.rest.springbootemployee.event.ChangeBatch;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.ChangeTokenExpiredException;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import com.rest.springbootemployee.repository.CompanyChangeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeChangeMongoRepository;
+import com.rest.springbootemployee.repository.SequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// sequences come from one counter shared by every instance, so an entry can be stored before one with a lower
+// sequence that another instance (or another thread) allocated first and is still inserting. A reader returns
+// entries in sequence order and stops at a gap unless the entry after it is older than change-feed.settle-ms: the
+// missing sequence was allocated before that entry's changedAt, so by then it is stored or never will be (its write
+// failed). This holds across instances as long as their clocks differ by well under the settle window
+@Service
+public class ChangeFeedService {
+    public static final int MAX_LIMIT = 1000;
+
+    static final String EMPLOYEE_SEQUENCE = "employeeChanges";
+
+    static final String COMPANY_SEQUENCE = "companyChanges";
+
+    private EmployeeChangeMongoRepository employeeChangeMongoRepository;
+
+    private CompanyChangeMongoRepository companyChangeMongoRepository;
+
+    private SequenceRepository sequenceRepository;
+
+    private long settleMs;
+
+    public ChangeFeedService(EmployeeChangeMongoRepository employeeChangeMongoRepository,
+                             CompanyChangeMongoRepository companyChangeMongoRepository,
+                             SequenceRepository sequenceRepository,
+                             @Value("${change-feed.settle-ms:2000}") long settleMs) {
+        this.employeeChangeMongoRepository = employeeChangeMongoRepository;
+        this.companyChangeMongoRepository = companyChangeMongoRepository;
+        this.sequenceRepository = sequenceRepository;
+        this.settleMs = settleMs;
+    }
+
+    // changes published together (see ChangeBatch) take one block of sequences and one insert
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!ChangeBatch.collect(EMPLOYEE_SEQUENCE, event, this::recordEmployeeChanges)) {
+            recordEmployeeChanges(Collections.singletonList(event));
+        }
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        if (!ChangeBatch.collect(COMPANY_SEQUENCE, event, this::recordCompanyChanges)) {
+            recordCompanyChanges(Collections.singletonList(event));
+        }
+    }
+
+    // changedAt is taken after the sequences are allocated
+    private void recordEmployeeChanges(List<EmployeeChangedEvent> events) {
+        long seq = sequenceRepository.next(EMPLOYEE_SEQUENCE, events.size());
+        Date changedAt = new Date();
+        List<EmployeeChange> changes = new ArrayList<>(events.size());
+        for (EmployeeChangedEvent event : events) {
+            changes.add(new EmployeeChange(null, seq++, event.getEmployeeId(), event.getType(), event.getEmployee(),
+                    changedAt));
+        }
+        if (changes.size() == 1) {
+            employeeChangeMongoRepository.insert(changes.get(0));
+        } else {
+            employeeChangeMongoRepository.insert(changes);
+        }
+    }
+
+    private void recordCompanyChanges(List<CompanyChangedEvent> events) {
+        long seq = sequenceRepository.next(COMPANY_SEQUENCE, events.size());
+        Date changedAt = new Date();
+        List<CompanyChange> changes = new ArrayList<>(events.size());
+        for (CompanyChangedEvent event : events) {
+            changes.add(new CompanyChange(null, seq++, event.getCompanyId(), event.getType(), event.getCompany(),
+                    changedAt));
+        }
+        if (changes.size() == 1) {
+            companyChangeMongoRepository.insert(changes.get(0));
+        } else {
+            companyChangeMongoRepository.insert(changes);
+        }
+    }
+
+    public ChangeFeed<EmployeeChange> findEmployeeChanges(String token, int limit) {
+        PageRequest page = PageRequest.of(0, pageSize(limit));
+        return findChanges(token,
+                since -> employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(since, page),
+                employeeChangeMongoRepository::findFirstByOrderBySeqAsc,
+                EmployeeChange::getSeq, EmployeeChange::getChangedAt);
+    }
+
+    public ChangeFeed<CompanyChange> findCompanyChanges(String token, int limit) {
+        PageRequest page = PageRequest.of(0, pageSize(limit));
+        return findChanges(token,
+                since -> companyChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(since, page),
+                companyChangeMongoRepository::findFirstByOrderBySeqAsc,
+                CompanyChange::getSeq, CompanyChange::getChangedAt);
+    }
+
+    private <T> ChangeFeed<T> findChanges(String token,
+                                          LongFunction<List<T>> after,
+                                          Supplier<Optional<T>> oldest,
+                                          ToLongFunction<T> seqOf,
+                                          Function<T, Date> changedAtOf) {
+        long since = parseToken(token);
+        List<T> changes = after.apply(since);
+
+        boolean contiguous = !changes.isEmpty() && seqOf.applyAsLong(changes.get(0)) == since + 1;
+        if (since > 0 && !contiguous) {
+            Optional<Long> oldestSeq = oldest.get().map(seqOf::applyAsLong);
+            if (oldestSeq.isPresent() && oldestSeq.get() > since + 1) {
+                throw new ChangeTokenExpiredException();
+            }
+        }
+
+        // a first pull starts at the oldest entry kept, which only a brand-new feed could have in flight below it
+        long settledBefore = System.currentTimeMillis() - settleMs;
+        long expected = since + 1;
+        int settled = 0;
+        for (T change : changes) {
+            long seq = seqOf.applyAsLong(change);
+            Date changedAt = changedAtOf.apply(change);
+            boolean gap = (since > 0 || settled > 0) && seq != expected;
+            if (gap && changedAt != null && changedAt.getTime() > settledBefore) {
+                break;
+            }
+            expected = seq + 1;
+            settled++;
+        }
+        changes = changes.subList(0, settled);
+
+        long next = changes.isEmpty() ? since : seqOf.applyAsLong(changes.get(changes.size() - 1));
+        return new ChangeFeed<>(changes, String.valueOf(next));
+    }
+
+    private static int pageSize(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidQueryException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static long parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return 0;
+        }
+        try {
+            long since = Long.parseLong(token);
+            if (since < 0) {
+                throw new InvalidQueryException("Invalid change token");
+            }
+            return since;
+        } catch (NumberFormatException exception) {
+            throw new InvalidQueryException("Invalid change token");
+        }
+    }
+}
@@ -1,20 +1,37 @@
 package com.rest.springbootemployee.service;
 
+import com.rest.springbootemployee.cache.HotRecords;
+import com.rest.springbootemployee.converter.EmployeeCsvWriter;
 import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
 import com.rest.springbootemployee.exception.NoCompanyFoundException;
 import com.rest.springbootemployee.repository.CompanyMongoRepository;
 import com.rest.springbootemployee.entity.Employee;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 public class CompanyService {
     private CompanyMongoRepository companyMongoRepository;
 
-    public CompanyService(CompanyMongoRepository companyMongoRepository) {
+    private ApplicationEventPublisher eventPublisher;
+
+    private PageReadAhead pageReadAhead;
+
+    private HotRecords hotRecords;
+
+    public CompanyService(CompanyMongoRepository companyMongoRepository, ApplicationEventPublisher eventPublisher,
+                          PageReadAhead pageReadAhead, HotRecords hotRecords) {
         this.companyMongoRepository = companyMongoRepository;
+        this.eventPublisher = eventPublisher;
+        this.pageReadAhead = pageReadAhead;
+        this.hotRecords = hotRecords;
     }
 
     public List<Company> findAll() {
@@ -22,20 +39,29 @@ public class CompanyService {
     }
 
     public List<Company> findByPage(Integer page, Integer pageSize) {
-        return companyMongoRepository.findAll(PageRequest.of(page-1, pageSize)).toList();
+        return companyMongoRepository.findAllBy(PageRequest.of(page-1, pageSize));
+    }
+
+    public List<Company> findByPage(String client, Integer page, Integer pageSize) {
+        return pageReadAhead.read(PageReadAhead.COMPANIES, client, "", page, pageSize,
+                nextPage -> findByPage(nextPage, pageSize));
     }
 
 
     public Company findById(String companyId) {
-        return companyMongoRepository.findById(companyId).orElseThrow(NoCompanyFoundException::new);
+        return hotRecords.company(companyId, key -> companyMongoRepository.findById(key)
+                .orElseThrow(NoCompanyFoundException::new));
     }
 
     public Company create(Company company) {
-        return companyMongoRepository.save(company);
+        Company createdCompany = companyMongoRepository.save(company);
+        eventPublisher.publishEvent(CompanyChangedEvent.created(createdCompany));
+        return createdCompany;
     }
 
     public void delete(String companyId) {
         companyMongoRepository.deleteById(companyId);
+        eventPublisher.publishEvent(CompanyChangedEvent.deleted(companyId));
     }
 
     public Company update(String companyId, Company toUpdateCompany) {
@@ -44,13 +70,19 @@ public class CompanyService {
         if (toUpdateCompany.getName() != null) {
             existingCompany.setName(toUpdateCompany.getName());
         }
-        return companyMongoRepository.save(existingCompany);
+        Company updatedCompany = companyMongoRepository.save(existingCompany);
+        eventPublisher.publishEvent(CompanyChangedEvent.updated(updatedCompany));
+        return updatedCompany;
     }
 
     public List<Employee> getEmployees(String companyId) {
-        Company company = companyMongoRepository.findById(companyId)
-                .orElseThrow(NoCompanyFoundException::new);
-        return company.getEmployees();
+        return findById(companyId).getEmployees();
+    }
+
+    // the roster is embedded in the company document, so it is already bounded by the document size
+    public long exportEmployeesCsv(Company company, OutputStream out) throws IOException {
+        List<Employee> employees = company.getEmployees() == null ? Collections.emptyList() : company.getEmployees();
+        return EmployeeCsvWriter.write(employees.iterator(), out);
     }
 
 }
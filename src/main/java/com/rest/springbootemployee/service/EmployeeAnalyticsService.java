@@ -0,0 +1,147 @@
+package com.rest.springbootemployee.service;
+
+import com.rest.springbootemployee.analytics.ColumnFilter;
+import com.rest.springbootemployee.analytics.ColumnScan;
+import com.rest.springbootemployee.analytics.EmployeeColumns;
+import com.rest.springbootemployee.analytics.GroupTotals;
+import com.rest.springbootemployee.dto.AnalyticsQuery;
+import com.rest.springbootemployee.dto.AnalyticsResult;
+import com.rest.springbootemployee.dto.AnalyticsSnapshot;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// analytics over a columnar snapshot of the employees, rebuilt every analytics.refresh-ms by streaming the
+// collection once, so answers lag writes by up to that long; queries scan the snapshot in chunks on analytics.threads.
+// Until the first build finishes there is no snapshot and queries get 503, rather than totals over no employees
+@Service
+public class EmployeeAnalyticsService {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeAnalyticsService.class);
+
+    private EmployeeMongoRepository employeeMongoRepository;
+
+    private final long refreshMs;
+
+    private final int chunkRows;
+
+    private final ExecutorService scanners;
+
+    private final ScheduledExecutorService refresher;
+
+    // null until the first build
+    private volatile EmployeeColumns columns;
+
+    public EmployeeAnalyticsService(EmployeeMongoRepository employeeMongoRepository, MeterRegistry meterRegistry,
+                                    @Value("${analytics.refresh-ms:60000}") long refreshMs,
+                                    @Value("${analytics.threads:0}") int threads,
+                                    @Value("${analytics.chunk-rows:65536}") int chunkRows) {
+        this.employeeMongoRepository = employeeMongoRepository;
+        this.refreshMs = refreshMs;
+        this.chunkRows = chunkRows;
+        this.scanners = Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), daemon("analytics-scan"));
+        this.refresher = Executors.newSingleThreadScheduledExecutor(daemon("analytics-refresh"));
+        Gauge.builder("analytics.snapshot.rows", this, service -> service.columns == null ? 0 : service.columns.size())
+                .register(meterRegistry);
+        Gauge.builder("analytics.snapshot.bytes", this,
+                service -> service.columns == null ? 0 : service.columns.getEstimatedBytes()).register(meterRegistry);
+    }
+
+    // off the startup path, but started before the runners, so the first build overlaps the warm-up
+    @EventListener(ApplicationStartedEvent.class)
+    public void scheduleRefresh() {
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    public EmployeeColumns refresh() {
+        EmployeeColumns.Builder builder = new EmployeeColumns.Builder((int) Math.min(Integer.MAX_VALUE - 8,
+                employeeMongoRepository.count()));
+        try (Stream<Employee> employees = employeeMongoRepository.streamAllBy()) {
+            employees.forEach(employee -> builder.add(employee.getAge(), employee.getGender(), employee.getSalary()));
+        }
+        EmployeeColumns built = builder.build();
+        columns = built;
+        log.debug("Analytics snapshot: {} employees in {} ms, ~{} bytes", built.size(), built.getBuildMillis(),
+                built.getEstimatedBytes());
+        return built;
+    }
+
+    public AnalyticsResult query(AnalyticsQuery query) {
+        EmployeeColumns snapshot = built();
+        ColumnFilter filter = new ColumnFilter(query.getGender(), query.getMinAge(), query.getMaxAge(),
+                query.getMinSalary(), query.getMaxSalary());
+        int ageBucket = query.getAgeBucket() == null ? AnalyticsQuery.DEFAULT_AGE_BUCKET : query.getAgeBucket();
+        List<GroupTotals> groups = new ColumnScan(snapshot, filter, groupBy(query.getGroupBy()), ageBucket)
+                .run(scanners, chunkRows);
+        long matched = groups.stream().mapToLong(GroupTotals::getCount).sum();
+        return new AnalyticsResult(snapshot.getBuiltAt(), snapshot.size(), matched, groups);
+    }
+
+    public AnalyticsSnapshot getSnapshot() {
+        EmployeeColumns snapshot = built();
+        return new AnalyticsSnapshot(snapshot.size(), snapshot.getBuiltAt(), snapshot.getBuildMillis(),
+                snapshot.getEstimatedBytes(), snapshot.getGenderDictionary());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+        scanners.shutdownNow();
+    }
+
+    private EmployeeColumns built() {
+        EmployeeColumns snapshot = columns;
+        if (snapshot == null) {
+            throw new ServiceOverloadedException("Analytics snapshot is still being built, retry later");
+        }
+        return snapshot;
+    }
+
+    // a failed rebuild keeps the previous snapshot and is retried on the next tick
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException exception) {
+            EmployeeColumns previous = columns;
+            log.warn("Analytics snapshot refresh failed; keeping the one built at {}",
+                    previous == null ? "(none yet)" : previous.getBuiltAt(), exception);
+        }
+    }
+
+    private static ColumnScan.GroupBy groupBy(String groupBy) {
+        try {
+            return ColumnScan.GroupBy.valueOf((groupBy == null ? "none" : groupBy).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidQueryException("groupBy must be one of none, gender, age");
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
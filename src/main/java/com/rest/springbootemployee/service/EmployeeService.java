@@ -1,20 +1,65 @@
 package com.rest.springbootemployee.service;
 
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.cache.HotRecords;
+import com.rest.springbootemployee.converter.EmployeeCsvWriter;
+import com.rest.springbootemployee.dto.CursorPage;
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.dto.SalaryAdjustmentResult;
+import com.rest.springbootemployee.entity.Company;
 import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import com.rest.springbootemployee.exception.NoCompanyFoundException;
 import com.rest.springbootemployee.exception.NoEmployeeFoundException;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
 import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeService {// SUT
 
     private EmployeeMongoRepository employeeMongoRepository;
 
-    public EmployeeService(EmployeeMongoRepository employeeMongoRepository) {
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeWriteBehind employeeWriteBehind;
+
+    private CompanyMongoRepository companyMongoRepository;
+
+    private int salaryAdjustBatchSize;
+
+    private PageReadAhead pageReadAhead;
+
+    private HotRecords hotRecords;
+
+    public EmployeeService(EmployeeMongoRepository employeeMongoRepository, ApplicationEventPublisher eventPublisher,
+                           EmployeeWriteBehind employeeWriteBehind, CompanyMongoRepository companyMongoRepository,
+                           @Value("${salary-adjust.batch-size:10000}") int salaryAdjustBatchSize,
+                           PageReadAhead pageReadAhead, HotRecords hotRecords) {
         this.employeeMongoRepository = employeeMongoRepository;
+        this.eventPublisher = eventPublisher;
+        this.employeeWriteBehind = employeeWriteBehind;
+        this.companyMongoRepository = companyMongoRepository;
+        this.salaryAdjustBatchSize = salaryAdjustBatchSize;
+        this.pageReadAhead = pageReadAhead;
+        this.hotRecords = hotRecords;
     }
 
     public List<Employee> findAll() {
@@ -30,12 +75,20 @@ public class EmployeeService {// SUT
         if (employee.getSalary() != null) {
             existingEmployee.setSalary(employee.getSalary());
         }
-        return employeeMongoRepository.save(existingEmployee);
+        Employee updatedEmployee = employeeMongoRepository.save(existingEmployee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(updatedEmployee));
+        return updatedEmployee;
     }
 
     public Employee findById(String id) {
-        return employeeMongoRepository.findById(id)
-                .orElseThrow(NoEmployeeFoundException::new);
+        return hotRecords.employee(id, key -> employeeMongoRepository.findById(key)
+                .orElseThrow(NoEmployeeFoundException::new));
+    }
+
+    public long exportCsv(OutputStream out) throws IOException {
+        try (Stream<Employee> employees = employeeMongoRepository.streamAllBy()) {
+            return EmployeeCsvWriter.write(employees.iterator(), out);
+        }
     }
 
     public List<Employee> findByGender(String gender) {
@@ -43,16 +96,101 @@ public class EmployeeService {// SUT
     }
 
     public List<Employee> findByPage(int page, int pageSize) {
-        return employeeMongoRepository
-                .findAll(PageRequest.of(page-1, pageSize))
-                .toList();
+        return employeeMongoRepository.findAllBy(PageRequest.of(page-1, pageSize));
+    }
+
+    // client identifies who is paging, so consecutive pages from one client can be read ahead
+    public List<Employee> findByPage(String client, String gender, int page, int pageSize) {
+        return pageReadAhead.read(PageReadAhead.EMPLOYEES, client, String.valueOf(gender), page, pageSize,
+                nextPage -> gender == null
+                        ? findByPage(nextPage, pageSize)
+                        : employeeMongoRepository.findByGender(gender, PageRequest.of(nextPage-1, pageSize)));
+    }
+
+    public CursorPage<Employee> findByRange(EmployeeRangeQuery query) {
+        EmployeeSortField sortField = EmployeeSortField.of(query.getSortBy());
+        int limit = query.getLimit() == null ? EmployeeRangeQuery.DEFAULT_LIMIT : query.getLimit();
+        if (limit < 1 || limit > EmployeeRangeQuery.MAX_LIMIT) {
+            throw new InvalidQueryException("limit must be between 1 and " + EmployeeRangeQuery.MAX_LIMIT);
+        }
+        RangeCursor after = query.getCursor() == null ? null : RangeCursor.decode(query.getCursor());
+
+        List<Employee> employees = employeeMongoRepository.findByRange(query, sortField, after, limit + 1);
+        if (employees.size() <= limit) {
+            return new CursorPage<>(employees, null);
+        }
+        List<Employee> page = employees.subList(0, limit);
+        Employee last = page.get(limit - 1);
+        return new CursorPage<>(page, new RangeCursor(sortField.valueFrom(last), last.getId()).encode());
+    }
+
+    // one pipeline updateMany per batch of ids, so the ids read up front are exactly the employees that get
+    // update events and whose embedded company copies are rewritten
+    public SalaryAdjustmentResult adjustSalaries(SalaryAdjustment adjustment) {
+        adjustment.validate();
+        Collection<String> within = null;
+        if (adjustment.getCompanyId() != null) {
+            Company company = companyMongoRepository.findById(adjustment.getCompanyId())
+                    .orElseThrow(NoCompanyFoundException::new);
+            within = new LinkedHashSet<>();
+            if (company.getEmployees() != null) {
+                for (Employee employee : company.getEmployees()) {
+                    if (employee != null && employee.getId() != null) {
+                        within.add(employee.getId());
+                    }
+                }
+            }
+        }
+
+        rejectOutOfRange(adjustment, within);
+        List<String> ids = employeeMongoRepository.findIdsForSalaryAdjustment(adjustment, within);
+        long matched = 0;
+        long modified = 0;
+        Set<String> companyIds = new LinkedHashSet<>();
+        for (int from = 0; from < ids.size(); from += salaryAdjustBatchSize) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + salaryAdjustBatchSize));
+            UpdateResult result = employeeMongoRepository.adjustSalaries(adjustment, batch);
+            matched += result.getMatchedCount();
+            modified += result.getModifiedCount();
+            companyIds.addAll(companyMongoRepository.adjustEmployeeSalaries(adjustment, batch));
+            employeeMongoRepository.findAllById(batch)
+                    .forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.updated(employee)));
+        }
+        companyMongoRepository.findAllById(companyIds)
+                .forEach(company -> eventPublisher.publishEvent(CompanyChangedEvent.updated(company)));
+        return new SalaryAdjustmentResult(matched, modified, companyIds.size());
+    }
+
+    // salaries are ints in the API and $toInt in the pipelines, so an adjustment that would take any employee it
+    // matches past Integer.MAX_VALUE or below 0 is refused as a whole rather than failing part way through
+    private void rejectOutOfRange(SalaryAdjustment adjustment, Collection<String> within) {
+        long lowest = adjustment.lowestSafeSalary();
+        long highest = adjustment.highestSafeSalary();
+        if (matchesAny(adjustment.withSalariesBetween(Integer.MIN_VALUE, lowest - 1), within)
+                || matchesAny(adjustment.withSalariesBetween(highest + 1, Integer.MAX_VALUE), within)) {
+            throw new InvalidQueryException("the adjustment would take salaries above " + Integer.MAX_VALUE
+                    + " or below 0; narrow minSalary/maxSalary or set a cap or floor");
+        }
     }
 
+    private boolean matchesAny(SalaryAdjustment narrowed, Collection<String> within) {
+        return narrowed != null && !employeeMongoRepository.findIdsForSalaryAdjustment(narrowed, within).isEmpty();
+    }
+
+    // read first so the delete event can say which gender's total lost an employee
     public void delete(String id) {
+        Optional<Employee> existing = employeeMongoRepository.findById(id);
         employeeMongoRepository.deleteById(id);
+        eventPublisher.publishEvent(existing.map(EmployeeChangedEvent::deleted).orElseGet(() -> EmployeeChangedEvent.deleted(id)));
     }
 
+    // with write-behind the created event is published by the flusher, once the employee is stored
     public Employee create(Employee employee) {
-        return employeeMongoRepository.save(employee);
+        if (employeeWriteBehind.isEnabled()) {
+            return employeeWriteBehind.enqueue(employee);
+        }
+        Employee createdEmployee = employeeMongoRepository.save(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(createdEmployee));
+        return createdEmployee;
     }
 }
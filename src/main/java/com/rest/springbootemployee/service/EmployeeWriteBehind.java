@@ -0,0 +1,262 @@
+package com.rest.springbootemployee.service;
+
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeBatch;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// employees are created (and their created events published) by the flusher once the batch insert is acknowledged,
+// so readers and event subscribers never see an employee that is not stored yet, whichever durability answers the POST
+@Component
+public class EmployeeWriteBehind {
+    private static final Logger log = LoggerFactory.getLogger(EmployeeWriteBehind.class);
+
+    public enum Durability {
+        ENQUEUE,
+        FLUSH
+    }
+
+    private EmployeeMongoRepository employeeMongoRepository;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private boolean enabled;
+
+    private Durability durability;
+
+    private int batchSize;
+
+    private long flushIntervalMs;
+
+    private long offerTimeoutMs;
+
+    private BlockingQueue<PendingWrite> queue;
+
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    // held to queue a write and exclusively to stop taking them, so no write is queued after shutdown has drained
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+
+    public EmployeeWriteBehind(EmployeeMongoRepository employeeMongoRepository, ApplicationEventPublisher eventPublisher,
+                               @Value("${employee.write-behind.enabled:false}") boolean enabled,
+                               @Value("${employee.write-behind.durability:enqueue}") String durability,
+                               @Value("${employee.write-behind.batch-size:500}") int batchSize,
+                               @Value("${employee.write-behind.flush-interval-ms:20}") long flushIntervalMs,
+                               @Value("${employee.write-behind.queue-capacity:10000}") int queueCapacity,
+                               @Value("${employee.write-behind.offer-timeout-ms:100}") long offerTimeoutMs) {
+        this.employeeMongoRepository = employeeMongoRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.durability = Durability.valueOf(durability.toUpperCase(Locale.ROOT));
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "employee-write-behind");
+        flusher.start();
+        log.info("Employee write-behind enabled: durability={}, batch-size={}, flush-interval={}ms",
+                durability, batchSize, flushIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public Employee enqueue(Employee employee) {
+        if (employee.getId() == null) {
+            employee.setId(new ObjectId().toString());
+        }
+        PendingWrite write = new PendingWrite(employee);
+        admission.readLock().lock();
+        try {
+            if (!running) {
+                throw new ServiceOverloadedException("Employee writes are shutting down");
+            }
+            if (!queue.offer(write, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceOverloadedException("Employee write queue is full");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while queueing employee write");
+        } finally {
+            admission.readLock().unlock();
+        }
+        if (durability == Durability.FLUSH) {
+            awaitFlush(write);
+        }
+        return employee;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        admission.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            admission.writeLock().unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    private void awaitFlush(PendingWrite write) {
+        try {
+            write.flushed.get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for employee write", exception);
+        } catch (TimeoutException exception) {
+            throw new ServiceOverloadedException("Timed out waiting for employee write to flush");
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Employee write failed", exception.getCause());
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException exception) {
+                // keep draining, shutdown is signalled through running
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<Employee> employees = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            employees.add(write.employee);
+        }
+        List<PendingWrite> stored = batch;
+        try {
+            employeeMongoRepository.insert(employees);
+        } catch (RuntimeException exception) {
+            // an ordered insert stops at the first failure, with the rows before it stored: retry one by one, so
+            // only the rows that cannot be stored fail and every stored one gets its created event
+            log.warn("Failed to flush {} queued employees as a batch, inserting them one by one", batch.size(), exception);
+            stored = new ArrayList<>(batch.size());
+            for (PendingWrite write : batch) {
+                if (flushOne(write)) {
+                    stored.add(write);
+                }
+            }
+        }
+        List<PendingWrite> published = stored;
+        ChangeBatch.run(() -> published.forEach(this::stored));
+    }
+
+    private boolean flushOne(PendingWrite write) {
+        try {
+            employeeMongoRepository.insert(write.employee);
+        } catch (DuplicateKeyException duplicate) {
+            // written by the failed batch before it stopped, or a client-supplied id that is already taken
+            if (!sameAsStored(write.employee)) {
+                rejected(write, duplicate);
+                return false;
+            }
+        } catch (RuntimeException exception) {
+            rejected(write, exception);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean sameAsStored(Employee employee) {
+        return employeeMongoRepository.findById(employee.getId())
+                .map(stored -> Objects.equals(stored.getName(), employee.getName())
+                        && Objects.equals(stored.getAge(), employee.getAge())
+                        && Objects.equals(stored.getGender(), employee.getGender())
+                        && Objects.equals(stored.getSalary(), employee.getSalary()))
+                .orElse(false);
+    }
+
+    private void stored(PendingWrite write) {
+        try {
+            eventPublisher.publishEvent(EmployeeChangedEvent.created(write.employee));
+        } catch (RuntimeException exception) {
+            log.warn("Failed to publish created event for employee {}", write.employee.getId(), exception);
+        }
+        write.flushed.complete(null);
+    }
+
+    // an enqueue-durability caller has already been answered, so the log is all that is left of the write
+    private void rejected(PendingWrite write, RuntimeException exception) {
+        log.error("Failed to store queued employee {}", write.employee.getId(), exception);
+        write.flushed.completeExceptionally(exception);
+    }
+
+    private static class PendingWrite {
+        private final Employee employee;
+
+        private final CompletableFuture<Void> flushed = new CompletableFuture<>();
+
+        PendingWrite(Employee employee) {
+            this.employee = employee;
+        }
+    }
+}
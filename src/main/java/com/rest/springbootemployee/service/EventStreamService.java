@@ -0,0 +1,336 @@
+package com.rest.springbootemployee.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class EventStreamService {
+    private static final Logger log = LoggerFactory.getLogger(EventStreamService.class);
+
+    private static final String EMPLOYEES_TOPIC = "employees";
+
+    private static final String COMPANY_TOPIC_PREFIX = "company:";
+
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private static final long STALLED = Long.MIN_VALUE + 1;
+
+    private final Map<String, Set<Subscriber>> subscribersByTopic = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final AtomicInteger evictedCount = new AtomicInteger();
+
+    private ObjectMapper objectMapper;
+
+    private int bufferSize;
+
+    private long timeoutMs;
+
+    private int maxSubscribers;
+
+    private int dispatchThreads;
+
+    private long sendTimeoutNanos;
+
+    // sends past send-timeout-ms, each holding a dispatch thread until the container's write timeout fails it
+    private int stalledSends;
+
+    private ThreadPoolExecutor dispatcher;
+
+    private ScheduledExecutorService heartbeat;
+
+    public EventStreamService(ObjectMapper objectMapper,
+                              @Value("${events.buffer-size:256}") int bufferSize,
+                              @Value("${events.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${events.max-subscribers:10000}") int maxSubscribers,
+                              @Value("${events.dispatch-threads:2}") int dispatchThreads,
+                              @Value("${events.heartbeat-ms:15000}") long heartbeatMs,
+                              @Value("${events.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.dispatchThreads = dispatchThreads;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemon("sse-dispatch"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("sse-heartbeat"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long checkMs = Math.max(10, sendTimeoutMs / 2);
+        this.heartbeat.scheduleAtFixedRate(this::evictStalledSubscribers, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribeEmployees() {
+        return subscribe(EMPLOYEES_TOPIC);
+    }
+
+    public SseEmitter subscribeCompany(String companyId) {
+        return subscribe(COMPANY_TOPIC_PREFIX + companyId);
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public int getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        publish(EMPLOYEES_TOPIC, event.getType().name().toLowerCase(Locale.ROOT), event);
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        publish(COMPANY_TOPIC_PREFIX + event.getCompanyId(), event.getType().name().toLowerCase(Locale.ROOT), event);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdown();
+        subscribersByTopic.values().forEach(subscribers -> subscribers.forEach(Subscriber::close));
+    }
+
+    protected SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private SseEmitter subscribe(String topic) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceOverloadedException("Too many event stream subscribers");
+        }
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(topic, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribersByTopic.compute(topic, (key, subscribers) -> {
+            Set<Subscriber> topicSubscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            topicSubscribers.add(subscriber);
+            return topicSubscribers;
+        });
+        return emitter;
+    }
+
+    private void publish(String topic, String name, Object payload) {
+        Set<Subscriber> subscribers = subscribersByTopic.getOrDefault(topic, Collections.emptySet());
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Message message;
+        try {
+            // serialized once, shared by every subscriber of the topic
+            message = new Message(name, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException exception) {
+            log.warn("Could not serialize {} event for {}", name, topic, exception);
+            return;
+        }
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    private void sendHeartbeats() {
+        subscribersByTopic.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    // a send blocks its dispatch thread until the client reads; one that is stuck past send-timeout-ms evicts its
+    // subscriber, and the pool gets a thread in its place until the send returns, so a few clients that stopped
+    // reading cannot hold up delivery to everyone else
+    private void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribersByTopic.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            if (subscriber.stalled(now)) {
+                resizeDispatcher(1);
+                if (subscriber.unsubscribe()) {
+                    evictedCount.incrementAndGet();
+                    log.info("Evicting event stream subscriber on {} whose send has not returned", subscriber.topic);
+                }
+            }
+        }));
+    }
+
+    private synchronized void resizeDispatcher(int stalledChange) {
+        stalledSends += stalledChange;
+        int size = dispatchThreads + stalledSends;
+        // the maximum may never drop below the core size, so it moves first when growing and last when shrinking
+        if (stalledChange > 0) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Message {
+        private final String name;
+
+        private final String json;
+
+        Message(String name, String json) {
+            this.name = name;
+            this.json = json;
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (json == null) {
+                return SseEmitter.event().comment("keepalive");
+            }
+            return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private class Subscriber {
+        private final String topic;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Message> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // System.nanoTime() when the send in progress started, IDLE between sends, STALLED once it overran
+        private final AtomicLong sendingSince = new AtomicLong(IDLE);
+
+        Subscriber(String topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                evictedCount.incrementAndGet();
+                log.info("Evicting slow event stream subscriber on {}", topic);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException exception) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    send(message);
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(Message message) {
+            long started = System.nanoTime();
+            sendingSince.set(started);
+            try {
+                emitter.send(message.toEvent());
+            } catch (IOException | IllegalStateException exception) {
+                close();
+            } finally {
+                if (!sendingSince.compareAndSet(started, IDLE)) {
+                    // evicted while stuck: completing the emitter had to wait for this send, and the thread standing
+                    // in for this one can go
+                    sendingSince.set(IDLE);
+                    complete();
+                    resizeDispatcher(-1);
+                }
+            }
+        }
+
+        // true once, when the send in progress has run past send-timeout-ms
+        boolean stalled(long now) {
+            long since = sendingSince.get();
+            return since != IDLE && since != STALLED && now - since > sendTimeoutNanos
+                    && sendingSince.compareAndSet(since, STALLED);
+        }
+
+        void close() {
+            if (unsubscribe()) {
+                complete();
+            }
+        }
+
+        // no more messages are offered or sent; false when it was already closed
+        boolean unsubscribe() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            subscribersByTopic.computeIfPresent(topic, (key, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            subscriberCount.decrementAndGet();
+            buffer.clear();
+            return true;
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed by the container
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rest.springbootemployee.service;
+
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeType;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.search.NameIndex;
+import com.rest.springbootemployee.search.NameMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class NameSearchService {
+    private static final Logger log = LoggerFactory.getLogger(NameSearchService.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    private EmployeeMongoRepository employeeMongoRepository;
+
+    private CompanyMongoRepository companyMongoRepository;
+
+    private NameIndex employeeNames;
+
+    private NameIndex companyNames;
+
+    public NameSearchService(EmployeeMongoRepository employeeMongoRepository,
+                             CompanyMongoRepository companyMongoRepository,
+                             @Value("${search.memory-budget-mb:256}") long memoryBudgetMb) {
+        this.employeeMongoRepository = employeeMongoRepository;
+        this.companyMongoRepository = companyMongoRepository;
+        long budgetBytes = memoryBudgetMb * 1024 * 1024;
+        this.employeeNames = new NameIndex(budgetBytes * 3 / 4);
+        this.companyNames = new NameIndex(budgetBytes / 4);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        for (Employee employee : employeeMongoRepository.findAll()) {
+            employeeNames.put(employee.getId(), employee.getName());
+        }
+        for (Company company : companyMongoRepository.findAll()) {
+            companyNames.put(company.getId(), company.getName());
+        }
+        log.info("Name search indexed {} employees and {} companies", employeeNames.size(), companyNames.size());
+        warnIfTruncated("employee", employeeNames);
+        warnIfTruncated("company", companyNames);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            employeeNames.remove(event.getEmployeeId());
+        } else {
+            employeeNames.put(event.getEmployeeId(), event.getEmployee().getName());
+        }
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            companyNames.remove(event.getCompanyId());
+        } else {
+            companyNames.put(event.getCompanyId(), event.getCompany().getName());
+        }
+    }
+
+    public List<NameMatch> searchEmployees(String query, int limit) {
+        return employeeNames.search(query, Math.min(limit, MAX_LIMIT));
+    }
+
+    public List<NameMatch> searchCompanies(String query, int limit) {
+        return companyNames.search(query, Math.min(limit, MAX_LIMIT));
+    }
+
+    private void warnIfTruncated(String kind, NameIndex index) {
+        if (index.isTruncated()) {
+            log.warn("Name search for {} exceeded its memory budget at {} entries (~{} bytes); new names are not searchable",
+                    kind, index.size(), index.getEstimatedBytes());
+        }
+    }
+}
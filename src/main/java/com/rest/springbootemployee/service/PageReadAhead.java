@@ -0,0 +1,272 @@
+package com.rest.springbootemployee.service;
+
+import com.rest.springbootemployee.deadline.RequestDeadline;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// a client that asks for page N right after page N-1 of the same listing gets page N+1 loaded in the background;
+// prefetched pages are shared by key (listing, filter, page size, page), used at most once, dropped on any change
+// to the listing or after ttl-ms, and never hold more than max-buffered-documents in total
+@Component
+public class PageReadAhead {
+    public static final String EMPLOYEES = "employees";
+
+    public static final String COMPANIES = "companies";
+
+    public interface PageLoader<T> {
+        List<T> load(int page);
+    }
+
+    private final boolean enabled;
+
+    private final int maxPageSize;
+
+    private final long maxBufferedDocuments;
+
+    private final long ttlNanos;
+
+    private final int maxClients;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Prefetch> buffered = new ConcurrentHashMap<>();
+
+    private final AtomicLong bufferedDocuments = new AtomicLong();
+
+    // bumped on every change to a listing; a prefetch issued under an older generation may hold pre-change data
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> lastPageByClient;
+
+    public PageReadAhead(MeterRegistry meterRegistry,
+                         @Value("${read-ahead.enabled:true}") boolean enabled,
+                         @Value("${read-ahead.threads:2}") int threads,
+                         @Value("${read-ahead.max-page-size:1000}") int maxPageSize,
+                         @Value("${read-ahead.max-buffered-documents:20000}") long maxBufferedDocuments,
+                         @Value("${read-ahead.ttl-ms:10000}") long ttlMs,
+                         @Value("${read-ahead.max-clients:1024}") int maxClients) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxPageSize = maxPageSize;
+        this.maxBufferedDocuments = maxBufferedDocuments;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxClients = maxClients;
+        this.lastPageByClient = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > PageReadAhead.this.maxClients;
+            }
+        };
+        AtomicInteger sequence = new AtomicInteger();
+        // a short queue: a prefetch that cannot start soon would arrive after the client already asked for the page
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+            Thread thread = new Thread(runnable, "read-ahead-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("readahead.buffered.documents", bufferedDocuments, AtomicLong::get).register(meterRegistry);
+    }
+
+    public <T> List<T> read(String listing, String client, String filter, int page, int pageSize, PageLoader<T> loader) {
+        if (!enabled || client == null || pageSize > maxPageSize) {
+            return loader.load(page);
+        }
+        String stream = listing + '|' + filter + '|' + pageSize;
+        if (!advance(client + '|' + stream, page)) {
+            return loader.load(page);
+        }
+        List<T> result = take(listing, stream, page);
+        pages(listing, result == null ? "miss" : "hit").increment();
+        if (result == null) {
+            result = loader.load(page);
+        }
+        if (result.size() == pageSize) {
+            prefetch(listing, stream, page + 1, pageSize, loader);
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        invalidate(EMPLOYEES);
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        invalidate(COMPANIES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // true when this client's previous request on the stream was the page just before
+    private boolean advance(String clientStream, int page) {
+        Integer previous;
+        synchronized (lastPageByClient) {
+            previous = lastPageByClient.put(clientStream, page);
+        }
+        return previous != null && previous == page - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> take(String listing, String stream, int page) {
+        Prefetch prefetch = buffered.remove(stream + '|' + page);
+        if (prefetch == null) {
+            return null;
+        }
+        release(prefetch);
+        if (prefetch.generation != generation(listing).get()) {
+            prefetch.future.cancel(false);
+            prefetches(listing, "invalidated").increment();
+            return null;
+        }
+        if (System.nanoTime() - prefetch.issuedAt > ttlNanos) {
+            prefetch.future.cancel(false);
+            prefetches(listing, "expired").increment();
+            return null;
+        }
+        try {
+            RequestDeadline deadline = RequestDeadline.current();
+            if (deadline == null) {
+                return (List<T>) prefetch.future.get();
+            }
+            try {
+                return (List<T>) prefetch.future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException exception) {
+                throw new DeadlineExceededException(deadline.getTimeoutMs());
+            }
+        } catch (ExecutionException | CancellationException exception) {
+            prefetches(listing, "failed").increment();
+            return null;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private <T> void prefetch(String listing, String stream, int page, int pageSize, PageLoader<T> loader) {
+        String key = stream + '|' + page;
+        if (buffered.containsKey(key)) {
+            return;
+        }
+        if (!reserve(pageSize)) {
+            prefetches(listing, "rejected").increment();
+            return;
+        }
+        long generation = generation(listing).get();
+        Prefetch prefetch;
+        try {
+            prefetch = new Prefetch(listing, generation, pageSize,
+                    CompletableFuture.supplyAsync(() -> loader.load(page), executor));
+        } catch (RejectedExecutionException exception) {
+            bufferedDocuments.addAndGet(-pageSize);
+            prefetches(listing, "rejected").increment();
+            return;
+        }
+        if (buffered.putIfAbsent(key, prefetch) != null) {
+            prefetch.future.cancel(false);
+            release(prefetch);
+            return;
+        }
+        prefetches(listing, "issued").increment();
+    }
+
+    private boolean reserve(int documents) {
+        if (bufferedDocuments.addAndGet(documents) <= maxBufferedDocuments) {
+            return true;
+        }
+        // pages nobody came back for still hold their share until swept
+        evictExpired();
+        if (bufferedDocuments.get() <= maxBufferedDocuments) {
+            return true;
+        }
+        bufferedDocuments.addAndGet(-documents);
+        return false;
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        drop(prefetch -> now - prefetch.issuedAt > ttlNanos, "expired");
+    }
+
+    private void invalidate(String listing) {
+        generation(listing).incrementAndGet();
+        drop(prefetch -> prefetch.listing.equals(listing), "invalidated");
+    }
+
+    // remove(key, value) so a page taken by a request at the same time is not released twice
+    private void drop(Predicate<Prefetch> predicate, String outcome) {
+        for (Map.Entry<String, Prefetch> entry : buffered.entrySet()) {
+            Prefetch prefetch = entry.getValue();
+            if (predicate.test(prefetch) && buffered.remove(entry.getKey(), prefetch)) {
+                prefetch.future.cancel(false);
+                release(prefetch);
+                prefetches(prefetch.listing, outcome).increment();
+            }
+        }
+    }
+
+    private AtomicLong generation(String listing) {
+        return generations.computeIfAbsent(listing, ignored -> new AtomicLong());
+    }
+
+    private void release(Prefetch prefetch) {
+        bufferedDocuments.addAndGet(-prefetch.documents);
+    }
+
+    private Counter pages(String listing, String result) {
+        return meterRegistry.counter("readahead.pages", "listing", listing, "result", result);
+    }
+
+    private Counter prefetches(String listing, String outcome) {
+        return meterRegistry.counter("readahead.prefetches", "listing", listing, "outcome", outcome);
+    }
+
+    private static class Prefetch {
+        private final String listing;
+
+        private final long generation;
+
+        private final int documents;
+
+        private final CompletableFuture<? extends List<?>> future;
+
+        private final long issuedAt = System.nanoTime();
+
+        private Prefetch(String listing, long generation, int documents, CompletableFuture<? extends List<?>> future) {
+            this.listing = listing;
+            this.generation = generation;
+            this.documents = documents;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.rest.springbootemployee.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// splits an input file into chunks that start and end on record boundaries, so they can be parsed independently
+final class RecordChunker {
+    private static final int SCAN_WINDOW = 64 << 20;
+
+    private static final int READ_BUFFER = 64 << 10;
+
+    static final class Chunk {
+        final long start;
+
+        final long end;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private RecordChunker() {
+    }
+
+    // NDJSON strings cannot hold a raw line break, so each chunk just extends to the next one
+    static List<Chunk> lines(FileChannel channel, long from, long chunkBytes) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long target = start + chunkBytes;
+            long end = target >= size ? size : nextLineStart(channel, target, size);
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    // quoted CSV fields may hold line breaks, so boundaries come from one sequential scan that tracks quotes
+    static List<Chunk> csvRecords(FileChannel channel, long from, long chunkBytes) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        long chunkStart = from;
+        boolean quoted = false;
+        for (long windowStart = from; windowStart < size; windowStart += SCAN_WINDOW) {
+            int windowLength = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            for (int i = 0; i < windowLength; i++) {
+                byte b = window.get(i);
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted && windowStart + i + 1 - chunkStart >= chunkBytes) {
+                    chunks.add(new Chunk(chunkStart, windowStart + i + 1));
+                    chunkStart = windowStart + i + 1;
+                }
+            }
+        }
+        if (chunkStart < size) {
+            chunks.add(new Chunk(chunkStart, size));
+        }
+        return chunks;
+    }
+
+    static long firstCsvRecordEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        boolean quoted = false;
+        for (long position = 0; position < size; ) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        for (long position = from; position < size; ) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
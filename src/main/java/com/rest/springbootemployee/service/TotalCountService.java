@@ -0,0 +1,125 @@
+package com.rest.springbootemployee.service;
+
+import com.rest.springbootemployee.event.ChangeType;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// totals for the paged endpoints, one counter per filter; creates and deletes seen as events adjust them in place,
+// and each is recounted at most once per staleness window to pick up writes made without events (other instances,
+// imports with publish-events off)
+@Service
+public class TotalCountService {
+    private static final String EMPLOYEES = "employees";
+
+    private static final String EMPLOYEES_BY_GENDER = "employees:gender:";
+
+    private static final String COMPANIES = "companies";
+
+    private EmployeeMongoRepository employeeMongoRepository;
+
+    private CompanyMongoRepository companyMongoRepository;
+
+    private final long maxStalenessNanos;
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public TotalCountService(EmployeeMongoRepository employeeMongoRepository,
+                             CompanyMongoRepository companyMongoRepository,
+                             @Value("${count.max-staleness-ms:30000}") long maxStalenessMs) {
+        this.employeeMongoRepository = employeeMongoRepository;
+        this.companyMongoRepository = companyMongoRepository;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
+    public long countEmployees(String gender) {
+        if (gender == null) {
+            return count(EMPLOYEES, employeeMongoRepository::count);
+        }
+        return count(EMPLOYEES_BY_GENDER + gender, () -> employeeMongoRepository.countByGender(gender));
+    }
+
+    public long countCompanies() {
+        return count(COMPANIES, companyMongoRepository::count);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.getType() == ChangeType.CREATED) {
+            adjust(EMPLOYEES, 1);
+            if (event.getEmployee().getGender() != null) {
+                adjust(EMPLOYEES_BY_GENDER + event.getEmployee().getGender(), 1);
+            }
+        } else if (event.getType() == ChangeType.DELETED) {
+            adjust(EMPLOYEES, -1);
+            if (event.getDeleted() != null) {
+                if (event.getDeleted().getGender() != null) {
+                    adjust(EMPLOYEES_BY_GENDER + event.getDeleted().getGender(), -1);
+                }
+            } else {
+                // deleted without being read first, so the gender it was counted under is unknown
+                counters.keySet().removeIf(key -> key.startsWith(EMPLOYEES_BY_GENDER));
+            }
+        }
+    }
+
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        if (event.getType() == ChangeType.CREATED) {
+            adjust(COMPANIES, 1);
+        } else if (event.getType() == ChangeType.DELETED) {
+            adjust(COMPANIES, -1);
+        }
+    }
+
+    private long count(String key, LongSupplier loader) {
+        Counter counter = counters.computeIfAbsent(key, ignored -> new Counter());
+        long now = System.nanoTime();
+        if (counter.loadedAt == 0) {
+            synchronized (counter) {
+                if (counter.loadedAt == 0) {
+                    counter.load(loader.getAsLong(), now);
+                }
+            }
+        } else if (now - counter.loadedAt >= maxStalenessNanos && counter.refreshing.compareAndSet(false, true)) {
+            // one caller recounts; the others keep serving the previous value meanwhile
+            try {
+                counter.load(loader.getAsLong(), now);
+            } finally {
+                counter.refreshing.set(false);
+            }
+        }
+        return Math.max(0, counter.value.get());
+    }
+
+    private void adjust(String key, long delta) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.value.addAndGet(delta);
+        }
+    }
+
+    private static class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile long loadedAt;
+
+        private void load(long count, long now) {
+            value.set(count);
+            // 0 means not loaded yet
+            loadedAt = now == 0 ? 1 : now;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.rest.springbootemployee.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+// the appCdsArchive build task starts the app with startup.exit-when-ready: a few requests load the request path
+// as well, then the app exits, which is when the JVM writes the classes it loaded into the archive
+@Component
+@ConditionalOnProperty("startup.exit-when-ready")
+public class CdsTrainingRun {
+    private static final Logger log = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    private static final String[] PATHS = {"/hello/cds", "/employees?page=1&pageSize=1", "/companies?page=1&pageSize=1"};
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        int port = ((WebServerApplicationContext) event.getApplicationContext()).getWebServer().getPort();
+        for (String path : PATHS) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+                connection.setRequestProperty("Accept", "application/json");
+                int status = connection.getResponseCode();
+                try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    while (in != null && in.read() != -1) {
+                        // drained so the whole response is written
+                    }
+                }
+                log.info("Training request GET {}: {}", path, status);
+            } catch (IOException exception) {
+                log.warn("Training request GET {} failed: {}", path, exception.toString());
+            }
+        }
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
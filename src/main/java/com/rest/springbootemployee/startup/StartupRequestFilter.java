@@ -0,0 +1,30 @@
+package com.rest.springbootemployee.startup;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// time to first request is what decides when a new instance starts helping under load
+public class StartupRequestFilter extends OncePerRequestFilter {
+    private final StartupTimings startupTimings;
+
+    public StartupRequestFilter(StartupTimings startupTimings) {
+        this.startupTimings = startupTimings;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!WarmUp.isWarmUp(request)) {
+                startupTimings.requestCompleted();
+            }
+        }
+    }
+}
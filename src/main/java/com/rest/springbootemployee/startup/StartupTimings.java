@@ -0,0 +1,116 @@
+package com.rest.springbootemployee.startup;
+
+import com.mongodb.event.ServerHeartbeatSucceededEvent;
+import com.mongodb.event.ServerMonitorListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// how long each phase of startup took, logged when the application is ready and again after the first request,
+// and kept as startup.phase{phase} gauges; the full per-bean timeline is at /actuator/startup
+@Component
+public class StartupTimings implements ServerMonitorListener {
+    public static final String JVM = "jvm";
+
+    public static final String CONTEXT_REFRESH = "context-refresh";
+
+    public static final String MONGO_CONNECT = "mongo-connect";
+
+    public static final String INDEX_CHECKS = "index-checks";
+
+    public static final String READY = "ready";
+
+    public static final String FIRST_REQUEST = "first-request";
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimings.class);
+
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+
+    private final ApplicationStartup applicationStartup;
+
+    private final MeterRegistry meterRegistry;
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final AtomicBoolean connected = new AtomicBoolean();
+
+    private final AtomicBoolean firstRequest = new AtomicBoolean();
+
+    private volatile long connectStartedNanos;
+
+    public StartupTimings(ApplicationStartup applicationStartup, MeterRegistry meterRegistry) {
+        this.applicationStartup = applicationStartup;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(String phase, Supplier<T> work) {
+        long started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            add(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    // the driver connects in the background from the moment the client is built; the first heartbeat
+    // that succeeds is when the server became usable
+    public void connecting() {
+        connectStartedNanos = System.nanoTime();
+    }
+
+    @Override
+    public void serverHeartbeatSucceeded(ServerHeartbeatSucceededEvent event) {
+        if (connectStartedNanos != 0 && connected.compareAndSet(false, true)) {
+            add(MONGO_CONNECT, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartedNanos));
+        }
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (applicationStartup instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+            add(JVM, timeline.getStartTime().toEpochMilli() - jvmStartMillis);
+            timeline.getEvents().stream()
+                    .filter(timelineEvent -> "spring.context.refresh".equals(timelineEvent.getStartupStep().getName()))
+                    .findFirst()
+                    .ifPresent(refresh -> add(CONTEXT_REFRESH, refresh.getDuration().toMillis()));
+        }
+        add(READY, System.currentTimeMillis() - jvmStartMillis);
+        log.info("Startup phases (ms): {}", getPhaseMillis());
+    }
+
+    // called for every request, so only the first one takes the lock
+    public void requestCompleted() {
+        if (!firstRequest.get() && firstRequest.compareAndSet(false, true)) {
+            add(FIRST_REQUEST, System.currentTimeMillis() - jvmStartMillis);
+            log.info("First request answered {} ms after JVM start", getPhaseMillis().get(FIRST_REQUEST));
+        }
+    }
+
+    public synchronized Map<String, Long> getPhaseMillis() {
+        return new LinkedHashMap<>(phaseMillis);
+    }
+
+    private synchronized void add(String phase, long millis) {
+        if (!phaseMillis.containsKey(phase)) {
+            TimeGauge.builder("startup.phase", this, TimeUnit.MILLISECONDS,
+                    timings -> timings.getPhaseMillis().getOrDefault(phase, 0L)).tag("phase", phase)
+                    .register(meterRegistry);
+        }
+        phaseMillis.merge(phase, millis, Long::sum);
+    }
+}
@@ -0,0 +1,297 @@
+package com.rest.springbootemployee.startup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// runners finish before Boot marks the application ready, so /actuator/health/readiness stays OUT_OF_SERVICE while
+// this sends the read-only requests real traffic would (through Tomcat, the filters, the controllers, Jackson and the
+// repositories) and round-trips synthetic employees through Jackson and the Mongo converter, in rounds, until a round
+// spends little time in the JIT compiler, or max-ms or max-requests is reached
+@Component
+public class WarmUp implements ApplicationRunner {
+    public static final String PHASE = "warm-up";
+
+    // marks the warm-up's own requests, which are not the first request StartupTimings reports and do not feed the
+    // admission limits, page read-ahead or hot-key counts; the value is a per-process token, so a client cannot
+    // claim to be the warm-up to get past admission control
+    public static final String HEADER = "X-Warm-Up";
+
+    private static final String TOKEN = UUID.randomUUID().toString();
+
+    // a request slower than this is abandoned even with warm-up time left
+    private static final int MAX_REQUEST_MS = 5000;
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final String[] GENDERS = {"Male", "Female"};
+
+    private final ApplicationContext applicationContext;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<MongoConverter> mongoConverter;
+
+    private final StartupTimings startupTimings;
+
+    private final boolean enabled;
+
+    private final long maxMs;
+
+    private final int maxRequests;
+
+    private final int roundRequests;
+
+    private final int threads;
+
+    private final double stableCompileRatio;
+
+    private final int stableRounds;
+
+    public WarmUp(ApplicationContext applicationContext, ObjectMapper objectMapper,
+                  ObjectProvider<MongoConverter> mongoConverter, StartupTimings startupTimings,
+                  @Value("${warmup.enabled:true}") boolean enabled,
+                  @Value("${warmup.max-ms:30000}") long maxMs,
+                  @Value("${warmup.max-requests:20000}") int maxRequests,
+                  @Value("${warmup.round-requests:500}") int roundRequests,
+                  @Value("${warmup.threads:2}") int threads,
+                  @Value("${warmup.stable-compile-ratio:0.05}") double stableCompileRatio,
+                  @Value("${warmup.stable-rounds:2}") int stableRounds) {
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+        this.mongoConverter = mongoConverter;
+        this.startupTimings = startupTimings;
+        this.enabled = enabled;
+        this.maxMs = maxMs;
+        this.maxRequests = maxRequests;
+        this.roundRequests = roundRequests;
+        this.threads = threads;
+        this.stableCompileRatio = stableCompileRatio;
+        this.stableRounds = stableRounds;
+    }
+
+    public static boolean isWarmUp(HttpServletRequest request) {
+        return TOKEN.equals(request.getHeader(HEADER));
+    }
+
+    // for code below the controllers, which has no request at hand
+    public static boolean isWarmUpRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes
+                && isWarmUp(((ServletRequestAttributes) attributes).getRequest());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled || !(applicationContext instanceof WebServerApplicationContext)) {
+            return;
+        }
+        String baseUrl = "http://localhost:"
+                + ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+        startupTimings.time(PHASE, () -> {
+            warmUp(baseUrl);
+            return null;
+        });
+    }
+
+    private void warmUp(String baseUrl) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(maxMs);
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean compileTimed = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        List<String> paths = paths(baseUrl, deadline);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int requests = 0;
+        int rounds = 0;
+        int stable = 0;
+        long firstRoundCompileMs = -1;
+        long lastRoundCompileMs = -1;
+        String stoppedBy = "max-requests";
+        try {
+            while (requests < maxRequests) {
+                if (System.nanoTime() - deadline >= 0) {
+                    stoppedBy = "max-ms";
+                    break;
+                }
+                long compileBefore = compileTimed ? compiler.getTotalCompilationTime() : 0;
+                long roundStarted = System.nanoTime();
+                int count = Math.min(roundRequests, maxRequests - requests);
+                round(baseUrl, paths, count, deadline, executor, failures);
+                requests += count;
+                rounds++;
+                if (!compileTimed) {
+                    continue;
+                }
+                long roundMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStarted));
+                lastRoundCompileMs = compiler.getTotalCompilationTime() - compileBefore;
+                if (firstRoundCompileMs < 0) {
+                    firstRoundCompileMs = lastRoundCompileMs;
+                }
+                log.debug("Warm-up round {}: {} ms, {} ms compiling", rounds, roundMs, lastRoundCompileMs);
+                stable = lastRoundCompileMs <= roundMs * stableCompileRatio ? stable + 1 : 0;
+                if (stable >= stableRounds) {
+                    stoppedBy = "stable";
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Warm-up: {} requests in {} rounds, {} ms, {} failed; JIT compile time per round {} ms -> {} ms; "
+                        + "stopped by {}", requests, rounds, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                failures.get(), firstRoundCompileMs, lastRoundCompileMs, stoppedBy);
+    }
+
+    // the paths are spread over the workers; each request also round-trips one synthetic employee
+    private void round(String baseUrl, List<String> paths, int count, long deadline, ExecutorService executor,
+                       AtomicInteger failures) {
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                int sequence;
+                while ((sequence = next.getAndIncrement()) < count && System.nanoTime() - deadline < 0) {
+                    if (get(baseUrl + paths.get(sequence % paths.size()), deadline) == null) {
+                        failures.incrementAndGet();
+                    }
+                    roundTrip(sequence);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (Exception exception) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    // only reads: pages in order, by gender, single documents by id, and analytics
+    private List<String> paths(String baseUrl, long deadline) {
+        List<String> paths = new ArrayList<>();
+        paths.add("/hello/warm-up");
+        paths.add("/employees/analytics?groupBy=gender");
+        paths.add("/employees/analytics?groupBy=age&minSalary=1");
+        for (int page = 1; page <= 5; page++) {
+            for (int pageSize : new int[]{5, 20}) {
+                paths.add("/employees?page=" + page + "&pageSize=" + pageSize);
+                paths.add("/employees?page=" + page + "&pageSize=" + pageSize + "&gender=" + GENDERS[page % 2]);
+                paths.add("/companies?page=" + page + "&pageSize=" + pageSize);
+            }
+        }
+        for (String id : ids(get(baseUrl + "/employees?page=1&pageSize=20", deadline))) {
+            paths.add("/employees/" + id);
+        }
+        for (String id : ids(get(baseUrl + "/companies?page=1&pageSize=20", deadline))) {
+            paths.add("/companies/" + id);
+            paths.add("/companies/" + id + "/employees");
+        }
+        return paths;
+    }
+
+    private List<String> ids(byte[] page) {
+        List<String> ids = new ArrayList<>();
+        if (page == null) {
+            return ids;
+        }
+        try {
+            for (JsonNode document : objectMapper.readTree(page)) {
+                ids.add(document.path("id").asText());
+            }
+        } catch (IOException exception) {
+            log.debug("Warm-up could not read ids: {}", exception.toString());
+        }
+        return ids;
+    }
+
+    private void roundTrip(int sequence) {
+        Employee employee = new Employee(new ObjectId().toString(), "warm-up" + sequence, 20 + sequence % 40,
+                GENDERS[sequence % 2], 1000 + sequence % 9000);
+        Company company = new Company(new ObjectId().toString(), "warm-up", Arrays.asList(employee, employee));
+        try {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(employee), Employee.class);
+            objectMapper.readValue(objectMapper.writeValueAsBytes(company), Company.class);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+        MongoConverter converter = mongoConverter.getIfAvailable();
+        if (converter != null) {
+            Document document = new Document();
+            converter.write(company, document);
+            converter.read(Company.class, document);
+        }
+    }
+
+    // no cache: the point is to run the handlers, not to be answered by the response cache. The timeouts end with
+    // the warm-up, so a slow request cannot hold readiness past max-ms
+    private byte[] get(String url, long deadline) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMs <= 0) {
+            return null;
+        }
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout((int) Math.min(1000, remainingMs));
+            connection.setReadTimeout((int) Math.min(MAX_REQUEST_MS, remainingMs));
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty("Cache-Control", "no-cache");
+            connection.setRequestProperty(HEADER, TOKEN);
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            if (in != null) {
+                try (InputStream stream = in) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = stream.read(buffer)) != -1) {
+                        content.write(buffer, 0, read);
+                    }
+                }
+            }
+            return status == 200 ? content.toByteArray() : null;
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.rest.springbootemployee.storage;
+
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+
+// the compact names for Employee and Company properties, wherever they are stored (their own collections, employees
+// embedded in a company, the copies in change documents); everything else keeps its property name
+public class CompactFieldNaming implements FieldNamingStrategy {
+    @Override
+    public String getFieldName(PersistentProperty<?> property) {
+        Class<?> owner = property.getOwner().getType();
+        String compact = owner == Employee.class ? CompactFields.compactEmployeeField(property.getName())
+                : owner == Company.class ? CompactFields.compactCompanyField(property.getName()) : null;
+        return compact == null ? property.getName() : compact;
+    }
+}
@@ -0,0 +1,129 @@
+package com.rest.springbootemployee.storage;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// the short names Employee and Company are stored under (the long ones are the property names), the small-int codes
+// for the common genders, and the copies between the two layouts that the dual-write steps and the migration make.
+// Changing a name or a code here is a data migration
+public final class CompactFields {
+    public static final String ID = "_id";
+
+    public static final String TYPE_HINT = "_class";
+
+    private static final Map<String, String> EMPLOYEE = new LinkedHashMap<>();
+
+    private static final Map<String, String> COMPANY = new LinkedHashMap<>();
+
+    private static final String GENDER = "gender";
+
+    private static final String EMPLOYEES = "employees";
+
+    // a gender's code is its position here plus one; any other value is stored as the string
+    private static final List<String> GENDERS = Arrays.asList("Male", "Female");
+
+    static {
+        EMPLOYEE.put("name", "n");
+        EMPLOYEE.put("age", "a");
+        EMPLOYEE.put(GENDER, "g");
+        EMPLOYEE.put("salary", "s");
+        COMPANY.put("name", "n");
+        COMPANY.put(EMPLOYEES, "e");
+    }
+
+    private CompactFields() {
+    }
+
+    // the stored name of an Employee property in the given layout
+    public static String employeeField(String property, boolean compact) {
+        return compact ? EMPLOYEE.getOrDefault(property, property) : property;
+    }
+
+    public static String companyField(String property, boolean compact) {
+        return compact ? COMPANY.getOrDefault(property, property) : property;
+    }
+
+    static String compactEmployeeField(String property) {
+        return EMPLOYEE.get(property);
+    }
+
+    static String compactCompanyField(String property) {
+        return COMPANY.get(property);
+    }
+
+    public static Object genderCode(String gender) {
+        int index = GENDERS.indexOf(gender);
+        return index < 0 ? gender : Integer.valueOf(index + 1);
+    }
+
+    public static String genderName(Object stored) {
+        if (stored instanceof Number) {
+            int index = ((Number) stored).intValue() - 1;
+            return index >= 0 && index < GENDERS.size() ? GENDERS.get(index) : stored.toString();
+        }
+        return stored == null ? null : stored.toString();
+    }
+
+    // adds to an employee document the other layout's copy of each field it has
+    static void copyEmployee(Document employee, boolean toCompact) {
+        for (Map.Entry<String, String> names : EMPLOYEE.entrySet()) {
+            String from = toCompact ? names.getKey() : names.getValue();
+            String to = toCompact ? names.getValue() : names.getKey();
+            if (employee.containsKey(from)) {
+                Object value = employee.get(from);
+                if (GENDER.equals(names.getKey())) {
+                    value = toCompact ? genderCode((String) value) : genderName(value);
+                }
+                employee.put(to, value);
+            }
+        }
+    }
+
+    // the name is copied in place; the employees go into a second array whose elements have only the other names
+    static void copyCompany(Document company, boolean toCompact) {
+        String fromName = toCompact ? "name" : COMPANY.get("name");
+        if (company.containsKey(fromName)) {
+            company.put(toCompact ? COMPANY.get("name") : "name", company.get(fromName));
+        }
+        Object employees = company.get(toCompact ? EMPLOYEES : COMPANY.get(EMPLOYEES));
+        if (employees instanceof List) {
+            List<Object> copies = new ArrayList<>();
+            for (Object element : (List<?>) employees) {
+                copies.add(element instanceof Document ? otherLayout((Document) element, toCompact) : element);
+            }
+            company.put(toCompact ? COMPANY.get(EMPLOYEES) : EMPLOYEES, copies);
+        }
+    }
+
+    private static Document otherLayout(Document employee, boolean toCompact) {
+        Document copy = new Document(employee);
+        copyEmployee(copy, toCompact);
+        for (Map.Entry<String, String> names : EMPLOYEE.entrySet()) {
+            copy.remove(toCompact ? names.getKey() : names.getValue());
+        }
+        return copy;
+    }
+
+    static Map<String, String> employeeNames() {
+        return EMPLOYEE;
+    }
+
+    static Map<String, String> companyNames() {
+        return COMPANY;
+    }
+
+    // the gender code as an aggregation expression over a field path such as "$gender" or "$$e.gender"
+    static Document genderCodeExpression(String path) {
+        List<Document> branches = new ArrayList<>();
+        for (String gender : GENDERS) {
+            branches.add(new Document("case", new Document("$eq", Arrays.asList(path, gender)))
+                    .append("then", genderCode(gender)));
+        }
+        return new Document("$switch", new Document("branches", branches).append("default", path));
+    }
+}
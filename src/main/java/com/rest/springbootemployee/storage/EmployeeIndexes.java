@@ -0,0 +1,82 @@
+package com.rest.springbootemployee.storage;
+
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// the compound indexes behind the gender, range and sorted queries, declared here rather than as @CompoundIndex
+// because their keys are stored field names and those depend on storage.fields; each layout's indexes are named
+// after its own keys (gender_salary_id_age, g_s_id_a), so both sets can exist while the fleet moves between layouts.
+// Keys are equality, sort, range: the range queries sort by (field, _id), so _id follows the sort field and the
+// other field's range is checked on the trailing key, and a keyset page is read in index order with no SORT stage
+public final class EmployeeIndexes {
+    private static final String ID = "id";
+
+    private static final List<List<String>> KEYS = Arrays.asList(
+            Arrays.asList("gender", "salary", ID, "age"),
+            Arrays.asList("gender", "age", ID, "salary"),
+            Arrays.asList("salary", ID, "age"),
+            Arrays.asList("age", ID, "salary"));
+
+    // the first indexes, which put the range field before _id so none of them could supply the sort; dropped
+    // wherever the current ones are ensured
+    private static final List<List<String>> REPLACED = Arrays.asList(
+            Arrays.asList("gender", "salary", "age"),
+            Arrays.asList("gender", "age", "salary"),
+            Arrays.asList("salary", "age"),
+            Arrays.asList("age", "salary"));
+
+    private EmployeeIndexes() {
+    }
+
+    public static void ensure(IndexOperations indexes, boolean compact) {
+        drop(indexes, REPLACED, compact);
+        for (List<String> properties : KEYS) {
+            Document keys = new Document();
+            properties.forEach(property -> keys.append(field(property, compact), 1));
+            indexes.ensureIndex(new CompoundIndexDefinition(keys).named(name(properties, compact)));
+        }
+    }
+
+    public static void drop(IndexOperations indexes, boolean compact) {
+        drop(indexes, REPLACED, compact);
+        drop(indexes, KEYS, compact);
+    }
+
+    private static void drop(IndexOperations indexes, List<List<String>> keys, boolean compact) {
+        List<IndexInfo> existing = indexes.getIndexInfo();
+        for (List<String> properties : keys) {
+            String name = name(properties, compact);
+            if (exists(existing, name)) {
+                try {
+                    indexes.dropIndex(name);
+                } catch (DataAccessException exception) {
+                    // another instance starting at the same time may have dropped it first
+                    if (exists(indexes.getIndexInfo(), name)) {
+                        throw exception;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean exists(List<IndexInfo> indexes, String name) {
+        return indexes.stream().anyMatch(index -> name.equals(index.getName()));
+    }
+
+    private static String name(List<String> properties, boolean compact) {
+        return properties.stream()
+                .map(property -> ID.equals(property) ? ID : field(property, compact))
+                .collect(Collectors.joining("_"));
+    }
+
+    private static String field(String property, boolean compact) {
+        return ID.equals(property) ? CompactFields.ID : CompactFields.employeeField(property, compact);
+    }
+}
@@ -0,0 +1,51 @@
+package com.rest.springbootemployee.storage;
+
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.Locale;
+
+// storage.fields, the steps of moving a deployment from the property names to the compact ones without downtime; each
+// step can run alongside instances on the step before it, so the fleet is rolled one step at a time:
+//   legacy   reads and writes the property names (what versions before the compact names did)
+//   expand   reads the property names, writes both; the migration adds the compact copy to older documents
+//   dual     reads the compact names, writes both, so expand instances still read what it writes
+//   compact  reads and writes the compact names; the migration removes the property-named copies
+public enum FieldFormat {
+    LEGACY(false, true, false),
+    EXPAND(false, true, true),
+    DUAL(true, true, true),
+    COMPACT(true, false, true);
+
+    private final boolean readsCompact;
+
+    private final boolean writesLegacy;
+
+    private final boolean writesCompact;
+
+    FieldFormat(boolean readsCompact, boolean writesLegacy, boolean writesCompact) {
+        this.readsCompact = readsCompact;
+        this.writesLegacy = writesLegacy;
+        this.writesCompact = writesCompact;
+    }
+
+    public boolean readsCompact() {
+        return readsCompact;
+    }
+
+    public boolean writesBoth() {
+        return writesLegacy && writesCompact;
+    }
+
+    public static FieldFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("storage.fields must be one of legacy, expand, dual, compact, not " + name);
+        }
+    }
+
+    // templates built on a converter of their own (tests, benchmarks) store the property names
+    public static FieldFormat of(MongoConverter converter) {
+        return converter instanceof StorageMongoConverter ? ((StorageMongoConverter) converter).getFieldFormat() : LEGACY;
+    }
+}
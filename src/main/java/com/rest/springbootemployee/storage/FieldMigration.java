@@ -0,0 +1,327 @@
+package com.rest.springbootemployee.storage;
+
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.CompanyChange;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import com.rest.springbootemployee.repository.partitioned.MongoPartitions;
+import com.rest.springbootemployee.repository.partitioned.PartitionedMongo;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// brings the stored documents in line with storage.fields, in the background once the application is ready: expand
+// adds the compact copy of every property-named field (after building the compact indexes), compact removes the
+// property-named fields and type hints (then their indexes); legacy has nothing to do. Dual reads the compact names,
+// so before it serves anything it checks that expand finished: its migration leaves a marker in storage_migrations,
+// and the newest storage.migration.check-documents documents (found through the _id index) must have the compact
+// fields too, which catches writes from instances still on legacy. Otherwise it runs expand's backfill once, or with
+// the migration disabled refuses to start. Documents are visited in _id order a batch at a time and only those still
+// missing something are updated, so it is safe to run on every instance at once and to restart
+@Component
+@Profile("!inmemory & !filestore")
+public class FieldMigration {
+    private static final Logger log = LoggerFactory.getLogger(FieldMigration.class);
+
+    private static final String MIGRATIONS = "storage_migrations";
+
+    private static final String EXPAND_DONE = "expand";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ObjectProvider<PartitionedMongo> partitionedMongo;
+
+    private final FieldFormat fieldFormat;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final long pauseMs;
+
+    private final int checkDocuments;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "field-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FieldMigration(MongoTemplate mongoTemplate, ObjectProvider<PartitionedMongo> partitionedMongo,
+                          FieldFormat fieldFormat,
+                          @Value("${storage.migration.enabled:true}") boolean enabled,
+                          @Value("${storage.migration.batch-size:1000}") int batchSize,
+                          @Value("${storage.migration.pause-ms:10}") long pauseMs,
+                          @Value("${storage.migration.check-documents:1000}") int checkDocuments) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitionedMongo = partitionedMongo;
+        this.fieldFormat = fieldFormat;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.checkDocuments = checkDocuments;
+    }
+
+    // runs while the context starts, so the web server does not take requests until it is done
+    @PostConstruct
+    public void backfillBeforeDual() {
+        if (fieldFormat != FieldFormat.DUAL) {
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        for (Target target : targets()) {
+            if (!expandDone(target.template) || !newestHaveCompact(target)) {
+                missing.add(target.collection);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        if (!enabled) {
+            throw new IllegalStateException("storage.fields=dual reads the compact fields, but the expand migration "
+                    + "has not finished for " + missing + "; run storage.fields=expand until its migration is done, "
+                    + "or enable storage.migration");
+        }
+        log.info("Expand migration not done for {}; running it before serving storage.fields=dual", missing);
+        migrate(FieldFormat.EXPAND);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && (fieldFormat == FieldFormat.EXPAND || fieldFormat == FieldFormat.COMPACT)) {
+            executor.execute(() -> {
+                try {
+                    migrate();
+                } catch (RuntimeException exception) {
+                    log.warn("Field migration ({}) stopped; it resumes on the next start", name(fieldFormat),
+                            exception);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void migrate() {
+        migrate(fieldFormat);
+    }
+
+    // step is expand or compact: dual reruns expand's
+    private void migrate(FieldFormat step) {
+        long started = System.nanoTime();
+        List<String> done = new ArrayList<>();
+        for (Target target : targets()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (target.employees && step == FieldFormat.EXPAND) {
+                EmployeeIndexes.ensure(target.template.indexOps(target.collection), true);
+            }
+            long updated = migrate(target, step);
+            if (target.employees && step == FieldFormat.COMPACT) {
+                EmployeeIndexes.drop(target.template.indexOps(target.collection), false);
+            }
+            done.add(target.collection + " " + updated);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        if (step == FieldFormat.EXPAND) {
+            markExpandDone();
+        }
+        String next = fieldFormat == FieldFormat.DUAL ? "every document has the compact fields"
+                : step == FieldFormat.EXPAND
+                ? "every document has the compact fields; once no instance runs storage.fields=legacy, "
+                + "roll out storage.fields=dual"
+                : "no property-named fields are left";
+        log.info("Field migration ({}) done in {} ms, documents updated: {}; {}", name(step),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), done, next);
+    }
+
+    private void markExpandDone() {
+        List<MongoTemplate> templates = new ArrayList<>();
+        for (Target target : targets()) {
+            if (!templates.contains(target.template)) {
+                templates.add(target.template);
+                target.template.save(new Document(CompactFields.ID, EXPAND_DONE).append("finishedAt", new Date()),
+                        MIGRATIONS);
+            }
+        }
+    }
+
+    private static boolean expandDone(MongoTemplate template) {
+        return template.exists(new Query(Criteria.where(CompactFields.ID).is(EXPAND_DONE)), MIGRATIONS);
+    }
+
+    // skips down the _id index to the oldest of the newest documents, so the unindexed missing-field check only
+    // looks at those
+    private boolean newestHaveCompact(Target target) {
+        Query newest = new Query().with(Sort.by(Sort.Direction.DESC, CompactFields.ID))
+                .skip(checkDocuments - 1L).limit(1);
+        newest.fields().include(CompactFields.ID);
+        Document oldest = target.template.findOne(newest, Document.class, target.collection);
+        Criteria pending = oldest == null ? target.missingCompact() : new Criteria().andOperator(
+                Criteria.where(CompactFields.ID).gte(oldest.get(CompactFields.ID)), target.missingCompact());
+        return !target.template.exists(new Query(pending), target.collection);
+    }
+
+    private long migrate(Target target, FieldFormat step) {
+        Criteria pending = step == FieldFormat.EXPAND ? target.missingCompact() : target.hasLegacy();
+        UpdateDefinition update = step == FieldFormat.EXPAND ? target.addCompact() : target.removeLegacy();
+        long updated = 0;
+        Object after = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            Query batch = new Query(after == null ? new Criteria() : Criteria.where(CompactFields.ID).gt(after))
+                    .with(Sort.by(CompactFields.ID)).limit(batchSize);
+            batch.fields().include(CompactFields.ID);
+            List<Document> ids = target.template.find(batch, Document.class, target.collection);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Object last = ids.get(ids.size() - 1).get(CompactFields.ID);
+            Criteria range = Criteria.where(CompactFields.ID).lte(last);
+            if (after != null) {
+                range.gt(after);
+            }
+            updated += target.template.updateMulti(new Query(new Criteria().andOperator(range, pending)), update,
+                    target.collection).getModifiedCount();
+            after = last;
+            pause();
+        }
+        return updated;
+    }
+
+    // change documents carry a copy of the employee or company under a field of their own
+    private List<Target> targets() {
+        List<Target> targets = new ArrayList<>(Arrays.asList(
+                new Target(mongoTemplate, mongoTemplate.getCollectionName(Employee.class), false, ""),
+                new Target(mongoTemplate, mongoTemplate.getCollectionName(Company.class), true, ""),
+                new Target(mongoTemplate, mongoTemplate.getCollectionName(EmployeeChange.class), false, "employee."),
+                new Target(mongoTemplate, mongoTemplate.getCollectionName(CompanyChange.class), true, "company.")));
+        PartitionedMongo partitions = partitionedMongo.getIfAvailable();
+        if (partitions != null) {
+            MongoPartitions<MongoTemplate> templates = partitions.partitions(template -> template);
+            for (int i = 0; i < templates.size(); i++) {
+                MongoTemplate template = templates.get(i);
+                targets.add(new Target(template, template.getCollectionName(Employee.class), false, ""));
+                targets.add(new Target(template, template.getCollectionName(Company.class), true, ""));
+            }
+        }
+        return targets;
+    }
+
+    private void pause() {
+        if (pauseMs > 0) {
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String name(FieldFormat step) {
+        return step.name().toLowerCase(Locale.ROOT);
+    }
+
+    // an employee- or company-shaped document at path ("" for the root)
+    private static class Target {
+        private final MongoTemplate template;
+
+        private final String collection;
+
+        private final boolean company;
+
+        private final String path;
+
+        private final boolean employees;
+
+        private Target(MongoTemplate template, String collection, boolean company, String path) {
+            this.template = template;
+            this.collection = collection;
+            this.company = company;
+            this.path = path;
+            this.employees = !company && path.isEmpty();
+        }
+
+        private Map<String, String> names() {
+            return company ? CompactFields.companyNames() : CompactFields.employeeNames();
+        }
+
+        private Criteria missingCompact() {
+            List<Criteria> missing = new ArrayList<>();
+            names().forEach((legacy, compact) ->
+                    missing.add(Criteria.where(path + legacy).exists(true).and(path + compact).exists(false)));
+            return new Criteria().orOperator(missing);
+        }
+
+        private Criteria hasLegacy() {
+            List<Criteria> legacy = new ArrayList<>();
+            names().keySet().forEach(field -> legacy.add(Criteria.where(path + field).exists(true)));
+            legacy.add(Criteria.where(CompactFields.TYPE_HINT).exists(true));
+            return new Criteria().orOperator(legacy);
+        }
+
+        // a field path that is missing in a document sets nothing, so absent fields stay absent
+        private UpdateDefinition addCompact() {
+            Document set = new Document();
+            if (company) {
+                String employees = "$" + path + "employees";
+                set.append(path + CompactFields.companyField("name", true), "$" + path + "name");
+                set.append(path + CompactFields.companyField("employees", true), new Document("$cond", Arrays.asList(
+                        new Document("$isArray", employees),
+                        new Document("$map", new Document("input", employees).append("as", "x")
+                                .append("in", compactEmployee("$$x."))),
+                        "$$REMOVE")));
+            } else {
+                compactEmployee("$" + path).forEach((field, value) -> set.append(path + field, value));
+            }
+            return AggregationUpdate.from(Collections.singletonList(context -> new Document("$set", set)));
+        }
+
+        private UpdateDefinition removeLegacy() {
+            Update update = new Update().unset(CompactFields.TYPE_HINT);
+            names().keySet().forEach(field -> update.unset(path + field));
+            return update;
+        }
+
+        private static Document compactEmployee(String from) {
+            Document employee = new Document();
+            if (from.startsWith("$$")) {
+                employee.append(CompactFields.ID, from + CompactFields.ID);
+            }
+            CompactFields.employeeNames().forEach((legacy, compact) -> employee.append(compact,
+                    "gender".equals(legacy) ? CompactFields.genderCodeExpression(from + legacy) : from + legacy));
+            return employee;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.rest.springbootemployee.storage;
+
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+// Employee.gender in the compact layout; queries on gender are converted too, so findByGender("Male") matches g: 1
+public class GenderCodeConverter implements MongoValueConverter<String, Object> {
+    @Override
+    public String read(Object value, MongoConversionContext context) {
+        return CompactFields.genderName(value);
+    }
+
+    @Override
+    public Object write(String value, MongoConversionContext context) {
+        return CompactFields.genderCode(value);
+    }
+}
@@ -0,0 +1,26 @@
+package com.rest.springbootemployee.storage;
+
+import com.rest.springbootemployee.entity.Employee;
+import org.springframework.data.convert.PropertyValueConversions;
+import org.springframework.data.convert.PropertyValueConverter;
+import org.springframework.data.convert.ValueConversionContext;
+import org.springframework.data.mapping.PersistentProperty;
+
+// the converter asks whether every property it reads or writes has a value converter; the registrar-backed default
+// answers that with an annotation lookup per property per document (it only caches hits), which made compact reads
+// slower than legacy ones, so the one converted property is matched here directly
+public class GenderConversions implements PropertyValueConversions {
+    private final GenderCodeConverter converter = new GenderCodeConverter();
+
+    @Override
+    public boolean hasValueConverter(PersistentProperty<?> property) {
+        return property.getOwner().getType() == Employee.class && "gender".equals(property.getName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <DV, SV, P extends PersistentProperty<P>, VCC extends ValueConversionContext<P>> PropertyValueConverter<DV, SV, VCC> getValueConverter(
+            P property) {
+        return hasValueConverter(property) ? (PropertyValueConverter<DV, SV, VCC>) (PropertyValueConverter<?, ?, ?>) converter : null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rest.springbootemployee.storage;
+
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.CompanyChange;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+// every template writes entities through here (saves, inserts, bulk inserts, the partition templates too), so in the
+// steps that write both layouts this adds the other layout's copy to what the mapping wrote
+public class StorageMongoConverter extends MappingMongoConverter {
+    private final FieldFormat fieldFormat;
+
+    public StorageMongoConverter(DbRefResolver dbRefResolver,
+                                 MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+                                 FieldFormat fieldFormat) {
+        super(dbRefResolver, mappingContext);
+        this.fieldFormat = fieldFormat;
+    }
+
+    public FieldFormat getFieldFormat() {
+        return fieldFormat;
+    }
+
+    @Override
+    public void write(Object source, Bson bson) {
+        super.write(source, bson);
+        if (!fieldFormat.writesBoth() || !(bson instanceof Document)) {
+            return;
+        }
+        Document document = (Document) bson;
+        // the mapping wrote the layout that is read; the copy is the other one
+        boolean toCompact = !fieldFormat.readsCompact();
+        if (source instanceof Employee) {
+            CompactFields.copyEmployee(document, toCompact);
+        } else if (source instanceof Company) {
+            CompactFields.copyCompany(document, toCompact);
+        } else if (source instanceof EmployeeChange && document.get("employee") instanceof Document) {
+            CompactFields.copyEmployee((Document) document.get("employee"), toCompact);
+        } else if (source instanceof CompanyChange && document.get("company") instanceof Document) {
+            CompactFields.copyCompany((Document) document.get("company"), toCompact);
+        }
+    }
+}
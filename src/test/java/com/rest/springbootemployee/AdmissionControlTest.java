@@ -0,0 +1,133 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.admission.AdaptiveLimit;
+import com.rest.springbootemployee.admission.AdmissionControl;
+import com.rest.springbootemployee.admission.AdmissionInterceptor;
+import com.rest.springbootemployee.admission.Priority;
+import com.rest.springbootemployee.startup.WarmUp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class AdmissionControlTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void should_shed_and_count_requests_when_try_acquire_given_endpoint_limit_reached() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admissionControl = new AdmissionControl(registry, 2, 1, 10, 100, 2.0, 0.9, 1, 3);
+
+        //when
+        AdmissionControl.Permit first = admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW);
+        AdmissionControl.Permit second = admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW);
+        AdmissionControl.Permit third = admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW);
+        first.release(false);
+        AdmissionControl.Permit fourth = admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW);
+
+        //then
+        assertThat(second, notNullValue());
+        assertThat(third, nullValue());
+        assertThat(fourth, notNullValue());
+        assertThat(registry.get("admission.shed").tag("endpoint", "EmployeeController.getAll").counter().count(),
+                equalTo(1.0));
+        assertThat(registry.get("admission.inflight").tag("endpoint", "EmployeeController.getAll").gauge().value(),
+                equalTo(2.0));
+        assertThat(registry.get("admission.limit").tag("endpoint", "*").gauge().value(), equalTo(100.0));
+    }
+
+    @Test
+    void should_keep_admitting_high_priority_when_low_priority_is_shed_given_shared_global_limit() {
+        //given
+        AdmissionControl admissionControl = new AdmissionControl(new SimpleMeterRegistry(), 20, 1, 20, 10, 2.0, 0.9, 1, 1);
+        for (int i = 0; i < 6; i++) {
+            assertThat(admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW), notNullValue());
+        }
+
+        //when
+        AdmissionControl.Permit low = admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW);
+        int admittedHigh = 0;
+        while (admissionControl.tryAcquire("EmployeeController.getById", Priority.HIGH) != null) {
+            admittedHigh++;
+        }
+
+        //then
+        assertThat(low, nullValue());
+        assertThat(admittedHigh, equalTo(4));
+    }
+
+    @Test
+    void should_back_off_when_latency_rises_and_grow_again_when_it_recovers_given_busy_endpoint() {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 100, 2.0, 0.9, MILLIS);
+        // only grows while it is actually used: 15 in flight lets it reach 30
+        for (int i = 0; i < 15; i++) {
+            limit.tryAcquire(1.0);
+        }
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(5 * MILLIS, false);
+        }
+        int steady = limit.getLimit();
+
+        //when
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(50 * MILLIS, false);
+        }
+        int congested = limit.getLimit();
+        for (int i = 0; i < 2000; i++) {
+            limit.onSample(5 * MILLIS, false);
+        }
+
+        //then
+        assertThat(steady, greaterThan(20));
+        assertThat(congested, lessThan(steady));
+        assertThat(limit.getLimit(), greaterThan(congested));
+    }
+
+    @Test
+    void should_back_off_when_requests_fail_given_steady_latency() {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 100, 2.0, 0.9, MILLIS);
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(5 * MILLIS, true);
+        }
+
+        //then
+        assertThat(limit.getLimit(), lessThan(20));
+    }
+
+    @Test
+    void should_still_take_permit_when_pre_handle_given_warm_up_header_without_process_token() throws Exception {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admissionControl = new AdmissionControl(registry, 2, 1, 10, 100, 2.0, 0.9, 1, 3);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(admissionControl);
+        HandlerMethod handler = new HandlerMethod(this, getClass().getDeclaredMethod("endpoint"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees");
+        request.addHeader(WarmUp.HEADER, "true");
+
+        //when
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+
+        //then
+        assertThat(WarmUp.isWarmUp(request), equalTo(false));
+        assertThat(registry.get("admission.inflight").tag("endpoint", "AdmissionControlTest.endpoint").gauge().value(),
+                equalTo(1.0));
+    }
+
+    void endpoint() {
+    }
+}
@@ -0,0 +1,237 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.rest.springbootemployee.converter.EmployeeCsvWriter;
+import com.rest.springbootemployee.dto.ImportJob;
+import com.rest.springbootemployee.dto.ImportRejection;
+import com.rest.springbootemployee.dto.ImportRequest;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import com.rest.springbootemployee.repository.inmemory.InMemoryCompanyRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeRepository;
+import com.rest.springbootemployee.service.BulkImportService;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BulkImportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    InMemoryEmployeeRepository employeeRepository = new InMemoryEmployeeRepository();
+
+    InMemoryCompanyRepository companyRepository = new InMemoryCompanyRepository();
+
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+
+    AtomicLong events = new AtomicLong();
+
+    BulkImportService bulkImportService;
+
+    @AfterEach
+    void shutdown() {
+        bulkImportService.shutdown();
+    }
+
+    @Test
+    void should_import_valid_lines_and_report_rejected_offsets_when_import_given_ndjson_across_chunks() throws Exception {
+        //given
+        bulkImportService = service(1);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            ndjson.append(objectMapper.writeValueAsString(new Employee(new ObjectId().toString(), "employee" + i, 20, "Male", 1000 + i)));
+            ndjson.append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        long badJson = ndjson.length();
+        ndjson.append("{\"name\": \"broken\"\n\n");
+        long badId = ndjson.length();
+        ndjson.append("{\"id\": \"not-an-object-id\", \"name\": \"Leo\"}\n");
+        ndjson.append("{\"name\": \"Bob\", \"age\": 30}");
+        Files.write(directory.resolve("employees.ndjson"), ndjson.toString().getBytes(StandardCharsets.UTF_8));
+
+        //when
+        ImportJob job = await(bulkImportService.start(request("employees.ndjson", "ndjson", "employees")));
+
+        //then
+        assertThat(job.getStatus(), equalTo(ImportJob.Status.COMPLETED));
+        assertThat(job.getImported(), equalTo(2001L));
+        assertThat(job.getBytesProcessed(), equalTo(job.getBytesTotal()));
+        assertThat(job.getRejections().stream().map(ImportRejection::getOffset).collect(Collectors.toList()),
+                contains(badJson, badId));
+        assertThat(employeeRepository.count(), equalTo(2001L));
+        assertThat(events.get(), equalTo(2001L));
+    }
+
+    @Test
+    void should_round_trip_export_when_import_given_csv_with_quoted_line_breaks() throws Exception {
+        //given
+        bulkImportService = service(1);
+        List<Employee> exported = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String name = i % 7 == 0 ? "Lee, \"Susan\"\nline " + i : i % 11 == 0 ? "=SUM(A" + i + ")" : "employee" + i;
+            exported.add(new Employee(new ObjectId().toString(), name, i % 5 == 0 ? null : 20 + i % 40, "Female", 1000 + i));
+        }
+        try (OutputStream out = Files.newOutputStream(directory.resolve("employees.csv"))) {
+            EmployeeCsvWriter.write(exported.iterator(), out);
+        }
+
+        //when
+        ImportJob job = await(bulkImportService.start(request("employees.csv", "csv", "employees")));
+
+        //then
+        assertThat(job.getStatus(), equalTo(ImportJob.Status.COMPLETED));
+        assertThat(job.getRejected(), equalTo(0L));
+        assertThat(json(employeeRepository.findAll()), equalTo(json(exported)));
+    }
+
+    @Test
+    void should_map_columns_by_header_when_import_given_reordered_csv() throws Exception {
+        //given
+        bulkImportService = service(32768);
+        Files.write(directory.resolve("reordered.csv"), ("salary,name,team,age\r\n"
+                + "10000,Susan,HR,22\r\n"
+                + "abc,Leo,HR,25\r\n").getBytes(StandardCharsets.UTF_8));
+
+        //when
+        ImportJob job = await(bulkImportService.start(request("reordered.csv", "csv", "employees")));
+
+        //then
+        assertThat(job.getImported(), equalTo(1L));
+        assertThat(job.getRejections().get(0).getReason(), equalTo("salary is not a number: abc"));
+        Employee susan = employeeRepository.findAll().get(0);
+        assertThat(susan.getName(), equalTo("Susan"));
+        assertThat(susan.getAge(), equalTo(22));
+        assertThat(susan.getSalary(), equalTo(10000));
+    }
+
+    @Test
+    void should_import_embedded_employees_when_import_given_company_ndjson() throws Exception {
+        //given
+        bulkImportService = service(32768);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee("1", "lili", 20, "Female", 2000));
+        Files.write(directory.resolve("companies.ndjson"),
+                objectMapper.writeValueAsBytes(new Company(new ObjectId().toString(), "Spring", employees)));
+
+        //when
+        ImportJob job = await(bulkImportService.start(request("companies.ndjson", "ndjson", "companies")));
+
+        //then
+        assertThat(job.getImported(), equalTo(1L));
+        assertThat(companyRepository.findAll().get(0).getEmployees().get(0).getName(), equalTo("lili"));
+    }
+
+    @Test
+    void should_publish_events_for_records_the_batch_stored_when_import_given_batch_failing_on_taken_id() throws Exception {
+        //given
+        String takenId = new ObjectId().toString();
+        employeeRepository = new InMemoryEmployeeRepository() {
+            @Override
+            public <S extends Employee> S insert(S entity) {
+                if (existsById(entity.getId())) {
+                    throw new DuplicateKeyException("duplicate id " + entity.getId());
+                }
+                return super.insert(entity);
+            }
+
+            @Override
+            public <S extends Employee> List<S> insert(Iterable<S> entities) {
+                // like an ordered insert, stores the records before the taken id and stops there
+                int index = 0;
+                for (S entity : entities) {
+                    if (existsById(entity.getId())) {
+                        BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), index);
+                        throw new DuplicateKeyException("duplicate key", new MongoBulkWriteException(
+                                BulkWriteResult.unacknowledged(), Collections.singletonList(error), null, new ServerAddress(),
+                                Collections.emptySet()));
+                    }
+                    super.insert(entity);
+                    index++;
+                }
+                return new ArrayList<>();
+            }
+        };
+        employeeRepository.save(new Employee(takenId, "Tom", 30, "Male", 5000));
+        bulkImportService = service(32768);
+        StringBuilder ndjson = new StringBuilder();
+        for (String id : new String[]{new ObjectId().toString(), new ObjectId().toString(), takenId, new ObjectId().toString()}) {
+            ndjson.append(objectMapper.writeValueAsString(new Employee(id, "Susan", 22, "Female", 10000))).append("\n");
+        }
+        Files.write(directory.resolve("employees.ndjson"), ndjson.toString().getBytes(StandardCharsets.UTF_8));
+
+        //when
+        ImportJob job = await(bulkImportService.start(request("employees.ndjson", "ndjson", "employees")));
+
+        //then
+        assertThat(job.getImported(), equalTo(3L));
+        assertThat(job.getRejections().get(0).getReason(), equalTo("duplicate id " + takenId));
+        assertThat(employeeRepository.count(), equalTo(4L));
+        assertThat(events.get(), equalTo(3L));
+    }
+
+    @Test
+    void should_throw_invalid_query_when_start_given_file_outside_import_directory() {
+        //given
+        bulkImportService = service(32768);
+
+        //when & then
+        assertThrows(InvalidQueryException.class,
+                () -> bulkImportService.start(request("../etc/passwd", "ndjson", "employees")));
+        assertThrows(InvalidQueryException.class,
+                () -> bulkImportService.start(request("companies.csv", "csv", "companies")));
+    }
+
+    private BulkImportService service(int chunkSizeKb) {
+        return new BulkImportService(employeeRepository, companyRepository, objectMapper,
+                event -> events.incrementAndGet(), directory.toString(), chunkSizeKb, 100, 4, true);
+    }
+
+    private static ImportRequest request(String file, String format, String collection) {
+        ImportRequest request = new ImportRequest();
+        request.setFile(file);
+        request.setFormat(format);
+        request.setCollection(collection);
+        return request;
+    }
+
+    private static ImportJob await(ImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return job;
+    }
+
+    private String json(List<Employee> employees) throws IOException {
+        List<Employee> sorted = new ArrayList<>(employees);
+        sorted.sort(Comparator.comparing(Employee::getId));
+        return objectMapper.writeValueAsString(sorted);
+    }
+}
@@ -0,0 +1,196 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.dto.ChangeFeed;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import com.rest.springbootemployee.event.ChangeBatch;
+import com.rest.springbootemployee.event.ChangeType;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.ChangeTokenExpiredException;
+import com.rest.springbootemployee.repository.CompanyChangeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeChangeMongoRepository;
+import com.rest.springbootemployee.repository.SequenceRepository;
+import com.rest.springbootemployee.service.ChangeFeedService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(SpringExtension.class)
+public class ChangeFeedServiceTest {
+
+    @Mock
+    EmployeeChangeMongoRepository employeeChangeMongoRepository;
+
+    @Mock
+    CompanyChangeMongoRepository companyChangeMongoRepository;
+
+    @Mock
+    SequenceRepository sequenceRepository;
+
+    ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        changeFeedService = new ChangeFeedService(employeeChangeMongoRepository, companyChangeMongoRepository,
+                sequenceRepository, 2000);
+    }
+
+    @Test
+    void should_write_tombstone_with_next_sequence_when_employee_deleted() {
+        //given
+        String employeeId = new ObjectId().toString();
+        given(sequenceRepository.next(anyString(), eq(1))).willReturn(7L);
+
+        //when
+        changeFeedService.onEmployeeChanged(EmployeeChangedEvent.deleted(employeeId));
+
+        //then
+        ArgumentCaptor<EmployeeChange> captor = ArgumentCaptor.forClass(EmployeeChange.class);
+        verify(employeeChangeMongoRepository).insert(captor.capture());
+        assertThat(captor.getValue().getSeq(), equalTo(7L));
+        assertThat(captor.getValue().getEmployeeId(), equalTo(employeeId));
+        assertThat(captor.getValue().getType(), equalTo(ChangeType.DELETED));
+        assertThat(captor.getValue().getEmployee(), nullValue());
+    }
+
+    @Test
+    void should_return_delta_and_last_sequence_as_token_when_find_changes_given_since_token() {
+        //given
+        Employee employee = new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000);
+        EmployeeChange created = new EmployeeChange(null, 4, employee.getId(), ChangeType.CREATED, employee, new Date());
+        EmployeeChange deleted = new EmployeeChange(null, 5, employee.getId(), ChangeType.DELETED, null, new Date());
+        given(employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(3, PageRequest.of(0, 100)))
+                .willReturn(Arrays.asList(created, deleted));
+
+        //when
+        ChangeFeed<EmployeeChange> feed = changeFeedService.findEmployeeChanges("3", 100);
+
+        //then
+        assertThat(feed.getChanges(), hasSize(2));
+        assertThat(feed.getNext(), equalTo("5"));
+    }
+
+    @Test
+    void should_keep_token_when_find_changes_given_no_new_changes() {
+        //given
+        given(employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(9, PageRequest.of(0, 100)))
+                .willReturn(Collections.emptyList());
+
+        //when
+        ChangeFeed<EmployeeChange> feed = changeFeedService.findEmployeeChanges("9", 100);
+
+        //then
+        assertThat(feed.getChanges(), hasSize(0));
+        assertThat(feed.getNext(), equalTo("9"));
+    }
+
+    @Test
+    void should_throw_expired_when_find_changes_given_token_older_than_retained_changes() {
+        //given
+        EmployeeChange oldest = new EmployeeChange(null, 50, new ObjectId().toString(), ChangeType.DELETED, null, new Date());
+        given(employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(3, PageRequest.of(0, 100)))
+                .willReturn(Collections.singletonList(oldest));
+        given(employeeChangeMongoRepository.findFirstByOrderBySeqAsc()).willReturn(Optional.of(oldest));
+
+        //when & then
+        assertThrows(ChangeTokenExpiredException.class, () -> changeFeedService.findEmployeeChanges("3", 100));
+    }
+
+    @Test
+    void should_stop_before_gap_when_find_changes_given_later_change_stored_while_earlier_in_flight() {
+        //given
+        EmployeeChange stored = change(4, new Date());
+        EmployeeChange afterGap = change(6, new Date());
+        given(employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(3, PageRequest.of(0, 100)))
+                .willReturn(Arrays.asList(stored, afterGap));
+
+        //when
+        ChangeFeed<EmployeeChange> feed = changeFeedService.findEmployeeChanges("3", 100);
+
+        //then
+        assertThat(feed.getChanges(), contains(stored));
+        assertThat(feed.getNext(), equalTo("4"));
+    }
+
+    @Test
+    void should_skip_gap_when_find_changes_given_change_after_gap_older_than_settle_window() {
+        //given
+        EmployeeChange afterGap = change(6, new Date(System.currentTimeMillis() - 5000));
+        given(employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(4, PageRequest.of(0, 100)))
+                .willReturn(Collections.singletonList(afterGap));
+        given(employeeChangeMongoRepository.findFirstByOrderBySeqAsc()).willReturn(Optional.of(change(1, new Date())));
+
+        //when
+        ChangeFeed<EmployeeChange> feed = changeFeedService.findEmployeeChanges("4", 100);
+
+        //then
+        assertThat(feed.getChanges(), contains(afterGap));
+        assertThat(feed.getNext(), equalTo("6"));
+    }
+
+    @Test
+    void should_start_at_oldest_and_stop_before_gap_when_find_changes_given_first_pull() {
+        //given
+        EmployeeChange oldest = change(9, new Date());
+        EmployeeChange afterGap = change(11, new Date());
+        given(employeeChangeMongoRepository.findBySeqGreaterThanOrderBySeqAsc(0, PageRequest.of(0, 100)))
+                .willReturn(Arrays.asList(oldest, afterGap));
+
+        //when
+        ChangeFeed<EmployeeChange> feed = changeFeedService.findEmployeeChanges(null, 100);
+
+        //then
+        assertThat(feed.getChanges(), contains(oldest));
+        assertThat(feed.getNext(), equalTo("9"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_take_one_block_of_sequences_and_one_insert_when_employees_changed_given_change_batch() {
+        //given
+        given(sequenceRepository.next(anyString(), eq(3))).willReturn(20L);
+
+        //when
+        ChangeBatch.run(() -> {
+            for (int i = 0; i < 3; i++) {
+                changeFeedService.onEmployeeChanged(EmployeeChangedEvent.deleted(new ObjectId().toString()));
+            }
+        });
+
+        //then
+        ArgumentCaptor<List<EmployeeChange>> captor = ArgumentCaptor.forClass(List.class);
+        verify(employeeChangeMongoRepository).insert(captor.capture());
+        verify(sequenceRepository, times(1)).next(anyString(), anyInt());
+        assertThat(captor.getValue().stream().map(EmployeeChange::getSeq).collect(Collectors.toList()),
+                contains(20L, 21L, 22L));
+    }
+
+    private static EmployeeChange change(long seq, Date changedAt) {
+        return new EmployeeChange(null, seq, new ObjectId().toString(), ChangeType.DELETED, null, changedAt);
+    }
+}
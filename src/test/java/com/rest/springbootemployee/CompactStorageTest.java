@@ -0,0 +1,240 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.config.StorageConfig;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.CompanyChange;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.entity.EmployeeChange;
+import com.rest.springbootemployee.repository.partitioned.PartitionedMongo;
+import com.rest.springbootemployee.storage.CompactFieldNaming;
+import com.rest.springbootemployee.storage.FieldFormat;
+import com.rest.springbootemployee.storage.FieldMigration;
+import com.rest.springbootemployee.storage.StorageMongoConverter;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class CompactStorageTest {
+    private final Employee susan = new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000);
+
+    @Test
+    void should_store_short_names_and_gender_code_when_write_given_compact_format() {
+        //given
+        StorageMongoConverter converter = converter(FieldFormat.COMPACT);
+
+        //when
+        Document stored = write(converter, susan);
+
+        //then
+        assertThat(stored.keySet(), contains("_id", "n", "a", "g", "s"));
+        assertThat(stored.get("g"), equalTo(2));
+    }
+
+    @Test
+    void should_read_same_employee_when_read_given_compact_document() {
+        //given
+        StorageMongoConverter converter = converter(FieldFormat.COMPACT);
+        Document stored = write(converter, new Employee(null, "Lily", 30, "Other", 8000));
+
+        //when
+        Employee read = converter.read(Employee.class, stored);
+
+        //then
+        assertThat(stored.get("g"), equalTo("Other"));
+        assertThat(read.getName(), equalTo("Lily"));
+        assertThat(read.getAge(), equalTo(30));
+        assertThat(read.getGender(), equalTo("Other"));
+        assertThat(read.getSalary(), equalTo(8000));
+    }
+
+    @Test
+    void should_store_both_layouts_when_write_given_expand_format() {
+        //given
+        StorageMongoConverter converter = converter(FieldFormat.EXPAND);
+
+        //when
+        Document stored = write(converter, susan);
+
+        //then
+        assertThat(stored.keySet(), contains("_id", "name", "age", "gender", "salary", "n", "a", "g", "s"));
+        assertThat(stored.get("gender"), equalTo("Female"));
+        assertThat(stored.get("g"), equalTo(2));
+        assertThat(converter.read(Employee.class, stored).getGender(), equalTo("Female"));
+    }
+
+    @Test
+    void should_store_both_employee_arrays_when_write_given_company_and_dual_format() {
+        //given
+        StorageMongoConverter converter = converter(FieldFormat.DUAL);
+        Company company = new Company(new ObjectId().toString(), "spring", Collections.singletonList(susan));
+
+        //when
+        Document stored = write(converter, company);
+
+        //then
+        assertThat(stored.keySet(), contains("_id", "n", "e", "name", "employees"));
+        Document compact = ((List<?>) stored.get("e")).stream().map(Document.class::cast).findFirst().get();
+        Document legacy = ((List<?>) stored.get("employees")).stream().map(Document.class::cast).findFirst().get();
+        assertThat(compact.keySet(), contains("_id", "n", "a", "g", "s"));
+        assertThat(legacy.keySet(), contains("_id", "name", "age", "gender", "salary"));
+        assertThat(legacy.get("gender"), equalTo("Female"));
+        assertThat(converter(FieldFormat.EXPAND).read(Company.class, stored).getEmployees().get(0).getGender(),
+                equalTo("Female"));
+    }
+
+    @Test
+    void should_map_criteria_to_stored_names_when_query_given_compact_format() {
+        //given
+        StorageMongoConverter converter = converter(FieldFormat.COMPACT);
+        Query query = new Query(Criteria.where("gender").is("Male").and("salary").gte(5000));
+
+        //when
+        Document mapped = new QueryMapper(converter).getMappedObject(query.getQueryObject(),
+                converter.getMappingContext().getPersistentEntity(Employee.class));
+
+        //then
+        assertThat(mapped, equalTo(new Document("g", 1).append("s", new Document("$gte", 5000))));
+    }
+
+    @Test
+    void should_reject_format_when_parse_given_unknown_name() {
+        //when then
+        assertThrows(IllegalArgumentException.class, () -> FieldFormat.of("short"));
+    }
+
+    @Test
+    void should_refuse_to_start_when_dual_given_migration_disabled_and_newest_documents_missing_compact_fields() {
+        //given
+        MongoTemplate mongoTemplate = mongoTemplate();
+        given(mongoTemplate.exists(any(Query.class), eq("storage_migrations"))).willReturn(true);
+        given(mongoTemplate.exists(any(Query.class), eq("employee"))).willReturn(true);
+        FieldMigration migration = migration(mongoTemplate, false);
+
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class, migration::backfillBeforeDual);
+
+        //then
+        assertThat(exception.getMessage(), containsString("[employee]"));
+    }
+
+    @Test
+    void should_refuse_to_start_when_dual_given_migration_disabled_and_no_expand_marker() {
+        //given
+        FieldMigration migration = migration(mongoTemplate(), false);
+
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class, migration::backfillBeforeDual);
+
+        //then
+        assertThat(exception.getMessage(), containsString("[employee, company, employeeChange, companyChange]"));
+    }
+
+    @Test
+    void should_start_checking_only_newest_documents_when_dual_given_expand_marker() {
+        //given
+        MongoTemplate mongoTemplate = mongoTemplate();
+        given(mongoTemplate.exists(any(Query.class), eq("storage_migrations"))).willReturn(true);
+        ObjectId oldestChecked = new ObjectId();
+        given(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("employee")))
+                .willReturn(new Document("_id", oldestChecked));
+        FieldMigration migration = migration(mongoTemplate, false);
+
+        //when
+        assertDoesNotThrow(migration::backfillBeforeDual);
+
+        //then
+        ArgumentCaptor<Query> newest = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(newest.capture(), eq(Document.class), eq("employee"));
+        assertThat(newest.getValue().getSkip(), equalTo(999L));
+        assertThat(newest.getValue().getLimit(), equalTo(1));
+        ArgumentCaptor<Query> pending = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(pending.capture(), eq("employee"));
+        assertThat(pending.getValue().getQueryObject().toJson(), containsString(oldestChecked.toHexString()));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(UpdateDefinition.class), anyString());
+    }
+
+    @Test
+    void should_run_expand_once_and_leave_marker_when_dual_given_migration_enabled_and_no_expand_marker() {
+        //given
+        MongoTemplate mongoTemplate = mongoTemplate();
+        given(mongoTemplate.indexOps("employee")).willReturn(mock(IndexOperations.class));
+        FieldMigration migration = migration(mongoTemplate, true);
+
+        //when
+        migration.backfillBeforeDual();
+
+        //then
+        ArgumentCaptor<Document> marker = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).save(marker.capture(), eq("storage_migrations"));
+        assertThat(marker.getValue().get("_id"), equalTo("expand"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldMigration migration(MongoTemplate mongoTemplate, boolean enabled) {
+        ObjectProvider<PartitionedMongo> noPartitions = mock(ObjectProvider.class);
+        return new FieldMigration(mongoTemplate, noPartitions, FieldFormat.DUAL, enabled, 1000, 0, 1000);
+    }
+
+    private static MongoTemplate mongoTemplate() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        given(mongoTemplate.getCollectionName(Employee.class)).willReturn("employee");
+        given(mongoTemplate.getCollectionName(Company.class)).willReturn("company");
+        given(mongoTemplate.getCollectionName(EmployeeChange.class)).willReturn("employeeChange");
+        given(mongoTemplate.getCollectionName(CompanyChange.class)).willReturn("companyChange");
+        return mongoTemplate;
+    }
+
+    private static Document write(StorageMongoConverter converter, Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+
+    // what StorageConfig builds, without an application context to scan for entities
+    private static StorageMongoConverter converter(FieldFormat fieldFormat) {
+        MongoCustomConversions conversions = new StorageConfig().mongoCustomConversions(fieldFormat);
+        MongoMappingContext context = new MongoMappingContext();
+        context.setInitialEntitySet(new HashSet<>(Arrays.asList(Employee.class, Company.class)));
+        if (fieldFormat.readsCompact()) {
+            context.setFieldNamingStrategy(new CompactFieldNaming());
+        }
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        StorageMongoConverter converter = new StorageMongoConverter(NoOpDbRefResolver.INSTANCE, context, fieldFormat);
+        converter.setCustomConversions(conversions);
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
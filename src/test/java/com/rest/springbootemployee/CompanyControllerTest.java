@@ -3,6 +3,7 @@ package com.rest.springbootemployee;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rest.springbootemployee.entity.Company;
 import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
 import com.rest.springbootemployee.repository.CompanyMongoRepository;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -31,9 +33,21 @@ public class CompanyControllerTest {
     @Autowired
     CompanyMongoRepository companyMongoRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    // the fixtures publish the events the services would, so cached responses, hot records and counts stay current
     @BeforeEach
     public void clearDB() {
+        List<Company> companies = companyMongoRepository.findAll();
         companyMongoRepository.deleteAll();
+        companies.forEach(company -> eventPublisher.publishEvent(CompanyChangedEvent.deleted(company.getId())));
+    }
+
+    private Company save(Company company) {
+        Company saved = companyMongoRepository.save(company);
+        eventPublisher.publishEvent(CompanyChangedEvent.created(saved));
+        return saved;
     }
 
     @Test
@@ -46,8 +60,8 @@ public class CompanyControllerTest {
         List<Employee> employees2 = new ArrayList<>();
         employees2.add(new Employee(String.valueOf(3), "aaa", 20, "Male", 2000));
         employees2.add(new Employee(String.valueOf(4), "bbb", 10, "Male", 8000));
-        companyMongoRepository.save(new Company(new ObjectId().toString(), "Spring", employees1));
-        companyMongoRepository.save(new Company(new ObjectId().toString(), "Boot", employees2));
+        save(new Company(new ObjectId().toString(), "Spring", employees1));
+        save(new Company(new ObjectId().toString(), "Boot", employees2));
 
         //when & then
         client.perform(MockMvcRequestBuilders.get("/companies"))
@@ -77,8 +91,8 @@ public class CompanyControllerTest {
         List<Employee> employees2 = new ArrayList<>();
         employees2.add(new Employee(String.valueOf(3), "aaa", 20, "Male", 2000));
         employees2.add(new Employee(String.valueOf(4), "bbb", 10, "Male", 8000));
-        Company company1 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Spring", employees1));
-        Company company2 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Boot", employees2));
+        Company company1 = save(new Company(new ObjectId().toString(), "Spring", employees1));
+        Company company2 = save(new Company(new ObjectId().toString(), "Boot", employees2));
 
         //when & then
         client.perform(MockMvcRequestBuilders.get("/companies/{id}", company1.getId()))
@@ -124,8 +138,8 @@ public class CompanyControllerTest {
         List<Employee> employees2 = new ArrayList<>();
         employees2.add(new Employee(String.valueOf(3), "aaa", 20, "Male", 2000));
         employees2.add(new Employee(String.valueOf(4), "bbb", 10, "Male", 8000));
-        Company company1 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Spring", employees1));
-        Company company2 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Boot", employees2));
+        Company company1 = save(new Company(new ObjectId().toString(), "Spring", employees1));
+        Company company2 = save(new Company(new ObjectId().toString(), "Boot", employees2));
 
         String newCompanyJson = new ObjectMapper().writeValueAsString(new Company(new ObjectId().toString(), "TETE", null));
 
@@ -149,7 +163,7 @@ public class CompanyControllerTest {
         employees.add(new Employee(new ObjectId().toString(), "lili", 20, "Female", 2000));
         employees.add(new Employee(new ObjectId().toString(), "coco", 10, "Female", 8000));
 
-        Company company = companyMongoRepository.save(new Company(new ObjectId().toString(), "Spring", employees));
+        Company company = save(new Company(new ObjectId().toString(), "Spring", employees));
 
         //when & then
         client.perform(MockMvcRequestBuilders.delete("/companies/{id}", company.getId()))
@@ -175,10 +189,10 @@ public class CompanyControllerTest {
         employees4.add(new Employee(String.valueOf(7), "eee", 20, "Male", 2000));
         employees4.add(new Employee(String.valueOf(8), "fff", 10, "Male", 8000));
 
-        Company company1 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Spring", employees1));
-        Company company2 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Boot", employees2));
-        Company company3 = companyMongoRepository.save(new Company(new ObjectId().toString(), "TET", employees3));
-        Company company4 = companyMongoRepository.save(new Company(new ObjectId().toString(), "POP", employees4));
+        Company company1 = save(new Company(new ObjectId().toString(), "Spring", employees1));
+        Company company2 = save(new Company(new ObjectId().toString(), "Boot", employees2));
+        Company company3 = save(new Company(new ObjectId().toString(), "TET", employees3));
+        Company company4 = save(new Company(new ObjectId().toString(), "POP", employees4));
 
         int page = 2;
         int pageSize = 2;
@@ -186,6 +200,7 @@ public class CompanyControllerTest {
         //when & then
         client.perform(MockMvcRequestBuilders.get("/companies?page={page}&pageSize={pageSize}", page, pageSize))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Total-Count", "4"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(company3.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("TET"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].employees[*].name", containsInAnyOrder("ccc", "ddd")))
@@ -220,10 +235,10 @@ public class CompanyControllerTest {
         employees4.add(new Employee(String.valueOf(7), "eee", 20, "Male", 2000));
         employees4.add(new Employee(String.valueOf(8), "fff", 10, "Male", 8000));
 
-        Company company1 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Spring", employees1));
-        Company company2 = companyMongoRepository.save(new Company(new ObjectId().toString(), "Boot", employees2));
-        Company company3 = companyMongoRepository.save(new Company(new ObjectId().toString(), "TET", employees3));
-        Company company4 = companyMongoRepository.save(new Company(new ObjectId().toString(), "POP", employees4));
+        Company company1 = save(new Company(new ObjectId().toString(), "Spring", employees1));
+        Company company2 = save(new Company(new ObjectId().toString(), "Boot", employees2));
+        Company company3 = save(new Company(new ObjectId().toString(), "TET", employees3));
+        Company company4 = save(new Company(new ObjectId().toString(), "POP", employees4));
 
         String id = company3.getId();
 
@@ -259,4 +274,27 @@ public class CompanyControllerTest {
                 .content(newCompanyJson))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
+
+    @Test
+    public void should_export_roster_as_csv_when_perform_get_export_given_company_with_employees() throws Exception {
+        //given
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(String.valueOf(1), "lili", 20, "Female", 2000));
+        employees.add(new Employee(String.valueOf(2), "coco", 10, "Female", 8000));
+        Company company = save(new Company(new ObjectId().toString(), "Spring", employees));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/companies/{id}/employees/export.csv", company.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        "id,name,age,gender,salary\r\n1,lili,20,Female,2000\r\n2,coco,10,Female,8000\r\n"));
+    }
+
+    @Test
+    public void should_return_404_when_perform_get_export_given_id_not_exist() throws Exception {
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/companies/{id}/employees/export.csv", new ObjectId().toString()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
 }
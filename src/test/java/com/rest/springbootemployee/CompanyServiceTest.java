@@ -1,15 +1,18 @@
 package com.rest.springbootemployee;
 
+import com.rest.springbootemployee.cache.HotRecords;
 import com.rest.springbootemployee.entity.Company;
 import com.rest.springbootemployee.entity.Employee;
 import com.rest.springbootemployee.repository.CompanyMongoRepository;
 import com.rest.springbootemployee.service.CompanyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -30,6 +33,12 @@ public class CompanyServiceTest {
     @Mock
     CompanyMongoRepository companyMongoRepository;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), false, 64, 16, 100000, 60000, 4096, 4);
+
     @InjectMocks
     CompanyService companyService;
 
@@ -165,7 +174,7 @@ public class CompanyServiceTest {
         int page = 2;
         int pageSize = 2;
 
-        given(companyMongoRepository.findAll(PageRequest.of(page-1, pageSize))).willReturn(new PageImpl<>(companies));
+        given(companyMongoRepository.findAllBy(PageRequest.of(page-1, pageSize))).willReturn(companies);
 
         //when
         List<Company> actualCompanies = companyService.findByPage(page, pageSize);
@@ -0,0 +1,52 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.dto.AnalyticsQuery;
+import com.rest.springbootemployee.dto.AnalyticsResult;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.service.EmployeeAnalyticsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class EmployeeAnalyticsServiceTest {
+    EmployeeMongoRepository employeeMongoRepository = mock(EmployeeMongoRepository.class);
+
+    EmployeeAnalyticsService analyticsService = new EmployeeAnalyticsService(employeeMongoRepository,
+            new SimpleMeterRegistry(), 60000, 1, 64);
+
+    @AfterEach
+    void shutdown() {
+        analyticsService.shutdown();
+    }
+
+    @Test
+    void should_answer_unavailable_until_first_snapshot_when_query_given_snapshot_not_built() {
+        //given
+        given(employeeMongoRepository.count()).willReturn(2L);
+        given(employeeMongoRepository.streamAllBy()).willReturn(Stream.of(
+                new Employee("1", "Susan", 22, "Female", 10000), new Employee("2", "Bob", 30, "Male", 8000)));
+
+        //when
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> analyticsService.query(new AnalyticsQuery()));
+        assertThrows(ServiceOverloadedException.class, () -> analyticsService.getSnapshot());
+        analyticsService.refresh();
+        AnalyticsResult result = analyticsService.query(new AnalyticsQuery());
+
+        //then
+        assertThat(exception.getMessage(), equalTo("Analytics snapshot is still being built, retry later"));
+        assertThat(analyticsService.getSnapshot().getRows(), equalTo(2L));
+        assertThat(result.getScanned(), equalTo(2L));
+        assertThat(result.getMatched(), equalTo(2L));
+    }
+}
@@ -0,0 +1,119 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.analytics.ColumnFilter;
+import com.rest.springbootemployee.analytics.ColumnScan;
+import com.rest.springbootemployee.analytics.EmployeeColumns;
+import com.rest.springbootemployee.analytics.GroupTotals;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EmployeeColumnsTest {
+
+    @Test
+    void should_total_salaries_per_gender_when_scan_given_filter_on_age() {
+        //given
+        EmployeeColumns columns = new EmployeeColumns.Builder(0)
+                .add(25, "Male", 1000)
+                .add(35, "Female", 3000)
+                .add(45, "Male", 5000)
+                .add(30, "Female", null)
+                .add(null, "Male", 7000)
+                .build();
+
+        //when
+        List<GroupTotals> groups = new ColumnScan(columns, new ColumnFilter(null, 30, 50, null, null),
+                ColumnScan.GroupBy.GENDER, 10).run(null, 64);
+
+        //then
+        assertThat(groups.stream().map(GroupTotals::getKey).collect(Collectors.toList()), contains("Male", "Female"));
+        assertThat(groups.get(0).getCount(), equalTo(1L));
+        assertThat(groups.get(0).getSalarySum(), equalTo(5000L));
+        assertThat(groups.get(1).getCount(), equalTo(2L));
+        assertThat(groups.get(1).getSalarySum(), equalTo(3000L));
+        assertThat(groups.get(1).getSalaryAverage(), equalTo(3000.0));
+        assertThat(groups.get(1).getAgeAverage(), equalTo(32.5));
+    }
+
+    @Test
+    void should_put_employees_without_age_in_last_band_when_scan_given_group_by_age() {
+        //given
+        EmployeeColumns columns = new EmployeeColumns.Builder(0)
+                .add(21, "Male", 1000)
+                .add(29, "Female", 2000)
+                .add(30, "Male", 3000)
+                .add(null, null, null)
+                .build();
+
+        //when
+        List<GroupTotals> groups = new ColumnScan(columns, new ColumnFilter(null, null, null, null, null),
+                ColumnScan.GroupBy.AGE, 10).run(null, 64);
+
+        //then
+        assertThat(groups.stream().map(GroupTotals::getKey).collect(Collectors.toList()),
+                contains("20-29", "30-39", null));
+        assertThat(groups.get(0).getSalaryMin(), equalTo(1000));
+        assertThat(groups.get(0).getSalaryMax(), equalTo(2000));
+        assertThat(groups.get(2).getSalaryAverage(), nullValue());
+    }
+
+    @Test
+    void should_match_serial_scan_when_scan_given_chunks_on_several_threads() {
+        //given
+        EmployeeColumns.Builder builder = new EmployeeColumns.Builder(0);
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(i % 7 == 0 ? null : 20 + i % 45, i % 3 == 0 ? "Female" : "Male", 1000 + i % 997 * 10);
+        }
+        EmployeeColumns columns = builder.build();
+        ColumnFilter filter = new ColumnFilter("Female", null, null, 2000, 8000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        List<GroupTotals> serial = new ColumnScan(columns, filter, ColumnScan.GroupBy.AGE, 5).run(null, 64);
+        List<GroupTotals> parallel = new ColumnScan(columns, filter, ColumnScan.GroupBy.AGE, 5).run(executor, 100);
+        executor.shutdown();
+
+        //then
+        assertThat(summary(parallel), equalTo(summary(serial)));
+    }
+
+    @Test
+    void should_match_nothing_when_scan_given_unknown_gender() {
+        //given
+        EmployeeColumns columns = new EmployeeColumns.Builder(0).add(25, "Male", 1000).build();
+
+        //when
+        List<GroupTotals> groups = new ColumnScan(columns, new ColumnFilter("Other", null, null, null, null),
+                ColumnScan.GroupBy.NONE, 10).run(null, 64);
+
+        //then
+        assertThat(groups.size(), equalTo(0));
+    }
+
+    @Test
+    void should_reject_query_when_scan_given_age_bucket_below_one() {
+        //given
+        EmployeeColumns columns = new EmployeeColumns.Builder(0).add(25, "Male", 1000).build();
+
+        //when then
+        assertThrows(InvalidQueryException.class, () -> new ColumnScan(columns,
+                new ColumnFilter(null, null, null, null, null), ColumnScan.GroupBy.AGE, 0));
+    }
+
+    private static List<String> summary(List<GroupTotals> groups) {
+        return groups.stream()
+                .map(group -> group.getKey() + ":" + group.getCount() + ":" + group.getSalarySum() + ":"
+                        + group.getSalaryMin() + ":" + group.getSalaryMax() + ":" + group.getAgeAverage())
+                .collect(Collectors.toList());
+    }
+}
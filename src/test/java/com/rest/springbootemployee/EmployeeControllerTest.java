@@ -1,7 +1,19 @@
 package com.rest.springbootemployee;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.rest.springbootemployee.admission.AdmissionControl;
+import com.rest.springbootemployee.admission.Priority;
+import com.rest.springbootemployee.converter.EntityProtobufHttpMessageConverter;
+import com.rest.springbootemployee.converter.ProtobufCodec;
+import com.rest.springbootemployee.entity.Company;
 import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.CompanyChangedEvent;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
 import com.rest.springbootemployee.repository.EmployeeMongoRepository;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,12 +21,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -30,16 +51,44 @@ public class EmployeeControllerTest {
     @Autowired
     EmployeeMongoRepository employeeMongoRepository;
 
+    @Autowired
+    AdmissionControl admissionControl;
+
+    @Autowired
+    CompanyMongoRepository companyMongoRepository;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    // the fixtures write through the repositories, so they publish the events the services would: the response
+    // cache, hot records and total counts run as shipped and must not serve what an earlier test stored
     @BeforeEach
     void cleanRepository() {
+        List<Employee> employees = employeeMongoRepository.findAll();
+        List<Company> companies = companyMongoRepository.findAll();
         employeeMongoRepository.deleteAll();
+        companyMongoRepository.deleteAll();
+        employees.forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.deleted(employee)));
+        companies.forEach(company -> eventPublisher.publishEvent(CompanyChangedEvent.deleted(company.getId())));
+    }
+
+    private Employee save(Employee employee) {
+        Employee saved = employeeMongoRepository.save(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(saved));
+        return saved;
+    }
+
+    private Company save(Company company) {
+        Company saved = companyMongoRepository.save(company);
+        eventPublisher.publishEvent(CompanyChangedEvent.created(saved));
+        return saved;
     }
 
     @Test
     void should_get_all_employees_when_perform_get_given_employees() throws Exception {
         //given
         String employeeId = new ObjectId().toString();
-        employeeMongoRepository.save(new Employee(employeeId, "Susan", 22, "Female", 10000));
+        save(new Employee(employeeId, "Susan", 22, "Female", 10000));
 
         //when & then
         client.perform(MockMvcRequestBuilders.get("/employees"))
@@ -56,8 +105,8 @@ public class EmployeeControllerTest {
     void should_get_employee_by_id_when_perform_get_by_id_given_employees() throws Exception {
         //given
         String employeeId = new ObjectId().toString();
-        Employee susan = employeeMongoRepository.save(new Employee(employeeId, "Susan", 22, "Female", 10000));
-        employeeMongoRepository.save(new Employee(new ObjectId().toString(), "Bob", 23, "Male", 9000));
+        Employee susan = save(new Employee(employeeId, "Susan", 22, "Female", 10000));
+        save(new Employee(new ObjectId().toString(), "Bob", 23, "Male", 9000));
 
         //when & then
         client.perform(MockMvcRequestBuilders.get("/employees/{id}", employeeId))
@@ -72,9 +121,9 @@ public class EmployeeControllerTest {
     void should_return_employees_when_perform_get_by_gender_given_employees() throws Exception {
         //given
         String employeeId = new ObjectId().toString();
-        employeeMongoRepository.save(new Employee(employeeId, "Susan", 22, "Female", 10000));
-        employeeMongoRepository.save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
-        employeeMongoRepository.save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
+        save(new Employee(employeeId, "Susan", 22, "Female", 10000));
+        save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
+        save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
 
         //when & then
         client.perform(MockMvcRequestBuilders.get("/employees?gender={gender}", "Male")) // http status 200
@@ -90,13 +139,14 @@ public class EmployeeControllerTest {
     void should_return_employees_when_perform_get_by_page_given_employees() throws Exception {
         //given
         String employeeId = new ObjectId().toString();
-        employeeMongoRepository.save(new Employee(employeeId, "Susan", 22, "Female", 10000));
-        employeeMongoRepository.save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
-        employeeMongoRepository.save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
+        save(new Employee(employeeId, "Susan", 22, "Female", 10000));
+        save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
+        save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
 
         //when & then
         client.perform(MockMvcRequestBuilders.get("/employees?page={page}&pageSize={pageSize}", 1, 2)) // http status 200
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Total-Count", "3"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$", hasSize(2)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[*].name", containsInAnyOrder("Susan", "Leo")))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[*].age", containsInAnyOrder(22, 25)))
@@ -104,11 +154,93 @@ public class EmployeeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[*].gender", containsInAnyOrder("Female", "Male")));
     }
 
+    @Test
+    void should_return_gender_page_with_gender_total_when_perform_get_by_page_given_gender() throws Exception {
+        //given
+        save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+        save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
+        save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
+        save(new Employee(new ObjectId().toString(), "Tom", 30, "Male", 7000));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/employees?gender={gender}&page={page}&pageSize={pageSize}", "Male", 2, 2))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Total-Count", "3"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Tom"));
+    }
+
+    @Test
+    void should_return_sorted_employees_with_cursor_when_perform_get_by_range_given_employees() throws Exception {
+        //given
+        save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+        save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
+        save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
+        save(new Employee(new ObjectId().toString(), "Tom", 40, "Male", 3000));
+
+        //when & then
+        String response = client.perform(MockMvcRequestBuilders.get("/employees")
+                        .param("gender", "Male")
+                        .param("minSalary", "5000")
+                        .param("sortBy", "salary")
+                        .param("direction", "desc")
+                        .param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].name").value("Leo"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = new ObjectMapper().readTree(response).get("nextCursor").asText();
+
+        client.perform(MockMvcRequestBuilders.get("/employees")
+                        .param("gender", "Male")
+                        .param("minSalary", "5000")
+                        .param("sortBy", "salary")
+                        .param("direction", "desc")
+                        .param("limit", "1")
+                        .param("cursor", cursor))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].name").value("Robert"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void should_return_400_when_perform_get_by_range_given_unknown_sort_field() throws Exception {
+        client.perform(MockMvcRequestBuilders.get("/employees").param("sortBy", "name"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void should_return_only_changes_after_token_when_perform_get_changes_given_mutations() throws Exception {
+        //given
+        Employee newEmployee = new Employee(null, "Jim", 20, "Male", 55000);
+        String response = client.perform(MockMvcRequestBuilders.get("/employees/changes"))
+                .andReturn().getResponse().getContentAsString();
+        String since = new ObjectMapper().readTree(response).get("next").asText();
+
+        client.perform(MockMvcRequestBuilders.post("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(newEmployee)));
+        String id = employeeMongoRepository.findAll().get(0).getId();
+        client.perform(MockMvcRequestBuilders.delete("/employees/{id}", id));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/employees/changes").param("since", since))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes", hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].type").value("CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].employee.name").value("Jim"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].type").value("DELETED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].employeeId").value(id))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next").isString());
+    }
+
     @Test
     void should_return_updated_employee_when_perform_put_given_employee() throws Exception {
         //given
         String employeeId = new ObjectId().toString();
-        Employee employee = employeeMongoRepository.save(new Employee(employeeId, "Susan", 22, "Female", 10000));
+        Employee employee = save(new Employee(employeeId, "Susan", 22, "Female", 10000));
         Employee updateEmployee = new Employee(employeeId, "Jim", 20, "Male", 55000);
 
         String updateEmployeeJson = new ObjectMapper().writeValueAsString(updateEmployee);
@@ -163,7 +295,7 @@ public class EmployeeControllerTest {
     void should_return_204_when_perform_delete_given_employee() throws Exception {
         //given
         String employeeId = new ObjectId().toString();
-        Employee createdEmployee = employeeMongoRepository.save(new Employee(employeeId, "Jim", 20, "Male", 55000));
+        Employee createdEmployee = save(new Employee(employeeId, "Jim", 20, "Male", 55000));
 
         //when
         client.perform(MockMvcRequestBuilders.delete("/employees/{id}" , employeeId))
@@ -197,4 +329,191 @@ public class EmployeeControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    void should_return_cbor_when_perform_get_given_accept_cbor() throws Exception {
+        //given
+        save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+
+        //when
+        byte[] body = client.perform(MockMvcRequestBuilders.get("/employees").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //then
+        JsonNode employees = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(employees.get(0).get("name").asText(), equalTo("Susan"));
+    }
+
+    @Test
+    void should_return_protobuf_when_perform_get_given_accept_protobuf() throws Exception {
+        //given
+        save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+
+        //when
+        byte[] body = client.perform(MockMvcRequestBuilders.get("/employees").accept(EntityProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(EntityProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //then
+        List<Employee> employees = ProtobufCodec.readEmployees(CodedInputStream.newInstance(body));
+        assertThat(employees.get(0).getName(), equalTo("Susan"));
+        assertThat(employees.get(0).getSalary(), equalTo(10000));
+    }
+
+    @Test
+    void should_create_employee_when_perform_post_given_protobuf_body() throws Exception {
+        //given
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(body);
+        ProtobufCodec.writeEmployee(out, new Employee(null, "Susan", 22, "Female", 10000));
+        out.flush();
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.post("/employees")
+                        .contentType(EntityProtobufHttpMessageConverter.PROTOBUF)
+                        .content(body.toByteArray()))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Susan"));
+    }
+
+    @Test
+    void should_stream_csv_when_perform_get_export_given_employees() throws Exception {
+        //given
+        String employeeId = new ObjectId().toString();
+        save(new Employee(employeeId, "Lee, Susan", 22, "Female", 10000));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/employees/export.csv"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition", "attachment; filename=\"employees.csv\""))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        "id,name,age,gender,salary\r\n" + employeeId + ",\"Lee, Susan\",22,Female,10000\r\n"));
+    }
+
+    @Test
+    void should_gzip_csv_when_perform_get_export_given_accept_encoding_gzip() throws Exception {
+        //given
+        save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+
+        //when
+        byte[] body = client.perform(MockMvcRequestBuilders.get("/employees/export.csv")
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //then
+        BufferedReader csv = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8));
+        assertThat(csv.readLine(), equalTo("id,name,age,gender,salary"));
+        assertThat(csv.readLine(), endsWith(",Susan,22,Female,10000"));
+    }
+
+    @Test
+    void should_shed_with_retry_after_when_perform_get_all_given_endpoint_at_its_limit() throws Exception {
+        //given
+        String employeeId = new ObjectId().toString();
+        save(new Employee(employeeId, "Susan", 22, "Female", 10000));
+        List<AdmissionControl.Permit> held = new ArrayList<>();
+        AdmissionControl.Permit permit;
+        while ((permit = admissionControl.tryAcquire("EmployeeController.getAll", Priority.LOW)) != null) {
+            held.add(permit);
+        }
+
+        //when & then
+        try {
+            client.perform(MockMvcRequestBuilders.get("/employees"))
+                    .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                    .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.code").value(503));
+            client.perform(MockMvcRequestBuilders.get("/employees/{id}", employeeId))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        } finally {
+            held.forEach(heldPermit -> heldPermit.release(false));
+        }
+    }
+
+    @Test
+    void should_return_bad_request_when_perform_get_given_malformed_request_timeout_header() throws Exception {
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/employees").header("X-Request-Timeout-Ms", "soon"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("X-Request-Timeout-Ms must be a number of milliseconds"));
+    }
+
+    @Test
+    void should_adjust_company_employees_and_embedded_copies_when_perform_post_adjust_salary_given_company_filter() throws Exception {
+        //given
+        Employee susan = save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+        Employee bob = save(new Employee(new ObjectId().toString(), "Bob", 23, "Male", 9000));
+        Employee lily = save(new Employee(new ObjectId().toString(), "Lily", 24, "Female", 8000));
+        Company company = save(new Company(new ObjectId().toString(), "spring",
+                Arrays.asList(new Employee(susan.getId(), "Susan", 22, "Female", 10000),
+                        new Employee(bob.getId(), "Bob", 23, "Male", 9000))));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.post("/employees/_adjust-salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"companyId\":\"" + company.getId() + "\",\"minSalary\":9500,\"percent\":10}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.matched").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.modified").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.companiesModified").value(1));
+        assertThat(employeeMongoRepository.findById(susan.getId()).get().getSalary(), equalTo(11000));
+        assertThat(employeeMongoRepository.findById(bob.getId()).get().getSalary(), equalTo(9000));
+        assertThat(employeeMongoRepository.findById(lily.getId()).get().getSalary(), equalTo(8000));
+        List<Employee> copies = companyMongoRepository.findById(company.getId()).get().getEmployees();
+        assertThat(copies.get(0).getSalary(), equalTo(11000));
+        assertThat(copies.get(1).getSalary(), equalTo(9000));
+    }
+
+    @Test
+    void should_return_bad_request_when_perform_post_adjust_salary_given_percent_and_amount() throws Exception {
+        //when & then
+        client.perform(MockMvcRequestBuilders.post("/employees/_adjust-salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"percent\":5,\"amount\":100}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("exactly one of percent or amount is required"));
+    }
+
+    @Test
+    void should_return_bad_request_and_keep_salaries_when_perform_post_adjust_salary_given_result_past_int_range() throws Exception {
+        //given
+        Employee susan = save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+        Employee rich = save(new Employee(new ObjectId().toString(), "Rich", 40, "Male", Integer.MAX_VALUE - 10));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.post("/employees/_adjust-salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"percent\":5}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("the adjustment would take salaries above "
+                        + "2147483647 or below 0; narrow minSalary/maxSalary or set a cap or floor"));
+        client.perform(MockMvcRequestBuilders.post("/employees/_adjust-salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":-20000}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        assertThat(employeeMongoRepository.findById(susan.getId()).get().getSalary(), equalTo(10000));
+        assertThat(employeeMongoRepository.findById(rich.getId()).get().getSalary(), equalTo(Integer.MAX_VALUE - 10));
+    }
+
+    @Test
+    void should_raise_up_to_cap_when_perform_post_adjust_salary_given_percent_and_int_max_cap() throws Exception {
+        //given
+        Employee susan = save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+        Employee rich = save(new Employee(new ObjectId().toString(), "Rich", 40, "Male", Integer.MAX_VALUE - 10));
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.post("/employees/_adjust-salary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"percent\":50,\"cap\":" + Integer.MAX_VALUE + "}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.modified").value(2));
+        assertThat(employeeMongoRepository.findById(susan.getId()).get().getSalary(), equalTo(15000));
+        assertThat(employeeMongoRepository.findById(rich.getId()).get().getSalary(), equalTo(Integer.MAX_VALUE));
+    }
 }
@@ -0,0 +1,49 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.converter.EmployeeCsvWriter;
+import com.rest.springbootemployee.entity.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class EmployeeCsvWriterTest {
+
+    @Test
+    void should_quote_and_escape_fields_when_write_given_special_characters() throws IOException {
+        //given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        EmployeeCsvWriter.write(Arrays.asList(
+                new Employee("1", "Lee, Susan", 22, "Female", 10000),
+                new Employee("2", "Leo \"The Lion\"", null, null, null),
+                new Employee("3", "line\nbreak", 0, "", -1)).iterator(), out);
+
+        //then
+        assertThat(out.toString(StandardCharsets.UTF_8.name()), equalTo("id,name,age,gender,salary\r\n"
+                + "1,\"Lee, Susan\",22,Female,10000\r\n"
+                + "2,\"Leo \"\"The Lion\"\"\",,,\r\n"
+                + "3,\"line\nbreak\",0,,-1\r\n"));
+    }
+
+    @Test
+    void should_keep_formula_like_text_as_text_when_write_given_leading_formula_characters() throws IOException {
+        //given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long rows = EmployeeCsvWriter.write(Arrays.asList(
+                new Employee("1", "=HYPERLINK(\"x\")", 22, "@Male", 10000), null).iterator(), out);
+
+        //then
+        assertThat(rows, equalTo(1L));
+        assertThat(out.toString(StandardCharsets.UTF_8.name()), equalTo("id,name,age,gender,salary\r\n"
+                + "1,\"'=HYPERLINK(\"\"x\"\")\",22,\"'@Male\",10000\r\n"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeRangeRepositoryImpl;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+@SpringBootTest
+public class EmployeeIndexesTest {
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    EmployeeMongoRepository employeeMongoRepository;
+
+    @BeforeEach
+    void insertEmployees() {
+        employeeMongoRepository.deleteAll();
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            employees.add(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 45,
+                    i % 2 == 0 ? "Male" : "Female", 1000 + (i * 37) % 9000));
+        }
+        employeeMongoRepository.insert(employees);
+    }
+
+    @Test
+    void should_page_in_index_order_without_sort_stage_when_find_by_range_given_sort_field_filters_and_cursor() {
+        for (EmployeeSortField sortField : EmployeeSortField.values()) {
+            for (String gender : new String[]{null, "Female"}) {
+                for (String direction : new String[]{"asc", "desc"}) {
+                    for (RangeCursor after : new RangeCursor[]{null, new RangeCursor(30, new ObjectId().toString())}) {
+                        //given
+                        EmployeeRangeQuery rangeQuery = new EmployeeRangeQuery();
+                        rangeQuery.setGender(gender);
+                        rangeQuery.setDirection(direction);
+                        if (sortField == EmployeeSortField.SALARY) {
+                            rangeQuery.setMinAge(25);
+                            rangeQuery.setMaxAge(55);
+                        } else {
+                            rangeQuery.setMinSalary(2000);
+                            rangeQuery.setMaxSalary(8000);
+                        }
+
+                        //when
+                        List<String> stages = winningPlanStages(
+                                EmployeeRangeRepositoryImpl.query(rangeQuery, sortField, after, 21));
+
+                        //then
+                        assertThat(sortField + " " + gender + " " + direction + " " + after, stages, hasItem("IXSCAN"));
+                        assertThat(sortField + " " + gender + " " + direction + " " + after, stages, not(hasItem("SORT")));
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> winningPlanStages(Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Employee.class);
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class))
+                .find(mapper.getMappedObject(query.getQueryObject(), entity))
+                .sort(mapper.getMappedSort(query.getSortObject(), entity))
+                .limit(query.getLimit())
+                .explain();
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan"), stages);
+        return stages;
+    }
+
+    private static void collectStages(Object plan, List<String> stages) {
+        if (plan instanceof Document) {
+            Document stage = (Document) plan;
+            if (stage.get("stage") instanceof String) {
+                stages.add(stage.getString("stage"));
+            }
+            stage.values().forEach(value -> collectStages(value, stages));
+        } else if (plan instanceof List) {
+            ((List<?>) plan).forEach(value -> collectStages(value, stages));
+        }
+    }
+}
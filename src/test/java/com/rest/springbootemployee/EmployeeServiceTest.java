@@ -1,25 +1,51 @@
 package com.rest.springbootemployee;
 
+import com.rest.springbootemployee.cache.HotRecords;
+import com.rest.springbootemployee.dto.CursorPage;
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
 import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeType;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.InvalidQueryException;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
 import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryCompanyRepository;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeRepository;
 import com.rest.springbootemployee.service.EmployeeService;
+import com.rest.springbootemployee.service.EmployeeWriteBehind;
+import com.rest.springbootemployee.service.PageReadAhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,9 +55,27 @@ public class EmployeeServiceTest {
     @Mock
     EmployeeMongoRepository employeeMongoRepository;
 
-    @InjectMocks
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    EmployeeWriteBehind employeeWriteBehind;
+
+    @Mock
+    CompanyMongoRepository companyMongoRepository;
+
+    @Mock
+    PageReadAhead pageReadAhead;
+
     EmployeeService employeeService;
 
+    @BeforeEach
+    void setUp() {
+        employeeService = new EmployeeService(employeeMongoRepository, eventPublisher, employeeWriteBehind,
+                companyMongoRepository, 10000, pageReadAhead,
+                new HotRecords(new SimpleMeterRegistry(), false, 64, 16, 100000, 60000, 4096, 4));
+    }
+
     @Test
     void should_return_all_employees_when_find_all_given_employees() {
         //given
@@ -119,17 +163,58 @@ public class EmployeeServiceTest {
         int page = 1;
         int pageSize = 2;
         final PageRequest pageRequest = PageRequest.of(page - 1, pageSize);
-        given(employeeMongoRepository.findAll(pageRequest))
-                .willReturn(new PageImpl(employees));
+        given(employeeMongoRepository.findAllBy(pageRequest))
+                .willReturn(employees);
 
         // when
         List<Employee> result = employeeService.findByPage(page, pageSize);
 
         // should
-        verify(employeeMongoRepository).findAll(pageRequest);
+        verify(employeeMongoRepository).findAllBy(pageRequest);
         assertThat(result, equalTo(employees));
     }
 
+    @Test
+    void should_return_next_cursor_when_find_by_range_given_more_employees_than_limit() {
+        // given
+        Employee employee1 = new Employee(new ObjectId().toString(), "Susan", 22, "Female", 7000);
+        Employee employee2 = new Employee(new ObjectId().toString(), "Lisa", 20, "Female", 8000);
+        EmployeeRangeQuery query = new EmployeeRangeQuery();
+        query.setSortBy("salary");
+        query.setLimit(1);
+        given(employeeMongoRepository.findByRange(query, EmployeeSortField.SALARY, null, 2))
+                .willReturn(new ArrayList<>(Arrays.asList(employee1, employee2)));
+
+        // when
+        CursorPage<Employee> result = employeeService.findByRange(query);
+
+        // should
+        assertThat(result.getItems(), hasSize(1));
+        assertThat(result.getItems().get(0), equalTo(employee1));
+        RangeCursor cursor = RangeCursor.decode(result.getNextCursor());
+        assertThat(cursor.getValue(), equalTo(7000));
+        assertThat(cursor.getId(), equalTo(employee1.getId()));
+    }
+
+    @Test
+    void should_return_no_cursor_when_find_by_range_given_last_page() {
+        // given
+        Employee employee = new Employee(new ObjectId().toString(), "Susan", 22, "Female", 7000);
+        RangeCursor after = new RangeCursor(30, new ObjectId().toString());
+        EmployeeRangeQuery query = new EmployeeRangeQuery();
+        query.setSortBy("age");
+        query.setCursor(after.encode());
+        given(employeeMongoRepository.findByRange(any(), eq(EmployeeSortField.AGE), any(), eq(EmployeeRangeQuery.DEFAULT_LIMIT + 1)))
+                .willReturn(new ArrayList<>(Arrays.asList(employee)));
+
+        // when
+        CursorPage<Employee> result = employeeService.findByRange(query);
+
+        // should
+        assertThat(result.getItems(), hasSize(1));
+        assertThat(result.getNextCursor(), nullValue());
+    }
+
     @Test
     void should_call_delete_with_specific_id_when_delete_given_an_id() {
         // given
@@ -142,6 +227,23 @@ public class EmployeeServiceTest {
         verify(employeeMongoRepository).deleteById(employeeId);
     }
 
+    @Test
+    void should_publish_deleted_employee_when_delete_given_stored_employee() {
+        //given
+        Employee employee = new Employee("1", "Susan", 22, "Female", 7000);
+        given(employeeMongoRepository.findById("1")).willReturn(Optional.of(employee));
+
+        //when
+        employeeService.delete("1");
+
+        //then
+        ArgumentCaptor<EmployeeChangedEvent> event = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType(), equalTo(ChangeType.DELETED));
+        assertThat(event.getValue().getEmployeeId(), equalTo("1"));
+        assertThat(event.getValue().getDeleted().getGender(), equalTo("Female"));
+    }
+
     @Test
     void should_call_create_with_specific_employee_when_create_given_an_employee() {
         // given
@@ -157,4 +259,117 @@ public class EmployeeServiceTest {
         verify(employeeMongoRepository).save(employee);
         assertThat(result, equalTo(createdEmployee));
     }
+
+    @Test
+    void should_enqueue_instead_of_save_when_create_given_write_behind_enabled() {
+        // given
+        Employee employee = new Employee(null, "Susan", 22, "Female", 7000);
+        Employee queuedEmployee = new Employee(new ObjectId().toString(), "Susan", 22, "Female", 7000);
+        given(employeeWriteBehind.isEnabled()).willReturn(true);
+        given(employeeWriteBehind.enqueue(employee)).willReturn(queuedEmployee);
+
+        // when
+        Employee result = employeeService.create(employee);
+
+        // should
+        verify(employeeMongoRepository, never()).save(employee);
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThat(result, equalTo(queuedEmployee));
+    }
+
+    @Test
+    void should_write_csv_rows_and_close_cursor_when_export_csv_given_employee_stream() throws IOException {
+        //given
+        AtomicBoolean closed = new AtomicBoolean();
+        given(employeeMongoRepository.streamAllBy()).willReturn(Stream.of(
+                new Employee("1", "Susan", 22, "Female", 10000),
+                new Employee("2", "Leo", 25, "Male", 9000)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long rows = employeeService.exportCsv(out);
+
+        //then
+        assertThat(rows, equalTo(2L));
+        assertThat(out.toString("UTF-8"), equalTo("id,name,age,gender,salary\r\n1,Susan,22,Female,10000\r\n2,Leo,25,Male,9000\r\n"));
+        assertThat(closed.get(), equalTo(true));
+    }
+
+    @Test
+    void should_reject_without_touching_repository_when_adjust_salaries_given_percent_and_amount() {
+        //given
+        SalaryAdjustment adjustment = new SalaryAdjustment();
+        adjustment.setPercent(5.0);
+        adjustment.setAmount(100);
+
+        //when
+        InvalidQueryException exception = assertThrows(InvalidQueryException.class,
+                () -> employeeService.adjustSalaries(adjustment));
+
+        //then
+        assertThat(exception.getMessage(), equalTo("exactly one of percent or amount is required"));
+        verify(employeeMongoRepository, never()).adjustSalaries(any(), any());
+    }
+
+    @Test
+    void should_reject_without_adjusting_when_adjust_salaries_given_amount_past_int_range_for_some_employee() {
+        //given
+        InMemoryEmployeeRepository employees = new InMemoryEmployeeRepository();
+        EmployeeService service = new EmployeeService(employees, eventPublisher, employeeWriteBehind,
+                new InMemoryCompanyRepository(), 10000, pageReadAhead,
+                new HotRecords(new SimpleMeterRegistry(), false, 64, 16, 100000, 60000, 4096, 4));
+        Employee susan = employees.save(new Employee(null, "Susan", 22, "Female", 10000));
+        Employee rich = employees.save(new Employee(null, "Rich", 40, "Male", Integer.MAX_VALUE - 10));
+        SalaryAdjustment raise = new SalaryAdjustment();
+        raise.setAmount(100);
+        SalaryAdjustment cut = new SalaryAdjustment();
+        cut.setAmount(-20000);
+
+        //when
+        InvalidQueryException raiseException = assertThrows(InvalidQueryException.class, () -> service.adjustSalaries(raise));
+        InvalidQueryException cutException = assertThrows(InvalidQueryException.class, () -> service.adjustSalaries(cut));
+
+        //then
+        assertThat(raiseException.getMessage(), equalTo("the adjustment would take salaries above 2147483647 or below 0; "
+                + "narrow minSalary/maxSalary or set a cap or floor"));
+        assertThat(cutException.getMessage(), equalTo(raiseException.getMessage()));
+        assertThat(employees.findById(susan.getId()).get().getSalary(), equalTo(10000));
+        assertThat(employees.findById(rich.getId()).get().getSalary(), equalTo(Integer.MAX_VALUE - 10));
+    }
+
+    @Test
+    void should_adjust_when_adjust_salaries_given_cap_keeping_raise_within_int_range() {
+        //given
+        InMemoryEmployeeRepository employees = new InMemoryEmployeeRepository();
+        EmployeeService service = new EmployeeService(employees, eventPublisher, employeeWriteBehind,
+                new InMemoryCompanyRepository(), 10000, pageReadAhead,
+                new HotRecords(new SimpleMeterRegistry(), false, 64, 16, 100000, 60000, 4096, 4));
+        Employee susan = employees.save(new Employee(null, "Susan", 22, "Female", 10000));
+        Employee rich = employees.save(new Employee(null, "Rich", 40, "Male", Integer.MAX_VALUE - 10));
+        SalaryAdjustment raise = new SalaryAdjustment();
+        raise.setPercent(50.0);
+        raise.setCap(Integer.MAX_VALUE);
+
+        //when
+        service.adjustSalaries(raise);
+
+        //then
+        assertThat(employees.findById(susan.getId()).get().getSalary(), equalTo(15000));
+        assertThat(employees.findById(rich.getId()).get().getSalary(), equalTo(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void should_reject_when_adjust_salaries_given_min_int_amount() {
+        //given
+        SalaryAdjustment adjustment = new SalaryAdjustment();
+        adjustment.setAmount(Integer.MIN_VALUE);
+
+        //when
+        InvalidQueryException exception = assertThrows(InvalidQueryException.class,
+                () -> employeeService.adjustSalaries(adjustment));
+
+        //then
+        assertThat(exception.getMessage(), equalTo("amount must be between -2147483647 and 2147483647"));
+        verify(employeeMongoRepository, never()).adjustSalaries(any(), any());
+    }
 }
@@ -0,0 +1,245 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.cache.ResponseCache;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeType;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.service.EmployeeWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeWriteBehindTest {
+    ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_insert_all_queued_employees_in_batches_when_enqueue_given_flush_durability() throws Exception {
+        //given
+        EmployeeMongoRepository repository = mock(EmployeeMongoRepository.class);
+        EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(repository, eventPublisher, true, "flush", 50, 20, 1000, 100);
+        writeBehind.start();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<Employee>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Employee employee = new Employee(null, "employee" + i, 20, "Male", 1000);
+            results.add(clients.submit(() -> writeBehind.enqueue(employee)));
+        }
+        for (Future<Employee> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS).getId(), notNullValue());
+        }
+        writeBehind.shutdown();
+        clients.shutdown();
+
+        //then
+        ArgumentCaptor<List<Employee>> batches = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).insert(batches.capture());
+        int inserted = 0;
+        for (List<Employee> batch : batches.getAllValues()) {
+            assertThat(batch.size() <= 50, equalTo(true));
+            inserted += batch.size();
+        }
+        assertThat(inserted, equalTo(200));
+    }
+
+    @Test
+    void should_reject_write_when_enqueue_given_full_queue() throws Exception {
+        //given
+        EmployeeMongoRepository repository = mock(EmployeeMongoRepository.class);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        }).when(repository).insert(anyList());
+        EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(repository, eventPublisher, true, "enqueue", 1, 1, 1, 10);
+        writeBehind.start();
+        writeBehind.enqueue(new Employee(null, "first", 20, "Male", 1000));
+        flushing.await(5, TimeUnit.SECONDS);
+        writeBehind.enqueue(new Employee(null, "second", 20, "Male", 1000));
+
+        //when & then
+        assertThrows(ServiceOverloadedException.class,
+                () -> writeBehind.enqueue(new Employee(null, "third", 20, "Male", 1000)));
+        release.countDown();
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void should_publish_created_event_only_after_insert_when_enqueue_given_enqueue_durability() throws Exception {
+        //given
+        EmployeeMongoRepository repository = mock(EmployeeMongoRepository.class);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inserting.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        }).when(repository).insert(anyList());
+        EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(repository, eventPublisher, true, "enqueue", 10, 1, 10, 10);
+        writeBehind.start();
+
+        //when
+        Employee queued = writeBehind.enqueue(new Employee(null, "Susan", 22, "Female", 10000));
+        inserting.await(5, TimeUnit.SECONDS);
+
+        //then
+        verify(eventPublisher, never()).publishEvent(any());
+        release.countDown();
+        ArgumentCaptor<EmployeeChangedEvent> event = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(eventPublisher, timeout(5000)).publishEvent(event.capture());
+        assertThat(event.getValue().getType(), equalTo(ChangeType.CREATED));
+        assertThat(event.getValue().getEmployeeId(), equalTo(queued.getId()));
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void should_invalidate_cached_lists_when_batch_persisted_given_list_cached_while_write_queued() throws Exception {
+        //given
+        EmployeeMongoRepository repository = mock(EmployeeMongoRepository.class);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inserting.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        }).when(repository).insert(anyList());
+        ResponseCache responseCache = new ResponseCache(new SimpleMeterRegistry(), 1, 64, 60000);
+        EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(repository,
+                event -> responseCache.onEmployeeChanged((EmployeeChangedEvent) event), true, "enqueue", 10, 1, 10, 10);
+        writeBehind.start();
+        writeBehind.enqueue(new Employee(null, "Susan", 22, "Female", 10000));
+        inserting.await(5, TimeUnit.SECONDS);
+        long generation = responseCache.generation(ResponseCache.EMPLOYEES);
+        responseCache.put(ResponseCache.EMPLOYEES, "/employees", generation,
+                new ResponseCache.Entry("application/json", Collections.emptyList(), "[]".getBytes(StandardCharsets.UTF_8)));
+
+        //when
+        release.countDown();
+        writeBehind.shutdown();
+
+        //then
+        assertThat(responseCache.generation(ResponseCache.EMPLOYEES), equalTo(generation + 1));
+        assertThat(responseCache.get(ResponseCache.EMPLOYEES, "/employees"), nullValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_insert_every_acknowledged_write_when_shutdown_given_concurrent_enqueues() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            //given
+            EmployeeMongoRepository repository = mock(EmployeeMongoRepository.class);
+            Set<String> inserted = ConcurrentHashMap.newKeySet();
+            doAnswer(invocation -> {
+                ((List<Employee>) invocation.getArgument(0)).forEach(employee -> inserted.add(employee.getId()));
+                return invocation.getArgument(0);
+            }).when(repository).insert(anyList());
+            EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(repository, eventPublisher, true, "enqueue", 50, 1, 10000, 100);
+            writeBehind.start();
+            ExecutorService clients = Executors.newFixedThreadPool(4);
+            Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 4; i++) {
+                clients.execute(() -> {
+                    try {
+                        while (true) {
+                            acknowledged.add(writeBehind.enqueue(new Employee(null, "employee", 20, "Male", 1000)).getId());
+                        }
+                    } catch (ServiceOverloadedException shuttingDown) {
+                        // admission closed
+                    }
+                });
+            }
+            Thread.sleep(5);
+
+            //when
+            writeBehind.shutdown();
+            clients.shutdown();
+            clients.awaitTermination(5, TimeUnit.SECONDS);
+
+            //then
+            assertThat(inserted.containsAll(acknowledged), equalTo(true));
+        }
+    }
+
+    @Test
+    void should_fail_only_rejected_write_and_publish_stored_ones_when_flush_given_batch_insert_stopped_at_duplicate_id() throws Exception {
+        //given
+        EmployeeMongoRepository repository = mock(EmployeeMongoRepository.class);
+        Employee storedByBatch = new Employee("000000000000000000000001", "Susan", 22, "Female", 10000);
+        Employee takenId = new Employee("000000000000000000000002", "Bob", 30, "Male", 8000);
+        Employee afterFailure = new Employee("000000000000000000000003", "Lily", 25, "Female", 9000);
+        doThrow(new DuplicateKeyException("E11000")).when(repository).insert(anyList());
+        doAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            if (employee.getId().equals(afterFailure.getId())) {
+                return employee;
+            }
+            throw new DuplicateKeyException("E11000");
+        }).when(repository).insert(any(Employee.class));
+        given(repository.findById(storedByBatch.getId())).willReturn(Optional.of(
+                new Employee(storedByBatch.getId(), "Susan", 22, "Female", 10000)));
+        given(repository.findById(takenId.getId())).willReturn(Optional.of(
+                new Employee(takenId.getId(), "Tom", 40, "Male", 5000)));
+        EmployeeWriteBehind writeBehind = new EmployeeWriteBehind(repository, eventPublisher, true, "flush", 3, 500, 10, 100);
+        writeBehind.start();
+        ExecutorService clients = Executors.newFixedThreadPool(3);
+
+        //when
+        Future<Employee> first = clients.submit(() -> writeBehind.enqueue(storedByBatch));
+        Future<Employee> second = clients.submit(() -> writeBehind.enqueue(takenId));
+        Future<Employee> third = clients.submit(() -> writeBehind.enqueue(afterFailure));
+
+        //then
+        assertThat(first.get(10, TimeUnit.SECONDS).getId(), equalTo(storedByBatch.getId()));
+        assertThat(third.get(10, TimeUnit.SECONDS).getId(), equalTo(afterFailure.getId()));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertThat(failure.getCause().getCause(), instanceOf(DuplicateKeyException.class));
+        ArgumentCaptor<EmployeeChangedEvent> events = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().stream().map(EmployeeChangedEvent::getEmployeeId).collect(Collectors.toSet()),
+                containsInAnyOrder(storedByBatch.getId(), afterFailure.getId()));
+        writeBehind.shutdown();
+        clients.shutdown();
+    }
+}
@@ -0,0 +1,97 @@
+package com.rest.springbootemployee;
+
+import com.google.protobuf.UnknownFieldSet;
+import com.rest.springbootemployee.converter.EntityProtobufHttpMessageConverter;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EntityProtobufHttpMessageConverterTest {
+
+    EntityProtobufHttpMessageConverter converter = new EntityProtobufHttpMessageConverter();
+
+    Type employeeList = new ParameterizedTypeReference<List<Employee>>() { }.getType();
+
+    @Test
+    void should_write_schema_field_numbers_when_write_given_employee() throws IOException {
+        //given
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        //when
+        converter.write(new Employee("63f0a1", "Susan", 0, "Female", null), Employee.class,
+                EntityProtobufHttpMessageConverter.PROTOBUF, output);
+
+        //then
+        Map<Integer, UnknownFieldSet.Field> fields = UnknownFieldSet.parseFrom(output.getBodyAsBytes()).asMap();
+        assertThat(fields.get(1).getLengthDelimitedList().get(0).toStringUtf8(), equalTo("63f0a1"));
+        assertThat(fields.get(2).getLengthDelimitedList().get(0).toStringUtf8(), equalTo("Susan"));
+        assertThat(fields.get(3).getVarintList(), contains(0L));
+        assertThat(fields.get(4).getLengthDelimitedList().get(0).toStringUtf8(), equalTo("Female"));
+        assertThat(fields.containsKey(5), equalTo(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_round_trip_when_read_given_written_employee_list() throws IOException {
+        //given
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        List<Employee> employees = Arrays.asList(new Employee("1", "Susan", 22, "Female", 10000),
+                new Employee("2", "Leo", null, "Male", 9000));
+        converter.write(employees, employeeList, EntityProtobufHttpMessageConverter.PROTOBUF, output);
+
+        //when
+        List<Employee> read = (List<Employee>) converter.read(employeeList, null,
+                new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        //then
+        assertThat(read.size(), equalTo(2));
+        assertThat(read.get(0).getName(), equalTo("Susan"));
+        assertThat(read.get(0).getSalary(), equalTo(10000));
+        assertThat(read.get(1).getAge(), nullValue());
+        assertThat(read.get(1).getGender(), equalTo("Male"));
+    }
+
+    @Test
+    void should_keep_embedded_employees_when_read_given_written_company() throws IOException {
+        //given
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        Company company = new Company("c1", "Spring", Arrays.asList(new Employee("1", "Susan", 22, "Female", 10000),
+                new Employee("2", "Leo", 25, "Male", 9000)));
+        converter.write(company, Company.class, EntityProtobufHttpMessageConverter.PROTOBUF, output);
+
+        //when
+        Company read = (Company) converter.read(Company.class, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        //then
+        assertThat(read.getName(), equalTo("Spring"));
+        assertThat(read.getEmployees().size(), equalTo(2));
+        assertThat(read.getEmployees().get(1).getName(), equalTo("Leo"));
+        assertThat(read.getEmployees().get(1).getAge(), equalTo(25));
+    }
+
+    @Test
+    void should_only_write_mapped_types_when_can_write_given_declared_types() {
+        //given
+        Type names = new ParameterizedTypeReference<List<String>>() { }.getType();
+
+        //when & then
+        assertThat(converter.canWrite(employeeList, List.class, EntityProtobufHttpMessageConverter.PROTOBUF), equalTo(true));
+        assertThat(converter.canWrite(names, List.class, EntityProtobufHttpMessageConverter.PROTOBUF), equalTo(false));
+        assertThat(converter.canWrite(employeeList, List.class, MediaType.APPLICATION_JSON), equalTo(false));
+    }
+}
@@ -0,0 +1,102 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.ServiceOverloadedException;
+import com.rest.springbootemployee.service.EventStreamService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EventStreamServiceTest {
+
+    EventStreamService eventStreamService = new EventStreamService(new ObjectMapper(), 4, 60000, 2, 1, 60000, 60000);
+
+    @AfterEach
+    void shutdown() {
+        eventStreamService.shutdown();
+    }
+
+    @Test
+    void should_reject_subscription_when_subscribe_given_max_subscribers_reached() {
+        //given
+        eventStreamService.subscribeEmployees();
+        eventStreamService.subscribeCompany(new ObjectId().toString());
+
+        //when & then
+        assertThrows(ServiceOverloadedException.class, () -> eventStreamService.subscribeEmployees());
+        assertThat(eventStreamService.getSubscriberCount(), equalTo(2));
+    }
+
+    @Test
+    void should_release_subscriber_slots_when_shutdown_given_subscribers() {
+        //given
+        eventStreamService.subscribeEmployees();
+        eventStreamService.onEmployeeChanged(EmployeeChangedEvent.created(
+                new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000)));
+
+        //when
+        eventStreamService.shutdown();
+
+        //then
+        assertThat(eventStreamService.getSubscriberCount(), equalTo(0));
+    }
+
+    @Test
+    void should_keep_delivering_to_other_subscribers_when_publish_given_subscriber_whose_send_blocks() throws Exception {
+        //given
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        AtomicInteger emitters = new AtomicInteger();
+        EventStreamService service = new EventStreamService(new ObjectMapper(), 4, 60000, 10, 1, 60000, 100) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMs) {
+                boolean stuck = emitters.incrementAndGet() == 1;
+                return new SseEmitter(timeoutMs) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        if (stuck) {
+                            // a client that stopped reading: the write returns when the container gives up on it
+                            try {
+                                unblock.await();
+                            } catch (InterruptedException exception) {
+                                Thread.currentThread().interrupt();
+                            }
+                            throw new IOException("write timed out");
+                        }
+                        delivered.countDown();
+                    }
+                };
+            }
+        };
+        service.subscribeEmployees();
+        service.onEmployeeChanged(EmployeeChangedEvent.created(
+                new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000)));
+        service.subscribeEmployees();
+
+        //when
+        service.onEmployeeChanged(EmployeeChangedEvent.created(
+                new Employee(new ObjectId().toString(), "Bob", 23, "Male", 9000)));
+
+        //then
+        try {
+            assertThat(delivered.await(5, TimeUnit.SECONDS), equalTo(true));
+            assertThat(service.getEvictedCount(), equalTo(1));
+            assertThat(service.getSubscriberCount(), equalTo(1));
+        } finally {
+            unblock.countDown();
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.file.FileEmployeeRepository;
+import com.rest.springbootemployee.repository.file.FileStore;
+import com.rest.springbootemployee.repository.file.RecordLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FileStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_replay_puts_and_deletes_when_open_given_existing_log() throws IOException {
+        //given
+        RecordLog recordLog = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> { });
+        recordLog.awaitDurable(recordLog.append("1", bytes("Susan")));
+        recordLog.append("2", bytes("Leo"));
+        recordLog.append("1", bytes("Susan Lee"));
+        recordLog.awaitDurable(recordLog.append("2", null));
+        recordLog.close();
+
+        //when
+        Map<String, String> state = replay();
+
+        //then
+        assertThat(state.entrySet(), contains(new AbstractMap.SimpleEntry<>("1", "Susan Lee")));
+    }
+
+    @Test
+    void should_return_when_await_durable_given_region_dropped_by_compaction_and_close() throws IOException {
+        //given
+        RecordLog recordLog = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> { });
+        long beforeCompaction = recordLog.append("1", bytes("Susan"));
+        recordLog.compact(Arrays.asList(new AbstractMap.SimpleEntry<>("1", bytes("Susan"))));
+        long beforeClose = recordLog.append("2", bytes("Leo"));
+
+        //when
+        recordLog.close();
+        recordLog.awaitDurable(beforeCompaction);
+        recordLog.awaitDurable(beforeClose);
+
+        //then
+        assertThat(replay().keySet(), containsInAnyOrder("1", "2"));
+    }
+
+    @Test
+    void should_drop_torn_tail_and_keep_appending_when_open_given_crash_mid_record() throws IOException {
+        //given
+        RecordLog recordLog = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> { });
+        recordLog.append("1", bytes("Susan"));
+        recordLog.awaitDurable(recordLog.append("2", bytes("Leo")));
+        recordLog.close();
+        Path log = directory.resolve("employees-0.log");
+        long intact = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // length and checksum of a record whose body never made it to disk
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 1, 0, 1}));
+        }
+
+        //when
+        RecordLog reopened = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> { });
+        reopened.awaitDurable(reopened.append("3", bytes("Bob")));
+        reopened.close();
+
+        //then
+        assertThat(Files.size(log) > intact, equalTo(true));
+        assertThat(replay().keySet(), contains("1", "2", "3"));
+    }
+
+    @Test
+    void should_replace_old_generations_when_compact_given_snapshot_of_live_state() throws IOException {
+        //given
+        RecordLog recordLog = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> { });
+        for (int i = 0; i < 100; i++) {
+            recordLog.append("1", bytes("Susan" + i));
+        }
+        Map<String, byte[]> live = new LinkedHashMap<>();
+        live.put("1", bytes("Susan99"));
+
+        //when
+        recordLog.compact(live.entrySet());
+        recordLog.awaitDurable(recordLog.append("2", bytes("Leo")));
+        recordLog.close();
+
+        //then
+        assertThat(Arrays.asList(fileNames()), containsInAnyOrder("employees-1.log", "employees-1.snapshot"));
+        assertThat(replay().values(), contains("Susan99", "Leo"));
+    }
+
+    @Test
+    void should_ignore_unfinished_snapshot_when_open_given_crash_during_compaction() throws IOException {
+        //given
+        RecordLog recordLog = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> { });
+        recordLog.awaitDurable(recordLog.append("1", bytes("Susan")));
+        recordLog.close();
+        // the compactor rotated to generation 1 and died before renaming its snapshot into place
+        Files.createFile(directory.resolve("employees-1.log"));
+        Files.write(directory.resolve("employees-1.snapshot.tmp"), new byte[]{0, 0, 0, 9});
+
+        //when
+        Map<String, String> state = replay();
+
+        //then
+        assertThat(state.values(), contains("Susan"));
+    }
+
+    @Test
+    void should_restore_employees_and_gender_index_when_reopen_given_file_repository() throws IOException, InterruptedException {
+        //given
+        FileStore fileStore = fileStore();
+        FileEmployeeRepository repository = new FileEmployeeRepository(fileStore);
+        Employee susan = repository.save(new Employee(null, "Susan", 22, "Female", 10000));
+        Employee leo = repository.save(new Employee(null, "Leo", 25, "Male", 9000));
+        repository.save(new Employee(null, "Bob", 30, "Male", 8000));
+        susan.setSalary(12000);
+        repository.save(susan);
+        repository.deleteById(leo.getId());
+        fileStore.close();
+
+        //when
+        FileStore reopenedStore = fileStore();
+        FileEmployeeRepository reopened = new FileEmployeeRepository(reopenedStore);
+        reopenedStore.close();
+
+        //then
+        assertThat(reopened.count(), equalTo(2L));
+        assertThat(reopened.findById(susan.getId()).get().getSalary(), equalTo(12000));
+        assertThat(reopened.findByGender("Male").stream().map(Employee::getName).collect(Collectors.toList()), contains("Bob"));
+    }
+
+    private Map<String, String> replay() throws IOException {
+        Map<String, String> state = new LinkedHashMap<>();
+        RecordLog recordLog = RecordLog.open(directory, "employees", 4096, true, (id, payload) -> {
+            if (payload == null) {
+                state.remove(id);
+            } else {
+                state.put(id, new String(payload, StandardCharsets.UTF_8));
+            }
+        });
+        recordLog.close();
+        return state;
+    }
+
+    private FileStore fileStore() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+        return new FileStore(objectMapper, directory.toString(), 1, true, 256);
+    }
+
+    private String[] fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).toArray(String[]::new);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,183 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.cache.HotKeyTracker;
+import com.rest.springbootemployee.cache.HotRecords;
+import com.rest.springbootemployee.dto.HotKeyReport;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+public class HotRecordsTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Employee> loader = id -> {
+        loads.incrementAndGet();
+        return new Employee(id, "Susan", 22, "Female", 10000);
+    };
+
+    @Test
+    void should_keep_heaviest_keys_when_record_given_skewed_stream() {
+        //given
+        HotKeyTracker tracker = new HotKeyTracker(3, 10, 1_000_000, 1024, 4);
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            tracker.record(i % 2 == 0 ? "a" : i % 4 == 1 ? "b" : i % 8 == 3 ? "c" : "cold" + i);
+        }
+
+        //then
+        assertThat(tracker.hottest().stream().map(Map.Entry::getKey).collect(Collectors.toList()),
+                contains("a", "b", "c"));
+        assertThat(tracker.isHot("a"), equalTo(true));
+        assertThat(tracker.isHot("cold7"), equalTo(false));
+    }
+
+    @Test
+    void should_count_every_access_and_keep_heaviest_keys_when_record_given_concurrent_threads() throws Exception {
+        //given
+        HotKeyTracker tracker = new HotKeyTracker(3, 10, 1_000_000, 1024, 4);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+
+        //when
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            threads.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record(i % 2 == 0 ? "a" : i % 4 == 1 ? "b" : i % 8 == 3 ? "c" : "cold" + offset + "-" + i);
+                }
+            });
+        }
+        threads.shutdown();
+        threads.awaitTermination(30, TimeUnit.SECONDS);
+
+        //then
+        assertThat(tracker.getAccesses(), equalTo(80_000L));
+        assertThat(tracker.hottest().stream().map(Map.Entry::getKey).collect(Collectors.toList()),
+                contains("a", "b", "c"));
+        assertThat(tracker.isHot("cold0-7"), equalTo(false));
+    }
+
+    @Test
+    void should_cool_down_keys_when_record_given_traffic_moved_to_other_keys() {
+        //given
+        HotKeyTracker tracker = new HotKeyTracker(2, 10, 100, 1024, 4);
+        for (int i = 0; i < 100; i++) {
+            tracker.record("yesterday");
+        }
+
+        //when
+        for (int i = 0; i < 500; i++) {
+            tracker.record(i % 2 == 0 ? "today" : "tonight");
+        }
+
+        //then
+        assertThat(tracker.isHot("yesterday"), equalTo(false));
+        assertThat(tracker.isHot("today"), equalTo(true));
+    }
+
+    @Test
+    void should_answer_from_memory_when_find_given_hot_id() {
+        //given
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, 8, 3, 100000, 60000, 1024, 4);
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            hotRecords.employee("1", loader);
+        }
+
+        //then
+        assertThat(loads.get(), equalTo(3));
+        HotKeyReport report = hotRecords.report().get(0);
+        assertThat(report.getPinned(), equalTo(1));
+        assertThat(report.getTop().get(0).getCount(), equalTo(10));
+        assertThat(report.getTop().get(0).isPinned(), equalTo(true));
+    }
+
+    @Test
+    void should_serve_written_record_when_find_given_pinned_employee_updated() {
+        //given
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, 8, 1, 100000, 60000, 1024, 4);
+        hotRecords.employee("1", loader);
+
+        //when
+        hotRecords.onEmployeeChanged(EmployeeChangedEvent.updated(new Employee("1", "Susan", 23, "Female", 12000)));
+        Employee found = hotRecords.employee("1", loader);
+
+        //then
+        assertThat(loads.get(), equalTo(1));
+        assertThat(found.getSalary(), equalTo(12000));
+    }
+
+    @Test
+    void should_load_again_when_find_given_pinned_employee_deleted() {
+        //given
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, 8, 1, 100000, 60000, 1024, 4);
+        hotRecords.employee("1", loader);
+
+        //when
+        hotRecords.onEmployeeChanged(EmployeeChangedEvent.deleted("1"));
+        hotRecords.employee("1", loader);
+
+        //then
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    void should_load_again_when_find_given_pinned_employee_older_than_max_age() {
+        //given
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, 8, 1, 100000, 0, 1024, 4);
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            hotRecords.employee("1", loader);
+        }
+
+        //then
+        assertThat(loads.get(), equalTo(5));
+        assertThat(hotRecords.report().get(0).getPinned(), equalTo(1));
+    }
+
+    @Test
+    void should_keep_pinned_record_when_caller_changes_found_employee_given_hot_id() {
+        //given
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, 8, 1, 100000, 60000, 1024, 4);
+        hotRecords.employee("1", loader).setSalary(1);
+
+        //when
+        hotRecords.employee("1", loader).setSalary(2);
+        Employee found = hotRecords.employee("1", loader);
+
+        //then
+        assertThat(loads.get(), equalTo(1));
+        assertThat(found.getSalary(), equalTo(10000));
+    }
+
+    @Test
+    void should_keep_pinned_record_when_event_employee_changed_afterwards_given_pinned_employee_updated() {
+        //given
+        HotRecords hotRecords = new HotRecords(new SimpleMeterRegistry(), true, 8, 1, 100000, 60000, 1024, 4);
+        hotRecords.employee("1", loader);
+        Employee updated = new Employee("1", "Susan", 23, "Female", 12000);
+        hotRecords.onEmployeeChanged(EmployeeChangedEvent.updated(updated));
+
+        //when
+        updated.setSalary(1);
+        Employee found = hotRecords.employee("1", loader);
+
+        //then
+        assertThat(found.getSalary(), equalTo(12000));
+    }
+}
@@ -0,0 +1,34 @@
+package com.rest.springbootemployee;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ImportControllerTest {
+    @Autowired
+    MockMvc client;
+
+    @Test
+    void should_return_400_when_perform_post_given_unknown_format() throws Exception {
+        //when & then
+        client.perform(MockMvcRequestBuilders.post("/admin/imports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"file\": \"employees.xml\", \"format\": \"xml\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("format must be ndjson or csv"));
+    }
+
+    @Test
+    void should_return_404_when_perform_get_by_id_given_unknown_import() throws Exception {
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/admin/imports/{id}", "unknown"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+}
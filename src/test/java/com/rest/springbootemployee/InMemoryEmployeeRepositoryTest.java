@@ -0,0 +1,193 @@
+package com.rest.springbootemployee;
+
+import com.mongodb.client.result.UpdateResult;
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.dto.SalaryAdjustment;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.inmemory.InMemoryEmployeeRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class InMemoryEmployeeRepositoryTest {
+
+    InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+
+    @Test
+    void should_assign_id_and_return_copies_when_save_given_new_employee() {
+        //given
+        Employee employee = repository.save(new Employee(null, "Susan", 22, "Female", 10000));
+
+        //when
+        Employee found = repository.findById(employee.getId()).get();
+        found.setSalary(1);
+
+        //then
+        assertThat(employee.getId(), notNullValue());
+        assertThat(repository.findById(employee.getId()).get().getSalary(), equalTo(10000));
+    }
+
+    @Test
+    void should_follow_gender_changes_when_find_by_gender_given_updated_and_deleted_employees() {
+        //given
+        Employee susan = repository.save(new Employee(null, "Susan", 22, "Female", 10000));
+        Employee leo = repository.save(new Employee(null, "Leo", 25, "Male", 9000));
+        Employee bob = repository.save(new Employee(null, "Bob", 30, "Male", 8000));
+
+        //when
+        susan.setGender("Male");
+        repository.save(susan);
+        repository.deleteById(bob.getId());
+
+        //then
+        assertThat(names(repository.findByGender("Male")), containsInAnyOrder("Susan", "Leo"));
+        assertThat(repository.findByGender("Female").size(), equalTo(0));
+    }
+
+    @Test
+    void should_page_in_id_order_when_find_all_given_page_request() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            repository.save(new Employee(new ObjectId().toString(), "employee" + i, 20, "Male", 1000));
+        }
+
+        //when
+        List<Employee> page = repository.findAll(PageRequest.of(1, 2)).toList();
+
+        //then
+        assertThat(names(page), contains("employee2", "employee3"));
+    }
+
+    @Test
+    void should_return_sorted_range_after_cursor_when_find_by_range_given_filters() {
+        //given
+        Employee leo = repository.save(new Employee(new ObjectId().toString(), "Leo", 25, "Male", 9000));
+        repository.save(new Employee(new ObjectId().toString(), "Robert", 20, "Male", 8000));
+        repository.save(new Employee(new ObjectId().toString(), "Tom", 40, "Male", 3000));
+        repository.save(new Employee(new ObjectId().toString(), "Susan", 22, "Female", 10000));
+        EmployeeRangeQuery query = new EmployeeRangeQuery();
+        query.setGender("Male");
+        query.setMinSalary(5000);
+        query.setDirection("desc");
+
+        //when
+        List<Employee> firstPage = repository.findByRange(query, EmployeeSortField.SALARY, null, 1);
+        List<Employee> secondPage = repository.findByRange(query, EmployeeSortField.SALARY,
+                new RangeCursor(leo.getSalary(), leo.getId()), 5);
+
+        //then
+        assertThat(names(firstPage), contains("Leo"));
+        assertThat(names(secondPage), contains("Robert"));
+    }
+
+    private List<String> names(List<Employee> employees) {
+        return employees.stream().map(Employee::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void should_raise_matching_salaries_up_to_cap_when_adjust_salaries_given_percent_and_filter() {
+        //given
+        Employee low = repository.save(new Employee(null, "Susan", 22, "Female", 1000));
+        Employee nearCap = repository.save(new Employee(null, "Lily", 30, "Female", 1950));
+        Employee aboveCap = repository.save(new Employee(null, "Anna", 40, "Female", 2500));
+        Employee male = repository.save(new Employee(null, "Bob", 23, "Male", 1000));
+        repository.save(new Employee(null, "Nobody", 23, "Female", null));
+        SalaryAdjustment adjustment = new SalaryAdjustment();
+        adjustment.setGender("Female");
+        adjustment.setPercent(5.0);
+        adjustment.setCap(2000);
+
+        //when
+        List<String> ids = repository.findIdsForSalaryAdjustment(adjustment, null);
+        UpdateResult result = repository.adjustSalaries(adjustment, ids);
+
+        //then
+        assertThat(ids, containsInAnyOrder(low.getId(), nearCap.getId(), aboveCap.getId()));
+        assertThat(result.getMatchedCount(), equalTo(3L));
+        assertThat(result.getModifiedCount(), equalTo(2L));
+        assertThat(repository.findById(low.getId()).get().getSalary(), equalTo(1050));
+        assertThat(repository.findById(nearCap.getId()).get().getSalary(), equalTo(2000));
+        assertThat(repository.findById(aboveCap.getId()).get().getSalary(), equalTo(2500));
+        assertThat(repository.findById(male.getId()).get().getSalary(), equalTo(1000));
+    }
+
+    @Test
+    void should_leave_salary_when_adjust_salaries_given_result_past_int_range() {
+        //given
+        Employee susan = repository.save(new Employee(null, "Susan", 22, "Female", 10000));
+        Employee rich = repository.save(new Employee(null, "Rich", 40, "Female", Integer.MAX_VALUE - 10));
+        SalaryAdjustment adjustment = new SalaryAdjustment();
+        adjustment.setAmount(100);
+
+        //when
+        UpdateResult result = repository.adjustSalaries(adjustment, Arrays.asList(susan.getId(), rich.getId()));
+
+        //then
+        assertThat(result.getMatchedCount(), equalTo(1L));
+        assertThat(repository.findById(susan.getId()).get().getSalary(), equalTo(10100));
+        assertThat(repository.findById(rich.getId()).get().getSalary(), equalTo(Integer.MAX_VALUE - 10));
+    }
+
+    @Test
+    void should_match_like_mongo_when_find_all_given_example_with_string_matcher_and_ignore_case() {
+        //given
+        Employee susan = repository.save(new Employee(null, "Susan", 22, "Female", 10000));
+        repository.save(new Employee(null, "Susanna", 30, "Male", 9000));
+        repository.save(new Employee(null, "Lily", 25, "Female", 8000));
+        Example<Employee> example = Example.of(new Employee(null, "SU", null, "female", null),
+                ExampleMatcher.matching().withIgnoreCase().withMatcher("name", ExampleMatcher.GenericPropertyMatchers.contains()));
+
+        //when
+        List<Employee> found = repository.findAll(example);
+
+        //then
+        assertThat(names(found), contains("Susan"));
+        assertThat(repository.findOne(example).get().getId(), equalTo(susan.getId()));
+        assertThat(repository.count(example), equalTo(1L));
+        assertThat(repository.exists(Example.of(new Employee(null, "Bob", null, null, null))), equalTo(false));
+        assertThat(names(repository.findAll(Example.of(new Employee(null, "Lily", null, "Male", null),
+                ExampleMatcher.matchingAny()))), contains("Susanna", "Lily"));
+    }
+
+    @Test
+    void should_sort_page_and_project_when_find_by_given_example() {
+        //given
+        repository.save(new Employee(null, "Susan", 22, "Female", 10000));
+        repository.save(new Employee(null, "Lily", 25, "Female", 8000));
+        repository.save(new Employee(null, "Anna", 40, "Female", 12000));
+        repository.save(new Employee(null, "Bob", 30, "Male", 9000));
+        Example<Employee> females = Example.of(new Employee(null, null, null, "Female", null));
+
+        //when
+        Page<Employee> page = repository.findAll(females, PageRequest.of(1, 2, Sort.by("salary").descending()));
+        List<NameOnly> projected = repository.findBy(females, query -> query.sortBy(Sort.by("age")).as(NameOnly.class).all());
+        Employee salaryOnly = repository.findBy(females, query -> query.sortBy(Sort.by("salary")).project("salary").firstValue());
+
+        //then
+        assertThat(names(page.getContent()), contains("Lily"));
+        assertThat(page.getTotalElements(), equalTo(3L));
+        assertThat(projected.stream().map(NameOnly::getName).collect(Collectors.toList()), contains("Susan", "Lily", "Anna"));
+        assertThat(salaryOnly.getSalary(), equalTo(8000));
+        assertThat(salaryOnly.getName(), equalTo(null));
+    }
+
+    interface NameOnly {
+        String getName();
+    }
+}
@@ -0,0 +1,48 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.springbootemployee.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.hasSize;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("inmemory")
+public class InMemoryProfileTest {
+    @Autowired
+    MockMvc client;
+
+    @Test
+    void should_serve_employee_endpoints_without_mongo_when_perform_requests_given_inmemory_profile() throws Exception {
+        //given
+        String json = new ObjectMapper().writeValueAsString(new Employee(null, "Jim", 20, "Male", 55000));
+        String response = client.perform(MockMvcRequestBuilders.post("/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = new ObjectMapper().readTree(response).get("id").asText();
+
+        //when & then
+        client.perform(MockMvcRequestBuilders.get("/employees/{id}", id))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Jim"));
+        client.perform(MockMvcRequestBuilders.get("/employees?gender={gender}", "Male"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$", hasSize(1)));
+        client.perform(MockMvcRequestBuilders.get("/employees/changes"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes", hasSize(1)));
+        client.perform(MockMvcRequestBuilders.delete("/employees/{id}", id))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+        client.perform(MockMvcRequestBuilders.get("/employees/{id}", id))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+}
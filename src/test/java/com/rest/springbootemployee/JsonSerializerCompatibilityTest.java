@@ -0,0 +1,85 @@
+package com.rest.springbootemployee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rest.springbootemployee.advice.ErrorResponse;
+import com.rest.springbootemployee.converter.CompanyJsonSerializer;
+import com.rest.springbootemployee.converter.EmployeeJsonSerializer;
+import com.rest.springbootemployee.converter.ErrorResponseJsonSerializer;
+import com.rest.springbootemployee.dto.CursorPage;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+@JsonTest
+public class JsonSerializerCompatibilityTest {
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    // the bean serializer the @JsonComponent serializers replace
+    ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().build();
+
+    List<Object> samples = Arrays.asList(
+            new Employee("63f0a1", "Susan", 22, "Female", 10000),
+            new Employee(null, "Zo\u00eb \"Z\" \\ \u0001 \ud83d\ude00", null, null, null),
+            new Employee("1", "", 0, "", Integer.MIN_VALUE),
+            new Company("c1", "Spring", Arrays.asList(new Employee("1", "Susan", 22, "Female", 10000), null)),
+            new Company("c2", null, null),
+            new Company("c3", "Empty", Collections.emptyList()),
+            new ErrorResponse(404, "Employee not found"),
+            new ErrorResponse(400, null),
+            new CursorPage<>(Collections.singletonList(new Employee("1", "Leo", 25, "Male", 9000)), "NTAwMDox"));
+
+    @Test
+    void should_use_json_components_when_find_serializer_given_boot_object_mapper() throws Exception {
+        //when
+        SerializerProvider provider = objectMapper.getSerializerProviderInstance();
+
+        //then
+        assertThat(provider.findValueSerializer(Employee.class), instanceOf(EmployeeJsonSerializer.class));
+        assertThat(provider.findValueSerializer(Company.class), instanceOf(CompanyJsonSerializer.class));
+        assertThat(provider.findValueSerializer(ErrorResponse.class), instanceOf(ErrorResponseJsonSerializer.class));
+    }
+
+    @Test
+    void should_write_same_json_as_bean_serializer_when_serialize_given_entities() throws Exception {
+        for (Object sample : samples) {
+            //when
+            String specialized = objectMapper.writeValueAsString(sample);
+
+            //then
+            assertThat(specialized, equalTo(reflective.writeValueAsString(sample)));
+        }
+    }
+
+    @Test
+    void should_write_same_cbor_as_bean_serializer_when_serialize_given_entities() throws Exception {
+        //given
+        ObjectMapper cbor = objectMapperBuilder.factory(new CBORFactory()).build();
+        ObjectMapper reflectiveCbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+        for (Object sample : samples) {
+            //when
+            byte[] specialized = cbor.writeValueAsBytes(sample);
+
+            //then
+            assertThat(specialized, equalTo(reflectiveCbor.writeValueAsBytes(sample)));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.rest.springbootemployee;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.rest.springbootemployee.config.MongoPoolMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class MongoPoolMetricsTest {
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+    @Test
+    void should_count_checked_out_connections_and_time_waits_when_check_out_given_pool_events() throws Exception {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoPoolMetrics metrics = new MongoPoolMetrics(registry, 0.9);
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId, poolOf(4)));
+        ConnectionId first = new ConnectionId(serverId, 1, null);
+        ConnectionId second = new ConnectionId(serverId, 2, null);
+
+        //when
+        metrics.connectionCreated(new ConnectionCreatedEvent(first));
+        metrics.connectionCreated(new ConnectionCreatedEvent(second));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        Thread.sleep(2);
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(first));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(second));
+        metrics.connectionCheckedIn(new ConnectionCheckedInEvent(first));
+
+        //then
+        assertThat(registry.get("mongo.pool.size").gauge().value(), equalTo(2.0));
+        assertThat(registry.get("mongo.pool.checked-out").gauge().value(), equalTo(1.0));
+        assertThat(registry.get("mongo.pool.wait-queue").gauge().value(), equalTo(0.0));
+        assertThat(registry.get("mongo.pool.saturation").gauge().value(), equalTo(0.25));
+        assertThat(registry.get("mongo.pool.checkout.wait").timer().count(), equalTo(2L));
+        assertThat(registry.get("mongo.pool.checkout.wait").timer().max(TimeUnit.MILLISECONDS),
+                greaterThan(1.0));
+    }
+
+    @Test
+    void should_count_failures_by_reason_when_check_out_failed_given_pool_timeout() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoPoolMetrics metrics = new MongoPoolMetrics(registry, 0.9);
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId, poolOf(1)));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+
+        //when
+        metrics.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT));
+
+        //then
+        assertThat(registry.get("mongo.pool.checkout.failures").tag("reason", "timeout").counter().count(),
+                equalTo(1.0));
+        assertThat(registry.get("mongo.pool.wait-queue").gauge().value(), equalTo(0.0));
+        assertThat(registry.get("mongo.pool.checkout.wait").timer().count(), equalTo(1L));
+    }
+
+    @Test
+    void should_tag_meters_and_compute_saturation_per_pool_when_check_out_given_two_clients_on_one_server() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoPoolMetrics metrics = new MongoPoolMetrics(registry, 0.9);
+        ServerId otherClient = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId, poolOf(4)));
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(otherClient, poolOf(10)));
+
+        //when
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(serverId, 1, null)));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(serverId, 2, null)));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(otherClient));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(otherClient, 1, null)));
+
+        //then
+        assertThat(registry.get("mongo.pool.saturation").tag("cluster.id", serverId.getClusterId().getValue())
+                .tag("server.address", "localhost:27017").gauge().value(), equalTo(0.5));
+        assertThat(registry.get("mongo.pool.saturation").tag("cluster.id", otherClient.getClusterId().getValue())
+                .gauge().value(), equalTo(0.1));
+        assertThat(registry.get("mongo.pool.checked-out").tag("cluster.id", otherClient.getClusterId().getValue())
+                .gauge().value(), equalTo(1.0));
+    }
+
+    @Test
+    void should_remove_pool_meters_when_pool_closed_given_closed_client() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoPoolMetrics metrics = new MongoPoolMetrics(registry, 0.9);
+        metrics.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId, poolOf(4)));
+        metrics.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId));
+        metrics.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT));
+
+        //when
+        metrics.connectionPoolClosed(new ConnectionPoolClosedEvent(serverId));
+
+        //then
+        assertThat(registry.getMeters(), empty());
+    }
+
+    private static ConnectionPoolSettings poolOf(int maxSize) {
+        return ConnectionPoolSettings.builder().maxSize(maxSize).build();
+    }
+}
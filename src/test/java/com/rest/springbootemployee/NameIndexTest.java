@@ -0,0 +1,130 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.search.NameIndex;
+import com.rest.springbootemployee.search.NameMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class NameIndexTest {
+
+    @Test
+    void should_rank_exact_then_prefix_then_token_prefix_then_substring_when_search_given_names() {
+        //given
+        NameIndex index = new NameIndex(1024 * 1024);
+        index.put("1", "Annabel Smith");
+        index.put("2", "Ann");
+        index.put("3", "Joanna Lee");
+        index.put("4", "Mary Ann Jones");
+        index.put("5", "Bob");
+
+        //when
+        List<NameMatch> matches = index.search("ann", 10);
+
+        //then
+        assertThat(names(matches), contains("Ann", "Annabel Smith", "Mary Ann Jones", "Joanna Lee"));
+    }
+
+    @Test
+    void should_match_every_query_token_as_word_prefix_when_search_given_multi_word_query() {
+        //given
+        NameIndex index = new NameIndex(1024 * 1024);
+        index.put("1", "Susan Miller");
+        index.put("2", "Susan Clark");
+
+        //when
+        List<NameMatch> matches = index.search("sus mil", 10);
+
+        //then
+        assertThat(names(matches), contains("Susan Miller"));
+    }
+
+    @Test
+    void should_reflect_rename_and_delete_when_search_given_updated_index() {
+        //given
+        NameIndex index = new NameIndex(1024 * 1024);
+        index.put("1", "Leo");
+        index.put("2", "Leonard");
+
+        //when
+        index.put("1", "Robert");
+        index.remove("2");
+
+        //then
+        assertThat(index.search("leo", 10), empty());
+        assertThat(names(index.search("rob", 10)), contains("Robert"));
+        assertThat(index.size(), equalTo(1));
+    }
+
+    @Test
+    void should_find_name_when_search_given_more_names_sharing_first_token_than_candidate_cap() {
+        //given
+        NameIndex index = new NameIndex(64 * 1024 * 1024);
+        for (int i = 0; i < 600; i++) {
+            index.put(String.valueOf(i), "John Doe " + i);
+        }
+        index.put("smith", "John Smith");
+
+        //when
+        List<NameMatch> matches = index.search("john smith", 10);
+
+        //then
+        assertThat(names(matches), contains("John Smith"));
+    }
+
+    @Test
+    void should_rank_exact_match_first_when_search_given_more_prefix_matches_than_candidate_cap() {
+        //given
+        NameIndex index = new NameIndex(64 * 1024 * 1024);
+        for (int i = 0; i < 600; i++) {
+            index.put(String.valueOf(i), "John Smithson " + i);
+        }
+        index.put("smith", "John Smith");
+
+        //when
+        List<NameMatch> matches = index.search("john smith", 3);
+
+        //then
+        assertThat(matches.get(0).getName(), equalTo("John Smith"));
+    }
+
+    @Test
+    void should_refuse_new_names_when_put_given_memory_budget_exceeded() {
+        //given
+        NameIndex index = new NameIndex(400);
+        index.put("1", "Susan");
+
+        //when
+        boolean accepted = index.put("2", "A very long name that does not fit in the budget");
+
+        //then
+        assertThat(accepted, equalTo(false));
+        assertThat(index.isTruncated(), equalTo(true));
+        assertThat(names(index.search("sus", 10)), contains("Susan"));
+    }
+
+    @Test
+    void should_return_at_most_limit_matches_when_search_given_many_names() {
+        //given
+        NameIndex index = new NameIndex(1024 * 1024);
+        for (int i = 0; i < 50; i++) {
+            index.put(String.valueOf(i), "Tom " + i);
+        }
+
+        //when
+        List<NameMatch> matches = index.search("tom", 5);
+
+        //then
+        assertThat(matches.size(), equalTo(5));
+    }
+
+    private List<String> names(List<NameMatch> matches) {
+        return matches.stream().map(NameMatch::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,85 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.service.PageReadAhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PageReadAheadTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<Integer> loadedPages = Collections.synchronizedList(new ArrayList<>());
+
+    private PageReadAhead pageReadAhead;
+
+    @AfterEach
+    void shutdown() {
+        pageReadAhead.shutdown();
+    }
+
+    @Test
+    void should_serve_next_page_from_prefetch_when_read_given_sequential_client() {
+        //given
+        pageReadAhead = new PageReadAhead(meterRegistry, true, 1, 100, 1000, 60000, 16);
+        read("client-a", 1);
+        read("client-a", 2);
+
+        //when
+        List<Integer> page3 = read("client-a", 3);
+
+        //then
+        assertThat(page3, contains(5, 6));
+        // page 3 was loaded once, in the background after page 2; page 4 was prefetched after page 3
+        assertThat(new ArrayList<>(loadedPages).subList(0, 3), contains(1, 2, 3));
+        assertThat(meterRegistry.counter("readahead.pages", "listing", "employees", "result", "hit").count(), equalTo(1.0));
+        assertThat(meterRegistry.counter("readahead.pages", "listing", "employees", "result", "miss").count(), equalTo(1.0));
+    }
+
+    @Test
+    void should_reload_page_when_read_given_listing_changed_after_prefetch() {
+        //given
+        pageReadAhead = new PageReadAhead(meterRegistry, true, 1, 100, 1000, 60000, 16);
+        read("client-a", 1);
+        read("client-a", 2);
+        pageReadAhead.onEmployeeChanged(EmployeeChangedEvent.deleted("1"));
+
+        //when
+        read("client-a", 3);
+
+        //then
+        assertThat(meterRegistry.counter("readahead.pages", "listing", "employees", "result", "hit").count(), equalTo(0.0));
+        assertThat(meterRegistry.counter("readahead.pages", "listing", "employees", "result", "miss").count(), equalTo(2.0));
+    }
+
+    @Test
+    void should_not_prefetch_when_read_given_page_beyond_buffer_cap() {
+        //given
+        pageReadAhead = new PageReadAhead(meterRegistry, true, 1, 100, 1, 60000, 16);
+
+        //when
+        read("client-a", 1);
+        read("client-a", 2);
+        read("client-a", 3);
+
+        //then
+        assertThat(loadedPages, contains(1, 2, 3));
+        assertThat(meterRegistry.counter("readahead.prefetches", "listing", "employees", "outcome", "rejected").count(), equalTo(2.0));
+    }
+
+    private List<Integer> read(String client, int page) {
+        return pageReadAhead.read(PageReadAhead.EMPLOYEES, client, "null", page, 2, nextPage -> {
+            loadedPages.add(nextPage);
+            return Arrays.asList(nextPage * 2 - 1, nextPage * 2);
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.dto.EmployeeRangeQuery;
+import com.rest.springbootemployee.dto.EmployeeSortField;
+import com.rest.springbootemployee.dto.RangeCursor;
+import com.rest.springbootemployee.entity.Company;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.CompanySalaryRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeRangeRepositoryImpl;
+import com.rest.springbootemployee.repository.EmployeeSalaryRepositoryImpl;
+import com.rest.springbootemployee.repository.partitioned.MongoPartitions;
+import com.rest.springbootemployee.repository.partitioned.PartitionedCompanyRepository;
+import com.rest.springbootemployee.repository.partitioned.PartitionedEmployeeRepository;
+import com.rest.springbootemployee.repository.partitioned.PartitionedMongo;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+// three separate mongod processes, one partition each
+public class PartitionedRepositoryTest {
+    private static final int PARTITIONS = 3;
+
+    private static final List<MongodExecutable> mongods = new ArrayList<>();
+
+    private static PartitionedMongo partitionedMongo;
+
+    private static MongoPartitions<EmployeeMongoRepository> employeePartitions;
+
+    private static PartitionedEmployeeRepository employeeRepository;
+
+    private static PartitionedCompanyRepository companyRepository;
+
+    @BeforeAll
+    static void startMongods() throws IOException {
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            int port = Network.freeServerPort(Network.getLocalHost());
+            MongodExecutable mongod = MongodStarter.getDefaultInstance().prepare(MongodConfig.builder()
+                    .version(Version.Main.V6_0)
+                    .net(new Net(port, Network.localhostIsIPv6()))
+                    .build());
+            mongod.start();
+            mongods.add(mongod);
+            uris.add("mongodb://localhost:" + port + "/employee-p" + i);
+        }
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        DbRefResolver dbRefResolver = NoOpDbRefResolver.INSTANCE;
+        MappingMongoConverter converter = new MappingMongoConverter(dbRefResolver, mappingContext);
+        converter.afterPropertiesSet();
+        partitionedMongo = new PartitionedMongo(uris, converter, builder -> { }, 4);
+        employeePartitions = partitionedMongo.partitions(template ->
+                new MongoRepositoryFactory(template).getRepository(EmployeeMongoRepository.class,
+                        RepositoryComposition.RepositoryFragments.just(new EmployeeRangeRepositoryImpl(template),
+                                new EmployeeSalaryRepositoryImpl(template))));
+        employeeRepository = new PartitionedEmployeeRepository(employeePartitions);
+        companyRepository = new PartitionedCompanyRepository(partitionedMongo.partitions(template ->
+                new MongoRepositoryFactory(template).getRepository(CompanyMongoRepository.class,
+                        RepositoryComposition.RepositoryFragments.just(new CompanySalaryRepositoryImpl(template)))));
+    }
+
+    // also runs when startMongods failed part way, with no clients and only some of the mongods started
+    @AfterAll
+    static void stopMongods() {
+        try {
+            if (partitionedMongo != null) {
+                partitionedMongo.close();
+            }
+        } finally {
+            stopMongods(0);
+        }
+    }
+
+    // each stopped in the finally of the one before, so a mongod that fails to stop does not leave the rest running
+    private static void stopMongods(int from) {
+        if (from >= mongods.size()) {
+            return;
+        }
+        try {
+            mongods.get(from).stop();
+        } finally {
+            stopMongods(from + 1);
+        }
+    }
+
+    @BeforeEach
+    void cleanRepositories() {
+        employeeRepository.deleteAll();
+        companyRepository.deleteAll();
+    }
+
+    @Test
+    void should_spread_employees_and_keep_company_roster_together_when_save_given_partitions() {
+        //given
+        List<Employee> employees = employees(30);
+
+        //when
+        employeeRepository.insert(employees);
+        Company company = companyRepository.save(new Company(null, "Spring", employees.subList(0, 5)));
+
+        //then
+        assertThat(employeeRepository.count(), equalTo(30L));
+        for (int i = 0; i < PARTITIONS; i++) {
+            assertThat(employeePartitions.get(i).count(), greaterThan(0L));
+        }
+        assertThat(companyRepository.findById(company.getId()).get().getEmployees().size(), equalTo(5));
+    }
+
+    @Test
+    void should_merge_partitions_in_id_order_when_find_all_and_page_given_employees_on_every_partition() {
+        //given
+        List<Employee> employees = employees(30);
+        employeeRepository.insert(employees);
+        List<String> ids = employees.stream().map(Employee::getId).sorted().collect(Collectors.toList());
+        List<String> femaleIds = employees.stream().filter(employee -> "Female".equals(employee.getGender()))
+                .map(Employee::getId).sorted().collect(Collectors.toList());
+
+        //when
+        List<Employee> all = employeeRepository.findAll();
+        List<Employee> page = employeeRepository.findAllBy(PageRequest.of(2, 7));
+        List<Employee> femalePage = employeeRepository.findByGender("Female", PageRequest.of(1, 4));
+
+        //then
+        assertThat(idsOf(all), equalTo(ids));
+        assertThat(idsOf(page), equalTo(ids.subList(14, 21)));
+        assertThat(idsOf(employeeRepository.findByGender("Female")), equalTo(femaleIds));
+        assertThat(idsOf(femalePage), equalTo(femaleIds.subList(4, 8)));
+        assertThat(employeeRepository.countByGender("Female"), equalTo((long) femaleIds.size()));
+    }
+
+    @Test
+    void should_merge_partitions_in_id_order_when_find_all_given_example_and_page() {
+        //given
+        List<Employee> employees = employees(30);
+        employeeRepository.insert(employees);
+        List<String> femaleIds = employees.stream().filter(employee -> "Female".equals(employee.getGender()))
+                .map(Employee::getId).sorted().collect(Collectors.toList());
+        Example<Employee> females = Example.of(new Employee(null, null, null, "Female", null));
+
+        //when
+        Page<Employee> page = employeeRepository.findAll(females, PageRequest.of(1, 4));
+
+        //then
+        assertThat(idsOf(employeeRepository.findAll(females)), equalTo(femaleIds));
+        assertThat(idsOf(page.getContent()), equalTo(femaleIds.subList(4, 8)));
+        assertThat(page.getTotalElements(), equalTo((long) femaleIds.size()));
+        assertThat(employeeRepository.count(females), equalTo((long) femaleIds.size()));
+        assertThat(employeeRepository.findBy(females, query -> query.firstValue()).getId(), equalTo(femaleIds.get(0)));
+    }
+
+    @Test
+    void should_return_global_order_across_pages_when_find_by_range_given_cursor() {
+        //given
+        List<Employee> employees = employees(30);
+        employeeRepository.insert(employees);
+        EmployeeRangeQuery query = new EmployeeRangeQuery();
+        query.setSortBy("salary");
+        List<Employee> expected = new ArrayList<>(employees);
+        expected.sort((left, right) -> left.getSalary().equals(right.getSalary())
+                ? left.getId().compareTo(right.getId()) : left.getSalary().compareTo(right.getSalary()));
+
+        //when
+        List<Employee> first = employeeRepository.findByRange(query, EmployeeSortField.SALARY, null, 10);
+        Employee last = first.get(first.size() - 1);
+        List<Employee> second = employeeRepository.findByRange(query, EmployeeSortField.SALARY,
+                new RangeCursor(last.getSalary(), last.getId()), 10);
+
+        //then
+        assertThat(idsOf(first), equalTo(idsOf(expected.subList(0, 10))));
+        assertThat(idsOf(second), equalTo(idsOf(expected.subList(10, 20))));
+    }
+
+    private static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            employees.add(new Employee(new ObjectId().toString(), "employee" + i, 20 + i % 7,
+                    i % 3 == 0 ? "Female" : "Male", 1000 + (i * 37) % 500));
+        }
+        Collections.shuffle(employees);
+        return employees;
+    }
+
+    private static List<String> idsOf(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
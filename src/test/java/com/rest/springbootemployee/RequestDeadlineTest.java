@@ -0,0 +1,155 @@
+package com.rest.springbootemployee;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
+import com.rest.springbootemployee.deadline.DeadlineMongoTemplate;
+import com.rest.springbootemployee.deadline.RequestDeadline;
+import com.rest.springbootemployee.deadline.RequestDeadlineInterceptor;
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.ChangeEventMulticaster;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.exception.DeadlineExceededException;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class RequestDeadlineTest {
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_set_max_time_to_remaining_deadline_when_find_given_request_deadline() {
+        //given
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> iterable = mock(FindIterable.class);
+        when(collection.find(any(Document.class))).thenReturn(iterable);
+        MongoCollection<Document> withDeadline = DeadlineMongoTemplate.withDeadline(collection, RequestDeadline.start(5000));
+
+        //when
+        withDeadline.find(new Document("gender", "Female"));
+
+        //then
+        ArgumentCaptor<Long> maxTime = ArgumentCaptor.forClass(Long.class);
+        verify(iterable).maxTime(maxTime.capture(), eq(TimeUnit.MILLISECONDS));
+        assertThat(maxTime.getValue(), allOf(greaterThan(0L), lessThanOrEqualTo(5000L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_keep_shorter_query_max_time_when_count_given_request_deadline() {
+        //given
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        MongoCollection<Document> withDeadline = DeadlineMongoTemplate.withDeadline(collection, RequestDeadline.start(5000));
+        CountOptions shorter = new CountOptions().maxTime(100, TimeUnit.MILLISECONDS);
+        CountOptions unset = new CountOptions();
+
+        //when
+        withDeadline.countDocuments(new Document(), shorter);
+        withDeadline.countDocuments(new Document(), unset);
+
+        //then
+        assertThat(shorter.getMaxTime(TimeUnit.MILLISECONDS), equalTo(100L));
+        assertThat(unset.getMaxTime(TimeUnit.MILLISECONDS), allOf(greaterThan(100L), lessThanOrEqualTo(5000L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_not_start_operation_when_delete_given_expired_deadline() throws Exception {
+        //given
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        MongoCollection<Document> withDeadline = DeadlineMongoTemplate.withDeadline(collection, RequestDeadline.start(1));
+        Thread.sleep(5);
+
+        //when & then
+        DeadlineExceededException exception = assertThrows(DeadlineExceededException.class,
+                () -> withDeadline.deleteOne(new Document("_id", "1")));
+        assertThat(exception.getMessage(), equalTo("Request deadline of 1 ms exceeded"));
+        verifyNoInteractions(collection);
+    }
+
+    @Test
+    void should_clear_deadline_when_async_handling_started_given_event_stream_handler() throws Exception {
+        //given
+        RequestDeadlineInterceptor interceptor = new RequestDeadlineInterceptor(5000, 300000);
+        HandlerMethod handler = new HandlerMethod(this, getClass().getDeclaredMethod("stream"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees/events");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        assertThat(RequestDeadline.current(), notNullValue());
+
+        //when
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        //then
+        assertThat(RequestDeadline.current(), nullValue());
+    }
+
+    @Test
+    void should_run_every_listener_without_deadline_when_publish_given_expired_deadline_and_failing_listener() throws Exception {
+        //given
+        RequestDeadline expired = RequestDeadline.start(1);
+        Thread.sleep(5);
+        ChangeEventMulticaster multicaster = new ChangeEventMulticaster();
+        List<RequestDeadline> seen = new ArrayList<>();
+        multicaster.addApplicationListener(event -> {
+            throw new IllegalStateException("change feed unavailable");
+        });
+        multicaster.addApplicationListener(event -> seen.add(RequestDeadline.current()));
+
+        //when
+        multicaster.multicastEvent(new PayloadApplicationEvent<>(this,
+                EmployeeChangedEvent.created(new Employee("1", "Susan", 22, "Female", 10000))));
+
+        //then
+        assertThat(seen, contains(nullValue()));
+        assertThat(RequestDeadline.current(), equalTo(expired));
+    }
+
+    @Test
+    void should_fail_publisher_when_publish_given_failing_listener_and_other_event() {
+        //given
+        ChangeEventMulticaster multicaster = new ChangeEventMulticaster();
+        multicaster.addApplicationListener(event -> {
+            throw new IllegalStateException("not a change");
+        });
+
+        //when & then
+        assertThrows(IllegalStateException.class,
+                () -> multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "started")));
+    }
+
+    SseEmitter stream() {
+        return new SseEmitter();
+    }
+}
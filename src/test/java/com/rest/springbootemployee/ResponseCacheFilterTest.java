@@ -0,0 +1,145 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.cache.ResponseCache;
+import com.rest.springbootemployee.cache.ResponseCacheFilter;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ResponseCacheFilterTest {
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private String padding = "";
+
+    private final FilterChain chain = (request, response) -> {
+        String body = "[{\"name\":\"Susan" + padding + "\",\"call\":" + handled.incrementAndGet() + "}]";
+        response.setContentType("application/json");
+        ((HttpServletResponse) response).setHeader("X-Total-Count", "1");
+        response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void should_serve_stored_bytes_and_headers_when_get_given_same_query_twice() throws Exception {
+        //given
+        ResponseCache responseCache = new ResponseCache(new SimpleMeterRegistry(), 1, 64, 60000);
+        ResponseCacheFilter filter = new ResponseCacheFilter(responseCache);
+        get(filter, "/employees", "gender=Female");
+
+        //when
+        MockHttpServletResponse response = get(filter, "/employees", "gender=Female");
+
+        //then
+        assertThat(handled.get(), equalTo(1));
+        assertThat(response.getHeader("X-Cache"), equalTo("HIT"));
+        assertThat(response.getHeader("X-Total-Count"), equalTo("1"));
+        assertThat(response.getContentType(), equalTo("application/json"));
+        assertThat(response.getContentAsString(), equalTo("[{\"name\":\"Susan\",\"call\":1}]"));
+        assertThat(responseCache.getHitRatio(), equalTo(0.5));
+    }
+
+    @Test
+    void should_run_handler_again_when_get_given_employee_changed_since_cached() throws Exception {
+        //given
+        ResponseCache responseCache = new ResponseCache(new SimpleMeterRegistry(), 1, 64, 60000);
+        ResponseCacheFilter filter = new ResponseCacheFilter(responseCache);
+        get(filter, "/employees", "page=1&pageSize=2");
+        get(filter, "/companies", null);
+        responseCache.onEmployeeChanged(EmployeeChangedEvent.deleted("1"));
+
+        //when
+        MockHttpServletResponse employees = get(filter, "/employees", "page=1&pageSize=2");
+        MockHttpServletResponse companies = get(filter, "/companies", null);
+
+        //then
+        assertThat(employees.getHeader("X-Cache"), equalTo("MISS"));
+        assertThat(employees.getContentAsString(), equalTo("[{\"name\":\"Susan\",\"call\":3}]"));
+        assertThat(companies.getHeader("X-Cache"), equalTo("HIT"));
+    }
+
+    @Test
+    void should_run_handler_and_refresh_entry_when_get_given_no_cache_request() throws Exception {
+        //given
+        ResponseCache responseCache = new ResponseCache(new SimpleMeterRegistry(), 1, 64, 60000);
+        ResponseCacheFilter filter = new ResponseCacheFilter(responseCache);
+        get(filter, "/employees", "gender=Female");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees");
+        request.setQueryString("gender=Female");
+        request.addHeader("Cache-Control", "no-cache");
+        MockHttpServletResponse fresh = new MockHttpServletResponse();
+
+        //when
+        filter.doFilter(request, fresh, chain);
+
+        //then
+        assertThat(fresh.getHeader("X-Cache"), equalTo("MISS"));
+        assertThat(fresh.getContentAsString(), equalTo("[{\"name\":\"Susan\",\"call\":2}]"));
+        assertThat(get(filter, "/employees", "gender=Female").getContentAsString(),
+                equalTo("[{\"name\":\"Susan\",\"call\":2}]"));
+    }
+
+    @Test
+    void should_evict_least_recently_used_when_put_given_memory_budget_exceeded() throws Exception {
+        //given
+        ResponseCache responseCache = new ResponseCache(new SimpleMeterRegistry(), 1, 1024, 60000);
+        ResponseCacheFilter filter = new ResponseCacheFilter(responseCache);
+        padding = new String(new char[600 * 1024]).replace('\0', 'x');
+        get(filter, "/employees", "gender=Female");
+
+        //when
+        get(filter, "/employees", "gender=Male");
+
+        //then
+        assertThat(responseCache.getEntryCount(), equalTo(1));
+        assertThat(get(filter, "/employees", "gender=Male").getHeader("X-Cache"), equalTo("HIT"));
+        assertThat(get(filter, "/employees", "gender=Female").getHeader("X-Cache"), equalTo("MISS"));
+    }
+
+    @Test
+    void should_key_on_parameters_when_get_given_parameters_in_other_order_or_another_cursor() throws Exception {
+        //given
+        ResponseCache responseCache = new ResponseCache(new SimpleMeterRegistry(), 1, 64, 60000);
+        ResponseCacheFilter filter = new ResponseCacheFilter(responseCache);
+        getWithParameters(filter, "/employees", "gender", "Male", "limit", "1");
+
+        //when
+        MockHttpServletResponse reordered = getWithParameters(filter, "/employees", "limit", "1", "gender", "Male");
+        MockHttpServletResponse nextPage = getWithParameters(filter, "/employees", "gender", "Male", "limit", "1", "cursor", "abc");
+
+        //then
+        assertThat(reordered.getHeader("X-Cache"), equalTo("HIT"));
+        assertThat(nextPage.getHeader("X-Cache"), equalTo("MISS"));
+        assertThat(nextPage.getContentAsString(), equalTo("[{\"name\":\"Susan\",\"call\":2}]"));
+    }
+
+    private MockHttpServletResponse getWithParameters(ResponseCacheFilter filter, String path, String... parameters)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        for (int i = 0; i < parameters.length; i += 2) {
+            request.addParameter(parameters[i], parameters[i + 1]);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse get(ResponseCacheFilter filter, String path, String query)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(query);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
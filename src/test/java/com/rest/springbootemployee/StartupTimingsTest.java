@@ -0,0 +1,57 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.startup.StartupTimings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class StartupTimingsTest {
+    @Test
+    void should_add_up_phase_and_publish_gauge_when_time_given_phase_timed_twice() throws Exception {
+        //given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StartupTimings startupTimings = new StartupTimings(ApplicationStartup.DEFAULT, meterRegistry);
+
+        //when
+        startupTimings.time(StartupTimings.INDEX_CHECKS, () -> sleep(20));
+        startupTimings.time(StartupTimings.INDEX_CHECKS, () -> sleep(20));
+
+        //then
+        long millis = startupTimings.getPhaseMillis().get(StartupTimings.INDEX_CHECKS);
+        assertThat(millis, greaterThanOrEqualTo(40L));
+        assertThat(meterRegistry.get("startup.phase").tag("phase", StartupTimings.INDEX_CHECKS).timeGauge()
+                .value(TimeUnit.MILLISECONDS), equalTo((double) millis));
+    }
+
+    @Test
+    void should_keep_first_request_time_when_request_completed_given_later_requests() throws Exception {
+        //given
+        StartupTimings startupTimings = new StartupTimings(ApplicationStartup.DEFAULT, new SimpleMeterRegistry());
+        startupTimings.requestCompleted();
+        Long first = startupTimings.getPhaseMillis().get(StartupTimings.FIRST_REQUEST);
+
+        //when
+        Thread.sleep(20);
+        startupTimings.requestCompleted();
+
+        //then
+        assertThat(first, notNullValue());
+        assertThat(startupTimings.getPhaseMillis().get(StartupTimings.FIRST_REQUEST), equalTo(first));
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rest.springbootemployee;
+
+import com.rest.springbootemployee.entity.Employee;
+import com.rest.springbootemployee.event.EmployeeChangedEvent;
+import com.rest.springbootemployee.repository.CompanyMongoRepository;
+import com.rest.springbootemployee.repository.EmployeeMongoRepository;
+import com.rest.springbootemployee.service.TotalCountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(SpringExtension.class)
+public class TotalCountServiceTest {
+
+    @Mock
+    EmployeeMongoRepository employeeMongoRepository;
+
+    @Mock
+    CompanyMongoRepository companyMongoRepository;
+
+    @Test
+    void should_count_once_and_follow_events_when_count_employees_given_staleness_window() {
+        //given
+        TotalCountService totalCountService = new TotalCountService(employeeMongoRepository, companyMongoRepository, 60000);
+        given(employeeMongoRepository.count()).willReturn(10L);
+        given(employeeMongoRepository.countByGender("Female")).willReturn(4L);
+        totalCountService.countEmployees(null);
+        totalCountService.countEmployees("Female");
+
+        //when
+        totalCountService.onEmployeeChanged(EmployeeChangedEvent.created(new Employee("1", "Susan", 22, "Female", 10000)));
+        totalCountService.onEmployeeChanged(EmployeeChangedEvent.created(new Employee("2", "Lisa", 20, "Female", 7000)));
+        totalCountService.onEmployeeChanged(EmployeeChangedEvent.deleted("3"));
+
+        //then
+        assertThat(totalCountService.countEmployees(null), equalTo(11L));
+        verify(employeeMongoRepository, times(1)).count();
+        // a delete does not say which gender it removed, so the gender total is recounted
+        assertThat(totalCountService.countEmployees("Female"), equalTo(4L));
+        verify(employeeMongoRepository, times(2)).countByGender("Female");
+    }
+
+    @Test
+    void should_adjust_only_deleted_gender_when_count_employees_given_delete_event_with_deleted_employee() {
+        //given
+        TotalCountService totalCountService = new TotalCountService(employeeMongoRepository, companyMongoRepository, 60000);
+        given(employeeMongoRepository.count()).willReturn(10L);
+        given(employeeMongoRepository.countByGender("Female")).willReturn(4L);
+        given(employeeMongoRepository.countByGender("Male")).willReturn(6L);
+        totalCountService.countEmployees(null);
+        totalCountService.countEmployees("Female");
+        totalCountService.countEmployees("Male");
+
+        //when
+        totalCountService.onEmployeeChanged(EmployeeChangedEvent.deleted(new Employee("3", "Susan", 22, "Female", 10000)));
+
+        //then
+        assertThat(totalCountService.countEmployees(null), equalTo(9L));
+        assertThat(totalCountService.countEmployees("Female"), equalTo(3L));
+        assertThat(totalCountService.countEmployees("Male"), equalTo(6L));
+        verify(employeeMongoRepository, times(1)).countByGender("Female");
+        verify(employeeMongoRepository, times(1)).countByGender("Male");
+    }
+
+    @Test
+    void should_recount_when_count_companies_given_expired_staleness_window() {
+        //given
+        TotalCountService totalCountService = new TotalCountService(employeeMongoRepository, companyMongoRepository, 0);
+        given(companyMongoRepository.count()).willReturn(2L, 5L);
+
+        //when
+        long first = totalCountService.countCompanies();
+        long second = totalCountService.countCompanies();
+
+        //then
+        assertThat(first, equalTo(2L));
+        assertThat(second, equalTo(5L));
+    }
+}